@@ -0,0 +1,225 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import io.github.pieter12345.javaloader.core.JavaLoaderProject;
+import io.github.pieter12345.javaloader.core.JavaProject;
+import io.github.pieter12345.javaloader.core.ProjectManager;
+import io.github.pieter12345.javaloader.core.dependency.ProjectDependencyParser;
+import io.github.pieter12345.javaloader.core.exceptions.CompileException;
+import io.github.pieter12345.javaloader.core.utils.Utils;
+
+/**
+ * Generates the synthetic JavaLoader projects and jar libraries that the benchmarks and {@link ProjectFarm} run
+ * against. A generated project consists of a main class and a chain of classes in which every class calls the previous
+ * one, so that loading the main class and calling its onLoad method defines all classes of the project.
+ */
+final class BenchmarkProjects {
+	
+	private BenchmarkProjects() {
+	}
+	
+	/**
+	 * Creates a new empty projects directory in the temporary directory.
+	 * @return The projects directory.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	static File createProjectsDir() throws IOException {
+		return Files.createTempDirectory("javaloader-benchmark").toFile();
+	}
+	
+	/**
+	 * Removes the given projects directory, including all projects in it.
+	 * @param projectsDir - The projects directory, or {@code null} to do nothing.
+	 */
+	static void removeProjectsDir(File projectsDir) {
+		if(projectsDir != null) {
+			Utils.removeFile(projectsDir);
+		}
+	}
+	
+	/**
+	 * Writes a project with the given name, class count and project dependencies to the given projects directory.
+	 * This is {@link #writeProject(File, String, int, int, List, File, boolean)} with a single method per class and
+	 * no jar dependency.
+	 * @param projectsDir - The projects directory.
+	 * @param projectName - The name of the project. This is also used as package name in lower case.
+	 * @param classCount - The amount of classes besides the main class.
+	 * @param dependencies - The names of the projects that the project depends on.
+	 * @return The project directory.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	static File writeProject(File projectsDir, String projectName, int classCount, String... dependencies)
+			throws IOException {
+		return writeProject(projectsDir, projectName, classCount, 1, Arrays.asList(dependencies), null, true);
+	}
+	
+	/**
+	 * Writes a project with the given name, size and dependencies to the given projects directory.
+	 * @param projectsDir - The projects directory.
+	 * @param projectName - The name of the project. This is also used as package name in lower case.
+	 * @param classCount - The amount of classes besides the main class.
+	 * @param methodCount - The amount of methods of every class, which determines the size of the source files.
+	 * @param dependencies - The names of the projects that the project depends on.
+	 * @param jar - The jar library that the project depends on, or {@code null} for none.
+	 * @param useDependencies - Whether the main class should use the main classes of the project dependencies.
+	 * @return The project directory.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	static File writeProject(File projectsDir, String projectName, int classCount, int methodCount,
+			List<String> dependencies, File jar, boolean useDependencies) throws IOException {
+		File projectDir = new File(projectsDir, projectName);
+		String packageName = projectName.toLowerCase();
+		File packageDir = new File(projectDir, "src/" + packageName);
+		
+		// Write the classes, where the first method of every class calls the first method of the previous class.
+		for(int i = 0; i < classCount; i++) {
+			StringBuilder source = new StringBuilder();
+			source.append("package ").append(packageName).append(";\n\n");
+			source.append("public class Class").append(i).append(" {\n");
+			for(int j = 0; j < methodCount; j++) {
+				source.append("\n\tpublic static int method").append(j).append("(int x) {\n");
+				source.append("\t\tint result = x;\n");
+				source.append("\t\tfor(int i = 0; i < ").append(j + 1).append("; i++) {\n");
+				source.append("\t\t\tresult = result * 31 + i;\n");
+				source.append("\t\t}\n");
+				if(j == 0 && i > 0) {
+					source.append("\t\tresult += Class").append(i - 1).append(".method0(x);\n");
+				}
+				source.append("\t\treturn result;\n");
+				source.append("\t}\n");
+			}
+			source.append("}\n");
+			writeFile(new File(packageDir, "Class" + i + ".java"), source.toString());
+		}
+		
+		// Write the main class, using the last class and the dependencies when it is initialized. The value is computed
+		// once per class, so that initializing a project does not initialize its dependencies more than once.
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n\n");
+		source.append("public class Main extends ").append(JavaLoaderProject.class.getName()).append(" {\n\n");
+		source.append("\tprivate static final int VALUE = compute();\n\n");
+		source.append("\tpublic static int value() {\n");
+		source.append("\t\treturn VALUE;\n");
+		source.append("\t}\n\n");
+		source.append("\tprivate static int compute() {\n");
+		source.append("\t\tint result = ")
+				.append(classCount == 0 ? "0" : "Class" + (classCount - 1) + ".method0(1)").append(";\n");
+		if(useDependencies) {
+			for(String dependency : dependencies) {
+				source.append("\t\tresult += ").append(dependency.toLowerCase()).append(".Main.value();\n");
+			}
+		}
+		if(jar != null) {
+			source.append("\t\tresult += ").append(getJarPackageName(jar)).append(".Library.value();\n");
+		}
+		source.append("\t\treturn result;\n");
+		source.append("\t}\n\n");
+		source.append("\t@Override\n");
+		source.append("\tpublic void onLoad() {\n");
+		source.append("\t\tvalue();\n");
+		source.append("\t}\n\n");
+		source.append("\t@Override\n");
+		source.append("\tpublic String getVersion() {\n");
+		source.append("\t\treturn \"1.0.0\";\n");
+		source.append("\t}\n");
+		source.append("}\n");
+		writeFile(new File(packageDir, "Main.java"), source.toString());
+		
+		// Write the dependencies file.
+		StringBuilder dependenciesStr = new StringBuilder();
+		for(String dependency : dependencies) {
+			dependenciesStr.append("project ").append(dependency).append("\n");
+		}
+		if(jar != null) {
+			dependenciesStr.append("jar ").append(jar.getAbsolutePath().replace('\\', '/')).append("\n");
+		}
+		writeFile(new File(projectDir, "dependencies.txt"), dependenciesStr.toString());
+		return projectDir;
+	}
+	
+	/**
+	 * Compiles a library class with the given name and writes it to a jar file in the given directory.
+	 * @param libsDir - The directory to write the jar file to.
+	 * @param libraryName - The name of the library, used as jar file name and package name in lower case.
+	 * @return The jar file.
+	 * @throws IOException If an I/O error occurs or if the library class cannot be compiled.
+	 */
+	static File writeJar(File libsDir, String libraryName) throws IOException {
+		String packageName = libraryName.toLowerCase();
+		File tempDir = Files.createTempDirectory("javaloader-library").toFile();
+		try {
+			
+			// Compile the library class.
+			File sourceFile = new File(tempDir, "src/" + packageName + "/Library.java");
+			writeFile(sourceFile, "package " + packageName + ";\n\n"
+					+ "public class Library {\n\n"
+					+ "\tpublic static int value() {\n"
+					+ "\t\treturn " + libraryName.hashCode() + ";\n"
+					+ "\t}\n"
+					+ "}\n");
+			File binDir = new File(tempDir, "bin");
+			binDir.mkdirs();
+			JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+			if(compiler == null) {
+				throw new IOException("No java compiler available. Run on a JDK to generate jar libraries.");
+			}
+			if(compiler.run(null, null, null, "-d", binDir.getAbsolutePath(), sourceFile.getAbsolutePath()) != 0) {
+				throw new IOException("Failed to compile library: " + libraryName);
+			}
+			
+			// Write the jar file.
+			libsDir.mkdirs();
+			File jar = new File(libsDir, packageName + ".jar");
+			try(JarOutputStream outStream = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+				outStream.putNextEntry(new JarEntry(packageName + "/Library.class"));
+				outStream.write(Files.readAllBytes(new File(binDir, packageName + "/Library.class").toPath()));
+				outStream.closeEntry();
+			}
+			return jar;
+		} finally {
+			Utils.removeFile(tempDir);
+		}
+	}
+	
+	/**
+	 * Creates a project manager for the given projects directory and adds the projects in it.
+	 * @param projectsDir - The projects directory.
+	 * @return The project manager.
+	 */
+	static ProjectManager createProjectManager(File projectsDir) {
+		ProjectManager manager = new ProjectManager(projectsDir, new ProjectDependencyParser());
+		manager.addProjectsFromProjectDirectory(null);
+		return manager;
+	}
+	
+	/**
+	 * Compiles the given project to its bin directory, ignoring compiler output.
+	 * @param project - The project.
+	 * @throws CompileException If the project does not compile.
+	 */
+	static void compile(JavaProject project) throws CompileException {
+		project.compile(Writer.nullWriter());
+	}
+	
+	private static String getJarPackageName(File jar) {
+		String name = jar.getName();
+		return name.substring(0, name.length() - ".jar".length());
+	}
+	
+	private static void writeFile(File file, String content) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+	}
+}
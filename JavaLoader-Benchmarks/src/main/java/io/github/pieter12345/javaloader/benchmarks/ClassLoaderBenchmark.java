@@ -0,0 +1,98 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.pieter12345.javaloader.core.JavaProject;
+import io.github.pieter12345.javaloader.core.JavaProjectClassLoader;
+import io.github.pieter12345.javaloader.core.ProjectManager;
+
+/**
+ * Benchmarks {@link JavaProjectClassLoader#loadClass(String)} for classes that have already been loaded, classes that
+ * are provided by the parent classloader and classes that do not exist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassLoaderBenchmark {
+	
+	@Param({"10", "100", "1000"})
+	public int classCount;
+	
+	private File projectsDir;
+	private JavaProjectClassLoader classLoader;
+	private String loadedClassName;
+	private String missingProjectClassName;
+	
+	@Setup
+	public void setup() throws Exception {
+		
+		// Generate and compile the project.
+		this.projectsDir = BenchmarkProjects.createProjectsDir();
+		BenchmarkProjects.writeProject(this.projectsDir, "Bench", this.classCount);
+		ProjectManager manager = BenchmarkProjects.createProjectManager(this.projectsDir);
+		JavaProject project = manager.getProject("Bench");
+		BenchmarkProjects.compile(project);
+		
+		// Create the classloader and load a class of the project.
+		this.classLoader = new JavaProjectClassLoader(
+				JavaProjectClassLoader.class.getClassLoader(), project.getBinDir(), null);
+		this.loadedClassName = "bench.Class" + (this.classCount / 2);
+		this.missingProjectClassName = "bench.Missing";
+		this.classLoader.loadClass(this.loadedClassName);
+	}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		if(this.classLoader != null) {
+			this.classLoader.close();
+		}
+		BenchmarkProjects.removeProjectsDir(this.projectsDir);
+	}
+	
+	/**
+	 * Loads a project class that has already been loaded.
+	 */
+	@Benchmark
+	public Class<?> loadedClassHit() throws ClassNotFoundException {
+		return this.classLoader.loadClass(this.loadedClassName);
+	}
+	
+	/**
+	 * Loads a class that the parent classloader provides.
+	 */
+	@Benchmark
+	public Class<?> parentClassHit() throws ClassNotFoundException {
+		return this.classLoader.loadClass("java.lang.String");
+	}
+	
+	/**
+	 * Loads a class in a package of the project that does not exist. After the first lookup, the class is known to be
+	 * missing.
+	 */
+	@Benchmark
+	public Object projectClassMiss() {
+		try {
+			return this.classLoader.loadClass(this.missingProjectClassName);
+		} catch (ClassNotFoundException e) {
+			return e;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.io.File;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.pieter12345.javaloader.core.JavaProject;
+import io.github.pieter12345.javaloader.core.ProjectManager;
+import io.github.pieter12345.javaloader.core.exceptions.CompileException;
+
+/**
+ * Benchmarks compiling a project end-to-end, including the steps that JavaLoader performs around the java compiler.
+ * Incremental compilation and the build cache are disabled, so that every compile passes all source files to the
+ * java compiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompileBenchmark {
+	
+	@Param({"10", "100"})
+	public int classCount;
+	
+	@Param({"false", "true"})
+	public boolean inMemory;
+	
+	private File projectsDir;
+	private JavaProject project;
+	
+	@Setup
+	public void setup() throws Exception {
+		this.projectsDir = BenchmarkProjects.createProjectsDir();
+		BenchmarkProjects.writeProject(this.projectsDir, "Bench", this.classCount);
+		ProjectManager manager = BenchmarkProjects.createProjectManager(this.projectsDir);
+		manager.setIncrementalCompilation(false);
+		manager.setBuildCacheEnabled(false);
+		this.project = manager.getProject("Bench");
+	}
+	
+	@TearDown
+	public void tearDown() {
+		BenchmarkProjects.removeProjectsDir(this.projectsDir);
+	}
+	
+	/**
+	 * Compiles the project to its bin directory or to in-memory binaries, which are discarded afterwards.
+	 */
+	@Benchmark
+	public JavaProject compile() throws CompileException {
+		if(this.inMemory) {
+			this.project.compileInMemory(Writer.nullWriter());
+			this.project.discardPendingBinaries();
+		} else {
+			this.project.compile(Writer.nullWriter());
+		}
+		return this.project;
+	}
+}
@@ -0,0 +1,98 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.pieter12345.javaloader.core.JavaProject;
+import io.github.pieter12345.javaloader.core.ProjectManager;
+import io.github.pieter12345.javaloader.core.dependency.Dependency;
+import io.github.pieter12345.javaloader.core.dependency.ProjectDependencyParser;
+import io.github.pieter12345.javaloader.core.exceptions.DependencyException;
+
+/**
+ * Benchmarks {@link ProjectDependencyParser#parseDependencies(JavaProject, String)} and
+ * {@link ProjectDependencyParser#parseDependencies(JavaProject, File)} on dependencies files with project and jar
+ * dependencies, comments and empty lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependencyParserBenchmark {
+	
+	@Param({"5", "50"})
+	public int dependencyCount;
+	
+	private File projectsDir;
+	private JavaProject project;
+	private ProjectDependencyParser parser;
+	private String dependencyStr;
+	private File dependencyFile;
+	
+	@Setup
+	public void setup() throws IOException {
+		
+		// Generate the dependencies string.
+		StringBuilder dependencyStr = new StringBuilder("# Generated dependencies.\n");
+		for(int i = 0; i < this.dependencyCount; i++) {
+			if(i % 2 == 0) {
+				dependencyStr.append("project Dependency").append(i).append("\n");
+			} else {
+				dependencyStr.append("jar -provided ./libs/dependency").append(i).append(".jar // Library.\r\n");
+			}
+			if(i % 10 == 9) {
+				dependencyStr.append("\n\t\n");
+			}
+		}
+		this.dependencyStr = dependencyStr.toString();
+		
+		// Create the project and its dependencies file.
+		this.projectsDir = BenchmarkProjects.createProjectsDir();
+		BenchmarkProjects.writeProject(this.projectsDir, "Bench", 0);
+		ProjectManager manager = BenchmarkProjects.createProjectManager(this.projectsDir);
+		this.project = manager.getProject("Bench");
+		this.dependencyFile = new File(this.project.getProjectDir(), "dependencies.txt");
+		Files.writeString(this.dependencyFile.toPath(), this.dependencyStr, StandardCharsets.UTF_8);
+		this.parser = new ProjectDependencyParser();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		BenchmarkProjects.removeProjectsDir(this.projectsDir);
+	}
+	
+	/**
+	 * Tokenizes and parses the dependencies string.
+	 */
+	@Benchmark
+	public List<Dependency> parseString() throws DependencyException {
+		return this.parser.parseDependencies(this.project, this.dependencyStr);
+	}
+	
+	/**
+	 * Parses the unchanged dependencies file, of which the tokenized entries are cached after the first parse.
+	 */
+	@Benchmark
+	public List<Dependency> parseUnchangedFile() throws IOException, DependencyException {
+		return this.parser.parseDependencies(this.project, this.dependencyFile);
+	}
+}
@@ -0,0 +1,114 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.pieter12345.graph.Graph;
+
+/**
+ * Benchmarks the topological iterators of {@link Graph} and {@link Graph#getStronglyConnectedComponents()} on layered
+ * graphs in which every node has edges to a few nodes of the next layer, similar to a dependency graph of projects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+	
+	private static final int LAYER_SIZE = 10;
+	private static final int FAN_OUT = 3;
+	
+	@Param({"100", "1000", "10000"})
+	public int nodeCount;
+	
+	private Graph<Integer> acyclicGraph;
+	private Graph<Integer> cyclicGraph;
+	
+	@Setup
+	public void setup() {
+		this.acyclicGraph = createLayeredGraph(this.nodeCount, false);
+		this.cyclicGraph = createLayeredGraph(this.nodeCount, true);
+	}
+	
+	/**
+	 * Iterates over all nodes, returning parents before their children.
+	 */
+	@Benchmark
+	public void parentBeforeChildIteration(Blackhole blackhole) {
+		for(Iterator<Integer> it = this.acyclicGraph.parentBeforeChildIterator(); it.hasNext();) {
+			blackhole.consume(it.next());
+		}
+	}
+	
+	/**
+	 * Iterates over all nodes, returning children before their parents.
+	 */
+	@Benchmark
+	public void childBeforeParentIteration(Blackhole blackhole) {
+		for(Iterator<Integer> it = this.acyclicGraph.childBeforeParentIterator(); it.hasNext();) {
+			blackhole.consume(it.next());
+		}
+	}
+	
+	/**
+	 * Finds the strongly connected components of a graph without cycles.
+	 */
+	@Benchmark
+	public Set<Set<Integer>> acyclicStronglyConnectedComponents() {
+		return this.acyclicGraph.getStronglyConnectedComponents();
+	}
+	
+	/**
+	 * Finds the strongly connected components of a graph in which every tenth layer has an edge back to the previous
+	 * layer.
+	 */
+	@Benchmark
+	public Set<Set<Integer>> cyclicStronglyConnectedComponents() {
+		return this.cyclicGraph.getStronglyConnectedComponents();
+	}
+	
+	/**
+	 * Creates a graph with the given amount of nodes, divided over layers of {@link #LAYER_SIZE} nodes. Every node has
+	 * edges to {@link #FAN_OUT} nodes of the next layer.
+	 * @param nodeCount - The amount of nodes.
+	 * @param cycles - Whether every tenth layer should get an edge back to the previous layer, creating cycles.
+	 * @return The graph.
+	 */
+	private static Graph<Integer> createLayeredGraph(int nodeCount, boolean cycles) {
+		Graph<Integer> graph = new Graph<Integer>();
+		for(int node = 0; node < nodeCount; node++) {
+			graph.addNode(node);
+		}
+		for(int node = 0; node + LAYER_SIZE < nodeCount; node++) {
+			int nextLayerStart = (node / LAYER_SIZE + 1) * LAYER_SIZE;
+			for(int i = 0; i < FAN_OUT; i++) {
+				int child = nextLayerStart + (node + i) % LAYER_SIZE;
+				if(child < nodeCount) {
+					graph.addDirectedEdge(node, child);
+				}
+			}
+		}
+		if(cycles) {
+			for(int layerStart = 10 * LAYER_SIZE; layerStart < nodeCount; layerStart += 10 * LAYER_SIZE) {
+				graph.addDirectedEdge(layerStart, layerStart - LAYER_SIZE);
+			}
+		}
+		return graph;
+	}
+}
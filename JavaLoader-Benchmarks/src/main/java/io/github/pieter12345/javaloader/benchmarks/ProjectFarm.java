@@ -0,0 +1,195 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a farm of synthetic JavaLoader projects with a configurable size and dependency layout, to measure how
+ * JavaLoader scales with the amount of projects.
+ * The generated projects are:
+ * <br>- "Project0" to "Project{n-1}", where every project depends on up to {@link #setFanOut(int) fan-out} randomly
+ * chosen projects with a lower index, and every project has at most {@link #setFanIn(int) fan-in} dependents.
+ * <br>- "Diamond{k}Top", "Diamond{k}Left", "Diamond{k}Right" and "Diamond{k}Bottom" for every diamond, where the top
+ * project depends on the left and right projects, which both depend on the bottom project.
+ * <br>- "Cycle{k}A" and "Cycle{k}B" for every cycle, which depend on eachother and therefore fail to compile and load.
+ * <br>Projects use the main classes of their project dependencies and the classes of their jar dependencies, so that
+ * compiling and loading them resolves these dependencies. The layout is determined by the seed, so that generating a
+ * farm with equal settings always results in the same projects.
+ */
+public class ProjectFarm {
+	
+	private final int projectCount;
+	private int classCount = 10;
+	private int methodCount = 3;
+	private int fanOut = 2;
+	private int fanIn = Integer.MAX_VALUE;
+	private int diamondCount = 0;
+	private int cycleCount = 0;
+	private int jarCount = 0;
+	private long seed = 0;
+	
+	/**
+	 * Creates a new {@link ProjectFarm} that generates the given amount of projects, excluding diamond and cycle
+	 * projects.
+	 * @param projectCount - The amount of projects.
+	 * @throws IllegalArgumentException If the project count is negative.
+	 */
+	public ProjectFarm(int projectCount) throws IllegalArgumentException {
+		this.projectCount = requireNotNegative(projectCount, "project count");
+	}
+	
+	/**
+	 * Sets the amount of classes that every project has besides its main class. Defaults to 10.
+	 * @param classCount - The class count.
+	 * @throws IllegalArgumentException If the class count is negative.
+	 */
+	public void setClassCount(int classCount) throws IllegalArgumentException {
+		this.classCount = requireNotNegative(classCount, "class count");
+	}
+	
+	/**
+	 * Sets the amount of methods that every class has, which determines the size of the source files. Defaults to 3.
+	 * @param methodCount - The method count.
+	 * @throws IllegalArgumentException If the method count is not positive.
+	 */
+	public void setMethodCount(int methodCount) throws IllegalArgumentException {
+		if(methodCount <= 0) {
+			throw new IllegalArgumentException("The method count must be positive.");
+		}
+		this.methodCount = methodCount;
+	}
+	
+	/**
+	 * Sets the maximum amount of project dependencies of every project. Defaults to 2.
+	 * @param fanOut - The fan-out.
+	 * @throws IllegalArgumentException If the fan-out is negative.
+	 */
+	public void setFanOut(int fanOut) throws IllegalArgumentException {
+		this.fanOut = requireNotNegative(fanOut, "fan-out");
+	}
+	
+	/**
+	 * Sets the maximum amount of projects that depend on a single project. Defaults to no limit.
+	 * @param fanIn - The fan-in.
+	 * @throws IllegalArgumentException If the fan-in is negative.
+	 */
+	public void setFanIn(int fanIn) throws IllegalArgumentException {
+		this.fanIn = requireNotNegative(fanIn, "fan-in");
+	}
+	
+	/**
+	 * Sets the amount of diamonds of four projects to generate. Defaults to 0.
+	 * @param diamondCount - The diamond count.
+	 * @throws IllegalArgumentException If the diamond count is negative.
+	 */
+	public void setDiamondCount(int diamondCount) throws IllegalArgumentException {
+		this.diamondCount = requireNotNegative(diamondCount, "diamond count");
+	}
+	
+	/**
+	 * Sets the amount of cycles of two projects to generate. Defaults to 0.
+	 * @param cycleCount - The cycle count.
+	 * @throws IllegalArgumentException If the cycle count is negative.
+	 */
+	public void setCycleCount(int cycleCount) throws IllegalArgumentException {
+		this.cycleCount = requireNotNegative(cycleCount, "cycle count");
+	}
+	
+	/**
+	 * Sets the amount of jar libraries to generate. Every project depends on one of these libraries, divided round
+	 * robin over the projects. Defaults to 0.
+	 * @param jarCount - The jar count.
+	 * @throws IllegalArgumentException If the jar count is negative.
+	 */
+	public void setJarCount(int jarCount) throws IllegalArgumentException {
+		this.jarCount = requireNotNegative(jarCount, "jar count");
+	}
+	
+	/**
+	 * Sets the seed that determines the project dependencies. Defaults to 0.
+	 * @param seed - The seed.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	/**
+	 * Generates the projects in the given projects directory and the jar libraries in the given libraries directory.
+	 * @param projectsDir - The projects directory.
+	 * @param libsDir - The directory to generate the jar libraries in. This should not be the projects directory.
+	 * @return The names of the generated projects, in the order in which they were generated.
+	 * @throws IOException If an I/O error occurs or if the jar libraries cannot be compiled.
+	 */
+	public List<String> generate(File projectsDir, File libsDir) throws IOException {
+		List<String> projectNames = new ArrayList<String>();
+		
+		// Generate the jar libraries.
+		List<File> jars = new ArrayList<File>();
+		for(int i = 0; i < this.jarCount; i++) {
+			jars.add(BenchmarkProjects.writeJar(libsDir, "Library" + i));
+		}
+		
+		// Generate the projects, choosing their dependencies from the projects with a lower index.
+		Random random = new Random(this.seed);
+		int[] dependentCounts = new int[this.projectCount];
+		for(int i = 0; i < this.projectCount; i++) {
+			List<Integer> candidates = new ArrayList<Integer>();
+			for(int j = 0; j < i; j++) {
+				if(dependentCounts[j] < this.fanIn) {
+					candidates.add(j);
+				}
+			}
+			Collections.shuffle(candidates, random);
+			List<String> dependencies = new ArrayList<String>();
+			for(int j = 0; j < Math.min(this.fanOut, candidates.size()); j++) {
+				int dependency = candidates.get(j);
+				dependentCounts[dependency]++;
+				dependencies.add("Project" + dependency);
+			}
+			File jar = (jars.isEmpty() ? null : jars.get(i % jars.size()));
+			this.writeProject(projectsDir, "Project" + i, dependencies, jar, true);
+			projectNames.add("Project" + i);
+		}
+		
+		// Generate the diamonds.
+		for(int i = 0; i < this.diamondCount; i++) {
+			String name = "Diamond" + i;
+			this.writeProject(projectsDir, name + "Bottom", Collections.<String>emptyList(), null, true);
+			this.writeProject(projectsDir, name + "Left", Collections.singletonList(name + "Bottom"), null, true);
+			this.writeProject(projectsDir, name + "Right", Collections.singletonList(name + "Bottom"), null, true);
+			this.writeProject(projectsDir, name + "Top", Arrays.asList(name + "Left", name + "Right"), null, true);
+			Collections.addAll(projectNames, name + "Bottom", name + "Left", name + "Right", name + "Top");
+		}
+		
+		// Generate the cycles. Their main classes do not use eachother, since they are not expected to compile.
+		for(int i = 0; i < this.cycleCount; i++) {
+			String name = "Cycle" + i;
+			this.writeProject(projectsDir, name + "A", Collections.singletonList(name + "B"), null, false);
+			this.writeProject(projectsDir, name + "B", Collections.singletonList(name + "A"), null, false);
+			Collections.addAll(projectNames, name + "A", name + "B");
+		}
+		return projectNames;
+	}
+	
+	/**
+	 * Writes a project with the class and method count of this farm. See
+	 * {@link BenchmarkProjects#writeProject(File, String, int, int, List, File, boolean)}.
+	 */
+	private void writeProject(File projectsDir, String projectName, List<String> dependencies,
+			File jar, boolean useDependencies) throws IOException {
+		BenchmarkProjects.writeProject(projectsDir, projectName,
+				this.classCount, this.methodCount, dependencies, jar, useDependencies);
+	}
+	
+	private static int requireNotNegative(int value, String name) throws IllegalArgumentException {
+		if(value < 0) {
+			throw new IllegalArgumentException("The " + name + " cannot be negative.");
+		}
+		return value;
+	}
+}
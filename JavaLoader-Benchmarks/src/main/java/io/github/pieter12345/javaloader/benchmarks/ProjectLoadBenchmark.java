@@ -0,0 +1,72 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.pieter12345.javaloader.core.JavaProject;
+import io.github.pieter12345.javaloader.core.JavaProject.UnloadMethod;
+import io.github.pieter12345.javaloader.core.ProjectManager;
+import io.github.pieter12345.javaloader.core.exceptions.LoadException;
+import io.github.pieter12345.javaloader.core.exceptions.UnloadException;
+
+/**
+ * Benchmarks {@link JavaProject#load()} on compiled projects of different sizes. Loading includes creating the
+ * classloader of the project and defining all of its classes from the bin directory, since the generated main class
+ * uses all other classes in its onLoad method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectLoadBenchmark {
+	
+	@Param({"1", "50", "500"})
+	public int classCount;
+	
+	private File projectsDir;
+	private JavaProject project;
+	
+	@Setup
+	public void setup() throws Exception {
+		this.projectsDir = BenchmarkProjects.createProjectsDir();
+		BenchmarkProjects.writeProject(this.projectsDir, "Bench", this.classCount);
+		ProjectManager manager = BenchmarkProjects.createProjectManager(this.projectsDir);
+		this.project = manager.getProject("Bench");
+		BenchmarkProjects.compile(this.project);
+	}
+	
+	@TearDown(Level.Invocation)
+	public void unload() throws UnloadException {
+		this.project.unload(UnloadMethod.EXCEPTION_ON_LOADED_DEPENDENTS, null);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		BenchmarkProjects.removeProjectsDir(this.projectsDir);
+	}
+	
+	/**
+	 * Loads the project, which is unloaded again after every invocation.
+	 */
+	@Benchmark
+	public JavaProject load() throws LoadException {
+		this.project.load();
+		return this.project;
+	}
+}
@@ -0,0 +1,300 @@
+package io.github.pieter12345.javaloader.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import io.github.pieter12345.javaloader.core.ProjectManager;
+import io.github.pieter12345.javaloader.core.ProjectManager.RecompileFeedbackHandler;
+import io.github.pieter12345.javaloader.core.dependency.ProjectDependencyParser;
+import io.github.pieter12345.javaloader.core.exceptions.CompileException;
+import io.github.pieter12345.javaloader.core.exceptions.LoadException;
+import io.github.pieter12345.javaloader.core.exceptions.UnloadException;
+import io.github.pieter12345.javaloader.core.utils.Utils;
+
+/**
+ * Measures how JavaLoader scales with the amount of projects, by running the lifecycle of a project manager on
+ * {@link ProjectFarm project farms} of increasing size. For every farm, the wall time and the heap allocations of
+ * adding, compiling, loading, recompiling and unloading all projects are printed, together with the wall time per
+ * project, so that it shows where the costs stop growing linearly.
+ * Allocations are measured as the growth of the used heap plus the heap that was collected in between, so that
+ * allocations of the compiler threads are included. This makes them approximate, since the used heap includes
+ * partially filled allocation buffers.
+ * <br>Usage: java -cp benchmarks.jar io.github.pieter12345.javaloader.benchmarks.ScalingSuite [projectCount...]
+ */
+public class ScalingSuite {
+	
+	private static final int[] DEFAULT_PROJECT_COUNTS = {10, 20, 40, 80, 160};
+	
+	private ScalingSuite() {
+	}
+	
+	public static void main(String[] args) throws IOException {
+		
+		// Parse the project counts.
+		int[] projectCounts = DEFAULT_PROJECT_COUNTS;
+		if(args.length != 0) {
+			projectCounts = new int[args.length];
+			for(int i = 0; i < args.length; i++) {
+				try {
+					projectCounts[i] = Integer.parseInt(args[i]);
+				} catch (NumberFormatException e) {
+					projectCounts[i] = -1;
+				}
+				if(projectCounts[i] < 0) {
+					System.err.println("Invalid project count: " + args[i]);
+					System.err.println("Usage: ScalingSuite [projectCount...]");
+					System.exit(1);
+					return;
+				}
+			}
+		}
+		
+		// Warm up using the smallest farm, discarding the results.
+		AllocationMeter allocationMeter = new AllocationMeter();
+		allocationMeter.start();
+		try {
+			int minProjectCount = Integer.MAX_VALUE;
+			for(int projectCount : projectCounts) {
+				minProjectCount = Math.min(minProjectCount, projectCount);
+			}
+			run(minProjectCount, allocationMeter);
+			
+			// Measure every farm.
+			System.out.println(String.format(Locale.ROOT, "%8s  %-32s %12s %14s %12s %8s",
+					"projects", "phase", "wall time", "per project", "allocated", "errors"));
+			for(int projectCount : projectCounts) {
+				for(PhaseResult result : run(projectCount, allocationMeter)) {
+					System.out.println(String.format(Locale.ROOT, "%8d  %-32s %10.1fms %12.3fms %10.1fMB %8d",
+							projectCount, result.phase, result.nanos / 1000000d,
+							(projectCount == 0 ? 0d : result.nanos / 1000000d / projectCount),
+							result.allocatedBytes / (1024d * 1024d), result.errorCount));
+				}
+			}
+		} finally {
+			allocationMeter.stop();
+		}
+	}
+	
+	/**
+	 * Generates a farm with the given amount of projects and measures the lifecycle phases on it.
+	 * @param projectCount - The amount of projects.
+	 * @param allocationMeter - The allocation meter.
+	 * @return The results of the phases, in the order in which they were performed.
+	 * @throws IOException If an I/O error occurs while generating the farm.
+	 */
+	private static List<PhaseResult> run(int projectCount, AllocationMeter allocationMeter) throws IOException {
+		File rootDir = Files.createTempDirectory("javaloader-scaling").toFile();
+		try {
+			
+			// Generate the farm.
+			File projectsDir = new File(rootDir, "projects");
+			ProjectFarm farm = new ProjectFarm(projectCount);
+			farm.setClassCount(10);
+			farm.setMethodCount(5);
+			farm.setFanOut(3);
+			farm.setFanIn(10);
+			farm.setDiamondCount(2);
+			farm.setCycleCount(1);
+			farm.setJarCount(2);
+			farm.generate(projectsDir, new File(rootDir, "libs"));
+			
+			// Run the lifecycle phases.
+			ProjectManager manager = new ProjectManager(projectsDir, new ProjectDependencyParser());
+			ErrorCountingHandler handler = new ErrorCountingHandler();
+			List<PhaseResult> results = new ArrayList<PhaseResult>();
+			results.add(measure("add projects", allocationMeter, handler,
+					() -> manager.addProjectsFromProjectDirectory(null)));
+			results.add(measure("recompile all (cold)", allocationMeter, handler,
+					() -> manager.recompileAllProjects(handler, null)));
+			results.add(measure("unload all", allocationMeter, handler,
+					() -> manager.unloadAllProjects(handler)));
+			results.add(measure("load all", allocationMeter, handler,
+					() -> manager.loadAllProjects(handler)));
+			results.add(measure("recompile all (unchanged)", allocationMeter, handler,
+					() -> manager.recompileAllProjects(handler, null)));
+			if(projectCount > 0) {
+				Files.writeString(new File(projectsDir, "Project0/src/project0/Class0.java").toPath(),
+						"// Changed.\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+				results.add(measure("recompile all (Project0 changed)", allocationMeter, handler,
+						() -> manager.recompileAllProjects(handler, null)));
+			}
+			results.add(measure("unload all", allocationMeter, handler,
+					() -> manager.unloadAllProjects(handler)));
+			return results;
+		} finally {
+			Utils.removeFile(rootDir);
+		}
+	}
+	
+	/**
+	 * Runs the given phase and measures its wall time, heap allocations and errors.
+	 * @param phase - The name of the phase.
+	 * @param allocationMeter - The allocation meter.
+	 * @param handler - The handler that counts the errors of the phase.
+	 * @param runnable - The phase.
+	 * @return The result of the phase.
+	 */
+	private static PhaseResult measure(String phase,
+			AllocationMeter allocationMeter, ErrorCountingHandler handler, Runnable runnable) {
+		int startErrorCount = handler.errorCount;
+		long startAllocatedBytes = allocationMeter.getAllocatedBytes();
+		long startTime = System.nanoTime();
+		runnable.run();
+		long nanos = System.nanoTime() - startTime;
+		long allocatedBytes = allocationMeter.getAllocatedBytes() - startAllocatedBytes;
+		return new PhaseResult(phase, nanos, allocatedBytes, handler.errorCount - startErrorCount);
+	}
+	
+	/**
+	 * Represents the measurements of a single lifecycle phase.
+	 */
+	private static class PhaseResult {
+		private final String phase;
+		private final long nanos;
+		private final long allocatedBytes;
+		private final int errorCount;
+		
+		private PhaseResult(String phase, long nanos, long allocatedBytes, int errorCount) {
+			this.phase = phase;
+			this.nanos = nanos;
+			this.allocatedBytes = allocatedBytes;
+			this.errorCount = errorCount;
+		}
+	}
+	
+	/**
+	 * Counts the compile, load and unload exceptions and ignores compiler feedback. The generated cycles are
+	 * expected to cause errors in every phase that compiles or loads them.
+	 */
+	private static class ErrorCountingHandler implements RecompileFeedbackHandler {
+		private int errorCount = 0;
+		
+		@Override
+		public void compilerFeedback(String feedback) {
+		}
+		
+		@Override
+		public void handleCompileException(CompileException e) {
+			this.errorCount++;
+		}
+		
+		@Override
+		public void handleLoadException(LoadException e) {
+			this.errorCount++;
+		}
+		
+		@Override
+		public void handleUnloadException(UnloadException e) {
+			this.errorCount++;
+		}
+	}
+	
+	/**
+	 * Measures the total amount of heap that all threads have allocated, being the used heap plus the heap that the
+	 * garbage collectors have collected since this meter was started.
+	 */
+	private static class AllocationMeter implements NotificationListener {
+		private final Set<String> heapPoolNames = new HashSet<String>();
+		private final AtomicLong collectedBytes = new AtomicLong();
+		private final AtomicLong collectionCount = new AtomicLong();
+		private long startCollectionCount = 0;
+		
+		private AllocationMeter() {
+			for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if(pool.getType() == MemoryType.HEAP) {
+					this.heapPoolNames.add(pool.getName());
+				}
+			}
+		}
+		
+		/**
+		 * Starts listening for garbage collections.
+		 */
+		private void start() {
+			for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+				this.startCollectionCount += Math.max(bean.getCollectionCount(), 0);
+				if(bean instanceof NotificationEmitter) {
+					((NotificationEmitter) bean).addNotificationListener(this, null, null);
+				}
+			}
+		}
+		
+		/**
+		 * Stops listening for garbage collections.
+		 */
+		private void stop() {
+			for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+				if(bean instanceof NotificationEmitter) {
+					try {
+						((NotificationEmitter) bean).removeNotificationListener(this);
+					} catch (ListenerNotFoundException e) {
+						// Ignore. The listener was not added to this bean.
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Gets the total amount of allocated heap. Notifications of finished garbage collections are awaited for up
+		 * to a second, since they are delivered asynchronously.
+		 * @return The allocated heap in bytes.
+		 */
+		private long getAllocatedBytes() {
+			long deadline = System.nanoTime() + 1000000000L;
+			while(true) {
+				long collectionCount = 0;
+				for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+					collectionCount += Math.max(bean.getCollectionCount(), 0);
+				}
+				long usedBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+				if(this.collectionCount.get() >= collectionCount - this.startCollectionCount
+						|| System.nanoTime() > deadline) {
+					return usedBytes + this.collectedBytes.get();
+				}
+				Thread.onSpinWait();
+			}
+		}
+		
+		@Override
+		public void handleNotification(Notification notification, Object handback) {
+			if(!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+				return;
+			}
+			GcInfo gcInfo = GarbageCollectionNotificationInfo.from(
+					(CompositeData) notification.getUserData()).getGcInfo();
+			long collectedBytes = 0;
+			for(Map.Entry<String, MemoryUsage> entry : gcInfo.getMemoryUsageBeforeGc().entrySet()) {
+				MemoryUsage after = gcInfo.getMemoryUsageAfterGc().get(entry.getKey());
+				if(after != null && this.heapPoolNames.contains(entry.getKey())) {
+					collectedBytes += entry.getValue().getUsed() - after.getUsed();
+				}
+			}
+			this.collectedBytes.addAndGet(collectedBytes);
+			this.collectionCount.incrementAndGet();
+		}
+	}
+}
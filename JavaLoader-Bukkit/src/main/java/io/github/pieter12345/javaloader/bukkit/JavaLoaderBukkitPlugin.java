@@ -8,6 +8,7 @@ import java.lang.reflect.Method;
 import java.net.URLDecoder;
 import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -308,10 +309,16 @@ public class JavaLoaderBukkitPlugin extends JavaPlugin {
 			}
 		};
 		
-		// Initialize the command executor.
+		// Initialize the command executor. Projects are compiled asynchronously, after which they are loaded on the
+		// main thread.
 		this.commandExecutor = new CommandExecutor(this.projectManager, this.projectStateListener, null, "/javaloader",
 				this.getDescription().getAuthors(), this.getDescription().getVersion(),
-				(String str) -> colorize(str), COMPILER_FEEDBACK_LIMIT);
+				(String str) -> colorize(str), COMPILER_FEEDBACK_LIMIT,
+				(Runnable task) -> Bukkit.getScheduler().runTaskAsynchronously(this, task),
+				(Runnable task) -> Bukkit.getScheduler().runTask(this, () -> {
+					task.run();
+					this.syncCommandsIfRequired();
+				}));
 		
 		// Loop over all project directories and add them as a JavaProject.
 		this.projectManager.addProjectsFromProjectDirectory(this.projectStateListener);
@@ -338,6 +345,11 @@ public class JavaLoaderBukkitPlugin extends JavaPlugin {
 	@Override
 	public void onDisable() {
 		
+		// Stop watching for project changes.
+		if(this.commandExecutor != null) {
+			this.commandExecutor.stopWatching();
+		}
+		
 		// Unload all loaded projects and remove them from the project manager.
 		if(this.projectManager != null) {
 			this.projectManager.clear((UnloadException ex) -> {
@@ -392,6 +404,16 @@ public class JavaLoaderBukkitPlugin extends JavaPlugin {
 		}, args);
 		
 		// Sync injected commands with clients if necessary.
+		this.syncCommandsIfRequired();
+		
+		return true;
+	}
+	
+	/**
+	 * Synchronizes the commands known by Bukkit and the commands known by clients if commands have been injected or
+	 * uninjected since the last synchronization.
+	 */
+	private void syncCommandsIfRequired() {
 		for(String project : this.commandSyncCheckRequired) {
 			Set<Command> injectedCommands = this.injectedCommandsMap.get(project);
 			Set<Command> syncedCommands = this.syncedCommandsMap.get(project);
@@ -400,8 +422,6 @@ public class JavaLoaderBukkitPlugin extends JavaPlugin {
 				break;
 			}
 		}
-		
-		return true;
 	}
 	
 	/**
@@ -468,7 +488,8 @@ public class JavaLoaderBukkitPlugin extends JavaPlugin {
 		// TAB-complete "/javaloader <arg>".
 		if(args.length == 1) {
 			List<String> ret = new ArrayList<String>();
-			for(String comp : new String[] {"help", "list", "load", "unload", "recompile", "scan"}) {
+			for(String comp : new String[] {
+					"help", "list", "load", "unload", "recompile", "rollback", "report", "stats", "watch", "scan"}) {
 				if(comp.startsWith(search)) {
 					ret.add(comp);
 				}
@@ -491,8 +512,9 @@ public class JavaLoaderBukkitPlugin extends JavaPlugin {
 					.collect(Collectors.toList());
 			}
 			
-			// TAB-complete "/javaloader recompile <arg>".
-			if(args[0].equalsIgnoreCase("recompile")) {
+			// TAB-complete "/javaloader <recompile, rollback, report, stats> <arg>".
+			if(args[0].equalsIgnoreCase("recompile") || args[0].equalsIgnoreCase("rollback")
+					|| args[0].equalsIgnoreCase("report") || args[0].equalsIgnoreCase("stats")) {
 				return this.projectManager.getProjectNames().stream()
 					.filter(e -> e.toLowerCase().startsWith(search))
 					.collect(Collectors.toList());
@@ -501,13 +523,27 @@ public class JavaLoaderBukkitPlugin extends JavaPlugin {
 			// TAB-complete "/javaloader help <arg>".
 			if(args[0].equalsIgnoreCase("help")) {
 				List<String> ret = new ArrayList<String>();
-				for(String comp : new String[] {"help", "list", "recompile", "load", "unload", "scan"}) {
+				for(String comp : new String[] {
+						"help", "list", "recompile", "rollback", "report", "stats",
+						"watch", "load", "unload", "scan"}) {
 					if(comp.toLowerCase().startsWith(search)) {
 						ret.add(comp);
 					}
 				}
 				return ret;
 			}
+			
+			// TAB-complete "/javaloader watch <arg>".
+			if(args[0].equalsIgnoreCase("watch")) {
+				return Arrays.asList("on", "off").stream()
+					.filter(e -> e.startsWith(search))
+					.collect(Collectors.toList());
+			}
+		}
+		
+		// TAB-complete "/javaloader recompile <project> <arg>".
+		if(args.length == 3 && args[0].equalsIgnoreCase("recompile") && !args[1].equals("*")) {
+			return ("-d".startsWith(search) ? Collections.singletonList("-d") : Collections.<String>emptyList());
 		}
 		
 		// Subcommand without tabcompleter.
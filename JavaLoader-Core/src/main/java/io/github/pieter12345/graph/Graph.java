@@ -1,26 +1,34 @@
 package io.github.pieter12345.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Queue;
 import java.util.Set;
-import java.util.Stack;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
- * This is a directed graph implementation that stores children and parents in sets for every node object. It comes
+ * This is a directed graph implementation that stores children and parents as adjacency lists for every node. It comes
  * with a guarenteed return-parent-before-child iterator (which does not support cycles for that reason).
+ * Internally, every node is identified by an int index and its edges are stored as int adjacency lists, so that
+ * traversals do not have to hash node objects. Iterators and schedulers work on a compact (CSR) snapshot of these
+ * adjacency lists and hand out nodes in topological order using in-degree counters (Kahn's algorithm), which makes a
+ * complete iteration linear in the amount of nodes and edges.
+ * Optionally, a bitset based transitive-closure index can be enabled to answer reachability queries (ancestors,
+ * descendents and paths) without traversing the graph. See {@link #setReachabilityIndexEnabled(boolean)}.
  * @author P.J.S. Kools
  * @param <T>
  */
 public class Graph<T> implements Iterable<T> {
 	
-	private final Map<T, Node<T>> nodeMap = new HashMap<T, Node<T>>();
+	private final Map<T, Integer> indexMap = new HashMap<T, Integer>();
+	private final List<T> values = new ArrayList<T>();
+	private final List<IntList> childLists = new ArrayList<IntList>();
+	private final List<IntList> parentLists = new ArrayList<IntList>();
+	private ReachabilityIndex reachabilityIndex = null;
 	
 	/**
 	 * Creates an empty graph.
@@ -37,7 +45,7 @@ public class Graph<T> implements Iterable<T> {
 		// Add the node values to the node map.
 		if(nodeValues != null) {
 			for(T nodeVal : nodeValues) {
-				this.nodeMap.put(nodeVal, new Node<T>(nodeVal));
+				this.addNode(nodeVal);
 			}
 		}
 	}
@@ -49,8 +57,14 @@ public class Graph<T> implements Iterable<T> {
 	 * @return True if the node was added, false if a node with the given value already exists in the graph.
 	 */
 	public boolean addNode(T nodeVal) {
-		if(!this.nodeMap.containsKey(nodeVal)) {
-			this.nodeMap.put(nodeVal, new Node<T>(nodeVal));
+		if(!this.indexMap.containsKey(nodeVal)) {
+			this.indexMap.put(nodeVal, this.values.size());
+			this.values.add(nodeVal);
+			this.childLists.add(new IntList());
+			this.parentLists.add(new IntList());
+			if(this.reachabilityIndex != null) {
+				this.reachabilityIndex.addNode(this.values.size() - 1);
+			}
 			return true;
 		}
 		return false;
@@ -62,15 +76,24 @@ public class Graph<T> implements Iterable<T> {
 	 * @return True if the node was removed, false if a node with the given value did not exist in the graph.
 	 */
 	public boolean removeNode(T nodeVal) {
-		Node<T> node = this.nodeMap.get(nodeVal);
-		if(node != null) {
-			for(Node<T> child : node.getChildren()) {
-				child.getParents().remove(node);
+		Integer index = this.indexMap.remove(nodeVal);
+		if(index != null) {
+			IntList children = this.childLists.get(index);
+			for(int i = 0; i < children.size; i++) {
+				this.parentLists.get(children.values[i]).remove(index);
+			}
+			IntList parents = this.parentLists.get(index);
+			for(int i = 0; i < parents.size; i++) {
+				this.childLists.get(parents.values[i]).remove(index);
 			}
-			for(Node<T> parent : node.getParents()) {
-				parent.getChildren().remove(node);
+			
+			// Leave the index unused, so that the indices of other nodes and running iterators remain valid.
+			this.values.set(index, null);
+			this.childLists.set(index, IntList.EMPTY);
+			this.parentLists.set(index, IntList.EMPTY);
+			if(this.reachabilityIndex != null) {
+				this.reachabilityIndex.invalidate();
 			}
-			this.nodeMap.remove(nodeVal);
 			return true;
 		}
 		return false;
@@ -81,7 +104,7 @@ public class Graph<T> implements Iterable<T> {
 	 * @return The value of all nodes in the graph.
 	 */
 	public Set<T> getNodes() {
-		return new HashSet<T>(this.nodeMap.keySet());
+		return new HashSet<T>(this.indexMap.keySet());
 	}
 	
 	/**
@@ -89,7 +112,7 @@ public class Graph<T> implements Iterable<T> {
 	 * @return The number of nodes in this graph.
 	 */
 	public int size() {
-		return this.nodeMap.size();
+		return this.indexMap.size();
 	}
 	
 	/**
@@ -99,11 +122,14 @@ public class Graph<T> implements Iterable<T> {
 	 * @return True if the edge was added, false if at least one node did not exist or if the edge already exists.
 	 */
 	public boolean addDirectedEdge(T from, T to) {
-		Node<T> fromNode = nodeMap.get(from);
-		Node<T> toNode = nodeMap.get(to);
-		if(fromNode != null && toNode != null && !this.hasDirectedEdge(from, to)) {
-			fromNode.getChildren().add(toNode);
-			toNode.getParents().add(fromNode);
+		Integer fromIndex = this.indexMap.get(from);
+		Integer toIndex = this.indexMap.get(to);
+		if(fromIndex != null && toIndex != null && !this.hasDirectedEdge(fromIndex, toIndex)) {
+			this.childLists.get(fromIndex).add(toIndex);
+			this.parentLists.get(toIndex).add(fromIndex);
+			if(this.reachabilityIndex != null) {
+				this.reachabilityIndex.addEdge(fromIndex, toIndex);
+			}
 			return true;
 		}
 		return false;
@@ -116,10 +142,14 @@ public class Graph<T> implements Iterable<T> {
 	 * @return True if the edge was removed, false if the edge did not exist.
 	 */
 	public boolean removeDirectedEdge(T from, T to) {
-		Node<T> fromNode = nodeMap.get(from);
-		Node<T> toNode = nodeMap.get(to);
-		if(fromNode != null && toNode != null) {
-			return fromNode.getChildren().remove(toNode) && toNode.getParents().remove(fromNode);
+		Integer fromIndex = this.indexMap.get(from);
+		Integer toIndex = this.indexMap.get(to);
+		if(fromIndex != null && toIndex != null
+				&& this.childLists.get(fromIndex).remove(toIndex) && this.parentLists.get(toIndex).remove(fromIndex)) {
+			if(this.reachabilityIndex != null) {
+				this.reachabilityIndex.invalidate();
+			}
+			return true;
 		}
 		return false;
 	}
@@ -131,10 +161,61 @@ public class Graph<T> implements Iterable<T> {
 	 * @return True if the edge exists, false otherwise.
 	 */
 	public boolean hasDirectedEdge(T from, T to) {
-		Node<T> fromNode = nodeMap.get(from);
-		Node<T> toNode = nodeMap.get(to);
-		return fromNode != null && toNode != null
-				&& fromNode.getChildren().contains(toNode) && toNode.getParents().contains(fromNode);
+		Integer fromIndex = this.indexMap.get(from);
+		Integer toIndex = this.indexMap.get(to);
+		return fromIndex != null && toIndex != null && this.hasDirectedEdge(fromIndex, toIndex);
+	}
+	
+	private boolean hasDirectedEdge(int fromIndex, int toIndex) {
+		
+		// Search the smallest of both adjacency lists.
+		IntList children = this.childLists.get(fromIndex);
+		IntList parents = this.parentLists.get(toIndex);
+		return (children.size <= parents.size ? children.contains(toIndex) : parents.contains(fromIndex));
+	}
+	
+	/**
+	 * Checks whether the transitive-closure index of this graph is enabled.
+	 * @return {@code true} if the index is enabled, {@code false} otherwise.
+	 */
+	public boolean isReachabilityIndexEnabled() {
+		return this.reachabilityIndex != null;
+	}
+	
+	/**
+	 * Enables or disables the transitive-closure index of this graph. This index stores the ancestors and descendents
+	 * of every node as bitsets, so that {@link #getAncestors(Object)}, {@link #getDescendents(Object)} and
+	 * {@link #hasPath(Object, Object)} do not have to traverse the graph. Added nodes and edges update the index
+	 * incrementally. Removed nodes and edges cause the index to be rebuilt on the next query.
+	 * The index uses memory quadratic in the amount of nodes and is disabled by default.
+	 * @param enabled - {@code true} to enable the index, {@code false} to disable it.
+	 */
+	public void setReachabilityIndexEnabled(boolean enabled) {
+		if(!enabled) {
+			this.reachabilityIndex = null;
+		} else if(this.reachabilityIndex == null) {
+			this.reachabilityIndex = new ReachabilityIndex();
+		}
+	}
+	
+	/**
+	 * Checks whether there is a path of directed edges from the given node to the given node. Every node has a path to
+	 * itself.
+	 * @param from - The from node value.
+	 * @param to - The to node value.
+	 * @return True if the to node is a descendent of the from node, false otherwise.
+	 * @throws IllegalArgumentException If one of the nodes is not part of the graph.
+	 */
+	public boolean hasPath(T from, T to) throws IllegalArgumentException {
+		Integer fromIndex = this.indexMap.get(from);
+		Integer toIndex = this.indexMap.get(to);
+		if(fromIndex == null || toIndex == null) {
+			throw new IllegalArgumentException("Node has to be part of the graph.");
+		}
+		if(this.reachabilityIndex != null) {
+			return ReachabilityIndex.get(this.reachabilityIndex.getDescendents()[fromIndex], toIndex);
+		}
+		return this.getDescendents(from).contains(to);
 	}
 	
 	@Override
@@ -147,11 +228,11 @@ public class Graph<T> implements Iterable<T> {
 	}
 	
 	public ParentBeforeChildGraphIterator<T> parentBeforeChildIterator(T startNode) {
-		Node<T> node = this.nodeMap.get(startNode);
-		if(node == null) {
+		Integer index = this.indexMap.get(startNode);
+		if(index == null) {
 			throw new IllegalArgumentException("Root has to be part of the graph.");
 		}
-		return new ParentBeforeChildGraphIterator<T>(this, node);
+		return new ParentBeforeChildGraphIterator<T>(this, index);
 	}
 	
 	public ChildBeforeParentGraphIterator<T> childBeforeParentIterator() {
@@ -159,11 +240,15 @@ public class Graph<T> implements Iterable<T> {
 	}
 	
 	public ChildBeforeParentGraphIterator<T> childBeforeParentIterator(T startNode) {
-		Node<T> node = this.nodeMap.get(startNode);
-		if(node == null) {
+		Integer index = this.indexMap.get(startNode);
+		if(index == null) {
 			throw new IllegalArgumentException("Root has to be part of the graph.");
 		}
-		return new ChildBeforeParentGraphIterator<T>(this, node);
+		return new ChildBeforeParentGraphIterator<T>(this, index);
+	}
+	
+	public ChildBeforeParentGraphScheduler<T> childBeforeParentScheduler() {
+		return new ChildBeforeParentGraphScheduler<T>(this);
 	}
 	
 	/**
@@ -173,46 +258,52 @@ public class Graph<T> implements Iterable<T> {
 	 * @return A set of all strongly connected components.
 	 */
 	public Set<Set<T>> getStronglyConnectedComponents() {
+		int capacity = this.values.size();
+		Adjacency children = new Adjacency(this.childLists);
+		Adjacency parents = new Adjacency(this.parentLists);
 		
 		// Perform depth-first iteration, adding completely handled nodes to a result stack.
-		Stack<Node<T>> resultStack = new Stack<Node<T>>();
+		IntList resultStack = new IntList();
 		{
 			// Create a stack and add all nodes to it.
-			Stack<Node<T>> stack = new Stack<Node<T>>();
-			stack.addAll(this.nodeMap.values());
+			IntList stack = new IntList();
+			for(int index : this.indexMap.values()) {
+				stack.add(index);
+			}
 			
 			// Create a stack to detect when a node its children have been handled.
-			Stack<Node<T>> handleStack = new Stack<Node<T>>();
+			IntList handleStack = new IntList();
 			
 			// Perform the depth-first iteration.
-			Set<Node<T>> visited = new HashSet<Node<T>>();
-			while(!stack.empty()) {
+			boolean[] visited = new boolean[capacity];
+			while(stack.size != 0) {
 				
 				// Get the next node.
-				Node<T> node = stack.peek();
+				int node = stack.peek();
 				
 				// Push the node to the resultStack if all its children have been handled.
-				if(!handleStack.empty() && handleStack.peek() == node) {
+				if(handleStack.size != 0 && handleStack.peek() == node) {
 					handleStack.pop();
 					stack.pop();
-					resultStack.push(node);
+					resultStack.add(node);
 					continue;
 				}
 				
 				// Mark the next node as visited or skip it if it has been visited already.
-				if(!visited.add(node)) {
+				if(visited[node]) {
 					stack.pop();
 					continue;
 				}
+				visited[node] = true;
 				
 				// Add the node to the handleStack to be able to push it to the resultStack once its children
 				// have been handled.
-				handleStack.push(node);
+				handleStack.add(node);
 				
 				// Add all children if they have not yet been visited.
-				for(Node<T> child : node.getChildren()) {
-					if(!visited.contains(child)) {
-						stack.push(child);
+				for(int i = children.offsets[node]; i < children.offsets[node + 1]; i++) {
+					if(!visited[children.targets[i]]) {
+						stack.add(children.targets[i]);
 					}
 				}
 			}
@@ -223,14 +314,15 @@ public class Graph<T> implements Iterable<T> {
 		Set<Set<T>> sccsSet = new HashSet<Set<T>>();
 		{
 			// Perform the depth-first iteration, starting at every node in the resultStack.
-			Set<Node<T>> visited = new HashSet<Node<T>>();
-			while(!resultStack.empty()) {
+			boolean[] visited = new boolean[capacity];
+			IntList stack = new IntList();
+			while(resultStack.size != 0) {
 				
 				// Get the next start node.
-				Node<T> startNode = resultStack.pop();
+				int startNode = resultStack.pop();
 				
 				// Skip the node if it has been visited already.
-				if(visited.contains(startNode)) {
+				if(visited[startNode]) {
 					continue;
 				}
 				
@@ -238,25 +330,25 @@ public class Graph<T> implements Iterable<T> {
 				Set<T> sccSet = new HashSet<T>();
 				
 				// Perform the depth-first iteration from the startNode, using the 'global' visited set.
-				Stack<Node<T>> stack = new Stack<Node<T>>();
-				stack.push(startNode);
-				while(!stack.empty()) {
+				stack.add(startNode);
+				while(stack.size != 0) {
 					
 					// Get the next node.
-					Node<T> node = stack.pop();
+					int node = stack.pop();
 					
 					// Mark the next node as visited or skip it if it has been visited already.
-					if(!visited.add(node)) {
+					if(visited[node]) {
 						continue;
 					}
+					visited[node] = true;
 					
 					// Add the node value to the strongly connected component set.
-					sccSet.add(node.get());
+					sccSet.add(this.values.get(node));
 					
 					// Add all parents if they have not yet been visited.
-					for(Node<T> parent : node.getParents()) {
-						if(!visited.contains(parent)) {
-							stack.push(parent);
+					for(int i = parents.offsets[node]; i < parents.offsets[node + 1]; i++) {
+						if(!visited[parents.targets[i]]) {
+							stack.add(parents.targets[i]);
 						}
 					}
 				}
@@ -271,203 +363,473 @@ public class Graph<T> implements Iterable<T> {
 	}
 	
 	public Set<T> getAncestors(T forNode) {
+		if(this.reachabilityIndex != null) {
+			return this.getReachable(forNode, this.reachabilityIndex.getAncestors());
+		}
+		return this.getReachable(forNode, this.parentLists);
+	}
+	
+	public Set<T> getDescendents(T forNode) {
+		if(this.reachabilityIndex != null) {
+			return this.getReachable(forNode, this.reachabilityIndex.getDescendents());
+		}
+		return this.getReachable(forNode, this.childLists);
+	}
+	
+	/**
+	 * Gets the node values in the given row of the transitive-closure index.
+	 * @param forNode - The node value.
+	 * @param rows - The ancestor or descendent rows of the transitive-closure index.
+	 * @return The node values, including the given node value.
+	 */
+	private Set<T> getReachable(T forNode, long[][] rows) {
+		Integer index = this.indexMap.get(forNode);
+		if(index == null) {
+			throw new IllegalArgumentException("Node has to be part of the graph.");
+		}
+		Set<T> reachable = new HashSet<T>();
+		long[] row = rows[index];
+		for(int word = 0; word < row.length; word++) {
+			for(long bits = row[word]; bits != 0; bits &= bits - 1) {
+				reachable.add(this.values.get((word << 6) + Long.numberOfTrailingZeros(bits)));
+			}
+		}
+		return reachable;
+	}
+	
+	/**
+	 * Gets the given node and all nodes that are reachable from it through the given adjacency lists.
+	 * @param forNode - The node value.
+	 * @param adjacencyLists - The adjacency lists to follow (children or parents).
+	 * @return The reachable node values, including the given node value.
+	 */
+	private Set<T> getReachable(T forNode, List<IntList> adjacencyLists) {
 		
-		// Get the actual node object.
-		Node<T> node = this.nodeMap.get(forNode);
-		if(node == null) {
+		// Get the node index.
+		Integer index = this.indexMap.get(forNode);
+		if(index == null) {
 			throw new IllegalArgumentException("Node has to be part of the graph.");
 		}
 		
-		// Get the ancestors using depth-first iteration.
-		Set<Node<T>> ancestorNodes = new HashSet<Node<T>>();
-		Stack<Node<T>> stack = new Stack<Node<T>>();
-		stack.push(node);
-		while(!stack.empty()) {
-			node = stack.pop();
-			ancestorNodes.add(node);
-			for(Node<T> parent : node.getParents()) {
-				if(!ancestorNodes.contains(parent)) {
-					stack.push(parent);
+		// Get the reachable nodes using depth-first iteration.
+		boolean[] visited = new boolean[this.values.size()];
+		Set<T> reachable = new HashSet<T>();
+		IntList stack = new IntList();
+		stack.add(index);
+		visited[index] = true;
+		while(stack.size != 0) {
+			int node = stack.pop();
+			reachable.add(this.values.get(node));
+			IntList adjacent = adjacencyLists.get(node);
+			for(int i = 0; i < adjacent.size; i++) {
+				if(!visited[adjacent.values[i]]) {
+					visited[adjacent.values[i]] = true;
+					stack.add(adjacent.values[i]);
 				}
 			}
 		}
-		
-		// Return the nodes converted to values.
-		Set<T> ancestors = new HashSet<T>();
-		for(Node<T> ancestorNode : ancestorNodes) {
-			ancestors.add(ancestorNode.get());
-		}
-		return ancestors;
+		return reachable;
 	}
 	
-	public Set<T> getDescendents(T forNode) {
+	/**
+	 * A growable list of ints, used for adjacency lists, stacks and queues.
+	 */
+	private static class IntList {
+		private static final IntList EMPTY = new IntList();
+		private int[] values = new int[4];
+		private int size = 0;
 		
-		// Get the actual node object.
-		Node<T> node = this.nodeMap.get(forNode);
-		if(node == null) {
-			throw new IllegalArgumentException("Node has to be part of the graph.");
+		private void add(int value) {
+			if(this.size == this.values.length) {
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			this.values[this.size++] = value;
+		}
+		
+		private boolean contains(int value) {
+			for(int i = 0; i < this.size; i++) {
+				if(this.values[i] == value) {
+					return true;
+				}
+			}
+			return false;
 		}
 		
-		// Get the descendents using depth-first iteration.
-		Set<Node<T>> descendentNodes = new HashSet<Node<T>>();
-		Stack<Node<T>> stack = new Stack<Node<T>>();
-		stack.push(node);
-		while(!stack.empty()) {
-			node = stack.pop();
-			descendentNodes.add(node);
-			for(Node<T> child : node.getChildren()) {
-				if(!descendentNodes.contains(child)) {
-					stack.push(child);
+		private boolean remove(int value) {
+			for(int i = 0; i < this.size; i++) {
+				if(this.values[i] == value) {
+					this.values[i] = this.values[--this.size];
+					return true;
 				}
 			}
+			return false;
+		}
+		
+		private int peek() {
+			return this.values[this.size - 1];
 		}
 		
-		// Return the nodes converted to values.
-		Set<T> descendents = new HashSet<T>();
-		for(Node<T> descendentNode : descendentNodes) {
-			descendents.add(descendentNode.get());
+		private int pop() {
+			return this.values[--this.size];
 		}
-		return descendents;
 	}
 	
 	/**
-	 * Represents a node in a graph. This node contains a parent and child set for direct references to parent
-	 * and child nodes.
-	 * @author P.J.S. Kools
-	 * @param <T>
+	 * A transitive-closure index, storing the descendents and ancestors (including the node itself) of every node in
+	 * the graph as bitsets indexed by node index.
 	 */
-	private static class Node<T> {
-		private final T value;
-		private Set<Node<T>> parents = new HashSet<Node<T>>();
-		private Set<Node<T>> children = new HashSet<Node<T>>();
-		public Node(T value) {
-			this.value = value;
+	private class ReachabilityIndex {
+		private long[][] descendents = null;
+		private long[][] ancestors = null;
+		
+		/**
+		 * Gets the descendent bitsets, rebuilding the index if it has been invalidated.
+		 * @return The descendent bitsets by node index.
+		 */
+		private long[][] getDescendents() {
+			if(this.descendents == null) {
+				this.rebuild();
+			}
+			return this.descendents;
+		}
+		
+		/**
+		 * Gets the ancestor bitsets, rebuilding the index if it has been invalidated.
+		 * @return The ancestor bitsets by node index.
+		 */
+		private long[][] getAncestors() {
+			if(this.ancestors == null) {
+				this.rebuild();
+			}
+			return this.ancestors;
 		}
-		public T get() {
-			return this.value;
+		
+		private void invalidate() {
+			this.descendents = null;
+			this.ancestors = null;
 		}
-		public Set<Node<T>> getParents() {
-			return this.parents;
+		
+		private void addNode(int index) {
+			if(this.descendents != null) {
+				
+				// Invalidate the index when its bitsets are too small to hold the new node.
+				if(index >= this.descendents.length || index >= this.descendents[0].length << 6) {
+					this.invalidate();
+					return;
+				}
+				set(this.descendents[index], index);
+				set(this.ancestors[index], index);
+			}
 		}
-		public Set<Node<T>> getChildren() {
-			return this.children;
+		
+		private void addEdge(int fromIndex, int toIndex) {
+			if(this.descendents == null || get(this.descendents[fromIndex], toIndex)) {
+				return; // The index is rebuilt later or the edge does not add new paths.
+			}
+			
+			// All ancestors of the from node can now reach all descendents of the to node. The descendents of the to
+			// node and the ancestors of the from node do not change while doing this, even when a cycle is created.
+			long[] toDescendents = this.descendents[toIndex];
+			long[] fromAncestors = this.ancestors[fromIndex];
+			for(int word = 0; word < fromAncestors.length; word++) {
+				for(long bits = fromAncestors[word]; bits != 0; bits &= bits - 1) {
+					or(this.descendents[(word << 6) + Long.numberOfTrailingZeros(bits)], toDescendents);
+				}
+			}
+			for(int word = 0; word < toDescendents.length; word++) {
+				for(long bits = toDescendents[word]; bits != 0; bits &= bits - 1) {
+					or(this.ancestors[(word << 6) + Long.numberOfTrailingZeros(bits)], fromAncestors);
+				}
+			}
+		}
+		
+		/**
+		 * Rebuilds the index from the adjacency lists, leaving room for nodes that are added later.
+		 */
+		private void rebuild() {
+			int size = Graph.this.values.size();
+			int capacity = Math.max(64, size + (size >> 1));
+			int words = (capacity + 63) >>> 6;
+			this.descendents = new long[capacity][words];
+			this.ancestors = new long[capacity][words];
+			
+			// Get the nodes in depth-first post order, so that children are mostly handled before their parents.
+			IntList order = new IntList();
+			boolean[] visited = new boolean[size];
+			IntList stack = new IntList();
+			IntList childInds = new IntList();
+			for(int root : Graph.this.indexMap.values()) {
+				if(visited[root]) {
+					continue;
+				}
+				visited[root] = true;
+				stack.add(root);
+				childInds.add(0);
+				while(stack.size != 0) {
+					int node = stack.peek();
+					IntList children = Graph.this.childLists.get(node);
+					int childInd = childInds.pop();
+					if(childInd < children.size) {
+						childInds.add(childInd + 1);
+						int child = children.values[childInd];
+						if(!visited[child]) {
+							visited[child] = true;
+							stack.add(child);
+							childInds.add(0);
+						}
+					} else {
+						stack.pop();
+						order.add(node);
+					}
+				}
+			}
+			
+			// Compute the descendents. One pass suffices for acyclic graphs, cycles are resolved by repeating it.
+			for(int i = 0; i < order.size; i++) {
+				set(this.descendents[order.values[i]], order.values[i]);
+			}
+			boolean changed = true;
+			while(changed) {
+				changed = false;
+				for(int i = 0; i < order.size; i++) {
+					int node = order.values[i];
+					IntList children = Graph.this.childLists.get(node);
+					for(int j = 0; j < children.size; j++) {
+						changed |= or(this.descendents[node], this.descendents[children.values[j]]);
+					}
+				}
+			}
+			
+			// Compute the ancestors by transposing the descendents.
+			for(int node = 0; node < size; node++) {
+				long[] row = this.descendents[node];
+				for(int word = 0; word < row.length; word++) {
+					for(long bits = row[word]; bits != 0; bits &= bits - 1) {
+						set(this.ancestors[(word << 6) + Long.numberOfTrailingZeros(bits)], node);
+					}
+				}
+			}
+		}
+		
+		private static boolean get(long[] bitset, int index) {
+			return (bitset[index >>> 6] & (1L << index)) != 0;
+		}
+		
+		private static void set(long[] bitset, int index) {
+			bitset[index >>> 6] |= 1L << index;
+		}
+		
+		/**
+		 * Adds all bits of the source bitset to the target bitset.
+		 * @param target - The target bitset.
+		 * @param source - The source bitset.
+		 * @return {@code true} if the target bitset changed, {@code false} otherwise.
+		 */
+		private static boolean or(long[] target, long[] source) {
+			boolean changed = false;
+			for(int word = 0; word < target.length; word++) {
+				long bits = target[word] | source[word];
+				if(bits != target[word]) {
+					target[word] = bits;
+					changed = true;
+				}
+			}
+			return changed;
 		}
 	}
 	
 	/**
-	 * An Iterator implementation that returns the elements in a graph in a 'breadth-first-like', but slightly
-	 * different order:
-	 * <ul>
-	 * <li>All nodes without parents are added to the queue and are guarenteed to be returned first.</li>
-	 * <li>When a node is returned, its children are added to the queue if and only if all their parents have been
-	 *   handled.</li>
-	 * </ul>
-	 * This implementation guarentees that parent nodes are returned before their children, even when multiple
-	 * root nodes exist.
-	 * If the graph contains a cycle, all nodes within the cycle and their descendents are skipped without notice.
-	 * @author P.J.S. Kools
+	 * A compressed sparse row (CSR) snapshot of adjacency lists. The nodes adjacent to node i are stored in
+	 * targets[offsets[i]] to targets[offsets[i + 1]] (exclusive).
+	 */
+	private static class Adjacency {
+		private final int[] offsets;
+		private final int[] targets;
+		
+		private Adjacency(List<IntList> adjacencyLists) {
+			this.offsets = new int[adjacencyLists.size() + 1];
+			for(int i = 0; i < adjacencyLists.size(); i++) {
+				this.offsets[i + 1] = this.offsets[i] + adjacencyLists.get(i).size;
+			}
+			this.targets = new int[this.offsets[adjacencyLists.size()]];
+			for(int i = 0; i < adjacencyLists.size(); i++) {
+				IntList adjacent = adjacencyLists.get(i);
+				System.arraycopy(adjacent.values, 0, this.targets, this.offsets[i], adjacent.size);
+			}
+		}
+	}
+	
+	/**
+	 * An Iterator implementation that hands out the nodes of a graph in topological order, based on a snapshot of the
+	 * graph. A node is handed out once all of its predecessors have been handed out. Nodes in a cycle never reach that
+	 * point, so they and all nodes that follow them are skipped without notice.
 	 * @param <T>
 	 */
-	public static class ParentBeforeChildGraphIterator<T> implements Iterator<T> {
+	private abstract static class TopologicalGraphIterator<T> implements Iterator<T> {
+		
+		// Node states.
+		private static final byte WAITING = 0;
+		private static final byte QUEUED = 1;
+		private static final byte RETURNED = 2;
+		private static final byte REMOVED = 3;
 		
 		private final Graph<T> graph;
-		private Queue<Node<T>> nodeQueue = new LinkedBlockingQueue<Node<T>>();
-		private Set<Node<T>> visited = new HashSet<Node<T>>();
-		private Node<T> last = null;
+		private final Adjacency successors;
+		private final int[] remainingPredecessors;
+		private final byte[] states;
+		private final int[] queue;
+		private int queueHead = 0;
+		private int queueTail = 0;
+		private int last = -1;
 		
-		public ParentBeforeChildGraphIterator(Graph<T> graph) {
+		/**
+		 * Creates a new TopologicalGraphIterator.
+		 * @param graph - The graph to iterate over.
+		 * @param successorLists - The adjacency lists of nodes that follow a node.
+		 * @param predecessorLists - The adjacency lists of nodes that precede a node.
+		 * @param rootIndex - The index of the node to start iteration at, or -1 to start at all nodes without
+		 * predecessors.
+		 */
+		private TopologicalGraphIterator(Graph<T> graph,
+				List<IntList> successorLists, List<IntList> predecessorLists, int rootIndex) {
 			this.graph = graph;
-			for(Node<T> node : this.graph.nodeMap.values()) {
-				if(node.getParents().isEmpty()) {
-					this.nodeQueue.offer(node);
+			this.successors = new Adjacency(successorLists);
+			int capacity = graph.values.size();
+			this.remainingPredecessors = new int[capacity];
+			this.states = new byte[capacity];
+			this.queue = new int[capacity];
+			for(int i = 0; i < capacity; i++) {
+				this.remainingPredecessors[i] = predecessorLists.get(i).size;
+			}
+			if(rootIndex == -1) {
+				for(int index : graph.indexMap.values()) {
+					if(this.remainingPredecessors[index] == 0) {
+						this.enqueue(index);
+					}
 				}
+			} else {
+				this.enqueue(rootIndex);
 			}
 		}
 		
-		/**
-		 * Creates a new ParentBeforeChildGraphIterator that starts at the given rootNode.
-		 * @param graph - The graph to (partially) iterate over.
-		 * @param rootNode - The root node to start iteration at.
-		 */
-		private ParentBeforeChildGraphIterator(Graph<T> graph, Node<T> rootNode) {
-			this.graph = graph;
-			this.nodeQueue.offer(rootNode);
+		private void enqueue(int index) {
+			this.states[index] = QUEUED;
+			this.queue[this.queueTail++] = index;
 		}
 		
 		@Override
 		public boolean hasNext() {
-			return !this.nodeQueue.isEmpty();
+			
+			// Skip nodes that have been removed while they were queued.
+			while(this.queueHead < this.queueTail && this.states[this.queue[this.queueHead]] == REMOVED) {
+				this.queueHead++;
+			}
+			return this.queueHead < this.queueTail;
 		}
 		
 		@Override
 		public T next() {
 			
 			// Get and remove the next node from the queue. Throw an exception if this is not available.
-			Node<T> nextNode = this.nodeQueue.poll();
-			if(nextNode == null) {
+			if(!this.hasNext()) {
 				throw new NoSuchElementException("Iterator has no more elements.");
 			}
+			int nextNode = this.queue[this.queueHead++];
+			this.states[nextNode] = RETURNED;
 			
-			// Mark the node as visited.
-			this.visited.add(nextNode);
-			
-			// Add all children to the queue if they have not been handled and have no unhandled parents left.
-			for(Node<T> child : nextNode.getChildren()) {
-				if(!this.visited.contains(child)) {
-					if(this.visited.containsAll(child.getParents())) {
-						this.nodeQueue.offer(child);
-					}
+			// Add all successors to the queue if they have not been handled and have no unhandled predecessors left.
+			for(int i = this.successors.offsets[nextNode]; i < this.successors.offsets[nextNode + 1]; i++) {
+				int successor = this.successors.targets[i];
+				if(--this.remainingPredecessors[successor] == 0 && this.states[successor] == WAITING) {
+					this.enqueue(successor);
 				}
 			}
 			
 			// Store and return the next node.
 			this.last = nextNode;
-			return nextNode.get();
+			return this.graph.values.get(nextNode);
 		}
 		
 		/**
-		 * Removes all descendents of the last returned node from the graph. This is the last returned node and all its
-		 * direct and indirect children. The values of the removed nodes will be returned in breath-first iteration
-		 * order. If this method is called before the next() method has been called, null will be returned.
-		 * @return The removed nodes in breadth-first iteration order or null if no nodes were removed.
+		 * Removes the last returned node and all nodes that directly or indirectly follow it from the graph.
+		 * @return The removed nodes in breadth-first iteration order or null if next() has not been called yet.
 		 */
-		public List<T> removeDescendents() {
+		protected List<T> removeSuccessors() {
 			
 			// Return null if the 'next()' method hasn't been called yet.
-			if(this.last == null) {
+			if(this.last == -1) {
 				return null;
 			}
 			
-			// Remove the 'last' node from the 'visited' set since it will be removed.
-			this.visited.remove(this.last);
-			
-			// Remove all children of 'last' from the queue if they were added, we won't have to visit them anymore.
-			this.nodeQueue.removeAll(this.last.getChildren());
-			
 			// Perform breadth-first iteration, adding all removed node values to a list to return.
-			Queue<Node<T>> queue = new LinkedBlockingQueue<Node<T>>();
-			queue.offer(this.last);
+			// Removed nodes that are still queued are skipped by the iterator.
 			List<T> removed = new ArrayList<T>();
-			while(!queue.isEmpty()) {
-				
-				// Get the next node from the queue.
-				Node<T> node = queue.poll();
-				
-				// Add all its children to the queue.
-				for(Node<T> child : node.getChildren()) {
-					if(node != child) { // This is the only possible cycle because all visited nodes are removed.
-						queue.offer(child);
+			if(this.states[this.last] == REMOVED) {
+				return removed;
+			}
+			IntList queue = new IntList();
+			queue.add(this.last);
+			this.states[this.last] = REMOVED;
+			for(int queueInd = 0; queueInd < queue.size; queueInd++) {
+				int node = queue.values[queueInd];
+				for(int i = this.successors.offsets[node]; i < this.successors.offsets[node + 1]; i++) {
+					int successor = this.successors.targets[i];
+					if(this.states[successor] != REMOVED) {
+						this.states[successor] = REMOVED;
+						queue.add(successor);
 					}
 				}
 				
 				// Remove the node from the graph and add it to the removal list.
-				this.graph.removeNode(node.get());
-				removed.add(node.get());
+				T value = this.graph.values.get(node);
+				this.graph.removeNode(value);
+				removed.add(value);
 			}
 			
 			// Return the removed values.
 			return removed;
 		}
+	}
+	
+	/**
+	 * An Iterator implementation that returns the elements in a graph in a 'breadth-first-like', but slightly
+	 * different order:
+	 * <ul>
+	 * <li>All nodes without parents are added to the queue and are guarenteed to be returned first.</li>
+	 * <li>When a node is returned, its children are added to the queue if and only if all their parents have been
+	 *   handled.</li>
+	 * </ul>
+	 * This implementation guarentees that parent nodes are returned before their children, even when multiple
+	 * root nodes exist.
+	 * If the graph contains a cycle, all nodes within the cycle and their descendents are skipped without notice.
+	 * The iterator works on a snapshot of the edges in the graph at the time that it was created.
+	 * @author P.J.S. Kools
+	 * @param <T>
+	 */
+	public static class ParentBeforeChildGraphIterator<T> extends TopologicalGraphIterator<T> {
+		
+		public ParentBeforeChildGraphIterator(Graph<T> graph) {
+			super(graph, graph.childLists, graph.parentLists, -1);
+		}
+		
+		/**
+		 * Creates a new ParentBeforeChildGraphIterator that starts at the given root node.
+		 * @param graph - The graph to (partially) iterate over.
+		 * @param rootIndex - The index of the root node to start iteration at.
+		 */
+		private ParentBeforeChildGraphIterator(Graph<T> graph, int rootIndex) {
+			super(graph, graph.childLists, graph.parentLists, rootIndex);
+		}
+		
+		/**
+		 * Removes all descendents of the last returned node from the graph. This is the last returned node and all its
+		 * direct and indirect children. The values of the removed nodes will be returned in breath-first iteration
+		 * order. If this method is called before the next() method has been called, null will be returned.
+		 * @return The removed nodes in breadth-first iteration order or null if no nodes were removed.
+		 */
+		public List<T> removeDescendents() {
+			return this.removeSuccessors();
+		}
 		
 	}
 	
@@ -482,109 +844,179 @@ public class Graph<T> implements Iterable<T> {
 	 * This implementation guarentees that child nodes are returned before their parents, even when multiple root nodes
 	 * exist.
 	 * If the graph contains a cycle, all nodes within the cycle and their ancestors are skipped without notice.
+	 * The iterator works on a snapshot of the edges in the graph at the time that it was created.
 	 * @author P.J.S. Kools
 	 * @param <T>
 	 */
-	public static class ChildBeforeParentGraphIterator<T> implements Iterator<T> {
+	public static class ChildBeforeParentGraphIterator<T> extends TopologicalGraphIterator<T> {
+		
+		public ChildBeforeParentGraphIterator(Graph<T> graph) {
+			super(graph, graph.parentLists, graph.childLists, -1);
+		}
+		
+		/**
+		 * Creates a new ChildBeforeParentGraphIterator that starts at the given root node.
+		 * @param graph - The graph to (partially) iterate over.
+		 * @param rootIndex - The index of the root node to start iteration at.
+		 */
+		private ChildBeforeParentGraphIterator(Graph<T> graph, int rootIndex) {
+			super(graph, graph.parentLists, graph.childLists, rootIndex);
+		}
+		
+		/**
+		 * Removes all ancestors of the last returned node from the graph. This is the last returned node and all its
+		 * direct and indirect parents. The values of the removed nodes will be returned in breath-first iteration
+		 * order. If this method is called before the next() method has been called, null will be returned.
+		 * @return The removed nodes in breadth-first iteration order or null if no nodes were removed.
+		 */
+		public List<T> removeAncestors() {
+			return this.removeSuccessors();
+		}
+		
+	}
+	
+	/**
+	 * A scheduler that hands out the elements in a graph in child-before-parent order, like the
+	 * {@link ChildBeforeParentGraphIterator}. The difference is that a node is only handed out once all its children
+	 * have been marked as completed, rather than once they have been returned. This allows a caller to process
+	 * multiple handed out nodes at the same time, since they never depend on eachother.
+	 * If the graph contains a cycle, all nodes within the cycle and their ancestors are never handed out.
+	 * The scheduler works on a snapshot of the edges in the graph at the time that it was created.
+	 * This class is not thread-safe, so the caller has to synchronize access if it is used from multiple threads.
+	 * @param <T>
+	 */
+	public static class ChildBeforeParentGraphScheduler<T> {
+		
+		// Node states.
+		private static final byte WAITING = 0;
+		private static final byte READY = 1;
+		private static final byte IN_PROGRESS = 2;
+		private static final byte COMPLETED = 3;
+		private static final byte REMOVED = 4;
 		
 		private final Graph<T> graph;
-		private Queue<Node<T>> nodeQueue = new LinkedBlockingQueue<Node<T>>();
-		private Set<Node<T>> visited = new HashSet<Node<T>>();
-		private Node<T> last = null;
+		private final Adjacency parents;
+		private final int[] remainingChildren;
+		private final byte[] states;
+		private final int[] readyQueue;
+		private int readyHead = 0;
+		private int readyTail = 0;
+		private int inProgressCount = 0;
 		
-		public ChildBeforeParentGraphIterator(Graph<T> graph) {
+		public ChildBeforeParentGraphScheduler(Graph<T> graph) {
 			this.graph = graph;
-			for(Node<T> node : this.graph.nodeMap.values()) {
-				if(node.getChildren().isEmpty()) {
-					this.nodeQueue.offer(node);
+			this.parents = new Adjacency(graph.parentLists);
+			int capacity = graph.values.size();
+			this.remainingChildren = new int[capacity];
+			this.states = new byte[capacity];
+			this.readyQueue = new int[capacity];
+			for(int index : graph.indexMap.values()) {
+				this.remainingChildren[index] = graph.childLists.get(index).size;
+				if(this.remainingChildren[index] == 0) {
+					this.states[index] = READY;
+					this.readyQueue[this.readyTail++] = index;
 				}
 			}
 		}
 		
 		/**
-		 * Creates a new ChildBeforeParentGraphIterator that starts at the given rootNode.
-		 * @param graph - The graph to (partially) iterate over.
-		 * @param rootNode - The root node to start iteration at.
+		 * Gets and marks the next node of which all children have been completed as in progress.
+		 * @return The next node or {@code null} if no node is ready at this moment.
 		 */
-		private ChildBeforeParentGraphIterator(Graph<T> graph, Node<T> rootNode) {
-			this.graph = graph;
-			this.nodeQueue.offer(rootNode);
+		public T poll() {
+			while(this.readyHead < this.readyTail) {
+				int node = this.readyQueue[this.readyHead++];
+				if(this.states[node] == READY) {
+					this.states[node] = IN_PROGRESS;
+					this.inProgressCount++;
+					return this.graph.values.get(node);
+				}
+			}
+			return null;
 		}
 		
-		@Override
-		public boolean hasNext() {
-			return !this.nodeQueue.isEmpty();
+		/**
+		 * Checks whether this scheduler has handed out nodes that have not been completed or removed yet.
+		 * @return {@code true} if there are nodes in progress, {@code false} otherwise.
+		 */
+		public boolean hasInProgress() {
+			return this.inProgressCount != 0;
 		}
 		
-		@Override
-		public T next() {
-			
-			// Get and remove the next node from the queue. Throw an exception if this is not available.
-			Node<T> nextNode = this.nodeQueue.poll();
-			if(nextNode == null) {
-				throw new NoSuchElementException("Iterator has no more elements.");
-			}
-			
-			// Mark the node as visited.
-			this.visited.add(nextNode);
+		/**
+		 * Checks whether all nodes that can be handed out have been completed or removed.
+		 * @return {@code true} if no nodes are ready or in progress, {@code false} otherwise.
+		 */
+		public boolean isDone() {
+			return this.readyHead == this.readyTail && this.inProgressCount == 0;
+		}
+		
+		/**
+		 * Marks the given in progress node as completed. Its parents become ready once all their children have been
+		 * completed.
+		 * @param value - The node value, as returned by {@link #poll()}.
+		 * @throws IllegalStateException If the node is not in progress.
+		 */
+		public void complete(T value) throws IllegalStateException {
+			int node = this.getInProgressIndex(value);
+			this.states[node] = COMPLETED;
+			this.inProgressCount--;
 			
-			// Add all parents to the queue if they have not been handled and have no unhandled children left.
-			for(Node<T> parent : nextNode.getParents()) {
-				if(!this.visited.contains(parent)) {
-					if(this.visited.containsAll(parent.getChildren())) {
-						this.nodeQueue.offer(parent);
-					}
+			// Add all parents to the queue if they have not been handled and have no uncompleted children left.
+			for(int i = this.parents.offsets[node]; i < this.parents.offsets[node + 1]; i++) {
+				int parent = this.parents.targets[i];
+				if(--this.remainingChildren[parent] == 0 && this.states[parent] == WAITING) {
+					this.states[parent] = READY;
+					this.readyQueue[this.readyTail++] = parent;
 				}
 			}
-			
-			// Store and return the next node.
-			this.last = nextNode;
-			return nextNode.get();
 		}
 		
 		/**
-		 * Removes all ancestors of the last returned node from the graph. This is the last returned node and all its
+		 * Removes the given in progress node and all its ancestors from the graph. This is the given node and all its
 		 * direct and indirect parents. The values of the removed nodes will be returned in breath-first iteration
-		 * order. If this method is called before the next() method has been called, null will be returned.
-		 * @return The removed nodes in breadth-first iteration order or null if no nodes were removed.
+		 * order, starting with the given node.
+		 * @param value - The node value, as returned by {@link #poll()}.
+		 * @return The removed nodes in breadth-first iteration order.
+		 * @throws IllegalStateException If the node is not in progress.
 		 */
-		public List<T> removeAncestors() {
-			
-			// Return null if the 'next()' method hasn't been called yet.
-			if(this.last == null) {
-				return null;
-			}
-			
-			// Remove the 'last' node from the 'visited' set since it will be removed.
-			this.visited.remove(this.last);
-			
-			// Remove all parents of 'last' from the queue if they were added, we won't have to visit them anymore.
-			this.nodeQueue.removeAll(this.last.getParents());
+		public List<T> removeAncestors(T value) throws IllegalStateException {
+			int node = this.getInProgressIndex(value);
+			this.inProgressCount--;
 			
 			// Perform breadth-first iteration, adding all removed node values to a list to return.
-			Queue<Node<T>> queue = new LinkedBlockingQueue<Node<T>>();
-			queue.offer(this.last);
+			// The ancestors of a node that has not been completed cannot have been handed out.
+			IntList queue = new IntList();
+			queue.add(node);
+			this.states[node] = REMOVED;
 			List<T> removed = new ArrayList<T>();
-			while(!queue.isEmpty()) {
-				
-				// Get the next node from the queue.
-				Node<T> node = queue.poll();
-				
-				// Add all its parents to the queue.
-				for(Node<T> parent : node.getParents()) {
-					if(node != parent) { // This is the only possible cycle because all visited nodes are removed.
-						queue.offer(parent);
+			for(int queueInd = 0; queueInd < queue.size; queueInd++) {
+				int current = queue.values[queueInd];
+				for(int i = this.parents.offsets[current]; i < this.parents.offsets[current + 1]; i++) {
+					int parent = this.parents.targets[i];
+					if(this.states[parent] != REMOVED) {
+						this.states[parent] = REMOVED;
+						queue.add(parent);
 					}
 				}
 				
 				// Remove the node from the graph and add it to the removal list.
-				this.graph.removeNode(node.get());
-				removed.add(node.get());
+				T currentValue = this.graph.values.get(current);
+				this.graph.removeNode(currentValue);
+				removed.add(currentValue);
 			}
 			
 			// Return the removed values.
 			return removed;
 		}
 		
+		private int getInProgressIndex(T value) throws IllegalStateException {
+			Integer index = this.graph.indexMap.get(value);
+			if(index == null || index >= this.states.length || this.states[index] != IN_PROGRESS) {
+				throw new IllegalStateException("Node is not in progress: " + value);
+			}
+			return index;
+		}
+		
 	}
 }
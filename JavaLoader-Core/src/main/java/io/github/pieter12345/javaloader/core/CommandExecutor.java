@@ -1,18 +1,33 @@
 package io.github.pieter12345.javaloader.core;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
+import io.github.pieter12345.javaloader.core.JavaProject.CompilerFeedbackHandler;
 import io.github.pieter12345.javaloader.core.JavaProject.UnloadMethod;
 import io.github.pieter12345.javaloader.core.ProjectManager.LoadAllResult;
+import io.github.pieter12345.javaloader.core.ProjectManager.RecompileAllPlan;
 import io.github.pieter12345.javaloader.core.ProjectManager.RecompileAllResult;
 import io.github.pieter12345.javaloader.core.ProjectManager.RecompileFeedbackHandler;
+import io.github.pieter12345.javaloader.core.ProjectManager.RecompilePlan;
+import io.github.pieter12345.javaloader.core.compiler.CompileReport;
+import io.github.pieter12345.javaloader.core.compiler.CompileReport.SourceTiming;
 import io.github.pieter12345.javaloader.core.exceptions.CompileException;
 import io.github.pieter12345.javaloader.core.exceptions.DepOrderViolationException;
 import io.github.pieter12345.javaloader.core.exceptions.LoadException;
 import io.github.pieter12345.javaloader.core.exceptions.UnloadException;
+import io.github.pieter12345.javaloader.core.metrics.LatencyHistogram;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics.Counter;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics.Timer;
 import io.github.pieter12345.javaloader.core.utils.Utils;
 import io.github.pieter12345.javaloader.core.utils.AnsiColor.FormatException;
 
@@ -22,6 +37,9 @@ import io.github.pieter12345.javaloader.core.utils.AnsiColor.FormatException;
  */
 public class CommandExecutor {
 	
+	private static final long WATCH_DEBOUNCE_MILLIS = 500;
+	private static final int REPORT_SOURCE_FILE_COUNT = 10;
+	
 	private final ProjectManager projectManager;
 	private final ProjectStateListener projectStateListener;
 	private final ExitCommandHandler exitCommandHandler;
@@ -33,8 +51,13 @@ public class CommandExecutor {
 	private final FeedbackColorizer colorizer;
 	private final int compilerFeedbackLimit;
 	
+	private final Executor compileExecutor;
+	private final Executor syncExecutor;
+	private final AtomicBoolean recompileInProgress = new AtomicBoolean(false);
+	private ProjectWatcher projectWatcher = null;
+	
 	/**
-	 * Creates a new {@link CommandExecutor}.
+	 * Creates a new {@link CommandExecutor} that executes all commands synchronously on the calling thread.
 	 * @param projectManager - The project manager.
 	 * @param projectStateListener - The project state listener used for loading, unloading and compiling
 	 * JavaLoader projects.
@@ -48,6 +71,33 @@ public class CommandExecutor {
 	public CommandExecutor(ProjectManager projectManager, ProjectStateListener projectStateListener,
 			ExitCommandHandler exitCommandHandler, String commandPrefix, List<String> pluginAuthors, String version,
 			FeedbackColorizer colorizer, int compilerFeedbackLimit) {
+		this(projectManager, projectStateListener, exitCommandHandler, commandPrefix, pluginAuthors, version,
+				colorizer, compilerFeedbackLimit, Runnable::run, Runnable::run);
+	}
+	
+	/**
+	 * Creates a new {@link CommandExecutor}. The compile phase of the recompile command runs on the given compile
+	 * executor, after which the unload, binary swap and load phase is executed on the given sync executor.
+	 * Compiler feedback is passed to the command sender through the sync executor as it arrives.
+	 * Only one recompile can be in progress at a time, and projects cannot be loaded or unloaded through commands while
+	 * a recompile is in progress.
+	 * @param projectManager - The project manager.
+	 * @param projectStateListener - The project state listener used for loading, unloading and compiling
+	 * JavaLoader projects.
+	 * @param exitCommandHandler - The exit commamd handler or null if the exit command does not exist.
+	 * @param commandPrefix - The prefix used for commands. This will be used for giving command feedback.
+	 * @param pluginAuthors - The JavaLoader author(s).
+	 * @param version - The JavaLoader version.
+	 * @param colorizer - The colorizer, used to colorize command feedback.
+	 * @param compilerFeedbackLimit - The compile error feedback limit per compiled project.
+	 * @param compileExecutor - The executor to compile projects on (Example: A background thread).
+	 * @param syncExecutor - The executor to load and unload projects and send feedback on (Example: The server's
+	 * main thread). This executor may throw a {@link RuntimeException} when it no longer accepts tasks, in which case
+	 * the compiled binaries are discarded.
+	 */
+	public CommandExecutor(ProjectManager projectManager, ProjectStateListener projectStateListener,
+			ExitCommandHandler exitCommandHandler, String commandPrefix, List<String> pluginAuthors, String version,
+			FeedbackColorizer colorizer, int compilerFeedbackLimit, Executor compileExecutor, Executor syncExecutor) {
 		this.projectManager = projectManager;
 		this.projectStateListener = projectStateListener;
 		this.exitCommandHandler = exitCommandHandler;
@@ -57,6 +107,35 @@ public class CommandExecutor {
 		this.version = version;
 		this.colorizer = colorizer;
 		this.compilerFeedbackLimit = compilerFeedbackLimit;
+		this.compileExecutor = compileExecutor;
+		this.syncExecutor = syncExecutor;
+	}
+	
+	/**
+	 * Checks whether a recompile that was started through a command is in progress.
+	 * @return {@code true} if a recompile is in progress, {@code false} otherwise.
+	 */
+	public boolean isRecompileInProgress() {
+		return this.recompileInProgress.get();
+	}
+	
+	/**
+	 * Checks whether the projects directory is being watched for changes, as enabled through the watch command.
+	 * @return {@code true} if changed projects are recompiled automatically, {@code false} otherwise.
+	 */
+	public synchronized boolean isWatching() {
+		return this.projectWatcher != null;
+	}
+	
+	/**
+	 * Stops watching the projects directory for changes if this was enabled through the watch command.
+	 * This should be called when JavaLoader is disabled.
+	 */
+	public synchronized void stopWatching() {
+		if(this.projectWatcher != null) {
+			this.projectWatcher.stop();
+			this.projectWatcher = null;
+		}
 	}
 	
 	/**
@@ -88,8 +167,16 @@ public class CommandExecutor {
 									+ (this.commandPrefix.isEmpty() ? "" : "sub") + "command."
 							+ "\n&6  - " + this.commandPrefix + "list"
 							+ "\n&3    Displays a list of all projects and their status."
-							+ "\n&6  - " + this.commandPrefix + "recompile <project, *>"
+							+ "\n&6  - " + this.commandPrefix + "recompile <project, *> [-d]"
 							+ "\n&3    Recompiles, unloads and loads the given or all projects."
+							+ "\n&6  - " + this.commandPrefix + "rollback <project>"
+							+ "\n&3    Reloads the previous version of the given project."
+							+ "\n&6  - " + this.commandPrefix + "report <project>"
+							+ "\n&3    Displays where the last compile of the given project spent its time."
+							+ "\n&6  - " + this.commandPrefix + "stats [project]"
+							+ "\n&3    Displays lifecycle timings and counters of all or the given project."
+							+ "\n&6  - " + this.commandPrefix + "watch [on, off]"
+							+ "\n&3    Enables or disables recompiling projects when they change."
 							+ "\n&6  - " + this.commandPrefix + "unload <project, *>"
 							+ "\n&3    Unloads the given or all projects."
 							+ "\n&6  - " + this.commandPrefix + "load <project, *>"
@@ -111,10 +198,42 @@ public class CommandExecutor {
 							return;
 						case "recompile":
 							sender.sendMessage(MessageType.INFO, this.colorizer.colorize("&6" + this.commandPrefix
-									+ "recompile <project, *> &8-&3"
+									+ "recompile <project, *> [-d] &8-&3"
 									+ " Recompiles, unloads and loads the given project or all projects when '*'"
 									+ " is given. Recompiling happens before projects are unloaded, so the old project"
-									+ " will stay loaded when a recompile Exception occurs."));
+									+ " will stay loaded when a recompile Exception occurs. When '-d' is given, the"
+									+ " projects that depend on the given project are recompiled and reloaded"
+									+ " as well."));
+							return;
+						case "rollback":
+							sender.sendMessage(MessageType.INFO, this.colorizer.colorize("&6" + this.commandPrefix
+									+ "rollback <project> &8-&3 Unloads the given project and loads the binaries of"
+									+ " its previous recompile, without recompiling it. Projects that depend on the"
+									+ " given project have to be unloaded first."));
+							return;
+						case "report":
+							sender.sendMessage(MessageType.INFO, this.colorizer.colorize("&6" + this.commandPrefix
+									+ "report <project> &8-&3 Displays the timing breakdown of the last compile of"
+									+ " the given project. This includes the steps that JavaLoader performs around"
+									+ " the java compiler, the phases of the java compiler and the source files"
+									+ " that took the java compiler the longest to compile."));
+							return;
+						case "stats":
+							sender.sendMessage(MessageType.INFO, this.colorizer.colorize("&6" + this.commandPrefix
+									+ "stats [project] &8-&3 Displays how long compiling, loading and unloading"
+									+ " took for all projects, or displays the percentiles of all timed lifecycle"
+									+ " steps (compile, load, getVersion, onLoad, unload and onUnload) and the"
+									+ " counters (failures, defined classes and read bytes) of the given project."
+									+ " Timings are kept since JavaLoader was enabled."));
+							return;
+						case "watch":
+							sender.sendMessage(MessageType.INFO, this.colorizer.colorize("&6" + this.commandPrefix
+									+ "watch [on, off] &8-&3 Enables or disables watching the projects directory"
+									+ " for changes, or displays whether it is enabled when no argument is given."
+									+ " Projects of which the sources, dependencies file or jar files change are"
+									+ " recompiled and reloaded together with the projects that depend on them"
+									+ " once no further changes occur for a moment. Feedback is sent to the sender"
+									+ " who enabled watching."));
 							return;
 						case "load":
 							sender.sendMessage(MessageType.INFO, this.colorizer.colorize("&6" + this.commandPrefix
@@ -181,6 +300,22 @@ public class CommandExecutor {
 				this.handleRecompileCommand(sender, cmdParts);
 				return;
 			
+			case "rollback":
+				this.handleRollbackCommand(sender, cmdParts);
+				return;
+			
+			case "report":
+				this.handleReportCommand(sender, cmdParts);
+				return;
+			
+			case "stats":
+				this.handleStatsCommand(sender, cmdParts);
+				return;
+			
+			case "watch":
+				this.handleWatchCommand(sender, cmdParts);
+				return;
+			
 			case "unload":
 				this.handleUnloadCommand(sender, cmdParts);
 				return;
@@ -188,7 +323,7 @@ public class CommandExecutor {
 			case "load":
 				this.handleLoadCommand(sender, cmdParts);
 				return;
-				
+			
 			case "scan":
 				this.handleScanCommand(sender);
 				return;
@@ -217,172 +352,618 @@ public class CommandExecutor {
 				return;
 			}
 			
-			// "<prefix> recompile <project, *>".
+			// "<prefix> recompile <project, *>" and "<prefix> recompile <project> -d".
+			case 2:
+			case 3: {
+				final String projectName = cmdParts[1];
+				boolean withDependents = (cmdParts.length == 3);
+				if(withDependents && (!cmdParts[2].equalsIgnoreCase("-d") || projectName.equals("*"))) {
+					sender.sendMessage(MessageType.ERROR, "Invalid arguments. Syntax: " + this.commandPrefix
+							+ cmdParts[0].toLowerCase() + " <project, *> or " + this.commandPrefix
+							+ cmdParts[0].toLowerCase() + " <project> -d");
+					return;
+				}
+				
+				// Only allow one recompile at a time.
+				if(!this.recompileInProgress.compareAndSet(false, true)) {
+					sender.sendMessage(MessageType.ERROR, "A recompile is already in progress.");
+					return;
+				}
+				try {
+					if(projectName.equals("*")) {
+						this.recompileAllProjects(sender);
+					} else if(withDependents) {
+						this.recompileProjectWithDependents(sender, projectName);
+					} else {
+						this.recompileProject(sender, projectName);
+					}
+				} catch (RuntimeException | Error e) {
+					this.recompileInProgress.set(false);
+					throw e;
+				}
+				return;
+			}
+			default: {
+				sender.sendMessage(MessageType.ERROR, "Too many arguments.");
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Recompiles all projects. This method should only be called while holding the recompile in progress state,
+	 * which is released when the recompile has finished.
+	 * @param sender - The command sender.
+	 */
+	private void recompileAllProjects(final CommandSender sender) {
+		
+		// Prepare the recompile, adding new projects and checking for dependency problems.
+		final RecompileAllPlan plan = this.projectManager.prepareRecompileAllProjects(
+				this.createRecompileFeedbackHandler(sender, null), this.projectStateListener);
+		int projectCount = plan.getProjects().size();
+		sender.sendMessage(MessageType.INFO,
+				"Compiling " + projectCount + " project" + (projectCount == 1 ? "" : "s") + ".");
+		this.runRecompileAll(sender, plan);
+	}
+	
+	/**
+	 * Recompiles the given project and all projects that depend on it. This method should only be called while holding
+	 * the recompile in progress state, which is released when the recompile has finished.
+	 * @param sender - The command sender.
+	 * @param projectName - The name of the project to recompile.
+	 */
+	private void recompileProjectWithDependents(final CommandSender sender, final String projectName) {
+		
+		// Get the project, adding or removing it if it was added to or removed from the file system.
+		JavaProject project = this.getProjectToRecompile(sender, projectName);
+		if(project == null) {
+			this.recompileInProgress.set(false);
+			return;
+		}
+		
+		// Prepare the recompile, checking for dependency problems.
+		final RecompileAllPlan plan;
+		try {
+			plan = this.projectManager.prepareRecompileWithDependents(
+					project, this.createRecompileFeedbackHandler(sender, null));
+		} catch (IllegalArgumentException e) {
+			throw new Error("Project is obtained from this manager, so this should be impossible.", e);
+		}
+		int dependentCount = plan.getProjects().size() - 1;
+		sender.sendMessage(MessageType.INFO, "Compiling project \"" + project.getName() + "\" and "
+				+ dependentCount + " dependent" + (dependentCount == 1 ? "" : "s") + ".");
+		this.runRecompileAll(sender, plan);
+	}
+	
+	/**
+	 * Compiles the given recompile plan in the background and applies it on the sync executor, giving feedback about
+	 * the result. This method should only be called while holding the recompile in progress state, which is released
+	 * when the recompile has finished.
+	 * @param sender - The command sender.
+	 * @param plan - The recompile plan.
+	 */
+	private void runRecompileAll(final CommandSender sender, final RecompileAllPlan plan) {
+		
+		// Compile all projects in the background and apply the new binaries on the sync executor.
+		final CommandSender syncSender = this.createSyncSender(sender);
+		final CompilerFeedbackStream feedbackStream = new CompilerFeedbackStream(syncSender);
+		this.runRecompile(() -> {
+			this.projectManager.compile(plan, this.createRecompileFeedbackHandler(syncSender, feedbackStream));
+			feedbackStream.finish();
+			return () -> {
+				RecompileAllResult result = this.projectManager.applyRecompile(
+						plan, this.createRecompileFeedbackHandler(sender, null));
+				
+				// Give feedback.
+				sender.sendMessage(MessageType.INFO, new String[] {
+					"Recompile complete.",
+					"    Projects added: " + result.addedProjects.size(),
+					"    Projects removed: " + result.removedProjects.size(),
+					"    Projects compiled: " + result.compiledProjects.size(),
+					"    Projects unloaded: " + result.unloadedProjects.size(),
+					"    Projects unchanged: " + result.unchangedProjects.size(),
+					"    Projects loaded: " + result.loadedProjects.size(),
+					"    Projects with errors: " + result.errorProjects.size()
+				});
+			};
+		}, () -> this.projectManager.discardRecompile(plan));
+	}
+	
+	/**
+	 * Recompiles the given project. This method should only be called while holding the recompile in progress state,
+	 * which is released when the recompile has finished.
+	 * @param sender - The command sender.
+	 * @param projectName - The name of the project to recompile.
+	 */
+	private void recompileProject(final CommandSender sender, final String projectName) {
+		
+		// Get the project, adding or removing it if it was added to or removed from the file system.
+		JavaProject project = this.getProjectToRecompile(sender, projectName);
+		if(project == null) {
+			this.recompileInProgress.set(false);
+			return;
+		}
+		
+		// Prepare the recompile, checking that no dependents are loaded.
+		final RecompilePlan plan;
+		try {
+			plan = this.projectManager.prepareRecompile(project);
+		} catch (DepOrderViolationException e) {
+			sender.sendMessage(MessageType.ERROR, (e.getCause() == null
+					? "DepOrderViolationException: " + e.getMessage() : "A DepOrderViolationException"
+					+ " occurred in java project \"" + e.getProject().getName() + "\":\n"
+					+ Utils.getStacktrace(e)));
+			sender.sendMessage(MessageType.INFO, "Recompile complete (with errors).");
+			this.recompileInProgress.set(false);
+			return;
+		} catch (IllegalArgumentException e) {
+			throw new Error("Project is obtained from this manager, so this should be impossible.", e);
+		}
+		sender.sendMessage(MessageType.INFO, "Compiling project \"" + project.getName() + "\".");
+		
+		// Compile the project in the background and apply the new binaries on the sync executor.
+		final CompilerFeedbackStream feedbackStream = new CompilerFeedbackStream(this.createSyncSender(sender));
+		this.runRecompile(() -> {
+			CompileException compileException = null;
+			try {
+				this.projectManager.compile(plan, feedbackStream);
+			} catch (CompileException e) {
+				compileException = e;
+			}
+			feedbackStream.finish();
+			final CompileException compileEx = compileException;
+			return () -> {
+				boolean success = false;
+				try {
+					if(compileEx != null) {
+						throw compileEx;
+					}
+					this.projectManager.applyRecompile(plan,
+							(UnloadException e) -> sender.sendMessage(MessageType.ERROR, (e.getCause() == null
+									? "UnloadException: " + e.getMessage() : "An UnloadException occurred in java"
+									+ " project \"" + e.getProject().getName() + "\":\n"
+									+ Utils.getStacktrace(e))));
+					success = true;
+				} catch (CompileException e) {
+					sender.sendMessage(MessageType.ERROR, (e.getCause() == null
+							? "CompileException: " + e.getMessage() : "A CompileException occurred in java"
+							+ " project \"" + e.getProject().getName() + "\":\n" + Utils.getStacktrace(e)));
+				} catch (LoadException e) {
+					sender.sendMessage(MessageType.ERROR, (e.getCause() == null
+							? "LoadException: " + e.getMessage() : "A LoadException occurred in java"
+							+ " project \"" + e.getProject().getName() + "\":\n" + Utils.getStacktrace(e)));
+				} catch (DepOrderViolationException e) {
+					sender.sendMessage(MessageType.ERROR, (e.getCause() == null
+							? "DepOrderViolationException: " + e.getMessage() : "A DepOrderViolationException"
+							+ " occurred in java project \"" + e.getProject().getName() + "\":\n"
+							+ Utils.getStacktrace(e)));
+				}
+				
+				// Send feedback.
+				sender.sendMessage(MessageType.INFO,
+						"Recompile complete" + (success ? "" : " (with errors)") + ".");
+			};
+		}, () -> this.projectManager.discardRecompile(plan));
+	}
+	
+	/**
+	 * Gets the project with the given name for a recompile. The project is added from the file system if it does not
+	 * yet exist in the project manager, and it is unloaded and removed if it no longer exists in the file system.
+	 * @param sender - The command sender, which receives feedback if no project is returned.
+	 * @param projectName - The name of the project.
+	 * @return The project, or {@code null} if it does not exist or has been removed.
+	 */
+	private JavaProject getProjectToRecompile(final CommandSender sender, final String projectName) {
+		
+		// Get the project. Attempt to add it from the file system if it does not yet exist in the project manager.
+		JavaProject project = this.projectManager.getProject(projectName);
+		if(project == null) {
+			project = this.projectManager.addProjectFromProjectDirectory(projectName, this.projectStateListener);
+			if(project == null) {
+				sender.sendMessage(MessageType.ERROR, "Project does not exist: \"" + projectName + "\".");
+				return null;
+			}
+		}
+		
+		// Unload and remove the project if it was deleted from the file system.
+		List<JavaProject> removedProjects = this.projectManager.unloadAndRemoveProjectIfDeleted(
+				projectName, (UnloadException e) -> {
+			sender.sendMessage(MessageType.ERROR, "An UnloadException occurred in"
+					+ " java project \"" + e.getProject().getName() + "\":"
+					+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
+		});
+		if(removedProjects != null) {
+			if(removedProjects.isEmpty()) {
+				sender.sendMessage(MessageType.INFO, "Removed project because it no longer exists in"
+						+ " the file system: \"" + projectName + "\".");
+			} else {
+				sender.sendMessage(MessageType.INFO, "Removed and unloaded project because it no"
+						+ " longer exists in the file system: \"" + projectName + "\".");
+				if(removedProjects.size() > 1) {
+					assert(removedProjects.get(0).getName().equals(projectName));
+					removedProjects.remove(0);
+					sender.sendMessage(MessageType.INFO, "The following " + (removedProjects.size() == 1
+							? "dependent was" : "dependents were") + " unloaded: "
+							+ Utils.glueIterable(removedProjects, (JavaProject p) -> p.getName(), ", ")
+							+ ".");
+				}
+			}
+			return null;
+		}
+		return project;
+	}
+	
+	/**
+	 * Runs the compile phase of a recompile on the compile executor, followed by the apply phase that it returns on
+	 * the sync executor. The recompile in progress state is released once the apply phase has finished. If the apply
+	 * phase cannot be scheduled or if the compile phase fails unexpectedly, the discard task is executed instead.
+	 * @param compilePhase - The compile phase, returning the apply phase.
+	 * @param discardTask - The task that discards the compiled binaries.
+	 */
+	private void runRecompile(final Supplier<Runnable> compilePhase, final Runnable discardTask) {
+		this.compileExecutor.execute(() -> {
+			
+			// Run the compile phase.
+			final Runnable applyPhase;
+			try {
+				applyPhase = compilePhase.get();
+			} catch (RuntimeException | Error e) {
+				discardTask.run();
+				this.recompileInProgress.set(false);
+				throw e;
+			}
+			
+			// Schedule the apply phase.
+			final AtomicBoolean applyStarted = new AtomicBoolean(false);
+			try {
+				this.syncExecutor.execute(() -> {
+					applyStarted.set(true);
+					try {
+						applyPhase.run();
+					} finally {
+						this.recompileInProgress.set(false);
+					}
+				});
+			} catch (RuntimeException e) {
+				if(applyStarted.get()) {
+					throw e;
+				}
+				
+				// The sync executor no longer accepts tasks (Example: JavaLoader is being disabled).
+				discardTask.run();
+				this.recompileInProgress.set(false);
+			}
+		});
+	}
+	
+	/**
+	 * Creates a {@link CommandSender} that passes all messages to the given sender through the sync executor.
+	 * Messages are dropped when the sync executor no longer accepts tasks.
+	 * @param sender - The command sender.
+	 * @return The sync command sender.
+	 */
+	private CommandSender createSyncSender(final CommandSender sender) {
+		return new CommandSender() {
+			@Override
+			public void sendMessage(MessageType messageType, String message) {
+				this.runSync(() -> sender.sendMessage(messageType, message));
+			}
+			@Override
+			public void sendMessage(MessageType messageType, String... messages) {
+				this.runSync(() -> sender.sendMessage(messageType, messages));
+			}
+			private void runSync(Runnable task) {
+				try {
+					CommandExecutor.this.syncExecutor.execute(task);
+				} catch (RuntimeException e) {
+					// Ignore. The sync executor no longer accepts tasks.
+				}
+			}
+		};
+	}
+	
+	private RecompileFeedbackHandler createRecompileFeedbackHandler(
+			final CommandSender sender, final CompilerFeedbackStream feedbackStream) {
+		return new RecompileFeedbackHandler() {
+			@Override
+			public void handleUnloadException(UnloadException e) {
+				sender.sendMessage(MessageType.ERROR, "An UnloadException occurred while unloading"
+						+ " java project \"" + e.getProject().getName() + "\":"
+						+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
+			}
+			@Override
+			public void handleLoadException(LoadException e) {
+				sender.sendMessage(MessageType.ERROR, "A LoadException occurred while loading"
+						+ " java project \"" + e.getProject().getName() + "\":"
+						+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
+			}
+			@Override
+			public void handleCompileException(CompileException e) {
+				sender.sendMessage(MessageType.ERROR, "A CompileException occurred while compiling"
+						+ " java project \"" + e.getProject().getName() + "\":"
+						+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
+			}
+			@Override
+			public void compilerFeedback(String feedback) {
+				if(feedbackStream != null) {
+					feedbackStream.compilerFeedback(feedback);
+				}
+			}
+			@Override
+			public int getDiagnosticLimit() {
+				return (feedbackStream != null ? feedbackStream.getDiagnosticLimit() : 0);
+			}
+		};
+	}
+	
+	private boolean checkNoRecompileInProgress(final CommandSender sender, String action) {
+		if(this.recompileInProgress.get()) {
+			sender.sendMessage(MessageType.ERROR,
+					"Projects cannot be " + action + " while a recompile is in progress.");
+			return false;
+		}
+		return true;
+	}
+	
+	private void handleRollbackCommand(final CommandSender sender, String[] cmdParts) {
+		assert cmdParts.length > 0 && cmdParts[0].equalsIgnoreCase("rollback");
+		switch(cmdParts.length) {
+			
+			// "<prefix> rollback".
+			case 1: {
+				sender.sendMessage(MessageType.ERROR, "Not enough arguments."
+						+ " Syntax: " + this.commandPrefix + cmdParts[0].toLowerCase() + " <project>");
+				return;
+			}
+			
+			// "<prefix> rollback <project>".
 			case 2: {
 				final String projectName = cmdParts[1];
-				if(projectName.equals("*")) {
-					
-					// Recompile all projects.
-					final List<String> messages = new ArrayList<String>();
-					RecompileAllResult result = this.projectManager.recompileAllProjects(
-							new RecompileFeedbackHandler() {
-						@Override
-						public void handleUnloadException(UnloadException e) {
-							sender.sendMessage(MessageType.ERROR, "An UnloadException occurred while unloading"
-									+ " java project \"" + e.getProject().getName() + "\":"
-									+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
-						}
-						@Override
-						public void handleLoadException(LoadException e) {
-							sender.sendMessage(MessageType.ERROR, "A LoadException occurred while loading"
-									+ " java project \"" + e.getProject().getName() + "\":"
-									+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
-						}
-						@Override
-						public void handleCompileException(CompileException e) {
-							sender.sendMessage(MessageType.ERROR, "A CompileException occurred while compiling"
-									+ " java project \"" + e.getProject().getName() + "\":"
-									+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
-						}
-						@Override
-						public void compilerFeedback(String feedback) {
-							messages.add(feedback);
-						}
-					}, this.projectStateListener);
-					
-					// Give compiler feedback.
-					if(!messages.isEmpty() && compilerFeedbackLimit > 0) {
-						String feedback = "";
-						
-						// Add at max all but one feedback string.
-						for(int i = 0; i < messages.size() - 1; i++) {
-							if(i >= compilerFeedbackLimit) {
-								feedback += (feedback.endsWith("\n") ? "" : "\n") + "... "
-										+ (messages.size() - i - 1) + " more";
-								break;
-							}
-							feedback += messages.get(i);
-						}
-						
-						// Add the last feedback string. This is always "x errors".
-						feedback += (feedback.endsWith("\n") ? "" : "\n") + messages.get(messages.size() - 1);
-						
-						if(feedback.endsWith("\n")) {
-							feedback = feedback.substring(0, feedback.length() - 1);
-						}
-						feedback = feedback.replace("\t", "    ");
-						sender.sendMessage(MessageType.ERROR, "Compiler feedback:\n"
-								+ this.colorizer.colorize("&6") + feedback);
+				if(!this.checkNoRecompileInProgress(sender, "rolled back")) {
+					return;
+				}
+				JavaProject project = this.projectManager.getProject(projectName);
+				
+				// Check if the project exists.
+				if(project == null) {
+					sender.sendMessage(MessageType.ERROR, "Project does not exist: " + projectName);
+					return;
+				}
+				
+				// Roll the project back to its previous binaries.
+				try {
+					if(this.projectManager.rollback(project, (UnloadException e) -> {
+						sender.sendMessage(MessageType.ERROR, "An UnloadException occurred while unloading"
+								+ " java project \"" + project.getName() + "\":"
+								+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
+					})) {
+						sender.sendMessage(MessageType.INFO, "Project rolled back: " + projectName);
+					} else {
+						sender.sendMessage(MessageType.ERROR, "Project has no previous binaries to roll back to: "
+								+ projectName);
 					}
-					
-					// Give feedback.
-					sender.sendMessage(MessageType.INFO, new String[] {
-						"Recompile complete.",
-						"    Projects added: " + result.addedProjects.size(),
-						"    Projects removed: " + result.removedProjects.size(),
-						"    Projects compiled: " + result.compiledProjects.size(),
-						"    Projects unloaded: " + result.unloadedProjects.size(),
-						"    Projects loaded: " + result.loadedProjects.size(),
-						"    Projects with errors: " + result.errorProjects.size()
-					});
-				} else {
-					
-					// Get the project. Attempt to add it from the file system if it does not yet exist in the
-					// project manager.
-					JavaProject project = this.projectManager.getProject(projectName);
-					if(project == null) {
-						project = this.projectManager
-								.addProjectFromProjectDirectory(projectName, this.projectStateListener);
-						if(project == null) {
-							sender.sendMessage(MessageType.ERROR, "Project does not exist: \"" + projectName + "\".");
-							return;
+				} catch (LoadException e) {
+					sender.sendMessage(MessageType.ERROR, "A LoadException occurred while rolling back"
+							+ " java project \"" + project.getName() + "\":"
+							+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
+				} catch (DepOrderViolationException e) {
+					sender.sendMessage(MessageType.ERROR, "DepOrderViolationException: " + e.getMessage());
+				} catch (IllegalArgumentException e) {
+					throw new Error("Project is obtained from this manager, so this should be impossible.", e);
+				}
+				return;
+			}
+			default: {
+				sender.sendMessage(MessageType.ERROR, "Too many arguments.");
+				return;
+			}
+		}
+	}
+	
+	private void handleReportCommand(final CommandSender sender, String[] cmdParts) {
+		assert cmdParts.length > 0 && cmdParts[0].equalsIgnoreCase("report");
+		switch(cmdParts.length) {
+			
+			// "<prefix> report".
+			case 1: {
+				sender.sendMessage(MessageType.ERROR, "Not enough arguments."
+						+ " Syntax: " + this.commandPrefix + cmdParts[0].toLowerCase() + " <project>");
+				return;
+			}
+			
+			// "<prefix> report <project>".
+			case 2: {
+				final String projectName = cmdParts[1];
+				JavaProject project = this.projectManager.getProject(projectName);
+				
+				// Check if the project exists and has been compiled.
+				if(project == null) {
+					sender.sendMessage(MessageType.ERROR, "Project does not exist: " + projectName);
+					return;
+				}
+				CompileReport report = project.getCompileReport();
+				if(report == null) {
+					sender.sendMessage(MessageType.ERROR, "Project has not been compiled yet: " + projectName);
+					return;
+				}
+				
+				// Construct the report lines.
+				List<String> lines = new ArrayList<String>();
+				lines.add("Last compile of project \"&8" + report.getProjectName() + "&a\": "
+						+ (report.isSuccess() ? "&2succeeded" : "&cfailed") + "&a in &8"
+						+ formatNanos(report.getTotalNanos()) + "&a " + (report.isInMemory() ? "in memory" : "to disk")
+						+ ", compiling &8" + report.getCompiledSourceCount() + "&a of &8" + report.getSourceCount()
+						+ "&a source files.");
+				lines.add("Steps: " + Utils.glueIterable(report.getSteps().entrySet(),
+						(Entry<String, Long> step) -> step.getKey() + " &8" + formatNanos(step.getValue()), "&a, ")
+						+ "&a.");
+				if(!report.getCompilerPhases().isEmpty()) {
+					lines.add("Compiler phases: " + Utils.glueIterable(report.getCompilerPhases().entrySet(),
+							(Entry<String, Long> phase) -> phase.getKey() + " &8" + formatNanos(phase.getValue()),
+							"&a, ") + "&a.");
+				}
+				List<SourceTiming> sourceTimings = report.getSourceTimings();
+				if(!sourceTimings.isEmpty()) {
+					lines.add("Slowest source files:");
+					for(SourceTiming timing : sourceTimings.subList(
+							0, Math.min(sourceTimings.size(), REPORT_SOURCE_FILE_COUNT))) {
+						lines.add("  &8" + timing.getFile() + "&a: &8" + formatNanos(timing.getTotalNanos())
+								+ "&a (parse &8" + formatNanos(timing.getParseNanos())
+								+ "&a, analyze &8" + formatNanos(timing.getAnalyzeNanos())
+								+ "&a, generate &8" + formatNanos(timing.getGenerateNanos()) + "&a)");
+					}
+				}
+				sender.sendMessage(MessageType.INFO, this.colorizer.colorize(String.join("\n", lines)).split("\n"));
+				return;
+			}
+			default: {
+				sender.sendMessage(MessageType.ERROR, "Too many arguments.");
+				return;
+			}
+		}
+	}
+	
+	private void handleStatsCommand(final CommandSender sender, String[] cmdParts) {
+		assert cmdParts.length > 0 && cmdParts[0].equalsIgnoreCase("stats");
+		switch(cmdParts.length) {
+			
+			// "<prefix> stats".
+			case 1: {
+				
+				// Get all projects and sort them.
+				List<JavaProject> sortedProjects = this.projectManager.getProjects();
+				sortedProjects.sort((JavaProject p1, JavaProject p2) -> p1.getName().compareTo(p2.getName()));
+				if(sortedProjects.isEmpty()) {
+					sender.sendMessage(MessageType.INFO, "There are no projects available.");
+					return;
+				}
+				
+				// Construct a line per project containing the median and maximum of its main lifecycle steps.
+				List<String> lines = new ArrayList<String>();
+				lines.add("Project timings (count, median and maximum):");
+				for(JavaProject project : sortedProjects) {
+					ProjectMetrics metrics = project.getMetrics();
+					List<String> timings = new ArrayList<String>();
+					for(Timer timer : new Timer[] {Timer.COMPILE, Timer.LOAD, Timer.UNLOAD}) {
+						LatencyHistogram histogram = metrics.getTimer(timer);
+						if(histogram.getCount() > 0) {
+							timings.add(timer.getDisplayName() + " &8" + histogram.getCount() + "x "
+									+ formatNanos(histogram.getPercentileNanos(50)) + "&a/&8"
+									+ formatNanos(histogram.getMaxNanos()) + "&a");
 						}
 					}
-					
-					// Unload and remove the project if it was deleted from the file system.
-					List<JavaProject> removedProjects = this.projectManager.unloadAndRemoveProjectIfDeleted(
-							projectName, (UnloadException e) -> {
-						sender.sendMessage(MessageType.ERROR, "An UnloadException occurred in"
-								+ " java project \"" + e.getProject().getName() + "\":"
-								+ (e.getCause() == null ? " " + e.getMessage() : "\n" + Utils.getStacktrace(e)));
-					});
-					if(removedProjects != null) {
-						if(removedProjects.isEmpty()) {
-							sender.sendMessage(MessageType.INFO, "Removed project because it no longer exists in"
-									+ " the file system: \"" + projectName + "\".");
-						} else {
-							sender.sendMessage(MessageType.INFO, "Removed and unloaded project because it no"
-									+ " longer exists in the file system: \"" + projectName + "\".");
-							if(removedProjects.size() > 1) {
-								assert(removedProjects.get(0).getName().equals(projectName));
-								removedProjects.remove(0);
-								sender.sendMessage(MessageType.INFO, "The following " + (removedProjects.size() == 1
-										? "dependent was" : "dependents were") + " unloaded: "
-										+ Utils.glueIterable(removedProjects, (JavaProject p) -> p.getName(), ", ")
-										+ ".");
+					lines.add("  &8" + project.getName() + "&a: "
+							+ (timings.isEmpty() ? "No timings recorded." : String.join(", ", timings) + "."));
+				}
+				sender.sendMessage(MessageType.INFO, this.colorizer.colorize(String.join("\n", lines)).split("\n"));
+				return;
+			}
+			
+			// "<prefix> stats <project>".
+			case 2: {
+				final String projectName = cmdParts[1];
+				JavaProject project = this.projectManager.getProject(projectName);
+				if(project == null) {
+					sender.sendMessage(MessageType.ERROR, "Project does not exist: " + projectName);
+					return;
+				}
+				
+				// Construct a line per timed lifecycle step and a line containing the counters.
+				ProjectMetrics metrics = project.getMetrics();
+				List<String> lines = new ArrayList<String>();
+				lines.add("Metrics of project \"&8" + project.getName() + "&a\":");
+				for(Timer timer : Timer.values()) {
+					LatencyHistogram histogram = metrics.getTimer(timer);
+					lines.add("  " + timer.getDisplayName() + ": " + (histogram.getCount() == 0 ? "&8-&a"
+							: "&8" + histogram.getCount() + "x&a, mean &8" + formatNanos(histogram.getMeanNanos())
+							+ "&a, p50 &8" + formatNanos(histogram.getPercentileNanos(50))
+							+ "&a, p90 &8" + formatNanos(histogram.getPercentileNanos(90))
+							+ "&a, p99 &8" + formatNanos(histogram.getPercentileNanos(99))
+							+ "&a, max &8" + formatNanos(histogram.getMaxNanos()) + "&a"));
+				}
+				lines.add("  " + Utils.glueIterable(Arrays.asList(Counter.values()),
+						(Counter counter) -> counter.getDisplayName() + ": &8" + metrics.getCount(counter), "&a, ")
+						+ "&a.");
+				sender.sendMessage(MessageType.INFO, this.colorizer.colorize(String.join("\n", lines)).split("\n"));
+				return;
+			}
+			default: {
+				sender.sendMessage(MessageType.ERROR, "Too many arguments.");
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Formats the given duration in milliseconds with one decimal, or three decimals for durations below a millisecond.
+	 * @param nanos - The duration in nanoseconds.
+	 * @return The formatted duration (Example: "12.3ms" or "0.045ms").
+	 */
+	private static String formatNanos(long nanos) {
+		return String.format(Locale.ROOT, (nanos < 1000000 ? "%.3fms" : "%.1fms"), nanos / 1000000d);
+	}
+	
+	private void handleWatchCommand(final CommandSender sender, String[] cmdParts) {
+		assert cmdParts.length > 0 && cmdParts[0].equalsIgnoreCase("watch");
+		switch(cmdParts.length) {
+			
+			// "<prefix> watch".
+			case 1: {
+				sender.sendMessage(MessageType.INFO, "Watching for project changes is "
+						+ (this.isWatching() ? "enabled" : "disabled") + ".");
+				return;
+			}
+			
+			// "<prefix> watch <on, off>".
+			case 2: {
+				switch(cmdParts[1].toLowerCase()) {
+					case "on": {
+						synchronized(this) {
+							if(this.projectWatcher != null) {
+								sender.sendMessage(MessageType.ERROR, "Already watching for project changes.");
+								return;
+							}
+							if(this.projectManager.getProjectsDir() == null) {
+								sender.sendMessage(MessageType.ERROR, "There is no projects directory to watch.");
+								return;
 							}
+							final ProjectWatcher[] watcher = new ProjectWatcher[1];
+							watcher[0] = new ProjectWatcher(this.projectManager.getProjectsDir(), WATCH_DEBOUNCE_MILLIS,
+									(Set<String> projectNames) -> {
+								try {
+									this.syncExecutor.execute(
+											() -> this.recompileChangedProjects(sender, watcher[0], projectNames));
+								} catch (RuntimeException e) {
+									// Ignore. The sync executor no longer accepts tasks.
+								}
+							});
+							try {
+								watcher[0].start();
+							} catch (IOException e) {
+								sender.sendMessage(MessageType.ERROR, "Unable to watch the projects directory: "
+										+ e.getMessage());
+								return;
+							}
+							this.projectWatcher = watcher[0];
 						}
+						sender.sendMessage(MessageType.INFO, "Watching for project changes.");
 						return;
 					}
-					
-					// Recompile the project.
-					boolean success = false;
-					final List<String> messages = new ArrayList<String>();
-					try {
-						this.projectManager.recompile(project,
-								(String compilerFeedback) -> messages.add(compilerFeedback),
-								(UnloadException e) -> sender.sendMessage(MessageType.ERROR, (e.getCause() == null
-										? "UnloadException: " + e.getMessage() : "An UnloadException occurred in java"
-										+ " project \"" + e.getProject().getName() + "\":\n"
-										+ Utils.getStacktrace(e))));
-						success = true;
-					} catch (CompileException e) {
-						sender.sendMessage(MessageType.ERROR, (e.getCause() == null
-								? "CompileException: " + e.getMessage() : "A CompileException occurred in java"
-								+ " project \"" + e.getProject().getName() + "\":\n" + Utils.getStacktrace(e)));
-					} catch (LoadException e) {
-						sender.sendMessage(MessageType.ERROR, (e.getCause() == null
-								? "LoadException: " + e.getMessage() : "A LoadException occurred in java"
-								+ " project \"" + e.getProject().getName() + "\":\n" + Utils.getStacktrace(e)));
-					} catch (DepOrderViolationException e) {
-						sender.sendMessage(MessageType.ERROR, (e.getCause() == null
-								? "DepOrderViolationException: " + e.getMessage() : "A DepOrderViolationException"
-								+ " occurred in java project \"" + e.getProject().getName() + "\":\n"
-								+ Utils.getStacktrace(e)));
-					} catch (IllegalArgumentException e) {
-						throw new Error("Project is obtained from this manager, so this should be impossible.", e);
-					}
-					
-					// Give compiler feedback.
-					if(!messages.isEmpty() && compilerFeedbackLimit > 0) {
-						String feedback = "";
-						
-						// Add at max all but one feedback string.
-						for(int i = 0; i < messages.size() - 1; i++) {
-							if(i >= compilerFeedbackLimit) {
-								feedback += (feedback.endsWith("\n") ? "" : "\n") + "... "
-										+ (messages.size() - i - 1) + " more";
-								break;
-							}
-							feedback += messages.get(i);
-						}
-						
-						// Add the last feedback string. This is always "x errors".
-						feedback += (feedback.endsWith("\n") ? "" : "\n") + messages.get(messages.size() - 1);
-						
-						if(feedback.endsWith("\n")) {
-							feedback = feedback.substring(0, feedback.length() - 1);
+					case "off": {
+						if(!this.isWatching()) {
+							sender.sendMessage(MessageType.ERROR, "Not watching for project changes.");
+							return;
 						}
-						feedback = feedback.replace("\t", "    "); // Minecraft cannot display tab characters.
-						sender.sendMessage(MessageType.ERROR, "Compiler feedback:\n"
-								+ this.colorizer.colorize("&6") + feedback);
+						this.stopWatching();
+						sender.sendMessage(MessageType.INFO, "Stopped watching for project changes.");
+						return;
+					}
+					default: {
+						sender.sendMessage(MessageType.ERROR, "Invalid argument. Syntax: "
+								+ this.commandPrefix + cmdParts[0].toLowerCase() + " [on, off]");
+						return;
 					}
-					
-					// Send feedback.
-					sender.sendMessage(MessageType.INFO,
-							"Recompile complete" + (success ? "" : " (with errors)") + ".");
 				}
-				return;
 			}
 			default: {
 				sender.sendMessage(MessageType.ERROR, "Too many arguments.");
@@ -391,6 +972,68 @@ public class CommandExecutor {
 		}
 	}
 	
+	/**
+	 * Recompiles the given changed projects and all projects that depend on them. If a recompile is already in
+	 * progress, the projects are marked as changed again in the watcher, so that they are recompiled later.
+	 * This method should be called on the sync executor.
+	 * @param sender - The command sender who enabled watching.
+	 * @param watcher - The watcher that detected the changes.
+	 * @param projectNames - The names of the changed projects.
+	 */
+	private void recompileChangedProjects(
+			final CommandSender sender, ProjectWatcher watcher, Set<String> projectNames) {
+		
+		// Ignore changes from a watcher that has been stopped in the meantime.
+		synchronized(this) {
+			if(this.projectWatcher != watcher) {
+				return;
+			}
+		}
+		
+		// Only allow one recompile at a time. Retry later if a recompile is in progress.
+		if(!this.recompileInProgress.compareAndSet(false, true)) {
+			watcher.markChanged(projectNames);
+			return;
+		}
+		try {
+			
+			// Get the changed projects, ignoring directories that are not projects.
+			List<JavaProject> projects = new ArrayList<JavaProject>();
+			for(String projectName : projectNames) {
+				if(this.projectManager.getProject(projectName) == null && this.projectManager
+						.addProjectFromProjectDirectory(projectName, this.projectStateListener) == null) {
+					continue;
+				}
+				JavaProject project = this.getProjectToRecompile(sender, projectName);
+				if(project != null) {
+					projects.add(project);
+				}
+			}
+			if(projects.isEmpty()) {
+				this.recompileInProgress.set(false);
+				return;
+			}
+			
+			// Prepare the recompile, checking for dependency problems.
+			final RecompileAllPlan plan;
+			try {
+				plan = this.projectManager.prepareRecompileWithDependents(
+						projects, this.createRecompileFeedbackHandler(sender, null));
+			} catch (IllegalArgumentException e) {
+				throw new Error("Projects are obtained from this manager, so this should be impossible.", e);
+			}
+			int dependentCount = plan.getProjects().size() - projects.size();
+			sender.sendMessage(MessageType.INFO, "Detected changes in project" + (projects.size() == 1 ? "" : "s")
+					+ " " + Utils.glueIterable(projects, (JavaProject p) -> "\"" + p.getName() + "\"", ", ")
+					+ ". Compiling " + projects.size() + " project" + (projects.size() == 1 ? "" : "s") + " and "
+					+ dependentCount + " dependent" + (dependentCount == 1 ? "" : "s") + ".");
+			this.runRecompileAll(sender, plan);
+		} catch (RuntimeException | Error e) {
+			this.recompileInProgress.set(false);
+			throw e;
+		}
+	}
+	
 	private void handleUnloadCommand(final CommandSender sender, String[] cmdParts) {
 		assert cmdParts.length > 0 && cmdParts[0].equalsIgnoreCase("unload");
 		switch(cmdParts.length) {
@@ -405,6 +1048,9 @@ public class CommandExecutor {
 			// "<prefix> unload <project, *>".
 			case 2: {
 				final String projectName = cmdParts[1];
+				if(!this.checkNoRecompileInProgress(sender, "unloaded")) {
+					return;
+				}
 				if(projectName.equals("*")) {
 					
 					// Unload all projects.
@@ -483,6 +1129,9 @@ public class CommandExecutor {
 			// "<prefix> load <project, *>".
 			case 2: {
 				final String projectName = cmdParts[1];
+				if(!this.checkNoRecompileInProgress(sender, "loaded")) {
+					return;
+				}
 				if(projectName.equals("*")) {
 					
 					// Add new projects (happens when a new project directory is created).
@@ -548,6 +1197,60 @@ public class CommandExecutor {
 			+ " new project" + (newProjects.size() == 1 ? "" : "s") + ".");
 	}
 	
+	/**
+	 * Passes compiler feedback to a command sender as it arrives. Only the first feedback messages up to the compiler
+	 * feedback limit are passed directly. The last message, which is the "x errors" summary, is passed when the
+	 * compile has finished, together with the amount of omitted messages.
+	 */
+	private class CompilerFeedbackStream implements CompilerFeedbackHandler {
+		private final CommandSender sender;
+		private int messageCount = 0;
+		private String lastOmittedMessage = null;
+		
+		private CompilerFeedbackStream(CommandSender sender) {
+			this.sender = sender;
+		}
+		
+		@Override
+		public synchronized void compilerFeedback(String feedback) {
+			int limit = CommandExecutor.this.compilerFeedbackLimit;
+			if(limit <= 0) {
+				return;
+			}
+			if(this.messageCount++ < limit) {
+				this.send(feedback, this.messageCount == 1);
+			} else {
+				this.lastOmittedMessage = feedback;
+			}
+		}
+		
+		@Override
+		public int getDiagnosticLimit() {
+			return Math.max(CommandExecutor.this.compilerFeedbackLimit, 0);
+		}
+		
+		/**
+		 * Passes the last omitted message to the command sender, if any.
+		 * This should be called once all compiler feedback has been received.
+		 */
+		public synchronized void finish() {
+			if(this.lastOmittedMessage != null) {
+				int moreCount = this.messageCount - CommandExecutor.this.compilerFeedbackLimit - 1;
+				this.send((moreCount > 0 ? "... " + moreCount + " more\n" : "") + this.lastOmittedMessage, false);
+				this.lastOmittedMessage = null;
+			}
+		}
+		
+		private void send(String feedback, boolean isFirst) {
+			if(feedback.endsWith("\n")) {
+				feedback = feedback.substring(0, feedback.length() - 1);
+			}
+			feedback = feedback.replace("\t", "    "); // Minecraft cannot display tab characters.
+			this.sender.sendMessage(MessageType.ERROR, (isFirst ? "Compiler feedback:\n" : "")
+					+ CommandExecutor.this.colorizer.colorize("&6") + feedback);
+		}
+	}
+	
 	/**
 	 * Used for handling the exit command in the {@link CommandExecutor}.
 	 * @author P.J.S. Kools
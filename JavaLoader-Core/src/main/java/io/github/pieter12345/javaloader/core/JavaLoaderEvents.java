@@ -0,0 +1,158 @@
+package io.github.pieter12345.javaloader.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Contains the JDK Flight Recorder events that JavaLoader emits, so that compiling, loading and unloading projects can
+ * be seen next to garbage collections, safepoints and lock contention in a recording. The events are only committed
+ * while a recording that enables them is running, so they cost next to nothing otherwise.
+ */
+final class JavaLoaderEvents {
+	
+	private static final String CATEGORY = "JavaLoader";
+	
+	private JavaLoaderEvents() {
+	}
+	
+	@Name("io.github.pieter12345.javaloader.ProjectCompile")
+	@Label("Project Compile")
+	@Category(CATEGORY)
+	@Description("Compiling a JavaLoader project, including the steps around the java compiler")
+	@StackTrace(false)
+	static class ProjectCompileEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("In Memory")
+		boolean inMemory;
+		
+		@Label("Success")
+		boolean success;
+		
+		@Label("Source Files")
+		int sourceCount;
+		
+		@Label("Compiled Source Files")
+		@Description("Source files passed to the java compiler, excluding unchanged and cached source files")
+		int compiledSourceCount;
+		
+		@Label("Classes")
+		int classCount;
+	}
+	
+	@Name("io.github.pieter12345.javaloader.ProjectStage")
+	@Label("Project Stage")
+	@Category(CATEGORY)
+	@Description("Preparing a JavaLoader project for loading, by creating its classloader, defining and"
+			+ " instantiating its main class and getting its version")
+	@StackTrace(false)
+	static class ProjectStageEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("In Memory")
+		@Description("Whether the classes are defined from in-memory binaries rather than from the bin directory")
+		boolean inMemory;
+		
+		@Label("Success")
+		boolean success;
+		
+		@Label("Classes Defined")
+		long classesDefined;
+		
+		@Label("Class Bytes Defined")
+		@DataAmount
+		long classBytesDefined;
+	}
+	
+	@Name("io.github.pieter12345.javaloader.ProjectLoad")
+	@Label("Project Load")
+	@Category(CATEGORY)
+	@Description("Starting a staged JavaLoader project, calling the state listener and the onLoad method"
+			+ " of the project")
+	@StackTrace(false)
+	static class ProjectLoadEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("Success")
+		boolean success;
+		
+		@Label("Classes Defined")
+		@Description("Classes defined while starting the project")
+		long classesDefined;
+		
+		@Label("Class Bytes Defined")
+		@Description("Size of the classes defined while starting the project")
+		@DataAmount
+		long classBytesDefined;
+	}
+	
+	@Name("io.github.pieter12345.javaloader.ProjectUnload")
+	@Label("Project Unload")
+	@Category(CATEGORY)
+	@Description("Unloading a JavaLoader project, excluding the projects that depend on it")
+	@StackTrace(false)
+	static class ProjectUnloadEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("Classes Released")
+		@Description("Classes defined by the classloader of the unloaded project")
+		long classesReleased;
+		
+		@Label("Class Bytes Released")
+		@Description("Size of the classes defined by the classloader of the unloaded project")
+		@DataAmount
+		long classBytesReleased;
+	}
+	
+	@Name("io.github.pieter12345.javaloader.StateListenerCallback")
+	@Label("State Listener Callback")
+	@Category(CATEGORY)
+	@Description("A call to the platform-dependent project state listener")
+	@StackTrace(false)
+	static class StateListenerCallbackEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("Callback")
+		String callback;
+		
+		@Label("Success")
+		boolean success;
+	}
+	
+	@Name("io.github.pieter12345.javaloader.ClassDefine")
+	@Label("Project Class Define")
+	@Category(CATEGORY)
+	@Description("Defining a class of a JavaLoader project")
+	@StackTrace(false)
+	static class ClassDefineEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("Class")
+		String className;
+		
+		@Label("Class Size")
+		@DataAmount
+		int byteSize;
+		
+		@Label("In Memory")
+		@Description("Whether the class is defined from in-memory binaries rather than from the bin directory")
+		boolean inMemory;
+	}
+}
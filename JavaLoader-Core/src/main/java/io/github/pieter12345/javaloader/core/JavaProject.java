@@ -4,20 +4,45 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.tools.JavaCompiler;
 import javax.tools.JavaCompiler.CompilationTask;
 import javax.tools.StandardJavaFileManager;
-import javax.tools.ToolProvider;
 
+import io.github.pieter12345.javaloader.core.JavaLoaderEvents.ProjectCompileEvent;
+import io.github.pieter12345.javaloader.core.JavaLoaderEvents.ProjectLoadEvent;
+import io.github.pieter12345.javaloader.core.JavaLoaderEvents.ProjectStageEvent;
+import io.github.pieter12345.javaloader.core.JavaLoaderEvents.ProjectUnloadEvent;
+import io.github.pieter12345.javaloader.core.JavaLoaderEvents.StateListenerCallbackEvent;
+import io.github.pieter12345.javaloader.core.compiler.BinGenerations;
+import io.github.pieter12345.javaloader.core.compiler.BuildCache;
+import io.github.pieter12345.javaloader.core.compiler.BuildCache.CachedBinaries;
+import io.github.pieter12345.javaloader.core.compiler.ClassFileInfo;
+import io.github.pieter12345.javaloader.core.compiler.CompileProfiler;
+import io.github.pieter12345.javaloader.core.compiler.CompileReport;
+import io.github.pieter12345.javaloader.core.compiler.CompilerDiagnostic;
+import io.github.pieter12345.javaloader.core.compiler.CompilerDiagnostics;
+import io.github.pieter12345.javaloader.core.compiler.CompilerService;
+import io.github.pieter12345.javaloader.core.compiler.InMemoryBinaries;
+import io.github.pieter12345.javaloader.core.compiler.InMemoryFileManager;
+import io.github.pieter12345.javaloader.core.compiler.OutputTrackingFileManager;
+import io.github.pieter12345.javaloader.core.compiler.SourceManifest;
+import io.github.pieter12345.javaloader.core.compiler.SourceManifest.SourceEntry;
 import io.github.pieter12345.javaloader.core.dependency.Dependency;
 import io.github.pieter12345.javaloader.core.dependency.DependencyScope;
 import io.github.pieter12345.javaloader.core.dependency.FileDependency;
@@ -28,6 +53,9 @@ import io.github.pieter12345.javaloader.core.exceptions.DependencyException;
 import io.github.pieter12345.javaloader.core.exceptions.LoadException;
 import io.github.pieter12345.javaloader.core.exceptions.UnloadException;
 import io.github.pieter12345.javaloader.core.exceptions.handlers.UnloadExceptionHandler;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics.Counter;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics.Timer;
 import io.github.pieter12345.javaloader.core.utils.Utils;
 
 /**
@@ -40,7 +68,8 @@ public class JavaProject {
 	// Variables & Constants.
 	private final File projectDir;
 	private final String projectName;
-	private File binDir;
+	private final BinGenerations binGenerations;
+	private volatile File binDir = null;
 	private File srcDir;
 	private JavaProjectClassLoader classLoader = null;
 	private JavaLoaderProject projectInstance = null;
@@ -48,9 +77,15 @@ public class JavaProject {
 	private boolean isLoaded = false;
 	private boolean isDisabled;
 	private String version = null;
+	private volatile InMemoryBinaries binaries = null;
+	private volatile InMemoryBinaries pendingBinaries = null;
+	private volatile CompletableFuture<Void> binariesFlush = null;
+	private volatile InMemoryBinaries flushedBinaries = null;
+	private volatile CompileReport compileReport = null;
 	private final ProjectManager manager;
 	private final ProjectDependencyParser dependencyParser;
 	private final ProjectStateListener stateListener;
+	private final ProjectMetrics metrics;
 	
 	/**
 	 * Creates a new JavaProject with the given parameters and loads its compiled dependencies if available.
@@ -65,12 +100,14 @@ public class JavaProject {
 			ProjectManager manager, ProjectDependencyParser dependencyParser, ProjectStateListener stateListener) {
 		this.projectName = projectName;
 		this.projectDir = projectDir;
-		this.binDir = new File(this.projectDir.getAbsoluteFile(), "bin");
+		this.binGenerations = new BinGenerations(this.projectDir);
 		this.srcDir = new File(this.projectDir.getAbsoluteFile(), "src");
 		this.isDisabled = new File(this.srcDir, ".disabled").exists();
 		this.manager = manager;
 		this.dependencyParser = dependencyParser;
 		this.stateListener = stateListener;
+		this.metrics = (manager != null
+				? manager.getMetricsRegistry().getProjectMetrics(projectName) : new ProjectMetrics());
 	}
 	
 	/**
@@ -93,19 +130,61 @@ public class JavaProject {
 	 * @throws CompileException If an Exception occurs while compiling the project.
 	 */
 	public void compile(Writer feedbackWriter) throws CompileException {
+		this.compile(feedbackWriter, null, false);
+	}
+	
+	/**
+	 * Compiles the JavaProject without writing its binaries to disk. On success, the resulting binaries are stored as
+	 * the pending binaries of this project (see {@link #getPendingBinaries()}), which can be applied using
+	 * {@link #applyPendingBinaries()}.
+	 * @param feedbackWriter - A Writer to write all compile errors/warnings from the java compiler to.
+	 *  If this is null, System.err will be used.
+	 * @throws CompileException If an Exception occurs while compiling the project.
+	 */
+	public void compileInMemory(Writer feedbackWriter) throws CompileException {
+		this.compile(feedbackWriter, null, true);
+	}
+	
+	/**
+	 * Compiles the JavaProject.
+	 * @param feedbackWriter - A Writer to write all compiler output that is not reported to the diagnostics to.
+	 *  If this is null, System.err will be used.
+	 * @param diagnostics - The diagnostics to report all compile errors/warnings to, or {@code null} to write them to
+	 * the feedbackWriter.
+	 * @param inMemory - Whether the project should be compiled in memory.
+	 * @throws CompileException If an Exception occurs while compiling the project.
+	 */
+	private void compile(Writer feedbackWriter,
+			CompilerDiagnostics diagnostics, boolean inMemory) throws CompileException {
 		
 		// Disallow compiling if the project is disabled.
 		if(this.isDisabled) {
 			throw new CompileException(this, "Project is disabled.");
 		}
 		
+		// Discard binaries from a previous in-memory compile that have not been applied.
+		this.pendingBinaries = null;
+		File binDir = this.getBinDir();
+		
+		// Time the compile steps and the java compiler phases.
+		CompileProfiler profiler = new CompileProfiler(this.srcDir);
+		ProjectCompileEvent event = new ProjectCompileEvent();
+		event.begin();
+		int sourceCount = 0;
+		int compiledSourceCount = 0;
+		int classCount = 0;
+		boolean compiled = false;
+		
 		try {
 			
 			// Get the dependencies and validate their existence.
+			profiler.beginStep("dependencies");
 			// For JavaLoader projects, also validate that the project exists in the project manger.
 			final File dependenciesFile = new File(this.projectDir.getAbsoluteFile(), "dependencies.txt");
 			var dependencies = this.readDependencies(dependenciesFile);
 			List<File> dependencyFiles = new ArrayList<File>();
+			List<Map<String, byte[]>> dependencyClasses = new ArrayList<Map<String, byte[]>>();
+			List<String> dependencyFingerprints = new ArrayList<String>();
 			for(Dependency dependency : dependencies) {
 				
 				// Handle project dependencies.
@@ -119,6 +198,15 @@ public class JavaProject {
 								"Dependency project not found: " + projectDependency.getProjectName());
 					}
 					
+					// Use the in-memory binaries of the project if it has them.
+					InMemoryBinaries binaries = projectDependency.getProject().getCompileBinaries();
+					if(inMemory && binaries != null) {
+						dependencyClasses.add(binaries.getClasses());
+						dependencyFingerprints.add(binaries.getManifest().getApiFingerprint());
+						continue;
+					}
+					projectDependency.getProject().awaitBinariesFlush();
+					
 					// Validate that the projects binary directory (containing the actual dependency files) exists.
 					if(!file.exists()) {
 						throw new CompileException(this, "Dependency project exists, but has not been compiled: "
@@ -148,6 +236,7 @@ public class JavaProject {
 			}
 			
 			// List all .java files in the source directory.
+			profiler.beginStep("source walk");
 			ArrayList<File> files = new ArrayList<File>();
 			Stack<File> dirStack = new Stack<File>();
 			dirStack.push(this.srcDir);
@@ -166,131 +255,612 @@ public class JavaProject {
 			if(files.size() == 0) {
 				throw new CompileException(this, "No sourcefiles found.");
 			}
+			sourceCount = files.size();
 			
-			// Remove the bin directory.
-			if(this.binDir.exists() && !Utils.removeFile(this.binDir)) {
-				throw new CompileException(this, "Unable to remove bin directory at: " + this.binDir.getAbsolutePath());
-			}
-			
-			// Create the new bin directory.
-			if(!this.binDir.mkdir()) {
-				throw new CompileException(this, "Unable to create bin directory at: " + this.binDir.getAbsolutePath());
-			}
-			
-			// Get the name of the .jar file of this plugin
-			// (Using the JavaLoaderProject class because that one is required for all projects).
-			java.security.CodeSource codeSource = JavaLoaderProject.class.getProtectionDomain().getCodeSource();
-			if(codeSource == null || codeSource.getLocation().getFile().isEmpty()) {
+			// Get the complete classpath (including passed classpath entries such as jar file paths and the .jar file
+			// of this plugin).
+			profiler.beginStep("compile plan");
+			CompilerService compilerService = this.manager.getCompilerService();
+			List<String> platformClasspath = compilerService.getPlatformClasspath();
+			if(platformClasspath == null) {
 				throw new CompileException(this, "Unable to include this"
 						+ " plugins .jar file to the classpath because the CodeSource returned null.");
 			}
-			String pluginJarFilePath = new File(codeSource.getLocation().toURI()).getAbsolutePath();
-			
-			// Get the complete classpath (including the binDir and passed classpath entries such as jar file paths).
-			String classpath = System.getProperty("java.class.path") + File.pathSeparatorChar + pluginJarFilePath;
+			List<String> classpathEntries = new ArrayList<String>(platformClasspath);
 			for(File dependencyFile : dependencyFiles) {
-				classpath = classpath + File.pathSeparatorChar + dependencyFile.getAbsolutePath();
+				classpathEntries.add(dependencyFile.getAbsolutePath());
 			}
 			
-			// Create the compiler options array.
+			// Create the compiler options array. For incremental compiles, the previous binaries have to be available on
+			// the classpath. On disk, this is the bin directory. In memory, these are served by the file manager.
+			List<String> compilerOptions = Arrays.asList("-Xlint:deprecation");
 			ArrayList<String> options = new ArrayList<String>();
 			options.add("-classpath");
-			options.add(classpath);
-			options.add("-d");
-			options.add(this.binDir.getAbsolutePath());
-			options.add("-Xlint:deprecation");
+			if(inMemory) {
+				options.add(String.join(File.pathSeparator, classpathEntries));
+			} else {
+				options.add(binDir.getAbsolutePath() + File.pathSeparatorChar
+						+ String.join(File.pathSeparator, classpathEntries));
+				options.add("-d");
+				options.add(binDir.getAbsolutePath());
+			}
+			options.addAll(compilerOptions);
+			
+			// Read the manifest of the previous compile. Pending binary flushes have to complete before reading from disk.
+			InMemoryBinaries previousBinaries = this.binaries;
+			if(!inMemory || previousBinaries == null) {
+				this.awaitBinariesFlush();
+				previousBinaries = null;
+			}
+			File previousBinDir = this.binGenerations.getCurrent();
+			SourceManifest oldManifest = null;
+			if(this.manager.isIncrementalCompilation()) {
+				if(previousBinaries != null) {
+					oldManifest = previousBinaries.getManifest();
+				} else {
+					try {
+						oldManifest = SourceManifest.read(previousBinDir);
+					} catch (IOException e) {
+						oldManifest = null; // Corrupt manifest, fall back to a full compile.
+					}
+				}
+			}
+			
+			// Create the new source manifest and determine which source files have to be compiled.
+			SourceManifest manifest = new SourceManifest();
+			manifest.setOptionsFingerprint(SourceManifest.hashStrings(compilerOptions)
+					+ "-" + System.getProperty("java.version"));
+			List<String> classpathFingerprints = getClasspathFingerprints(classpathEntries);
+			classpathFingerprints.addAll(dependencyFingerprints);
+			manifest.setClasspathFingerprint(SourceManifest.hashStrings(classpathFingerprints));
+			CompilePlan plan = this.createCompilePlan(files, manifest, oldManifest);
+			compiledSourceCount = plan.sourcesToCompile.size();
+			
+			// Look up the binaries in the build cache if source files have to be compiled.
+			profiler.beginStep("build cache lookup");
+			BuildCache buildCache = (this.manager.isBuildCacheEnabled() ? this.manager.getBuildCache() : null);
+			String cacheKey = null;
+			CachedBinaries cachedBinaries = null;
+			if(buildCache != null && !plan.sourcesToCompile.isEmpty()) {
+				cacheKey = BuildCache.computeKey(manifest, plan.sourceHashes);
+				cachedBinaries = buildCache.get(cacheKey);
+				if(cachedBinaries != null) {
+					SourceManifest cachedManifest = this.createCachedManifest(cachedBinaries.getManifest(), plan);
+					if(cachedManifest == null) {
+						cachedBinaries = null;
+					} else {
+						manifest = cachedManifest;
+						plan.sourcesToCompile.clear();
+						compiledSourceCount = 0;
+					}
+				}
+			}
+			
+			// Prepare the previous binaries.
+			profiler.beginStep("bin preparation");
+			Map<String, byte[]> classes = null;
+			if(cachedBinaries != null) {
+				
+				// Restore the cached binaries.
+				classes = cachedBinaries.getClasses();
+				if(!inMemory) {
+					if(binDir.exists() && !Utils.removeFile(binDir)) {
+						throw new CompileException(this,
+								"Unable to remove bin directory at: " + binDir.getAbsolutePath());
+					}
+					if(!binDir.mkdir()) {
+						throw new CompileException(this,
+								"Unable to create bin directory at: " + binDir.getAbsolutePath());
+					}
+					for(Entry<String, byte[]> entry : classes.entrySet()) {
+						File classFile = new File(binDir, entry.getKey().replace('.', '/') + ".class");
+						classFile.getParentFile().mkdirs();
+						Files.write(classFile.toPath(), entry.getValue());
+					}
+					classes = null;
+				}
+			} else if(inMemory) {
+				
+				// Collect the class files of all unchanged source files.
+				classes = new HashMap<String, byte[]>();
+				if(!plan.fullCompile) {
+					for(SourceEntry entry : manifest.getSources()) {
+						for(String className : entry.getClasses()) {
+							byte[] bytes;
+							if(previousBinaries != null) {
+								bytes = previousBinaries.getClasses().get(className);
+							} else {
+								File classFile = new File(previousBinDir, className.replace('.', '/') + ".class");
+								bytes = (classFile.isFile() ? Files.readAllBytes(classFile.toPath()) : null);
+							}
+							if(bytes == null) {
+								throw new CompileException(this, "Class file missing from the previous binaries: "
+										+ className + ". Recompile the project with incremental compilation disabled"
+										+ " or remove its bin directory to resolve this issue.");
+							}
+							classes.put(className, bytes);
+						}
+					}
+				}
+			} else if(plan.fullCompile) {
+				
+				// Remove the bin directory.
+				if(binDir.exists() && !Utils.removeFile(binDir)) {
+					throw new CompileException(this,
+							"Unable to remove bin directory at: " + binDir.getAbsolutePath());
+				}
+				
+				// Create the new bin directory.
+				if(!binDir.mkdir()) {
+					throw new CompileException(this,
+							"Unable to create bin directory at: " + binDir.getAbsolutePath());
+				}
+			} else {
+				
+				// Copy the previous binaries into the bin directory if it is not the previous bin directory itself.
+				if(!binDir.equals(previousBinDir)) {
+					if(binDir.exists() && !Utils.removeFile(binDir)) {
+						throw new CompileException(this,
+								"Unable to remove bin directory at: " + binDir.getAbsolutePath());
+					}
+					if(!binDir.mkdir()) {
+						throw new CompileException(this,
+								"Unable to create bin directory at: " + binDir.getAbsolutePath());
+					}
+					for(File file : previousBinDir.listFiles()) {
+						Utils.copyFile(file, binDir);
+					}
+				}
+				
+				// Invalidate the manifest and remove stale class files.
+				if(!SourceManifest.remove(binDir)) {
+					throw new CompileException(this, "Unable to remove the source manifest in bin directory at: "
+							+ binDir.getAbsolutePath());
+				}
+				for(String className : plan.staleClasses) {
+					File classFile = new File(binDir, className.replace('.', '/') + ".class");
+					if(classFile.exists() && !classFile.delete()) {
+						throw new CompileException(this,
+								"Unable to remove stale class file at: " + classFile.getAbsolutePath());
+					}
+				}
+			}
 			
 			// Compile the files.
-			JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-			if(compiler == null) {
-				throw new CompileException(this, "No java compiler available. This plugin requires a JDK to run on.");
-			}
-			StandardJavaFileManager fileManager =
-					compiler.getStandardFileManager(null, Locale.US, StandardCharsets.UTF_8);
-			CompilationTask compileTask = compiler.getTask(feedbackWriter, fileManager,
-					null, options, null, fileManager.getJavaFileObjects(files.toArray(new File[0])));
-			compileTask.setProcessors(Collections.emptySet());
-			try {
-				fileManager.close();
-			} catch (IOException e) {
-				// Never happens.
-				throw new Error(e);
+			if(!plan.sourcesToCompile.isEmpty()) {
+				profiler.beginStep("javac");
+				JavaCompiler compiler = compilerService.getCompiler();
+				if(compiler == null) {
+					throw new CompileException(this,
+							"No java compiler available. This plugin requires a JDK to run on.");
+				}
+				
+				// Use a warm file manager from the compiler service. It is released rather than closed afterwards.
+				StandardJavaFileManager standardFileManager = compilerService.acquireFileManager(classpathEntries);
+				OutputTrackingFileManager fileManager;
+				boolean success;
+				try {
+					if(inMemory) {
+						List<Map<String, byte[]>> classpathClasses = new ArrayList<Map<String, byte[]>>();
+						classpathClasses.add(classes);
+						classpathClasses.addAll(dependencyClasses);
+						fileManager = new InMemoryFileManager(standardFileManager, classpathClasses);
+					} else {
+						fileManager = new OutputTrackingFileManager(standardFileManager);
+					}
+					CompilationTask compileTask = compiler.getTask(feedbackWriter, fileManager, diagnostics, options,
+							null, fileManager.getJavaFileObjects(plan.sourcesToCompile.values()));
+					compileTask.setProcessors(Collections.emptySet());
+					profiler.attach(compileTask);
+					try {
+						success = compileTask.call();
+					} catch (RuntimeException e) {
+						if(diagnostics == null || !diagnostics.isStopped()) {
+							throw e;
+						}
+						success = false; // The diagnostics stopped the compilation after too many errors.
+					}
+				} finally {
+					compilerService.releaseFileManager(standardFileManager);
+				}
+				if(!success) {
+					throw new CompileException(this, "Javac compile unsuccessfull.");
+				}
+				
+				// Add the compiled sources to the manifest.
+				profiler.beginStep("manifest");
+				if(inMemory) {
+					classes.putAll(((InMemoryFileManager) fileManager).getOutputClasses());
+				}
+				this.addCompiledSources(manifest, plan.sourcesToCompile, fileManager, classes);
 			}
-			boolean success = compileTask.call();
-			if(!success) {
-				throw new CompileException(this, "Javac compile unsuccessfull.");
+			
+			// Determine the main class, so that loading does not have to define all classes to find it.
+			// Then store the compiled binaries in the build cache. Cached binaries already have their main class set.
+			if(cachedBinaries == null) {
+				profiler.beginStep("manifest");
+				manifest.setMainClass(this.findMainClass(manifest));
+				if(cacheKey != null) {
+					profiler.beginStep("build cache store");
+					buildCache.put(cacheKey, (inMemory ? classes : this.readClasses(manifest)), manifest);
+				}
 			}
 			
-			// Compilation succeeded, so store the dependencies and copy them into the bin directory.
-			this.dependencies = dependencies;
-			if(dependenciesFile.exists()) {
-				Files.copy(dependenciesFile.toPath(),
-						new File(this.binDir.getAbsoluteFile(), "dependencies.txt").toPath(),
-						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+			// Compilation succeeded, so store the binaries and dependencies.
+			profiler.beginStep("store");
+			if(inMemory) {
+				this.pendingBinaries = new InMemoryBinaries(classes, manifest,
+						(dependenciesFile.exists() ? Files.readAllBytes(dependenciesFile.toPath()) : null), dependencies);
+			} else {
+				manifest.write(binDir);
+				
+				// Copy the dependencies into the bin directory. The dependencies of a loaded project belong to its
+				// loaded binaries, so they are only reset when it is unloaded or switched to a new bin generation.
+				// Those of an unloaded project are reset, so that they are read from its bin directory on load.
+				if(!this.isLoaded) {
+					this.setDependencies(null);
+				}
+				if(dependenciesFile.exists()) {
+					Files.copy(dependenciesFile.toPath(),
+							new File(binDir.getAbsoluteFile(), "dependencies.txt").toPath(),
+							StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+				}
+			}
+			for(SourceEntry entry : manifest.getSources()) {
+				classCount += entry.getClasses().size();
 			}
+			compiled = true;
 			
 		} catch (Exception e) {
 			if(e instanceof CompileException) {
 				throw (CompileException) e;
 			}
 			throw new CompileException(this, e);
+		} finally {
+			CompileReport report = profiler.createReport(
+					this.projectName, inMemory, compiled, sourceCount, compiledSourceCount);
+			this.compileReport = report;
+			this.metrics.record(Timer.COMPILE, report.getTotalNanos());
+			if(!compiled) {
+				this.metrics.increment(Counter.COMPILE_FAILURES, 1);
+			}
+			if(event.shouldCommit()) {
+				event.projectName = this.projectName;
+				event.inMemory = inMemory;
+				event.success = compiled;
+				event.sourceCount = sourceCount;
+				event.compiledSourceCount = compiledSourceCount;
+				event.classCount = classCount;
+				event.commit();
+			}
 		}
 	}
 	
 	/**
-	 * compile method.
-	 * Compiles the JavaProject.
-	 * @param feedbackHandler - A feedback handler to send all compile errors/warnings from the java compiler to.
-	 * @throws CompileException If an Exception occurs while compiling the project.
+	 * Determines which source files have to be compiled, based on the source manifest of the previous compile.
+	 * Unchanged source files are added to the given manifest. When no valid previous manifest exists or when the
+	 * compiler options or classpath have changed, all source files are compiled.
+	 * @param files - All source files of the project.
+	 * @param manifest - The manifest for the new binaries, having its fingerprints set.
+	 * @param oldManifest - The manifest of the previous binaries, or {@code null} to compile all source files.
+	 * @return The compile plan.
+	 * @throws IOException If an I/O error occurs while reading a source file.
 	 */
-	public void compile(CompilerFeedbackHandler feedbackHandler) throws CompileException {
+	private CompilePlan createCompilePlan(List<File> files,
+			SourceManifest manifest, SourceManifest oldManifest) throws IOException {
+		CompilePlan plan = new CompilePlan();
 		
-		// Create a writer that divides compiler feedback into a list of warnings/errors.
-		final Writer writer = new Writer() {
-			private String buff = "";
-			@Override
-			public void write(char[] cbuf, int off, int len) throws IOException {
-				
-				// Get the message.
-				char[] toWrite = new char[len];
-				System.arraycopy(cbuf, off, toWrite, 0, len);
-				String message = new String(toWrite).replace("\r", "");
-				
-				// Divide the message in parts and add them as seperate warnings/errors.
-				// The compiler sends entire lines and seperate newlines.
-				if(message.equals("\n") || message.startsWith("\t") || message.startsWith(" ")) {
-					this.buff += message;
-				} else {
-					if(!this.buff.isEmpty()) {
-						feedbackHandler.compilerFeedback(this.buff);
+		// Compare all source files with the previous manifest. Only hash source files that were touched.
+		Map<String, File> sourceFiles = plan.sourceFiles;
+		Map<String, String> changedSourceHashes = new HashMap<String, String>();
+		for(File file : files) {
+			String path = this.srcDir.toPath().relativize(file.toPath()).toString().replace('\\', '/');
+			sourceFiles.put(path, file);
+			SourceEntry oldEntry = (oldManifest == null ? null : oldManifest.getSource(path));
+			if(oldEntry != null && oldEntry.matchesStat(file)) {
+				plan.sourceHashes.put(path, oldEntry.getHash());
+				manifest.putSource(copySourceEntry(oldEntry, file, oldEntry.getHash()));
+				continue;
+			}
+			String hash = SourceManifest.hashFile(file);
+			plan.sourceHashes.put(path, hash);
+			if(oldEntry != null && oldEntry.getHash().equals(hash)) {
+				manifest.putSource(copySourceEntry(oldEntry, file, hash));
+			} else {
+				changedSourceHashes.put(path, hash);
+			}
+		}
+		
+		// Compile everything if there is no usable manifest or if the compiler options or classpath have changed.
+		if(oldManifest == null || !oldManifest.getOptionsFingerprint().equals(manifest.getOptionsFingerprint())
+				|| !oldManifest.getClasspathFingerprint().equals(manifest.getClasspathFingerprint())) {
+			return plan.compileAll(sourceFiles);
+		}
+		
+		// Get the changed and removed source files. Compile everything if one of them declared an inlinable constant,
+		// since classes using such a constant do not reference the class declaring it.
+		Set<String> dirtySources = new HashSet<String>(changedSourceHashes.keySet());
+		for(SourceEntry oldEntry : oldManifest.getSources()) {
+			if(!sourceFiles.containsKey(oldEntry.getPath()) || changedSourceHashes.containsKey(oldEntry.getPath())) {
+				if(oldEntry.hasInlinableConstants()) {
+					return plan.compileAll(sourceFiles);
+				}
+				dirtySources.add(oldEntry.getPath());
+			}
+		}
+		
+		// Recompile the changed source files and all source files that depend on changed or removed source files.
+		for(String path : oldManifest.getDependentClosure(dirtySources)) {
+			SourceEntry oldEntry = oldManifest.getSource(path);
+			if(oldEntry != null) {
+				plan.staleClasses.addAll(oldEntry.getClasses());
+			}
+			File file = sourceFiles.get(path);
+			if(file != null) {
+				plan.sourcesToCompile.put(path, file);
+			}
+			manifest.removeSource(path);
+		}
+		return plan;
+	}
+	
+	/**
+	 * Adds the compiled source files to the given manifest, including the classes they generated and the project
+	 * classes that those classes reference.
+	 * @param manifest - The manifest, already containing all source files that were not compiled.
+	 * @param compiledSources - The compiled source files by relative path.
+	 * @param fileManager - The file manager that was used to compile the source files.
+	 * @param classes - The compiled classes by binary name, or {@code null} to read them from the bin directory.
+	 * @throws IOException If an I/O error occurs while reading a source or class file.
+	 */
+	private void addCompiledSources(SourceManifest manifest, Map<String, File> compiledSources,
+			OutputTrackingFileManager fileManager, Map<String, byte[]> classes) throws IOException {
+		
+		// Add the entries with their generated classes.
+		List<SourceEntry> newEntries = new ArrayList<SourceEntry>();
+		Map<SourceEntry, List<ClassFileInfo>> classInfos = new HashMap<SourceEntry, List<ClassFileInfo>>();
+		for(Entry<String, File> source : compiledSources.entrySet()) {
+			File file = source.getValue();
+			List<String> classNames = fileManager.getGeneratedClasses(file);
+			List<ClassFileInfo> infos = new ArrayList<ClassFileInfo>(classNames.size());
+			boolean hasInlinableConstants = false;
+			for(String className : classNames) {
+				ClassFileInfo info = ClassFileInfo.read(classes != null ? classes.get(className) : Files.readAllBytes(
+						new File(this.getBinDir(), className.replace('.', '/') + ".class").toPath()));
+				hasInlinableConstants |= info.hasInlinableConstants();
+				infos.add(info);
+			}
+			SourceEntry entry = new SourceEntry(source.getKey(), file.lastModified(),
+					file.length(), SourceManifest.hashFile(file), hasInlinableConstants);
+			entry.getClasses().addAll(classNames);
+			List<String> apiDescriptions = new ArrayList<String>();
+			for(ClassFileInfo info : infos) {
+				if(info.getSuperName() != null) {
+					entry.getSuperNames().put(info.getName(), info.getSuperName());
+				}
+				String apiDescription = info.getApiDescription();
+				if(apiDescription != null) {
+					apiDescriptions.add(apiDescription);
+				}
+			}
+			Collections.sort(apiDescriptions);
+			entry.setApiHash(SourceManifest.hashStrings(apiDescriptions));
+			manifest.putSource(entry);
+			newEntries.add(entry);
+			classInfos.put(entry, infos);
+		}
+		
+		// Add the references to project classes.
+		Set<String> projectClasses = manifest.getClassOwners().keySet();
+		for(SourceEntry entry : newEntries) {
+			for(ClassFileInfo info : classInfos.get(entry)) {
+				for(String reference : info.getReferencedClasses()) {
+					if(projectClasses.contains(reference)) {
+						entry.getReferences().add(reference);
 					}
-					this.buff = message;
 				}
 			}
-			@Override
-			public void flush() { }
-			@Override
-			public void close() {
-				if(!this.buff.isEmpty()) {
-					feedbackHandler.compilerFeedback(this.buff);
-					this.buff = null;
+		}
+	}
+	
+	private static SourceEntry copySourceEntry(SourceEntry entry, File file, String hash) {
+		SourceEntry copy = new SourceEntry(
+				entry.getPath(), file.lastModified(), file.length(), hash, entry.hasInlinableConstants());
+		copy.setApiHash(entry.getApiHash());
+		copy.getClasses().addAll(entry.getClasses());
+		copy.getSuperNames().putAll(entry.getSuperNames());
+		copy.getReferences().addAll(entry.getReferences());
+		return copy;
+	}
+	
+	/**
+	 * Creates the manifest for binaries that are restored from the build cache, using the modification times and
+	 * sizes of the current source files.
+	 * @param cachedManifest - The manifest that was stored with the cached binaries.
+	 * @param plan - The compile plan, containing all source files of the project.
+	 * @return The manifest, or {@code null} if the cached manifest does not describe the current source files.
+	 */
+	private SourceManifest createCachedManifest(SourceManifest cachedManifest, CompilePlan plan) {
+		if(cachedManifest.getSources().size() != plan.sourceFiles.size()) {
+			return null;
+		}
+		SourceManifest manifest = new SourceManifest();
+		manifest.setOptionsFingerprint(cachedManifest.getOptionsFingerprint());
+		manifest.setClasspathFingerprint(cachedManifest.getClasspathFingerprint());
+		manifest.setMainClass(cachedManifest.getMainClass());
+		for(SourceEntry entry : cachedManifest.getSources()) {
+			File file = plan.sourceFiles.get(entry.getPath());
+			if(file == null || !entry.getHash().equals(plan.sourceHashes.get(entry.getPath()))) {
+				return null;
+			}
+			manifest.putSource(copySourceEntry(entry, file, entry.getHash()));
+		}
+		return manifest;
+	}
+	
+	/**
+	 * Reads the class files of all classes in the given manifest from the bin directory.
+	 * @param manifest - The manifest.
+	 * @return A map from binary class name to class file bytes.
+	 * @throws IOException If an I/O error occurs while reading a class file.
+	 */
+	private Map<String, byte[]> readClasses(SourceManifest manifest) throws IOException {
+		Map<String, byte[]> classes = new HashMap<String, byte[]>();
+		for(SourceEntry entry : manifest.getSources()) {
+			for(String className : entry.getClasses()) {
+				classes.put(className, Files.readAllBytes(
+						new File(this.getBinDir(), className.replace('.', '/') + ".class").toPath()));
+			}
+		}
+		return classes;
+	}
+	
+	/**
+	 * Finds the main class of the project by following the superclass chains in the given manifest, without defining
+	 * any project classes. Superclasses outside of the project are resolved through the platform classloader and the
+	 * classloader that loaded JavaLoader.
+	 * @param manifest - The manifest, containing all source files of the project.
+	 * @return The binary name of the main class, or {@code null} if there is no single main class or if it cannot be
+	 * determined without defining classes (Example: When it extends from a class in a dependency project).
+	 */
+	private String findMainClass(SourceManifest manifest) {
+		Map<String, String> superNames = manifest.getSuperNames();
+		Map<String, Boolean> externalClassResults = new HashMap<String, Boolean>();
+		String mainClass = null;
+		for(String className : manifest.getClassOwners().keySet()) {
+			
+			// Follow the superclass chain until it leaves the project.
+			String superName = superNames.get(className);
+			for(int i = 0; superName != null && superNames.containsKey(superName) && i < superNames.size(); i++) {
+				superName = superNames.get(superName);
+			}
+			if(superName == null) {
+				return null; // Class without known superclass.
+			}
+			
+			// Check whether the first superclass outside of the project is a JavaLoaderProject.
+			Boolean isProjectClass = externalClassResults.get(superName);
+			if(isProjectClass == null && !externalClassResults.containsKey(superName)) {
+				isProjectClass = this.isJavaLoaderProjectClass(superName);
+				externalClassResults.put(superName, isProjectClass);
+			}
+			if(isProjectClass == null) {
+				return null;
+			}
+			if(isProjectClass) {
+				if(mainClass != null) {
+					return null; // Multiple main classes.
 				}
+				mainClass = className;
 			}
-		};
+		}
+		return mainClass;
+	}
+	
+	/**
+	 * Checks whether the given class, which is not part of this project, is or extends from {@link JavaLoaderProject}.
+	 * The class is not initialized.
+	 * @param className - The binary name of the class.
+	 * @return {@code true} if the class is or extends from {@link JavaLoaderProject}, {@code false} if it does not,
+	 * or {@code null} if the class could not be found.
+	 */
+	private Boolean isJavaLoaderProjectClass(String className) {
+		if(className.equals(Object.class.getName())) {
+			return false;
+		}
+		for(ClassLoader classLoader : new ClassLoader[] {
+				this.manager.getPlatformClassLoader(), JavaProject.class.getClassLoader()}) {
+			if(classLoader != null) {
+				try {
+					return JavaLoaderProject.class.isAssignableFrom(Class.forName(className, false, classLoader));
+				} catch (ClassNotFoundException | LinkageError e) {
+					// Ignore.
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Creates fingerprints of the given classpath entries. Files are represented by their size and modification time
+	 * and directories of compiled projects are represented by the API fingerprint of their source manifest, so that
+	 * changes that do not affect the API of a dependency do not cause a full recompile.
+	 * @param classpathEntries - The classpath entries.
+	 * @return The fingerprints, in the same order as the classpath entries.
+	 * @throws IOException If an I/O error occurs while reading a source manifest.
+	 */
+	private static List<String> getClasspathFingerprints(List<String> classpathEntries) throws IOException {
+		List<String> parts = new ArrayList<String>();
+		for(String entry : classpathEntries) {
+			File file = new File(entry);
+			SourceManifest manifest = (file.isDirectory() ? SourceManifest.read(file) : null);
+			if(manifest != null) {
+				parts.add(manifest.getApiFingerprint());
+			} else {
+				parts.add(entry + "|" + file.length() + "|" + file.lastModified());
+			}
+		}
+		return parts;
+	}
+	
+	/**
+	 * Represents which source files to compile and which class files have become stale.
+	 */
+	private static class CompilePlan {
+		private boolean fullCompile = false;
+		private final Map<String, File> sourceFiles = new HashMap<String, File>();
+		private final Map<String, String> sourceHashes = new HashMap<String, String>();
+		private final Map<String, File> sourcesToCompile = new HashMap<String, File>();
+		private final Set<String> staleClasses = new HashSet<String>();
+		
+		private CompilePlan compileAll(Map<String, File> sourceFiles) {
+			this.fullCompile = true;
+			this.sourcesToCompile.clear();
+			this.sourcesToCompile.putAll(sourceFiles);
+			this.staleClasses.clear();
+			return this;
+		}
+	}
+	
+	/**
+	 * compile method.
+	 * Compiles the JavaProject.
+	 * @param feedbackHandler - A feedback handler to send all compile errors/warnings from the java compiler to.
+	 * @throws CompileException If an Exception occurs while compiling the project.
+	 */
+	public void compile(CompilerFeedbackHandler feedbackHandler) throws CompileException {
+		this.compile(feedbackHandler, false);
+	}
+	
+	/**
+	 * Compiles the JavaProject without writing its binaries to disk. On success, the resulting binaries are stored as
+	 * the pending binaries of this project (see {@link #getPendingBinaries()}), which can be applied using
+	 * {@link #applyPendingBinaries()}.
+	 * @param feedbackHandler - A feedback handler to send all compile errors/warnings from the java compiler to.
+	 * @throws CompileException If an Exception occurs while compiling the project.
+	 */
+	public void compileInMemory(CompilerFeedbackHandler feedbackHandler) throws CompileException {
+		this.compile(feedbackHandler, true);
+	}
+	
+	private void compile(CompilerFeedbackHandler feedbackHandler, boolean inMemory) throws CompileException {
+		
+		// Pass compiler diagnostics to the feedback handler as they are reported, up to the feedback handler's limit.
+		CompilerDiagnostics diagnostics = new CompilerDiagnostics(
+				feedbackHandler.getDiagnosticLimit(), feedbackHandler::compilerDiagnostic);
 		
 		// Perform the compile.
 		CompileException ex = null;
 		try {
-			this.compile(writer);
+			this.compile(Writer.nullWriter(), diagnostics, inMemory);
 		} catch (CompileException e) {
 			ex = e;
 		}
 		
-		// Close the writer.
-		try {
-			writer.close(); // Potentially sends the last compiler feedback.
-		} catch (IOException e) {
-			// Never happens.
+		// Send the error and warning counts.
+		String summary = diagnostics.getSummary();
+		if(summary != null) {
+			feedbackHandler.compilerFeedback(summary);
 		}
 		
 		// Rethrow if an exception has occurred.
@@ -305,8 +875,26 @@ public class JavaProject {
 	 */
 	public static interface CompilerFeedbackHandler {
 		void compilerFeedback(String feedback);
+		
+		/**
+		 * Handles a diagnostic that was reported by the java compiler. By default, the formatted diagnostic is passed
+		 * to {@link #compilerFeedback(String)}.
+		 * @param diagnostic - The diagnostic.
+		 */
+		default void compilerDiagnostic(CompilerDiagnostic diagnostic) {
+			this.compilerFeedback(diagnostic.toString());
+		}
+		
+		/**
+		 * Gets the maximum amount of diagnostics that this handler is passed per compile. Further diagnostics are
+		 * only counted, and the compile is stopped at the first error beyond this limit.
+		 * @return The diagnostic limit. This defaults to {@link Integer#MAX_VALUE}, meaning no limit.
+		 */
+		default int getDiagnosticLimit() {
+			return Integer.MAX_VALUE;
+		}
 	}
-
+	
 	
 	/**
 	 * load method.
@@ -323,8 +911,10 @@ public class JavaProject {
 			throw new LoadException(this, "Project is disabled.");
 		}
 		
-		// Validate that at least the binary directory exists.
-		if(!this.binDir.exists()) {
+		// Validate that at least the binary directory exists when the project has no in-memory binaries.
+		InMemoryBinaries binaries = this.binaries;
+		File binDir = this.getBinDir();
+		if(binaries == null && !binDir.exists()) {
 			throw new LoadException(this, "Project has not been compiled.");
 		}
 		
@@ -335,12 +925,100 @@ public class JavaProject {
 			throw new LoadException(this, e.getMessage());
 		}
 		
+		// Get the main class from the source manifest if it was determined during compilation.
+		String mainClassName = null;
+		if(binaries != null) {
+			mainClassName = binaries.getManifest().getMainClass();
+		} else {
+			try {
+				SourceManifest manifest = SourceManifest.read(binDir);
+				mainClassName = (manifest == null ? null : manifest.getMainClass());
+			} catch (IOException e) {
+				// Ignore. The main class is found by loading all classes instead.
+			}
+		}
+		
+		// Prepare and start the project.
+		this.start(this.stage(binDir,
+				(binaries == null ? null : binaries.getClasses()), mainClassName, this.dependencies));
+	}
+	
+	/**
+	 * Loads this JavaProject using the given staged version of this project, as prepared using
+	 * {@link #stage(InMemoryBinaries)} or {@link #stage(File)}. This is used to reload a project with new binaries
+	 * while keeping the time between unloading the old version and loading the new version as short as possible.
+	 * The binaries that the staged version was prepared from must have been applied when this is called.
+	 * @param stagedProject - The staged project.
+	 * @throws LoadException If an Exception occurs while starting the project.
+	 * @throws IllegalStateException If the project is loaded or if the staged project belongs to a different project
+	 * or has already been used or discarded.
+	 */
+	void load(StagedProject stagedProject) throws LoadException, IllegalStateException {
+		if(this.isLoaded) {
+			throw new IllegalStateException("Cannot load a staged project into a loaded project.");
+		}
+		if(stagedProject.project != this || stagedProject.classLoader == null) {
+			throw new IllegalStateException("The staged project cannot be used for this project.");
+		}
+		this.start(stagedProject);
+	}
+	
+	/**
+	 * Prepares a new version of this JavaProject from the given in-memory binaries, without affecting the currently
+	 * loaded version. See {@link #stage(File, Map, String, List)}.
+	 * @param binaries - The in-memory binaries (Example: The pending binaries of this project).
+	 * @return The staged project.
+	 * @throws LoadException If an Exception occurs while preparing the project.
+	 */
+	StagedProject stage(InMemoryBinaries binaries) throws LoadException {
+		return this.stage(this.getBinDir(), binaries.getClasses(),
+				binaries.getManifest().getMainClass(), binaries.getDependencies());
+	}
+	
+	/**
+	 * Prepares a new version of this JavaProject from the binaries in the given bin directory, without affecting the
+	 * currently loaded version. See {@link #stage(File, Map, String, List)}.
+	 * @param newBinDir - The bin directory containing the new binaries (Example: A new bin generation).
+	 * @return The staged project.
+	 * @throws LoadException If an Exception occurs while preparing the project.
+	 */
+	StagedProject stage(File newBinDir) throws LoadException {
+		String mainClassName;
+		List<Dependency> dependencies;
+		try {
+			SourceManifest manifest = SourceManifest.read(newBinDir);
+			mainClassName = (manifest == null ? null : manifest.getMainClass());
+			dependencies = this.readDependencies(new File(newBinDir, "dependencies.txt"));
+		} catch (IOException | DependencyException e) {
+			throw new LoadException(this, "Unable to read the new binaries: " + e.getMessage());
+		}
+		return this.stage(newBinDir, null, mainClassName, dependencies);
+	}
+	
+	/**
+	 * Prepares a version of this JavaProject, creating its classloader and instantiating its main class without
+	 * starting it. This does not change the state of this project, so a loaded version of this project keeps running
+	 * while a new version is being prepared.
+	 * @param binDir - The bin directory to load the classes from.
+	 * @param classes - A map from binary class name to class file bytes, or {@code null} to load the classes from the
+	 * bin directory.
+	 * @param mainClassName - The binary name of the main class, or {@code null} to find it by loading all classes.
+	 * @param dependencies - The dependencies to load the project with, or {@code null} if there are none.
+	 * @return The staged project.
+	 * @throws LoadException If an Exception occurs while preparing the project.
+	 */
+	private StagedProject stage(File binDir, Map<String, byte[]> classes,
+			String mainClassName, List<Dependency> dependencies) throws LoadException {
+		long startNanos = System.nanoTime();
+		ProjectStageEvent event = new ProjectStageEvent();
+		event.begin();
+		
 		// Get the INCLUDE dependency files for the classloader. Existence of files will be checked by the classloader,
 		// but we will validate that JavaProject dependencies that are marked as PROVIDED are loaded here.
 		List<File> dependencyFiles = new ArrayList<File>();
 		List<ClassLoader> dependencyProjectClassLoaders = new ArrayList<ClassLoader>();
-		if(this.dependencies != null) {
-			for(Dependency dependency : this.dependencies) {
+		if(dependencies != null) {
+			for(Dependency dependency : dependencies) {
 				if(dependency instanceof ProjectDependency) {
 					
 					// Get the project.
@@ -352,6 +1030,10 @@ public class JavaProject {
 							+ " dependencies to have scope PROVIDED, but found " + projectDependency.getScope();
 					
 					// Validate that the project dependency is loaded.
+					if(project == null) {
+						throw new LoadException(this,
+								"Dependency project not found: " + projectDependency.getProjectName());
+					}
 					if(!project.isLoaded()) {
 						throw new LoadException(this, "Dependency project not loaded: " + project.getName());
 					}
@@ -376,122 +1058,255 @@ public class JavaProject {
 		}
 		
 		// Define the classloader.
+		JavaProjectClassLoader classLoader;
 		try {
-			this.classLoader = new JavaProjectClassLoader(
-					this.manager.getPlatformClassLoader(), this.binDir, dependencyFiles, dependencyProjectClassLoaders);
+			classLoader = new JavaProjectClassLoader(this.manager.getPlatformClassLoader(), binDir,
+					dependencyFiles, dependencyProjectClassLoaders, classes, this.projectName, this.metrics);
 		} catch (FileNotFoundException e) {
 			throw new LoadException(this, e.getMessage()); // Dependency file does not exist.
 		}
-		
-		// Load all .class files in the bin directory and get the "main" class.
-		ArrayList<Class<?>> mainClasses = new ArrayList<Class<?>>();
-		Stack<File> dirStack = new Stack<File>();
-		Stack<String> packageStack = new Stack<String>();
-		dirStack.push(this.binDir);
-		packageStack.push("");
-		while(!dirStack.isEmpty()) {
-			File[] localFiles = dirStack.pop().listFiles();
-			String packageStr = packageStack.pop();
-			if(localFiles != null) {
-				for(File localFile : localFiles) {
-					if(localFile.isDirectory()) {
-						dirStack.push(localFile);
-						packageStack.push(packageStr + localFile.getName() + ".");
-					} else if(localFile.getName().endsWith(".class")) {
-						String className =
-								packageStr + localFile.getName().substring(0, localFile.getName().length() - 6);
-						try {
-							Class<?> clazz = this.classLoader.loadClass(className);
-							if(JavaLoaderProject.class.isAssignableFrom(clazz)) {
-								mainClasses.add(clazz);
-							}
-//							Class<?>[] interfaces = clazz.getInterfaces();
-//							for(int i = 0; i < interfaces.length; i++) {
-//								if(interfaces[i].getName().equals(JavaLoaderProject.class.getName())) {
-//									mainClasses.add(clazz);
-//								}
-//							}
-						} catch (ClassNotFoundException e) {
-							throw new LoadException(this, "Unable to load class while it is certainly"
-									+ " in the bin directory (ClassNotFoundException): " + className);
-						} catch (NoClassDefFoundError e) {
-							throw new LoadException(this, "Unable to load class (NoClassDefFoundError,"
-									+ " class contains a reference to an undefined class): " + className);
-						} catch (UnsupportedClassVersionError e) {
-							throw new LoadException(this, "This project was compiled using a different (likely newer)"
-									+ " version of Java, and cannot be loaded by this version of Java. You can solve"
-									+ " this by recompiling the project.");
-						}
+		StagedProject stagedProject = new StagedProject(this, classLoader, dependencies);
+		try {
+			
+			// Define the main class if it was determined during compilation.
+			// This only defines the main class, leaving all other classes to be loaded when they are first used.
+			Class<?> mainClass = null;
+			if(mainClassName != null && classLoader.getProjectClassNames().contains(mainClassName)) {
+				Class<?> clazz = this.loadProjectClass(classLoader, mainClassName);
+				if(JavaLoaderProject.class.isAssignableFrom(clazz)) {
+					mainClass = clazz;
+				}
+			}
+			
+			// Load all classes and get the "main" class if the main class is not known.
+			if(mainClass == null) {
+				ArrayList<Class<?>> mainClasses = new ArrayList<Class<?>>();
+				for(String className : classLoader.getProjectClassNames()) {
+					Class<?> clazz = this.loadProjectClass(classLoader, className);
+					if(JavaLoaderProject.class.isAssignableFrom(clazz)) {
+						mainClasses.add(clazz);
 					}
 				}
+				if(mainClasses.size() == 0) {
+					throw new LoadException(this, "No main class found (one class has to extend from "
+							+ JavaLoaderProject.class.getName() + ").");
+				}
+				if(mainClasses.size() > 1) {
+					throw new LoadException(this, "Multiple main classes found"
+							+ " (only one class may extend from " + JavaLoaderProject.class.getName() + ").");
+				}
+				mainClass = mainClasses.get(0);
 			}
+			
+			// Instantiate the main class.
+			try {
+				stagedProject.projectInstance = (JavaLoaderProject) mainClass.newInstance();
+			} catch (InstantiationException e) {
+				throw new LoadException(this, "The main class (" + mainClass.getName() + ") could not be instantiated."
+						+ " This could be caused by the absence of a"
+						+ " nullary constructor in the class or because the class is not an implemented class.");
+			} catch (IllegalAccessException e) {
+				throw new LoadException(this, "The main class (" + mainClass.getName() + ") could not be accessed."
+						+ " Make sure the default constructor is public or no constructors are defined.");
+			} catch (NoClassDefFoundError e) {
+				throw new LoadException(this, "The main class (" + mainClass.getName() + ") could not be instanciated"
+						+ " because a class (or library) it depends on is missing (NoClassDefFoundError). If you have"
+						+ " removed a class after the last recompile,"
+						+ " executing a recompile will fix this since the project has been unloaded at this point.", e);
+			}
+			
+			// Get the project version (This has to happen before calling the onLoad(...) method on the stateListener).
+			long getVersionStartNanos = System.nanoTime();
+			try {
+				stagedProject.version = stagedProject.projectInstance.getVersion();
+				this.metrics.record(Timer.GET_VERSION, System.nanoTime() - getVersionStartNanos);
+			} catch (LinkageError e) {
+				throw new LoadException(this, "A LinkageError occurred in " + this.projectDir.getName() + "'s "
+						+ stagedProject.projectInstance.getClass().getName() + ".getVersion(). Is the compiled project"
+						+ " missing a dependency or was a dependency updated without recompiling the project?"
+						+ " Stacktrace:\n" + Utils.getStacktrace(e));
+			}  catch (Throwable e) {
+				throw new LoadException(this, "A problem occurred in " + this.projectDir.getName() + "'s "
+						+ stagedProject.projectInstance.getClass().getName() + ".getVersion(). Is the project up to"
+						+ " date? Stacktrace:\n" + Utils.getStacktrace(e));
+			}
+		} catch (LoadException | RuntimeException | Error e) {
+			stagedProject.discard();
+			this.metrics.increment(Counter.LOAD_FAILURES, 1);
+			this.commitStageEvent(event, classLoader, (classes != null), false);
+			throw e;
 		}
-		if(mainClasses.size() == 0) {
-			throw new LoadException(this,
-					"No main class found (one class has to extend from " + JavaLoaderProject.class.getName() + ").");
+		stagedProject.stageNanos = System.nanoTime() - startNanos;
+		this.commitStageEvent(event, classLoader, (classes != null), true);
+		return stagedProject;
+	}
+	
+	/**
+	 * Commits the given stage event if it should be committed.
+	 * @param event - The event, which has been started at the start of staging.
+	 * @param classLoader - The classloader of the staged project.
+	 * @param inMemory - Whether the project is staged from in-memory binaries.
+	 * @param success - Whether staging succeeded.
+	 */
+	private void commitStageEvent(ProjectStageEvent event,
+			JavaProjectClassLoader classLoader, boolean inMemory, boolean success) {
+		if(event.shouldCommit()) {
+			event.projectName = this.projectName;
+			event.inMemory = inMemory;
+			event.success = success;
+			event.classesDefined = classLoader.getDefinedClassCount();
+			event.classBytesDefined = classLoader.getDefinedClassBytes();
+			event.commit();
 		}
-		if(mainClasses.size() > 1) {
-			throw new LoadException(this, "Multiple main classes found"
-					+ " (only one class may extend from " + JavaLoaderProject.class.getName() + ").");
+	}
+	
+	/**
+	 * Starts the given staged version of this JavaProject, notifying the state listener and calling the onLoad method
+	 * of the project instance. The project is marked as loaded if this succeeds.
+	 * @param stagedProject - The staged project.
+	 * @throws LoadException If an Exception occurs while starting the project.
+	 */
+	private void start(StagedProject stagedProject) throws LoadException {
+		long startNanos = System.nanoTime();
+		ProjectLoadEvent event = new ProjectLoadEvent();
+		event.begin();
+		JavaProjectClassLoader classLoader = stagedProject.classLoader;
+		long classCount = classLoader.getDefinedClassCount();
+		long classBytes = classLoader.getDefinedClassBytes();
+		this.classLoader = classLoader;
+		this.projectInstance = stagedProject.projectInstance;
+		this.version = stagedProject.version;
+		if(this.dependencies != stagedProject.dependencies) {
+			this.setDependencies(stagedProject.dependencies);
 		}
-		Class<?> mainClass = mainClasses.get(0);
+		stagedProject.classLoader = null;
 		
-		// Instantiate the main class.
 		try {
-			this.projectInstance = (JavaLoaderProject) mainClass.newInstance();
-		} catch (InstantiationException e) {
-			throw new LoadException(this, "The main class (" + mainClass.getName() + ") could not be instantiated."
-					+ " This could be caused by the absence of a"
-					+ " nullary constructor in the class or because the class is not an implemented class.");
-		} catch (IllegalAccessException e) {
-			throw new LoadException(this, "The main class (" + mainClass.getName() + ") could not be accessed."
-					+ " Make sure the default constructor is public or no constructors are defined.");
-		} catch (NoClassDefFoundError e) {
-			throw new LoadException(this, "The main class (" + mainClass.getName() + ") could not be instanciated"
-					+ " because a class (or library) it depends on is missing (NoClassDefFoundError). If you have"
-					+ " removed a class after the last recompile,"
-					+ " executing a recompile will fix this since the project has been unloaded at this point.", e);
+			
+			// Notify the listener if it's set.
+			if(this.stateListener != null) {
+				StateListenerCallbackEvent callbackEvent = new StateListenerCallbackEvent();
+				callbackEvent.begin();
+				boolean callbackSuccess = false;
+				try {
+					this.stateListener.onLoad(this);
+					callbackSuccess = true;
+				} catch (LoadException e) {
+					this.metrics.increment(Counter.LOAD_FAILURES, 1);
+					throw e;
+				} catch (Exception e) {
+					this.metrics.increment(Counter.LOAD_FAILURES, 1);
+					throw new LoadException(this, "An unexpected Exception occurred in StateListener's onLoad()"
+							+ " method. This is likely a bug.", e);
+				} finally {
+					this.commitStateListenerCallbackEvent(callbackEvent, "onLoad", callbackSuccess);
+				}
+			}
+			
+			// Start the project.
+			long onLoadStartNanos = System.nanoTime();
+			try {
+				this.projectInstance.onLoad();
+				this.isLoaded = true;
+			} catch (LinkageError e) {
+				this.metrics.increment(Counter.LOAD_FAILURES, 1);
+				throw new LoadException(this, "A LinkageError occurred in " + this.projectDir.getName() + "'s "
+						+ this.projectInstance.getClass().getName() + ".onLoad(). Is the compiled project missing a"
+						+ " dependency or was a dependency updated without recompiling the project?"
+						+ " Stacktrace:\n" + Utils.getStacktrace(e));
+			} catch (Throwable e) {
+				this.metrics.increment(Counter.LOAD_FAILURES, 1);
+				throw new LoadException(this, "A problem occurred in " + this.projectDir.getName() + "'s "
+						+ this.projectInstance.getClass().getName() + ".onLoad(). Is the project up to date?"
+						+ " Stacktrace:\n" + Utils.getStacktrace(e));
+			}
+			long endNanos = System.nanoTime();
+			this.metrics.record(Timer.ON_LOAD, endNanos - onLoadStartNanos);
+			this.metrics.record(Timer.LOAD, stagedProject.stageNanos + (endNanos - startNanos));
+		} finally {
+			if(event.shouldCommit()) {
+				event.projectName = this.projectName;
+				event.success = this.isLoaded;
+				event.classesDefined = classLoader.getDefinedClassCount() - classCount;
+				event.classBytesDefined = classLoader.getDefinedClassBytes() - classBytes;
+				event.commit();
+			}
 		}
-		
-		// Get the project version (This has to happen before calling the onLoad(...) method on the stateListener).
+	}
+	
+	/**
+	 * Commits the given state listener callback event if it should be committed.
+	 * @param event - The event, which has been started before calling the state listener.
+	 * @param callback - The name of the called state listener method.
+	 * @param success - Whether the state listener method returned normally.
+	 */
+	private void commitStateListenerCallbackEvent(
+			StateListenerCallbackEvent event, String callback, boolean success) {
+		if(event.shouldCommit()) {
+			event.projectName = this.projectName;
+			event.callback = callback;
+			event.success = success;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Loads the given class of this project using the given project classloader.
+	 * @param classLoader - The project classloader.
+	 * @param className - The binary name of the class.
+	 * @return The loaded class.
+	 * @throws LoadException If the class could not be loaded.
+	 */
+	private Class<?> loadProjectClass(JavaProjectClassLoader classLoader, String className) throws LoadException {
 		try {
-			this.version = this.projectInstance.getVersion();
-		} catch (LinkageError e) {
-			throw new LoadException(this, "A LinkageError occurred in " + this.projectDir.getName() + "'s "
-					+ this.projectInstance.getClass().getName() + ".getVersion(). Is the compiled project missing a"
-					+ " dependency or was a dependency updated without recompiling the project?"
-					+ " Stacktrace:\n" + Utils.getStacktrace(e));
-		}  catch (Throwable e) {
-			throw new LoadException(this, "A problem occurred in " + this.projectDir.getName() + "'s "
-					+ this.projectInstance.getClass().getName() + ".getVersion(). Is the project up to date?"
-					+ " Stacktrace:\n" + Utils.getStacktrace(e));
+			return classLoader.loadClass(className);
+		} catch (ClassNotFoundException e) {
+			throw new LoadException(this, "Unable to load class while it is certainly"
+					+ " in the bin directory (ClassNotFoundException): " + className);
+		} catch (NoClassDefFoundError e) {
+			throw new LoadException(this, "Unable to load class (NoClassDefFoundError,"
+					+ " class contains a reference to an undefined class): " + className);
+		} catch (UnsupportedClassVersionError e) {
+			throw new LoadException(this, "This project was compiled using a different (likely newer)"
+					+ " version of Java, and cannot be loaded by this version of Java. You can solve"
+					+ " this by recompiling the project.");
 		}
+	}
+	
+	/**
+	 * Represents a version of a {@link JavaProject} of which the classloader has been created and the main class has
+	 * been instantiated, but which has not been started yet. A staged project is either loaded into its project using
+	 * {@link JavaProject#load(StagedProject)} or discarded using {@link #discard()}.
+	 */
+	static class StagedProject {
+		private final JavaProject project;
+		private volatile JavaProjectClassLoader classLoader;
+		private final List<Dependency> dependencies;
+		private JavaLoaderProject projectInstance = null;
+		private String version = null;
+		private long stageNanos = 0;
 		
-		// Notify the listener if it's set.
-		if(this.stateListener != null) {
-			try {
-				this.stateListener.onLoad(this);
-			} catch (LoadException e) {
-				throw e;
-			} catch (Exception e) {
-				throw new LoadException(this, "An unexpected Exception occurred in StateListener's onLoad() method."
-						+ " This is likely a bug.", e);
-			}
+		private StagedProject(JavaProject project,
+				JavaProjectClassLoader classLoader, List<Dependency> dependencies) {
+			this.project = project;
+			this.classLoader = classLoader;
+			this.dependencies = dependencies;
 		}
 		
-		// Start the project.
-		try {
-			this.projectInstance.onLoad();
-			this.isLoaded = true;
-		} catch (LinkageError e) {
-			throw new LoadException(this, "A LinkageError occurred in " + this.projectDir.getName() + "'s "
-					+ this.projectInstance.getClass().getName() + ".onLoad(). Is the compiled project missing a"
-					+ " dependency or was a dependency updated without recompiling the project?"
-					+ " Stacktrace:\n" + Utils.getStacktrace(e));
-		} catch (Throwable e) {
-			throw new LoadException(this, "A problem occurred in " + this.projectDir.getName() + "'s "
-					+ this.projectInstance.getClass().getName() + ".onLoad(). Is the project up to date?"
-					+ " Stacktrace:\n" + Utils.getStacktrace(e));
+		/**
+		 * Discards this staged project, closing its classloader. This does nothing if the staged project has already
+		 * been loaded or discarded.
+		 */
+		void discard() {
+			JavaProjectClassLoader classLoader = this.classLoader;
+			if(classLoader != null) {
+				this.classLoader = null;
+				try {
+					classLoader.close();
+				} catch (IOException e) {
+					// Ignore. The classloader is no longer used.
+				}
+			}
 		}
 	}
 	
@@ -525,17 +1340,7 @@ public class JavaProject {
 		List<JavaProject> unloadedProjects = new ArrayList<JavaProject>(1);
 		unloadedProjects.add(this); // We only return this on success.
 		if(method != UnloadMethod.IGNORE_DEPENDENTS) {
-			List<JavaProject> dependingProjects = new ArrayList<JavaProject>(0);
-			for(JavaProject project : this.manager.getProjects()) {
-				if(project.isLoaded() && project != this) {
-					for(Dependency dep : project.getDependencies()) {
-						if(dep instanceof ProjectDependency
-								&& ((ProjectDependency) dep).getProject() == this) {
-							dependingProjects.add(project);
-						}
-					}
-				}
-			}
+			List<JavaProject> dependingProjects = new ArrayList<JavaProject>(this.manager.getLoadedDependents(this));
 			if(!dependingProjects.isEmpty()) {
 				if(method == UnloadMethod.UNLOAD_DEPENDENTS) {
 					
@@ -558,9 +1363,16 @@ public class JavaProject {
 		}
 		
 		// Notify the listener if it's set.
+		long startNanos = System.nanoTime();
+		ProjectUnloadEvent event = new ProjectUnloadEvent();
+		event.begin();
 		if(this.stateListener != null) {
+			StateListenerCallbackEvent callbackEvent = new StateListenerCallbackEvent();
+			callbackEvent.begin();
+			boolean callbackSuccess = false;
 			try {
 				this.stateListener.onUnload(this);
+				callbackSuccess = true;
 			} catch (UnloadException e) {
 				exHandler.handleUnloadException(e);
 			} catch (Exception e) {
@@ -568,14 +1380,18 @@ public class JavaProject {
 				exHandler.handleUnloadException(new UnloadException(this, "An unexpected Exception occurred in"
 						+ " StateListener's onUnload() method. This is a bug in the platform-dependent implementation"
 						+ " of project generation of JavaLoader.", e));
+			} finally {
+				this.commitStateListenerCallbackEvent(callbackEvent, "onUnload", callbackSuccess);
 			}
 		}
 		
 		// Unload the project.
 		if(this.projectInstance != null) { // Can be null when closing the classloader threw an Exception.
+			long onUnloadStartNanos = System.nanoTime();
 			try {
 				this.projectInstance.onUnload();
 				this.projectInstance = null;
+				this.metrics.record(Timer.ON_UNLOAD, System.nanoTime() - onUnloadStartNanos);
 			} catch (LinkageError e) {
 				exHandler.handleUnloadException(new UnloadException(this,
 						"A LinkageError occurred in " + this.projectDir.getName() + "'s "
@@ -591,18 +1407,32 @@ public class JavaProject {
 		}
 		
 		// Close the classloader.
+		JavaProjectClassLoader classLoader = this.classLoader;
 		try {
-			this.classLoader.close();
+			classLoader.close();
 		} catch (IOException e) {
 			exHandler.handleUnloadException(new UnloadException(this, "An IOException occurred in JavaLoader while"
 					+ " closing the classloader for project: \"" + this.projectDir.getName() + "\".", e));
 		}
 		this.classLoader = null;
+		this.metrics.record(Timer.UNLOAD, System.nanoTime() - startNanos);
+		if(event.shouldCommit()) {
+			event.projectName = this.projectName;
+			event.classesReleased = classLoader.getDefinedClassCount();
+			event.classBytesReleased = classLoader.getDefinedClassBytes();
+			event.commit();
+		}
 		
 		// Mark the project as unloaded.
 		this.isLoaded = false;
 		this.version = null;
-		this.dependencies = null; // The user could swap binaries and load again, so reset them.
+		this.setDependencies(null); // The user could swap binaries and load again, so reset them.
+		
+		// Release the in-memory binaries if they have been flushed to the bin directory.
+		CompletableFuture<Void> binariesFlush = this.binariesFlush;
+		if(binariesFlush != null && binariesFlush.isDone() && !binariesFlush.isCompletedExceptionally()) {
+			this.binaries = null;
+		}
 		
 		// Return the unloaded projects.
 		return unloadedProjects;
@@ -643,7 +1473,103 @@ public class JavaProject {
 		if(this.isLoaded()) {
 			throw new IllegalStateException("Cannot clean a loaded project.");
 		}
-		return Utils.removeFile(this.binDir);
+		this.awaitBinariesFlush();
+		this.binaries = null;
+		this.pendingBinaries = null;
+		this.binDir = null;
+		return this.binGenerations.clear();
+	}
+	
+	/**
+	 * Gets the binaries resulting from the last successful {@link #compileInMemory(Writer)} call that have not yet been
+	 * applied using {@link #applyPendingBinaries()}.
+	 * @return The pending binaries or {@code null} if there are none.
+	 */
+	public InMemoryBinaries getPendingBinaries() {
+		return this.pendingBinaries;
+	}
+	
+	/**
+	 * Discards the pending binaries, if any.
+	 */
+	public void discardPendingBinaries() {
+		this.pendingBinaries = null;
+	}
+	
+	/**
+	 * Applies the pending binaries, so that they will be used on the next {@link #load()}. If flushing in-memory
+	 * binaries is enabled in the project manager, the binaries are written to the bin directory asynchronously.
+	 * @throws IllegalStateException If the project is loaded or if there are no pending binaries.
+	 */
+	public void applyPendingBinaries() throws IllegalStateException {
+		if(this.isLoaded) {
+			throw new IllegalStateException("Cannot apply binaries to a loaded project.");
+		}
+		InMemoryBinaries binaries = this.pendingBinaries;
+		if(binaries == null) {
+			throw new IllegalStateException("Project does not have pending binaries.");
+		}
+		this.pendingBinaries = null;
+		this.binaries = binaries;
+		this.setDependencies(binaries.getDependencies());
+		if(this.manager.isFlushInMemoryBinaries()) {
+			this.binariesFlush = this.manager.flushBinaries(this, binaries);
+			this.flushedBinaries = binaries;
+		}
+	}
+	
+	/**
+	 * Gets the in-memory binaries that are used to load this project.
+	 * @return The in-memory binaries or {@code null} if this project is loaded from its bin directory.
+	 */
+	public InMemoryBinaries getInMemoryBinaries() {
+		return this.binaries;
+	}
+	
+	/**
+	 * Gets the in-memory binaries that projects depending on this project should compile against. These are the
+	 * pending binaries if there are any, or the applied in-memory binaries otherwise.
+	 * @return The in-memory binaries or {@code null} if dependents should compile against the bin directory.
+	 */
+	public InMemoryBinaries getCompileBinaries() {
+		InMemoryBinaries pendingBinaries = this.pendingBinaries;
+		return (pendingBinaries != null ? pendingBinaries : this.binaries);
+	}
+	
+	/**
+	 * Blocks until the last asynchronous flush of the in-memory binaries to the bin directory has completed.
+	 * Returns immediately if there is no such flush.
+	 * @return {@code true} if the flush completed successfully or if there was no flush, {@code false} if it failed.
+	 */
+	public boolean awaitBinariesFlush() {
+		CompletableFuture<Void> binariesFlush = this.binariesFlush;
+		if(binariesFlush == null) {
+			return true;
+		}
+		try {
+			binariesFlush.join();
+			return true;
+		} catch (CompletionException | CancellationException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Gets the timing breakdown of the last compile of this project, being the time spent in the steps around the java
+	 * compiler, in each java compiler phase and on each compiled source file.
+	 * @return The report of the last compile, or {@code null} if this project has not been compiled yet.
+	 */
+	public CompileReport getCompileReport() {
+		return this.compileReport;
+	}
+	
+	/**
+	 * Gets the lifecycle timings and resource counters of this project. These are kept in the metrics registry of the
+	 * project manager, so they include the recordings of previous projects with the same name.
+	 * @return The project metrics.
+	 */
+	public ProjectMetrics getMetrics() {
+		return this.metrics;
 	}
 	
 	/**
@@ -714,10 +1640,63 @@ public class JavaProject {
 	
 	/**
 	 * getBinDir method.
-	 * @return The bin directory of the project (used for .class files). This directory might not exist.
+	 * @return The bin directory of the project (used for .class files). This is the current bin generation (see
+	 * {@link #getBinGenerations()}), unless another bin directory has been set. This directory might not exist.
 	 */
 	public File getBinDir() {
-		return this.binDir;
+		File binDir = this.binDir;
+		return (binDir != null ? binDir : this.binGenerations.getCurrent());
+	}
+	
+	/**
+	 * Sets the bin directory of the project, which is used as output directory for compiles on disk.
+	 * @param binDir - The bin directory, or {@code null} to use the current bin generation.
+	 */
+	void setBinDir(File binDir) {
+		this.binDir = binDir;
+	}
+	
+	/**
+	 * Gets the bin generations of the project. Compiles on disk write their binaries to a new bin generation, which
+	 * becomes the current bin generation once the binaries are applied.
+	 * @return The bin generations.
+	 */
+	public BinGenerations getBinGenerations() {
+		return this.binGenerations;
+	}
+	
+	/**
+	 * Gets the bin directory that a rollback of this project switches to. This is the previous bin generation, or the
+	 * current bin generation if this project uses in-memory binaries that have not been written to it.
+	 * @return The bin directory, or {@code null} if there is nothing to roll back to.
+	 */
+	File getRollbackBinDir() {
+		InMemoryBinaries binaries = this.binaries;
+		boolean flushed = this.awaitBinariesFlush();
+		if(binaries != null && (!flushed || this.flushedBinaries != binaries)) {
+			File currentBinDir = this.binGenerations.getCurrent();
+			return (currentBinDir.isDirectory() ? currentBinDir : null);
+		}
+		return this.binGenerations.getPrevious();
+	}
+	
+	/**
+	 * Makes the given bin generation the current bin generation of this project and drops its in-memory binaries and
+	 * dependencies, so that the project and its dependencies are loaded from the given bin generation on the next
+	 * {@link #load()}.
+	 * @param genDir - The bin directory of the bin generation.
+	 * @throws IOException If the current bin generation could not be changed.
+	 * @throws IllegalStateException If the project is loaded.
+	 */
+	void switchBinGeneration(File genDir) throws IOException, IllegalStateException {
+		if(this.isLoaded) {
+			throw new IllegalStateException("Cannot switch the bin generation of a loaded project.");
+		}
+		this.awaitBinariesFlush();
+		this.binGenerations.switchTo(genDir);
+		this.binDir = null;
+		this.binaries = null;
+		this.setDependencies(null);
 	}
 	
 	/**
@@ -771,6 +1750,16 @@ public class JavaProject {
 		return (this.dependencies == null ? null : new ArrayList<>(this.dependencies));
 	}
 	
+	/**
+	 * Sets the dependencies that will be used to load this JavaProject and updates the dependency index of the project
+	 * manager accordingly.
+	 * @param dependencies - The dependencies or null to reset them.
+	 */
+	private void setDependencies(List<Dependency> dependencies) {
+		this.dependencies = dependencies;
+		this.manager.updateDependencyIndex(this, dependencies);
+	}
+	
 	/**
 	 * Gets the dependencies that will be used to compile this JavaProject. To get the dependencies that will be used
 	 * for loading, use the {@link #getDependencies()} method.
@@ -797,9 +1786,14 @@ public class JavaProject {
 		 * Dependency array.
 		 */
 		if(this.dependencies == null) {
-			File dependenciesFile = new File(this.binDir.getAbsoluteFile(), "dependencies.txt");
+			InMemoryBinaries binaries = this.binaries;
+			if(binaries != null) {
+				this.setDependencies(binaries.getDependencies());
+				return;
+			}
+			File dependenciesFile = new File(this.getBinDir(), "dependencies.txt");
 			try {
-				this.dependencies = this.readDependencies(dependenciesFile);
+				this.setDependencies(this.readDependencies(dependenciesFile));
 			} catch (IOException e) {
 				throw new IOException("An I/O error occurred while reading the dependency descriptor file at: "
 						+ dependenciesFile.getAbsolutePath());
@@ -819,11 +1813,7 @@ public class JavaProject {
 	 * @throws IOException If an I/O error occurred while reading the dependencyFile.
 	 */
 	private List<Dependency> readDependencies(File dependencyFile) throws IOException, DependencyException {
-		String dependencyFileContents = Utils.readFile(dependencyFile, StandardCharsets.UTF_8);
-		if(dependencyFileContents == null) {
-			return Collections.emptyList(); // No dependencies available.
-		}
-		return this.dependencyParser.parseDependencies(this, dependencyFileContents);
+		return this.dependencyParser.parseDependencies(this, dependencyFile);
 	}
 	
 }
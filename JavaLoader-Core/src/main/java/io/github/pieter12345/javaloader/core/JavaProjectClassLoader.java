@@ -8,25 +8,57 @@ import java.io.IOException;
 import java.net.URLClassLoader;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+import io.github.pieter12345.javaloader.core.JavaLoaderEvents.ClassDefineEvent;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics;
+import io.github.pieter12345.javaloader.core.metrics.ProjectMetrics.Counter;
 import io.github.pieter12345.javaloader.core.utils.Utils;
 
 /**
  * JavaProjectClassLoader class.
  * This ClassLoader implementation allows one to load classes from a projects bin directory, then the ClassLoader used
  *  to load this class and last an optional list of bin directories and jar files.
+ * This ClassLoader is parallel capable. Classes with different names can be loaded concurrently, while concurrent
+ *  loads of the same class wait for the class to be defined once.
  * @author P.J.S. Kools
  */
 public class JavaProjectClassLoader extends URLClassLoader {
 	
 	// Variables & Constants.
-	private HashMap<String, Class<?>> classMap = new HashMap<String, Class<?>>();
-	private List<ClassLoader> dependencyClassLoaders;
+	private static final int MAX_MISSING_CLASS_NAMES = 4096;
+	private volatile Map<String, Class<?>> classMap = new ConcurrentHashMap<String, Class<?>>();
+	private volatile List<ClassLoader> dependencyClassLoaders;
 	private final File binDir;
+	private final Map<String, byte[]> classBytes;
+	private final String projectName;
+	private final ProjectMetrics metrics;
+	private final LongAdder definedClassCount = new LongAdder();
+	private final LongAdder definedClassBytes = new LongAdder();
 	private final ProtectionDomain protectionDomain;
 	
+	// Lookup index, built on construction.
+	private final Set<String> projectClassNames;
+	private final Set<String> includePackages = new HashSet<String>();
+	private final boolean includesIndexed;
+	private final Set<String> ownedPackages = new HashSet<String>();
+	private final boolean ownedPackagesIndexed;
+	private final Set<String> missingClassNames = ConcurrentHashMap.newKeySet();
+	
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
+	
 	/**
 	 * Constructor.
 	 * Creates a new JavaProjectClassLoader with the given bin directory.
@@ -37,6 +69,9 @@ public class JavaProjectClassLoader extends URLClassLoader {
 	public JavaProjectClassLoader(ClassLoader platformClassLoader, File binDir) {
 		super(new java.net.URL[] {Utils.fileToURL(binDir)}, platformClassLoader);
 		this.binDir = binDir;
+		this.classBytes = null;
+		this.projectName = null;
+		this.metrics = null;
 		
 		// Initialize ProtectionDomain.
 		java.security.CodeSource codeSource =
@@ -44,6 +79,11 @@ public class JavaProjectClassLoader extends URLClassLoader {
 		java.security.Permissions permissions = new java.security.Permissions();
 		permissions.add(new java.security.AllPermission());
 		this.protectionDomain = new java.security.ProtectionDomain(codeSource, permissions);
+		
+		// Build the lookup index.
+		this.projectClassNames = indexProjectClasses(binDir, null);
+		this.includesIndexed = true;
+		this.ownedPackagesIndexed = this.indexOwnedPackages();
 	}
 	
 	/**
@@ -72,8 +112,50 @@ public class JavaProjectClassLoader extends URLClassLoader {
 	 */
 	public JavaProjectClassLoader(ClassLoader platformClassLoader, File binDir, List<File> dependencies,
 			List<ClassLoader> dependencyClassLoaders) throws FileNotFoundException {
-		super(new java.net.URL[] {Utils.fileToURL(binDir)}, platformClassLoader);
+		this(platformClassLoader, binDir, dependencies, dependencyClassLoaders, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * Creates a new JavaProjectClassLoader with the given bin directory or in-memory classes and dependency files.
+	 * @param platformClassLoader - The extra platform specific {@link ClassLoader} to use for resolving platform
+	 * specific class references, or {@code null} to use none.
+	 * @param binDir - The directory containing the package directories and .class files.
+	 * @param dependencies - A list of bin directories, .class files or .jar files.
+	 * @param dependencyClassLoaders - A list of classloaders from dependencies.
+	 * @param classBytes - A map from binary class name to class file bytes, containing the classes of the project.
+	 * If this is not {@code null}, classes are defined from this map instead of from the bin directory.
+	 * @throws FileNotFoundException If a dependency file does not exist.
+	 */
+	public JavaProjectClassLoader(ClassLoader platformClassLoader, File binDir, List<File> dependencies,
+			List<ClassLoader> dependencyClassLoaders, Map<String, byte[]> classBytes) throws FileNotFoundException {
+		this(platformClassLoader, binDir, dependencies, dependencyClassLoaders, classBytes, null, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * Creates a new JavaProjectClassLoader with the given bin directory or in-memory classes and dependency files.
+	 * @param platformClassLoader - The extra platform specific {@link ClassLoader} to use for resolving platform
+	 * specific class references, or {@code null} to use none.
+	 * @param binDir - The directory containing the package directories and .class files.
+	 * @param dependencies - A list of bin directories, .class files or .jar files.
+	 * @param dependencyClassLoaders - A list of classloaders from dependencies.
+	 * @param classBytes - A map from binary class name to class file bytes, containing the classes of the project.
+	 * If this is not {@code null}, classes are defined from this map instead of from the bin directory.
+	 * @param projectName - The name of the project, used in the class define events, or {@code null} if unknown.
+	 * @param metrics - The metrics to count the defined classes and read class file bytes in,
+	 * or {@code null} to not count them.
+	 * @throws FileNotFoundException If a dependency file does not exist.
+	 */
+	public JavaProjectClassLoader(ClassLoader platformClassLoader, File binDir, List<File> dependencies,
+			List<ClassLoader> dependencyClassLoaders, Map<String, byte[]> classBytes,
+			String projectName, ProjectMetrics metrics) throws FileNotFoundException {
+		super(classBytes != null ? new java.net.URL[0] : new java.net.URL[] {Utils.fileToURL(binDir)},
+				platformClassLoader);
 		this.binDir = binDir;
+		this.classBytes = classBytes;
+		this.projectName = projectName;
+		this.metrics = metrics;
 		this.dependencyClassLoaders = (dependencyClassLoaders == null
 				? null : new ArrayList<ClassLoader>(dependencyClassLoaders));
 		
@@ -93,16 +175,51 @@ public class JavaProjectClassLoader extends URLClassLoader {
 		java.security.Permissions permissions = new java.security.Permissions();
 		permissions.add(new java.security.AllPermission());
 		this.protectionDomain = new java.security.ProtectionDomain(codeSource, permissions);
+		
+		// Build the lookup index.
+		this.projectClassNames = indexProjectClasses(binDir, classBytes);
+		boolean includesIndexed = true;
+		if(dependencies != null) {
+			for(File dependency : dependencies) {
+				if(!indexPackages(dependency, this.includePackages)) {
+					includesIndexed = false;
+				}
+			}
+		}
+		this.includesIndexed = includesIndexed;
+		this.ownedPackagesIndexed = this.indexOwnedPackages();
+	}
+	
+	/**
+	 * Gets the names of the classes of the project, being the classes in the bin directory or in-memory classes at the
+	 * moment this classloader was created.
+	 * @return The unmodifiable set of binary class names.
+	 */
+	public Set<String> getProjectClassNames() {
+		return this.projectClassNames;
+	}
+	
+	/**
+	 * Checks whether a class in the given package might be defined by this classloader or by the classloaders of its
+	 * project dependencies. Classes in other packages are loaded through the parent classloader.
+	 * @param packageName - The package name (Example: "my.package").
+	 * @return {@code true} if a class in the package might be defined, {@code false} if it certainly is not.
+	 */
+	public boolean mayDefinePackage(String packageName) {
+		return !this.ownedPackagesIndexed || this.ownedPackages.contains(packageName);
 	}
 	
 	/**
 	 * loadClass method.
 	 * Loads the class with given name. If a class exists in multiple places, it is loaded in this order:
-	 *  <br>1. The bin directory of the project.
+	 *  <br>1. The bin directory of the project, or the in-memory classes of the project if they were given.
 	 *  <br>2. The passed projects dependencies (only INCLUDE dependencies).
 	 *  <br>3. The ClassLoaders of project dependencies (when depending on other JavaLoader projects).
 	 *  <br>4. The parent ClassLoader.
 	 *  <br>5. The ClassLoader used to load this ClassLoader.
+	 * Sources that are known not to contain the class are skipped using the index built on construction,
+	 * and classes in packages of the project or its dependencies that were not found are remembered so that they fail
+	 * fast on the next lookup.
 	 * @param name - The binary name of the class (Example: "my.package.MyClass").
 	 * @return The resulting Class object.
 	 * @throws ClassNotFoundException If the class was not found.
@@ -111,18 +228,100 @@ public class JavaProjectClassLoader extends URLClassLoader {
 	public Class<?> loadClass(String name) throws ClassNotFoundException {
 		
 		// Throw an Exception when the ClassLoader was already closed.
-		if(this.classMap == null) {
+		Map<String, Class<?>> classMap = this.classMap;
+		if(classMap == null) {
 			throw new ClassNotFoundException("This classloader has been closed.");
 		}
 		
 		// Return classes from the classMap if they have already been loaded.
-		if(this.classMap.containsKey(name)) {
-			return this.classMap.get(name);
+		Class<?> loadedClass = classMap.get(name);
+		if(loadedClass != null) {
+			return loadedClass;
+		}
+		
+		// Fail fast for classes that were not found before.
+		if(this.missingClassNames.contains(name)) {
+			throw new ClassNotFoundException("Class not found: " + name);
+		}
+		
+		// Load the class while holding the lock for its name. Concurrent loads of the same class wait here and then
+		// get the class from the classMap, so that the class is never defined twice.
+		synchronized(this.getClassLoadingLock(name)) {
+			loadedClass = classMap.get(name);
+			if(loadedClass == null) {
+				loadedClass = this.loadUncachedClass(name);
+				classMap.put(name, loadedClass);
+			}
+			return loadedClass;
+		}
+	}
+	
+	/**
+	 * Gets the amount of project classes that this classloader has defined.
+	 * @return The defined class count.
+	 */
+	public long getDefinedClassCount() {
+		return this.definedClassCount.sum();
+	}
+	
+	/**
+	 * Gets the total size of the project classes that this classloader has defined.
+	 * @return The size in bytes.
+	 */
+	public long getDefinedClassBytes() {
+		return this.definedClassBytes.sum();
+	}
+	
+	/**
+	 * Defines a class of the project from the given class file bytes, counting it in the metrics and emitting a class
+	 * define event.
+	 * @param name - The binary name of the class.
+	 * @param bytes - The class file bytes.
+	 * @return The defined Class object.
+	 */
+	private Class<?> defineProjectClass(String name, byte[] bytes) {
+		ClassDefineEvent event = new ClassDefineEvent();
+		event.begin();
+		Class<?> clazz = this.defineClass(name, bytes, 0, bytes.length, this.protectionDomain);
+		if(event.shouldCommit()) {
+			event.projectName = this.projectName;
+			event.className = name;
+			event.byteSize = bytes.length;
+			event.inMemory = (this.classBytes != null);
+			event.commit();
+		}
+		this.definedClassCount.increment();
+		this.definedClassBytes.add(bytes.length);
+		if(this.metrics != null) {
+			this.metrics.increment(Counter.CLASSES_DEFINED, 1);
+			this.metrics.increment(Counter.CLASS_BYTES_DEFINED, bytes.length);
+		}
+		return clazz;
+	}
+	
+	/**
+	 * Loads the class with the given name in the order described in {@link #loadClass(String)}, without using the
+	 * classMap. This must only be called while holding the class loading lock for the given name.
+	 * @param name - The binary name of the class.
+	 * @return The resulting Class object.
+	 * @throws ClassNotFoundException If the class was not found.
+	 */
+	private Class<?> loadUncachedClass(String name) throws ClassNotFoundException {
+		int packageEndIndex = name.lastIndexOf('.');
+		String packageName = (packageEndIndex == -1 ? "" : name.substring(0, packageEndIndex));
+		
+		// Define the class from the in-memory classes if they were given. The bin directory is not used in that case.
+		if(this.classBytes != null) {
+			byte[] bytes = this.classBytes.get(name);
+			if(bytes != null) {
+				return this.defineProjectClass(name, bytes);
+			}
 		}
 		
 		// Check if the classfile exists in the projects bin directory.
-		File classFile = new File(this.binDir, name.replace(".", "/") + ".class");
-		if(classFile.isFile()) {
+		File classFile = (this.classBytes != null || !this.projectClassNames.contains(name) ? null
+				: new File(this.binDir, name.replace(".", "/") + ".class"));
+		if(classFile != null && classFile.isFile()) {
 			try {
 				FileInputStream fis = new FileInputStream(classFile);
 				ByteArrayOutputStream byteArrayOutStream = new ByteArrayOutputStream();
@@ -133,9 +332,10 @@ public class JavaProjectClassLoader extends URLClassLoader {
 				}
 				fis.close();
 				byte[] bytes = byteArrayOutStream.toByteArray();
-				Class<?> definedClass = this.defineClass(name, bytes, 0, bytes.length, this.protectionDomain);
-				this.classMap.put(name, definedClass);
-				return definedClass;
+				if(this.metrics != null) {
+					this.metrics.increment(Counter.CLASS_BYTES_READ, bytes.length);
+				}
+				return this.defineProjectClass(name, bytes);
 			} catch (IOException e) {
 				throw new ClassNotFoundException(
 						"An IOException occured while reading existing class file: " + classFile.getAbsolutePath());
@@ -144,21 +344,24 @@ public class JavaProjectClassLoader extends URLClassLoader {
 		
 		// Attempt to load the class using the URLClassLoader URLs, bypassing a lookup in the parent classloader.
 		// This loads classes from dependency directories, .class files and .jar files.
-		try {
-			Class<?> definedClass = super.findClass(name);
-			this.classMap.put(name, definedClass);
-			return definedClass;
-		} catch (ClassNotFoundException e) {
-			// Ignore.
+		if(!this.includesIndexed || this.includePackages.contains(packageName)) {
+			try {
+				return super.findClass(name);
+			} catch (ClassNotFoundException e) {
+				// Ignore.
+			}
 		}
 		
 		// Attempt to load the class using classloaders from dependencies.
-		if(this.dependencyClassLoaders != null) {
-			for(ClassLoader classLoader : this.dependencyClassLoaders) {
+		List<ClassLoader> dependencyClassLoaders = this.dependencyClassLoaders;
+		if(dependencyClassLoaders != null) {
+			for(ClassLoader classLoader : dependencyClassLoaders) {
+				if(classLoader instanceof JavaProjectClassLoader
+						&& !((JavaProjectClassLoader) classLoader).mayDefinePackage(packageName)) {
+					continue;
+				}
 				try {
-					Class<?> definedClass = classLoader.loadClass(name);
-					this.classMap.put(name, definedClass);
-					return definedClass;
+					return classLoader.loadClass(name);
 				} catch (ClassNotFoundException e) {
 					// Ignore.
 				}
@@ -167,9 +370,7 @@ public class JavaProjectClassLoader extends URLClassLoader {
 		
 		// Attempt to load the class using the parent classloader.
 		try {
-			Class<?> definedClass = super.loadClass(name);
-			this.classMap.put(name, definedClass);
-			return definedClass;
+			return super.loadClass(name);
 		} catch (ClassNotFoundException e) {
 			// Ignore.
 		}
@@ -178,17 +379,113 @@ public class JavaProjectClassLoader extends URLClassLoader {
 		// This is necessary to resolve JavaLoader classes for platforms on which JavaLoader is loaded using a child
 		// classloader of the platform specific parent classloader, or if that parent classloader has not been set.
 		try {
-			Class<?> definedClass = JavaProjectClassLoader.class.getClassLoader().loadClass(name);
-			this.classMap.put(name, definedClass);
-			return definedClass;
+			return JavaProjectClassLoader.class.getClassLoader().loadClass(name);
 		} catch (ClassNotFoundException e) {
 			// Ignore.
 		}
 		
-		// Throw a ClassNotFoundException since the class was not found.
+		// Throw a ClassNotFoundException since the class was not found. The class is only remembered as missing when
+		// the index proves that this project and its dependencies do not have it. Other classes are left to the parent
+		// classloaders, which can find classes later on (Example: Classes of a plugin that is enabled later).
+		if(this.ownedPackagesIndexed && this.ownedPackages.contains(packageName)
+				&& this.missingClassNames.size() < MAX_MISSING_CLASS_NAMES) {
+			this.missingClassNames.add(name);
+		}
 		throw new ClassNotFoundException("Class not found: " + name);
 	}
 	
+	/**
+	 * Adds the packages of this classloader and the packages of its project dependency classloaders to the owned
+	 * packages. Dependency classloaders that are not a {@link JavaProjectClassLoader} cannot be indexed.
+	 * @return {@code true} if all owned packages are known, {@code false} otherwise.
+	 */
+	private boolean indexOwnedPackages() {
+		for(String className : this.projectClassNames) {
+			int packageEndIndex = className.lastIndexOf('.');
+			this.ownedPackages.add(packageEndIndex == -1 ? "" : className.substring(0, packageEndIndex));
+		}
+		this.ownedPackages.addAll(this.includePackages);
+		boolean ownedPackagesIndexed = this.includesIndexed;
+		if(this.dependencyClassLoaders != null) {
+			for(ClassLoader classLoader : this.dependencyClassLoaders) {
+				if(classLoader instanceof JavaProjectClassLoader
+						&& ((JavaProjectClassLoader) classLoader).ownedPackagesIndexed) {
+					this.ownedPackages.addAll(((JavaProjectClassLoader) classLoader).ownedPackages);
+				} else {
+					ownedPackagesIndexed = false;
+				}
+			}
+		}
+		return ownedPackagesIndexed;
+	}
+	
+	/**
+	 * Gets the names of all project classes in the given in-memory classes, or in the given bin directory if no
+	 * in-memory classes are given.
+	 * @param binDir - The bin directory.
+	 * @param classBytes - The in-memory classes or {@code null}.
+	 * @return The unmodifiable set of binary class names.
+	 */
+	private static Set<String> indexProjectClasses(File binDir, Map<String, byte[]> classBytes) {
+		if(classBytes != null) {
+			return Collections.unmodifiableSet(new HashSet<String>(classBytes.keySet()));
+		}
+		Set<String> classNames = new HashSet<String>();
+		Stack<File> dirStack = new Stack<File>();
+		Stack<String> packageStack = new Stack<String>();
+		dirStack.push(binDir);
+		packageStack.push("");
+		while(!dirStack.isEmpty()) {
+			File[] localFiles = dirStack.pop().listFiles();
+			String packageStr = packageStack.pop();
+			if(localFiles != null) {
+				for(File localFile : localFiles) {
+					if(localFile.isDirectory()) {
+						dirStack.push(localFile);
+						packageStack.push(packageStr + localFile.getName() + ".");
+					} else if(localFile.getName().endsWith(".class")) {
+						classNames.add(
+								packageStr + localFile.getName().substring(0, localFile.getName().length() - 6));
+					}
+				}
+			}
+		}
+		return Collections.unmodifiableSet(classNames);
+	}
+	
+	/**
+	 * Adds the packages of all classes in the given directory or .jar file to the given set.
+	 * @param file - The directory or .jar file.
+	 * @param packages - The set to add the package names to.
+	 * @return {@code true} if the file was indexed, {@code false} if its contents could not be determined.
+	 */
+	private static boolean indexPackages(File file, Set<String> packages) {
+		if(file.isDirectory()) {
+			for(String className : indexProjectClasses(file, null)) {
+				int packageEndIndex = className.lastIndexOf('.');
+				packages.add(packageEndIndex == -1 ? "" : className.substring(0, packageEndIndex));
+			}
+			return true;
+		}
+		if(!file.getName().endsWith(".jar")) {
+			return false;
+		}
+		try(ZipFile zipFile = new ZipFile(file)) {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while(entries.hasMoreElements()) {
+				String entryName = entries.nextElement().getName();
+				if(entryName.endsWith(".class")) {
+					int packageEndIndex = entryName.lastIndexOf('/');
+					packages.add(packageEndIndex == -1
+							? "" : entryName.substring(0, packageEndIndex).replace('/', '.'));
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
 	/**
 	 * addCustomClass method.
 	 * Puts the given class in this classloaders cache if no class with the same name and package already exists.
@@ -198,21 +495,20 @@ public class JavaProjectClassLoader extends URLClassLoader {
 	 *  @throws RuntimeException If this method is called after the close() method is called.
 	 */
 	public boolean addCustomClass(Class<?> clazz) {
-		if(this.classMap == null) {
+		Map<String, Class<?>> classMap = this.classMap;
+		if(classMap == null) {
 			throw new RuntimeException("This classloader has been closed.");
 		}
-		if(!this.classMap.containsKey(clazz.getName())) {
-			this.classMap.put(clazz.getName(), clazz);
-			return true;
-		}
-		return false;
+		return classMap.putIfAbsent(clazz.getName(), clazz) == null;
 	}
 	
 	@Override
 	public void close() throws IOException {
-		if(this.classMap != null) {
-			this.classMap.clear();
+		Map<String, Class<?>> classMap = this.classMap;
+		if(classMap != null) {
 			this.classMap = null;
+			classMap.clear();
+			this.missingClassNames.clear();
 			this.dependencyClassLoaders = null;
 		}
 		super.close();
@@ -2,7 +2,9 @@ package io.github.pieter12345.javaloader.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -11,13 +13,28 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import io.github.pieter12345.graph.Graph;
 import io.github.pieter12345.graph.Graph.ChildBeforeParentGraphIterator;
+import io.github.pieter12345.graph.Graph.ChildBeforeParentGraphScheduler;
 import io.github.pieter12345.graph.Graph.ParentBeforeChildGraphIterator;
 import io.github.pieter12345.javaloader.core.JavaProject.CompilerFeedbackHandler;
+import io.github.pieter12345.javaloader.core.JavaProject.StagedProject;
 import io.github.pieter12345.javaloader.core.JavaProject.UnloadMethod;
+import io.github.pieter12345.javaloader.core.compiler.BinGenerations;
+import io.github.pieter12345.javaloader.core.compiler.BuildCache;
+import io.github.pieter12345.javaloader.core.compiler.CompilerService;
+import io.github.pieter12345.javaloader.core.compiler.InMemoryBinaries;
+import io.github.pieter12345.javaloader.core.compiler.SourceManifest;
 import io.github.pieter12345.javaloader.core.dependency.Dependency;
 import io.github.pieter12345.javaloader.core.dependency.ProjectDependency;
 import io.github.pieter12345.javaloader.core.dependency.ProjectDependencyParser;
@@ -27,9 +44,11 @@ import io.github.pieter12345.javaloader.core.exceptions.DependencyException;
 import io.github.pieter12345.javaloader.core.exceptions.JavaProjectException;
 import io.github.pieter12345.javaloader.core.exceptions.LoadException;
 import io.github.pieter12345.javaloader.core.exceptions.UnloadException;
+import io.github.pieter12345.javaloader.core.exceptions.handlers.CompileExceptionHandler;
 import io.github.pieter12345.javaloader.core.exceptions.handlers.LoadExceptionHandler;
 import io.github.pieter12345.javaloader.core.exceptions.handlers.ProjectExceptionHandler;
 import io.github.pieter12345.javaloader.core.exceptions.handlers.UnloadExceptionHandler;
+import io.github.pieter12345.javaloader.core.metrics.MetricsRegistry;
 import io.github.pieter12345.javaloader.core.utils.Utils;
 
 /**
@@ -43,6 +62,21 @@ public class ProjectManager {
 	private final File projectsDir;
 	private final ProjectDependencyParser dependencyParser;
 	private final ClassLoader platformClassLoader;
+	private final CompilerService compilerService = new CompilerService();
+	private volatile boolean incrementalCompilation = true;
+	private final BuildCache buildCache;
+	private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+	private volatile boolean buildCacheEnabled = true;
+	private volatile int maxCompileThreads = Runtime.getRuntime().availableProcessors();
+	private volatile boolean inMemoryCompilation = false;
+	private volatile boolean changeAwareRecompile = true;
+	private volatile boolean stagedReload = true;
+	private volatile boolean flushInMemoryBinaries = true;
+	private volatile CompileExceptionHandler binariesFlushExceptionHandler = null;
+	private ExecutorService binariesExecutor = null;
+	private volatile int retainedBinGenerations = 1;
+	private final Map<JavaProject, Set<String>> projectDependencyNames = new HashMap<JavaProject, Set<String>>();
+	private final Map<String, Set<JavaProject>> projectDependents = new HashMap<String, Set<JavaProject>>();
 	
 	/**
 	 * Creates a new {@link ProjectManager}.
@@ -64,6 +98,7 @@ public class ProjectManager {
 		this.projectsDir = projectsDir;
 		this.dependencyParser = dependencyParser;
 		this.platformClassLoader = platformClassLoader;
+		this.buildCache = (projectsDir == null ? null : new BuildCache(new File(projectsDir, BuildCache.DIR_NAME)));
 	}
 	
 	/**
@@ -75,6 +110,268 @@ public class ProjectManager {
 		return this.platformClassLoader;
 	}
 	
+	/**
+	 * Gets the compiler service that is used to compile the projects in this project manager.
+	 * @return The {@link CompilerService}.
+	 */
+	public CompilerService getCompilerService() {
+		return this.compilerService;
+	}
+	
+	/**
+	 * Gets the registry containing the lifecycle timings and resource counters of the projects in this project manager.
+	 * @return The {@link MetricsRegistry}.
+	 */
+	public MetricsRegistry getMetricsRegistry() {
+		return this.metricsRegistry;
+	}
+	
+	/**
+	 * Checks whether projects in this project manager are compiled incrementally. When enabled, a compile only
+	 * recompiles the source files that changed since the last compile and the source files that depend on them.
+	 * @return {@code true} if incremental compilation is enabled, {@code false} otherwise.
+	 */
+	public boolean isIncrementalCompilation() {
+		return this.incrementalCompilation;
+	}
+	
+	/**
+	 * Sets whether projects in this project manager are compiled incrementally. This is enabled by default.
+	 * @param incrementalCompilation - {@code true} to enable incremental compilation, {@code false} to always compile
+	 * all source files.
+	 */
+	public void setIncrementalCompilation(boolean incrementalCompilation) {
+		this.incrementalCompilation = incrementalCompilation;
+	}
+	
+	/**
+	 * Gets the build cache in which the binaries of compiled projects are stored, being the {@link BuildCache#DIR_NAME}
+	 * directory in the projects directory.
+	 * @return The {@link BuildCache}, or {@code null} if this project manager has no projects directory.
+	 */
+	public BuildCache getBuildCache() {
+		return this.buildCache;
+	}
+	
+	/**
+	 * Checks whether the build cache is used when compiling projects in this project manager. When enabled, compiling
+	 * source files that have been compiled before against the same dependencies restores the binaries from the build
+	 * cache instead of running the java compiler.
+	 * @return {@code true} if the build cache is enabled, {@code false} otherwise.
+	 */
+	public boolean isBuildCacheEnabled() {
+		return this.buildCacheEnabled;
+	}
+	
+	/**
+	 * Sets whether the build cache is used when compiling projects in this project manager. This is enabled by default.
+	 * @param buildCacheEnabled - {@code true} to enable the build cache, {@code false} to always run the java compiler.
+	 */
+	public void setBuildCacheEnabled(boolean buildCacheEnabled) {
+		this.buildCacheEnabled = buildCacheEnabled;
+	}
+	
+	/**
+	 * Gets the maximum amount of threads that are used to compile projects concurrently in a recompile-all operation.
+	 * @return The maximum amount of compile threads.
+	 */
+	public int getMaxCompileThreads() {
+		return this.maxCompileThreads;
+	}
+	
+	/**
+	 * Sets the maximum amount of threads that are used to compile projects concurrently in a recompile-all operation.
+	 * This defaults to the amount of available processors.
+	 * @param maxCompileThreads - The maximum amount of compile threads.
+	 * @throws IllegalArgumentException If maxCompileThreads is smaller than 1.
+	 */
+	public void setMaxCompileThreads(int maxCompileThreads) throws IllegalArgumentException {
+		if(maxCompileThreads < 1) {
+			throw new IllegalArgumentException("The maximum amount of compile threads must be at least 1.");
+		}
+		this.maxCompileThreads = maxCompileThreads;
+	}
+	
+	/**
+	 * Checks whether projects are compiled in memory by the recompile operations of this project manager. When enabled,
+	 * compiled classes are captured in memory and loaded from there, rather than being written to and read back from
+	 * the bin directory.
+	 * @return {@code true} if in-memory compilation is enabled, {@code false} otherwise.
+	 */
+	public boolean isInMemoryCompilation() {
+		return this.inMemoryCompilation;
+	}
+	
+	/**
+	 * Sets whether projects are compiled in memory by the recompile operations of this project manager.
+	 * This is disabled by default.
+	 * @param inMemoryCompilation - {@code true} to enable in-memory compilation, {@code false} to compile to the bin
+	 * directory.
+	 */
+	public void setInMemoryCompilation(boolean inMemoryCompilation) {
+		this.inMemoryCompilation = inMemoryCompilation;
+	}
+	
+	/**
+	 * Checks whether recompiling all projects only unloads and loads the projects of which the binaries changed.
+	 * When enabled, loaded projects of which the newly compiled binaries are the same as the loaded binaries are left
+	 * loaded, unless they depend on a project that is reloaded.
+	 * @return {@code true} if change-aware recompiles are enabled, {@code false} if all projects are reloaded.
+	 */
+	public boolean isChangeAwareRecompile() {
+		return this.changeAwareRecompile;
+	}
+	
+	/**
+	 * Sets whether recompiling all projects only unloads and loads the projects of which the binaries changed.
+	 * This is enabled by default.
+	 * @param changeAwareRecompile - {@code true} to only reload changed projects and their dependents, {@code false}
+	 * to reload all projects.
+	 */
+	public void setChangeAwareRecompile(boolean changeAwareRecompile) {
+		this.changeAwareRecompile = changeAwareRecompile;
+	}
+	
+	/**
+	 * Checks whether recompiling a loaded project prepares the new version of the project before unloading the old
+	 * version. When enabled, the classloader of the new version is created and its main class is instantiated while
+	 * the old version is still loaded, so that the project is only unavailable between the onUnload and onLoad calls.
+	 * If preparing the new version fails, the old version is left loaded.
+	 * @return {@code true} if staged reloads are enabled, {@code false} otherwise.
+	 */
+	public boolean isStagedReload() {
+		return this.stagedReload;
+	}
+	
+	/**
+	 * Sets whether recompiling a loaded project prepares the new version of the project before unloading the old
+	 * version. This is enabled by default.
+	 * @param stagedReload - {@code true} to enable staged reloads, {@code false} to disable them.
+	 */
+	public void setStagedReload(boolean stagedReload) {
+		this.stagedReload = stagedReload;
+	}
+	
+	/**
+	 * Checks whether in-memory binaries are written to the project bin directories in the background after they have
+	 * been applied, so that they are available after a restart.
+	 * @return {@code true} if flushing in-memory binaries is enabled, {@code false} otherwise.
+	 */
+	public boolean isFlushInMemoryBinaries() {
+		return this.flushInMemoryBinaries;
+	}
+	
+	/**
+	 * Sets whether in-memory binaries are written to the project bin directories in the background after they have
+	 * been applied. This is enabled by default.
+	 * @param flushInMemoryBinaries - {@code true} to flush in-memory binaries, {@code false} to only keep them in
+	 * memory.
+	 */
+	public void setFlushInMemoryBinaries(boolean flushInMemoryBinaries) {
+		this.flushInMemoryBinaries = flushInMemoryBinaries;
+	}
+	
+	/**
+	 * Sets the handler that receives exceptions that occur while flushing in-memory binaries to a bin directory.
+	 * This handler is called from the background flush thread.
+	 * @param exHandler - The exception handler, or {@code null} to print these exceptions to the standard error stream.
+	 */
+	public void setBinariesFlushExceptionHandler(CompileExceptionHandler exHandler) {
+		this.binariesFlushExceptionHandler = exHandler;
+	}
+	
+	/**
+	 * Gets the amount of previous bin generations that are kept for every project, so that projects can be rolled
+	 * back to them using {@link #rollback(JavaProject, UnloadExceptionHandler)}.
+	 * @return The amount of retained previous bin generations.
+	 */
+	public int getRetainedBinGenerations() {
+		return this.retainedBinGenerations;
+	}
+	
+	/**
+	 * Sets the amount of previous bin generations that are kept for every project. Older bin generations are removed
+	 * in the background after a project has switched to a new bin generation. This defaults to 1.
+	 * @param retainedBinGenerations - The amount of retained previous bin generations.
+	 * @throws IllegalArgumentException If retainedBinGenerations is negative.
+	 */
+	public void setRetainedBinGenerations(int retainedBinGenerations) throws IllegalArgumentException {
+		if(retainedBinGenerations < 0) {
+			throw new IllegalArgumentException("The amount of retained bin generations cannot be negative.");
+		}
+		this.retainedBinGenerations = retainedBinGenerations;
+	}
+	
+	/**
+	 * Writes the given in-memory binaries to a new bin generation of the given project in the background and makes
+	 * it the current bin generation. Flushes are executed one at a time, in the order in which they were requested.
+	 * @param project - The project.
+	 * @param binaries - The in-memory binaries of the project.
+	 * @return A future that completes when the binaries have been flushed.
+	 */
+	protected synchronized CompletableFuture<Void> flushBinaries(JavaProject project, InMemoryBinaries binaries) {
+		return CompletableFuture.runAsync(() -> {
+			BinGenerations binGenerations = project.getBinGenerations();
+			File genDir = binGenerations.createNext();
+			try {
+				binaries.writeTo(genDir);
+				binGenerations.switchTo(genDir);
+			} catch (IOException e) {
+				Utils.removeFile(genDir);
+				CompileException ex = new CompileException(project, "Failed to write the in-memory binaries to the bin"
+						+ " directory. The project will not be able to load these binaries after a restart.", e);
+				CompileExceptionHandler exHandler = this.binariesFlushExceptionHandler;
+				if(exHandler != null) {
+					exHandler.handleCompileException(ex);
+				} else {
+					ex.printStackTrace();
+				}
+				throw new CompletionException(e);
+			}
+			binGenerations.collectGarbage(this.retainedBinGenerations);
+		}, this.getBinariesExecutor());
+	}
+	
+	/**
+	 * Removes the bin generations of the given project that are no longer retained in the background.
+	 * @param project - The project.
+	 */
+	protected synchronized void collectBinGarbage(JavaProject project) {
+		this.getBinariesExecutor().execute(
+				() -> project.getBinGenerations().collectGarbage(this.retainedBinGenerations));
+	}
+	
+	private synchronized ExecutorService getBinariesExecutor() {
+		if(this.binariesExecutor == null) {
+			this.binariesExecutor = Executors.newSingleThreadExecutor((Runnable runnable) -> {
+				Thread thread = new Thread(runnable, "JavaLoader binaries");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.binariesExecutor;
+	}
+	
+	/**
+	 * Sets the bin directory of the given project to a new bin generation to compile into. Pending flushes of
+	 * in-memory binaries are awaited first, since these create new bin generations as well.
+	 * @param project - The project.
+	 */
+	private static void setNewBinGeneration(JavaProject project) {
+		project.awaitBinariesFlush();
+		project.setBinDir(project.getBinGenerations().createNext());
+	}
+	
+	/**
+	 * Checks whether the bin directory of the given project is its current bin generation, meaning that the project
+	 * does not have newly compiled binaries in a new bin generation.
+	 * @param project - The project.
+	 * @return {@code true} if the project uses its current bin generation, {@code false} otherwise.
+	 */
+	private static boolean usesCurrentBinGeneration(JavaProject project) {
+		return project.getBinDir().equals(project.getBinGenerations().getCurrent());
+	}
+	
 	/**
 	 * Adds the given project to this project manager. If a project with an equal name already exists, nothing happens.
 	 * @param project - The project to add.
@@ -103,7 +400,11 @@ public class ProjectManager {
 		if(project.isLoaded()) {
 			throw new IllegalStateException("Cannot remove a loaded project.");
 		}
-		return this.projects.remove(project.getName(), project);
+		if(this.projects.remove(project.getName(), project)) {
+			this.updateDependencyIndex(project, null);
+			return true;
+		}
+		return false;
 	}
 	
 	/**
@@ -204,10 +505,22 @@ public class ProjectManager {
 	 * These sets do not overlap.
 	 */
 	public LoadAllResult loadAllProjects(LoadExceptionHandler exHandler) {
+		return this.loadProjects(this.projects.values(), exHandler);
+	}
+	
+	/**
+	 * Loads the unloaded enabled projects in the given collection in dependency order. Projects that depend on
+	 * projects that are not loaded and not in the given collection cannot be loaded.
+	 * @param projectsToLoad - The projects to load.
+	 * @param exHandler - An exception handler for load exceptions that occur during loading.
+	 * @return A LoadAllResult containing a set of loaded projects by this method and a set of error projects.
+	 * These sets do not overlap.
+	 */
+	private LoadAllResult loadProjects(Collection<JavaProject> projectsToLoad, LoadExceptionHandler exHandler) {
 		
 		// Create a set of unloaded enabled projects.
 		Set<JavaProject> projects = new HashSet<JavaProject>();
-		for(JavaProject project : this.projects.values()) {
+		for(JavaProject project : projectsToLoad) {
 			if(!project.isLoaded() && !project.isDisabled()) {
 				projects.add(project);
 			}
@@ -428,6 +741,9 @@ public class ProjectManager {
 			}
 		}
 		
+		// Index the ancestors and descendents of all projects, which are queried for cycles and dependents.
+		graph.setReachabilityIndexEnabled(true);
+		
 		// Return the generated graph and occurred exceptions.
 		return new GraphGenerationResult(graph, exceptions);
 	}
@@ -469,6 +785,9 @@ public class ProjectManager {
 	 * Compiles, unloads (if loaded) and loads the given project. Compilation happens in a temporary directory, so
 	 * if a CompileException occurs, the temporary directory is simply removed and the project will stay loaded if
 	 * it was loaded.
+	 * This is equivalent to calling {@link #prepareRecompile(JavaProject)},
+	 * {@link #compile(RecompilePlan, CompilerFeedbackHandler)} and
+	 * {@link #applyRecompile(RecompilePlan, UnloadExceptionHandler)} in sequence.
 	 * @param project - The project to compile, unload and load.
 	 * @param compilerFeedbackHandler - The compiler feedback handler which will receive all java compiler feedback.
 	 * @param unloadExHandler - If this project was loaded and an unload caused exceptions, they are passed to this
@@ -485,6 +804,24 @@ public class ProjectManager {
 	public void recompile(JavaProject project, CompilerFeedbackHandler compilerFeedbackHandler,
 			UnloadExceptionHandler unloadExHandler) throws
 			CompileException, LoadException, DepOrderViolationException, IllegalArgumentException {
+		RecompilePlan plan = this.prepareRecompile(project);
+		this.compile(plan, compilerFeedbackHandler);
+		this.applyRecompile(plan, unloadExHandler);
+	}
+	
+	/**
+	 * Prepares a recompile of the given project. The returned plan has to be compiled using
+	 * {@link #compile(RecompilePlan, CompilerFeedbackHandler)} and then applied using
+	 * {@link #applyRecompile(RecompilePlan, UnloadExceptionHandler)}, or discarded using
+	 * {@link #discardRecompile(RecompilePlan)} if it cannot be applied.
+	 * @param project - The project to recompile.
+	 * @return The recompile plan.
+	 * @throws DepOrderViolationException When the given project is loaded and at least one of its dependents is loaded.
+	 * @throws IllegalArgumentException When {@link project#getProjectManager()} != this or when project is not known
+	 * in this project manager.
+	 */
+	public RecompilePlan prepareRecompile(JavaProject project)
+			throws DepOrderViolationException, IllegalArgumentException {
 		
 		// Validate that the project is part of this project manager.
 		if(project.getProjectManager() != this) {
@@ -494,38 +831,100 @@ public class ProjectManager {
 		}
 		
 		// Prevent a recompile if this and at least one of the dependents of this project are loaded.
-		if(project.isLoaded()) {
-			Set<JavaProject> loadedDependents = this.getLoadedDependents(project);
-			if(!loadedDependents.isEmpty()) {
-				List<JavaProject> loadedDependentsList = new ArrayList<JavaProject>(loadedDependents.size());
-				loadedDependentsList.addAll(loadedDependents);
-				// Throw an exception about the dependents being enabled and therefore being unable to recompile.
-				
-				loadedDependentsList.sort((JavaProject p1, JavaProject p2) -> p1.getName().compareTo(p2.getName()));
-				throw new DepOrderViolationException(project,
-						"Project cannot be recompiled while there are projects enabled that depend on it."
-						+ " Depending project" + (loadedDependentsList.size() == 1 ? "" : "s") + ": "
-						+ Utils.glueIterable(loadedDependentsList, (JavaProject p) -> p.getName(), ", ") + ".");
-			}
+		this.validateNoLoadedDependents(project);
+		
+		return new RecompilePlan(project, this.inMemoryCompilation);
+	}
+	
+	/**
+	 * Compiles the project of the given recompile plan into a new bin generation, or in memory.
+	 * This does not change the loaded state of any project, so it can be called from any thread as long as the
+	 * project is not loaded, unloaded or compiled by another thread in the meantime.
+	 * @param plan - The recompile plan, as returned by {@link #prepareRecompile(JavaProject)}.
+	 * @param compilerFeedbackHandler - The compiler feedback handler which will receive all java compiler feedback.
+	 * It is called from the calling thread.
+	 * @throws CompileException If an exception occurred during compilation. If this is thrown, nothing has to be
+	 * discarded and the plan cannot be applied.
+	 * @throws IllegalStateException If the plan has already been compiled.
+	 */
+	public void compile(RecompilePlan plan,
+			CompilerFeedbackHandler compilerFeedbackHandler) throws CompileException, IllegalStateException {
+		if(plan.compiled) {
+			throw new IllegalStateException("The recompile plan has already been compiled.");
+		}
+		JavaProject project = plan.project;
+		
+		// Compile the project in memory.
+		if(plan.inMemory) {
+			project.compileInMemory(compilerFeedbackHandler);
+			plan.compiled = true;
+			return;
 		}
 		
-		// Compile the project in the "bin_new" directory.
-		project.setBinDirName("bin_new");
+		// Compile the project in a new bin generation.
+		setNewBinGeneration(project);
 		try {
 			project.compile(compilerFeedbackHandler);
 		} catch (CompileException e) {
 			
-			// Remove the newly created bin directory and set it back to the old one.
+			// Remove the newly created bin directory and set it back to the current one.
 			Utils.removeFile(project.getBinDir());
-			project.setBinDirName("bin");
+			project.setBinDir(null);
 			
 			// Rethrow, compilation failed.
 			throw e;
 		}
 		
-		// Set the project bin directory back to the old one.
-		File newBinDir = project.getBinDir();
-		project.setBinDirName("bin");
+		// Set the project bin directory back to the current one.
+		plan.newBinDir = project.getBinDir();
+		project.setBinDir(null);
+		plan.compiled = true;
+	}
+	
+	/**
+	 * Unloads (if loaded) the project of the given compiled recompile plan, replaces its binaries with the newly
+	 * compiled binaries and loads it.
+	 * @param plan - The recompile plan, compiled using {@link #compile(RecompilePlan, CompilerFeedbackHandler)}.
+	 * @param unloadExHandler - If the project was loaded and an unload caused exceptions, they are passed to this
+	 * handler.
+	 * @throws CompileException If the new binaries could not be put in place. If this is thrown, the project has
+	 * already been unloaded, the new binaries have been discarded and the current binaries are left in place.
+	 * @throws LoadException If an exception occurred during the loading of the new compiled binaries.
+	 * If this is thrown while staged reloads are enabled (see {@link #isStagedReload()}) and the project was loaded,
+	 * the new version could not be prepared, the new binaries have been discarded and the old version is still loaded.
+	 * Otherwise, the new binaries have been applied and the project has been unloaded, but not reloaded due to the
+	 * reason given in this exception.
+	 * @throws DepOrderViolationException When the project is loaded and at least one of its dependents has been loaded
+	 * since the plan was prepared. If this is thrown, the new binaries have been discarded.
+	 * @throws IllegalStateException If the plan has not been compiled or has already been applied or discarded.
+	 */
+	public void applyRecompile(RecompilePlan plan, UnloadExceptionHandler unloadExHandler) throws
+			CompileException, LoadException, DepOrderViolationException, IllegalStateException {
+		if(!plan.compiled) {
+			throw new IllegalStateException("The recompile plan has not been compiled or has already been applied.");
+		}
+		JavaProject project = plan.project;
+		
+		// Validate again that no dependents are loaded, since they might have been loaded during the compile.
+		try {
+			this.validateNoLoadedDependents(project);
+		} catch (DepOrderViolationException e) {
+			this.discardRecompile(plan);
+			throw e;
+		}
+		
+		// Prepare the new version of the project while the old version is still loaded.
+		StagedProject stagedProject = null;
+		if(project.isLoaded() && this.stagedReload) {
+			try {
+				stagedProject = (plan.inMemory
+						? project.stage(project.getPendingBinaries()) : project.stage(plan.newBinDir));
+			} catch (LoadException e) {
+				this.discardRecompile(plan);
+				throw e;
+			}
+		}
+		plan.compiled = false;
 		
 		// Unload the project if it was loaded. The IGNORE_DEPENDENTS unload method is used because we already
 		// checked that none of the dependents are enabled.
@@ -534,61 +933,306 @@ public class ProjectManager {
 				project.unload(UnloadMethod.IGNORE_DEPENDENTS, unloadExHandler);
 			} catch (UnloadException e) {
 				// This exception should never be thrown due to using the IGNORE_DEPENDENTS unload method.
-				Utils.removeFile(newBinDir);
+				if(stagedProject != null) {
+					stagedProject.discard();
+				}
+				plan.compiled = true;
+				this.discardRecompile(plan);
 				throw new Error(e);
 			}
 		}
 		
-		// Replace the current "bin" directory with "bin_new" and remove "bin_new".
-		if(project.getBinDir().exists() && !Utils.removeFile(project.getBinDir())) {
-			throw new CompileException(project,
-					"Failed to rename \"bin_new\" to \"bin\" because the \"bin\""
-					+ " directory could not be removed for project \"" + project.getName() + "\"."
-					+ " This can be fixed manually or by attempting another recompile. The project has"
-					+ " already been disabled and some files of the \"bin\" directory might be removed.");
+		// Apply the new in-memory binaries and load the project.
+		if(plan.inMemory) {
+			project.applyPendingBinaries();
+			this.load(project, stagedProject);
+			return;
 		}
-		if(!newBinDir.renameTo(project.getBinDir())) {
-			throw new CompileException(project,
-					"Failed to rename \"bin_new\" to \"bin\" for project \"" + project.getName() + "\"."
-					+ " This can be fixed manually or by attempting another recompile."
-					+ " The project has already been disabled and the \"bin\" directory has been removed.");
+		
+		// Make the new bin generation the current one.
+		try {
+			project.switchBinGeneration(plan.newBinDir);
+		} catch (IOException e) {
+			if(stagedProject != null) {
+				stagedProject.discard();
+			}
+			Utils.removeFile(plan.newBinDir);
+			throw new CompileException(project, "Failed to switch to the new bin generation for project \""
+					+ project.getName() + "\". The project has already been disabled, but its current binaries are"
+					+ " left in place, so it can be loaded again.", e);
 		}
+		this.collectBinGarbage(project);
 		
 		// Load the project.
-		project.load();
+		this.load(project, stagedProject);
+	}
+	
+	/**
+	 * Rolls the given project back to its previous bin generation without recompiling it. The project is unloaded,
+	 * switched to the previous bin generation and loaded again if it was loaded. If the project uses in-memory
+	 * binaries that have not been written to a bin generation, it is rolled back to its current bin generation.
+	 * The bin generation that is rolled back from is removed when the project is compiled again.
+	 * @param project - The project to roll back.
+	 * @param unloadExHandler - If the project was loaded and an unload caused exceptions, they are passed to this
+	 * handler.
+	 * @return {@code true} if the project was rolled back, {@code false} if it does not have a previous bin
+	 * generation.
+	 * @throws LoadException If the project could not be switched to the previous bin generation or if an exception
+	 * occurred while loading it. If this is thrown while staged reloads are enabled (see {@link #isStagedReload()}) and
+	 * the project was loaded, the previous version could not be prepared and the current version is still loaded.
+	 * Otherwise, the project has been unloaded, but not reloaded due to the reason given in this exception.
+	 * @throws DepOrderViolationException When the project is loaded and at least one of its dependents is loaded.
+	 * @throws IllegalArgumentException When {@link project#getProjectManager()} != this or when project is not known
+	 * in this project manager.
+	 */
+	public boolean rollback(JavaProject project, UnloadExceptionHandler unloadExHandler)
+			throws LoadException, DepOrderViolationException, IllegalArgumentException {
+		
+		// Validate that the project is part of this project manager.
+		if(project.getProjectManager() != this) {
+			throw new IllegalArgumentException("The given project has a different project manager.");
+		} else if(!this.projects.containsValue(project)) {
+			throw new IllegalArgumentException("The given project has not been added to this project manager.");
+		}
+		
+		// Prevent a rollback if this and at least one of the dependents of this project are loaded.
+		this.validateNoLoadedDependents(project);
+		
+		// Get the bin generation to roll back to.
+		File rollbackBinDir = project.getRollbackBinDir();
+		if(rollbackBinDir == null) {
+			return false;
+		}
+		
+		// Prepare the previous version of the project while the current version is still loaded.
+		boolean wasLoaded = project.isLoaded();
+		StagedProject stagedProject = (wasLoaded && this.stagedReload ? project.stage(rollbackBinDir) : null);
+		
+		// Unload the project if it was loaded.
+		if(wasLoaded) {
+			try {
+				project.unload(UnloadMethod.IGNORE_DEPENDENTS, unloadExHandler);
+			} catch (UnloadException e) {
+				// This exception should never be thrown due to using the IGNORE_DEPENDENTS unload method.
+				if(stagedProject != null) {
+					stagedProject.discard();
+				}
+				throw new Error(e);
+			}
+		}
+		
+		// Switch to the previous bin generation and load the project if it was loaded.
+		try {
+			project.switchBinGeneration(rollbackBinDir);
+		} catch (IOException e) {
+			if(stagedProject != null) {
+				stagedProject.discard();
+			}
+			throw new LoadException(project, "Failed to switch to the previous bin generation for project \""
+					+ project.getName() + "\".", e);
+		}
+		if(wasLoaded) {
+			this.load(project, stagedProject);
+		}
+		return true;
+	}
+	
+	/**
+	 * Loads the given project, using the given staged version of the project if it is not {@code null}.
+	 * @param project - The project.
+	 * @param stagedProject - The staged version of the project, or {@code null} to load the project normally.
+	 * @throws LoadException If an exception occurred while loading the project.
+	 */
+	private void load(JavaProject project, StagedProject stagedProject) throws LoadException {
+		if(stagedProject == null) {
+			project.load();
+		} else {
+			project.load(stagedProject);
+		}
+	}
+	
+	/**
+	 * Discards the newly compiled binaries of the given recompile plan. This does nothing if the plan has not been
+	 * compiled or has already been applied or discarded.
+	 * @param plan - The recompile plan.
+	 */
+	public void discardRecompile(RecompilePlan plan) {
+		if(!plan.compiled) {
+			return;
+		}
+		plan.compiled = false;
+		if(plan.inMemory) {
+			plan.project.discardPendingBinaries();
+		} else {
+			Utils.removeFile(plan.newBinDir);
+		}
+	}
+	
+	private void validateNoLoadedDependents(JavaProject project) throws DepOrderViolationException {
+		if(project.isLoaded()) {
+			Set<JavaProject> loadedDependents = this.getLoadedDependents(project);
+			if(!loadedDependents.isEmpty()) {
+				List<JavaProject> loadedDependentsList = new ArrayList<JavaProject>(loadedDependents.size());
+				loadedDependentsList.addAll(loadedDependents);
+				// Throw an exception about the dependents being enabled and therefore being unable to recompile.
+				
+				loadedDependentsList.sort((JavaProject p1, JavaProject p2) -> p1.getName().compareTo(p2.getName()));
+				throw new DepOrderViolationException(project,
+						"Project cannot be recompiled while there are projects enabled that depend on it."
+						+ " Depending project" + (loadedDependentsList.size() == 1 ? "" : "s") + ": "
+						+ Utils.glueIterable(loadedDependentsList, (JavaProject p) -> p.getName(), ", ") + ".");
+			}
+		}
 	}
 	
-	private Set<JavaProject> getLoadedDependents(JavaProject project) {
-		Set<JavaProject> dependingProjects = new HashSet<JavaProject>();
-		for(JavaProject p : this.getProjects()) {
-			if(p.isLoaded() && p != project) {
-				for(Dependency dep : p.getDependencies()) {
-					if(dep instanceof ProjectDependency
-							&& ((ProjectDependency) dep).getProject() == project) {
-						dependingProjects.add(p);
+	/**
+	 * Represents a single project recompile that has been prepared using {@link #prepareRecompile(JavaProject)}.
+	 */
+	public static class RecompilePlan {
+		private final JavaProject project;
+		private final boolean inMemory;
+		private volatile boolean compiled = false;
+		private volatile File newBinDir = null;
+		
+		private RecompilePlan(JavaProject project, boolean inMemory) {
+			this.project = project;
+			this.inMemory = inMemory;
+		}
+		
+		public JavaProject getProject() {
+			return this.project;
+		}
+	}
+	
+	/**
+	 * Gets the projects in this project manager that directly depend on the given project, based on the dependencies
+	 * that they are loaded with (see {@link JavaProject#getDependencies()}). Projects of which these dependencies are
+	 * not known (Example: Projects that have not been loaded or compiled since they were last unloaded) are ignored.
+	 * This uses the dependency index of this project manager, so it does not have to look at all projects.
+	 * @param project - The project.
+	 * @return The dependents of the project.
+	 */
+	public Set<JavaProject> getDependents(JavaProject project) {
+		Set<JavaProject> dependents = new HashSet<JavaProject>();
+		if(this.getProject(project.getName()) != project) {
+			return dependents; // Project dependencies refer to projects in this project manager by name.
+		}
+		synchronized(this.projectDependents) {
+			Set<JavaProject> indexedDependents = this.projectDependents.get(project.getName());
+			if(indexedDependents != null) {
+				for(JavaProject dependent : indexedDependents) {
+					if(dependent != project && this.getProject(dependent.getName()) == dependent) {
+						dependents.add(dependent);
+					}
+				}
+			}
+		}
+		return dependents;
+	}
+	
+	/**
+	 * Gets the loaded projects in this project manager that directly depend on the given project.
+	 * @param project - The project.
+	 * @return The loaded dependents of the project.
+	 */
+	public Set<JavaProject> getLoadedDependents(JavaProject project) {
+		Set<JavaProject> dependents = this.getDependents(project);
+		dependents.removeIf((JavaProject dependent) -> !dependent.isLoaded());
+		return dependents;
+	}
+	
+	/**
+	 * Updates the dependency index for the given project. This has to be called whenever the dependencies that the
+	 * project is loaded with change. The index maps every project to the names of the projects it depends on and
+	 * every project name to the projects that depend on it, so that dependents can be found without looking at all
+	 * projects and their dependencies.
+	 * @param project - The project.
+	 * @param dependencies - The new dependencies of the project, or {@code null} if they are not known.
+	 */
+	void updateDependencyIndex(JavaProject project, List<Dependency> dependencies) {
+		
+		// Get the names of the projects in this project manager that the project depends on.
+		Set<String> dependencyNames = new HashSet<String>();
+		if(dependencies != null) {
+			for(Dependency dependency : dependencies) {
+				if(dependency instanceof ProjectDependency
+						&& ((ProjectDependency) dependency).getProjectManager() == this) {
+					dependencyNames.add(((ProjectDependency) dependency).getProjectName());
+				}
+			}
+		}
+		
+		// Update the forward and reverse index.
+		synchronized(this.projectDependents) {
+			Set<String> oldDependencyNames = (dependencyNames.isEmpty()
+					? this.projectDependencyNames.remove(project)
+					: this.projectDependencyNames.put(project, dependencyNames));
+			if(oldDependencyNames != null) {
+				for(String name : oldDependencyNames) {
+					if(!dependencyNames.contains(name)) {
+						Set<JavaProject> dependents = this.projectDependents.get(name);
+						dependents.remove(project);
+						if(dependents.isEmpty()) {
+							this.projectDependents.remove(name);
+						}
 					}
 				}
 			}
+			for(String name : dependencyNames) {
+				if(oldDependencyNames == null || !oldDependencyNames.contains(name)) {
+					this.projectDependents.computeIfAbsent(
+							name, (String key) -> new HashSet<JavaProject>()).add(project);
+				}
+			}
 		}
-		return dependingProjects;
 	}
 	
 	/**
 	 * Recompiles, unloads and loads all projects that are not disabled. Exceptions and compiler feedback is passed to
 	 * the given feedbackHandler. If compilation fails for a project, that project will be reloaded using its old
 	 * binaries if possible. This method will add new projects from the file system and remove any projects that no
-	 * longer exist in the file system.
+	 * longer exist in the file system. Projects that do not depend on eachother are compiled concurrently, using at most
+	 * {@link #getMaxCompileThreads()} threads. If change-aware recompiles are enabled (see
+	 * {@link #isChangeAwareRecompile()}), loaded projects of which the binaries did not change are left loaded.
+	 * This is equivalent to calling {@link #prepareRecompileAllProjects(RecompileFeedbackHandler, ProjectStateListener)},
+	 * {@link #compile(RecompileAllPlan, RecompileFeedbackHandler)} and
+	 * {@link #applyRecompile(RecompileAllPlan, RecompileFeedbackHandler)} in sequence.
 	 * @param feedbackHandler - The project feedback handler which will receive all thrown exceptions and feedback that
-	 * occur during the recompile.
+	 * occur during the recompile. It is only called from the calling thread.
 	 * @param projectStateListener - The listener that will be set in newly added projects from the file system.
-	 * @return A RecompileAllResult containing a set of all added, removed, compiled, unloaded, loaded and error
-	 * projects. If a project is in the 'loaded' set, it was recompiled successfully and will not be in the 'error' set.
-	 * If the project is in the 'error' set, it did not recompile successfully and will not be in the 'loaded' set.
-	 * The 'error', 'loaded' and 'removed' set combined form a set of all handled projects.
-	 * @throws IllegalStateException If one or more projects has its binary directory set to something other than "bin".
+	 * @return A RecompileAllResult containing a set of all added, removed, compiled, unloaded, unchanged, loaded and
+	 * error projects. If a project is in the 'loaded' set, it was recompiled successfully and will not be in the
+	 * 'error' set. If the project is in the 'error' set, it did not recompile successfully and will not be in the
+	 * 'loaded' set.
+	 * The 'unchanged' set contains the projects that were left loaded and does not overlap with the 'loaded' set.
+	 * The 'error', 'loaded', 'unchanged' and 'removed' set combined form a set of all handled projects.
+	 * @throws IllegalStateException If one or more projects has its binary directory set to something other than its
+	 * current bin generation.
 	 */
 	public RecompileAllResult recompileAllProjects(RecompileFeedbackHandler feedbackHandler,
 			ProjectStateListener projectStateListener) throws IllegalStateException {
+		RecompileAllPlan plan = this.prepareRecompileAllProjects(feedbackHandler, projectStateListener);
+		this.compile(plan, feedbackHandler);
+		return this.applyRecompile(plan, feedbackHandler);
+	}
+	
+	/**
+	 * Prepares a recompile of all projects that are not disabled. This adds new projects from the file system and
+	 * determines the order in which the projects have to be compiled. The returned plan has to be compiled using
+	 * {@link #compile(RecompileAllPlan, RecompileFeedbackHandler)} and then applied using
+	 * {@link #applyRecompile(RecompileAllPlan, RecompileFeedbackHandler)}, or discarded using
+	 * {@link #discardRecompile(RecompileAllPlan)} if it cannot be applied.
+	 * @param feedbackHandler - The project feedback handler which will receive exceptions about projects that cannot
+	 * be compiled due to dependency problems.
+	 * @param projectStateListener - The listener that will be set in newly added projects from the file system.
+	 * @return The recompile plan.
+	 * @throws IllegalStateException If one or more projects has its binary directory set to something other than its
+	 * current bin generation.
+	 */
+	public RecompileAllPlan prepareRecompileAllProjects(RecompileFeedbackHandler feedbackHandler,
+			ProjectStateListener projectStateListener) throws IllegalStateException {
+		boolean inMemory = this.inMemoryCompilation;
+		boolean changeAware = this.changeAwareRecompile;
 		
 		// Create a set of enabled projects.
 		Set<JavaProject> projects = new HashSet<JavaProject>();
@@ -601,17 +1245,134 @@ public class ProjectManager {
 		// Add new projects from the file system.
 		Set<JavaProject> addedProjects = this.addProjectsFromProjectDirectory(projectStateListener);
 		
-		// Validate that all binary directories are set to "bin" as we use this assumption below.
+		// Validate that all binary directories are set to the current bin generation as we use this assumption below.
 		for(JavaProject project : projects) {
-			if(!project.getBinDir().getName().equals("bin")) {
-				throw new IllegalStateException("All projects are expected to have their binary directory name set to"
-						+ " \"bin\". But project \"" + project.getName() + "\" had a binary directory named:"
-						+ " \"" + project.getBinDir().getName() + "\".");
+			if(!usesCurrentBinGeneration(project)) {
+				throw new IllegalStateException("All projects are expected to have their binary directory set to their"
+						+ " current bin generation. But project \"" + project.getName() + "\" had binary directory:"
+						+ " \"" + project.getBinDir().getAbsolutePath() + "\".");
 			}
 		}
 		
 		// Generate a graph, representing the projects and how they depend on eachother (dependencies as children).
 		GraphGenerationResult result = this.generateDependencyGraph(projects, true);
+		Set<JavaProject> errorProjects = this.getCompileErrorProjects(result, feedbackHandler);
+		return new RecompileAllPlan(projects, addedProjects,
+				result.graph, errorProjects, inMemory, changeAware, false);
+	}
+	
+	/**
+	 * Recompiles the given project and all projects that directly or indirectly depend on it, and then unloads and
+	 * loads only these projects. Exceptions and compiler feedback is passed to the given feedbackHandler. Projects that
+	 * do not depend on eachother are compiled concurrently, using at most {@link #getMaxCompileThreads()} threads.
+	 * This is equivalent to calling {@link #prepareRecompileWithDependents(JavaProject, RecompileFeedbackHandler)},
+	 * {@link #compile(RecompileAllPlan, RecompileFeedbackHandler)} and
+	 * {@link #applyRecompile(RecompileAllPlan, RecompileFeedbackHandler)} in sequence.
+	 * @param project - The project to recompile.
+	 * @param feedbackHandler - The project feedback handler which will receive all thrown exceptions and feedback that
+	 * occur during the recompile. It is only called from the calling thread.
+	 * @return A RecompileAllResult as described in
+	 * {@link #recompileAllProjects(RecompileFeedbackHandler, ProjectStateListener)}. No projects are added or removed.
+	 * @throws IllegalStateException If one or more of the projects has its binary directory set to something other
+	 * than its current bin generation.
+	 * @throws IllegalArgumentException When {@link project#getProjectManager()} != this or when project is not known
+	 * in this project manager.
+	 */
+	public RecompileAllResult recompileWithDependents(JavaProject project, RecompileFeedbackHandler feedbackHandler)
+			throws IllegalStateException, IllegalArgumentException {
+		RecompileAllPlan plan = this.prepareRecompileWithDependents(project, feedbackHandler);
+		this.compile(plan, feedbackHandler);
+		return this.applyRecompile(plan, feedbackHandler);
+	}
+	
+	/**
+	 * Prepares a recompile of the given project and all projects that directly or indirectly depend on it, based on
+	 * the dependencies files in their project directories. Unlike {@link #prepareRecompile(JavaProject)}, this does
+	 * not require the dependents of the project to be unloaded. When the plan is applied, only the projects in the plan
+	 * and the projects that depend on them are unloaded and loaded. The returned plan has to be compiled and applied
+	 * or discarded in the same way as a plan returned by
+	 * {@link #prepareRecompileAllProjects(RecompileFeedbackHandler, ProjectStateListener)}.
+	 * @param project - The project to recompile.
+	 * @param feedbackHandler - The project feedback handler which will receive exceptions about projects that cannot
+	 * be compiled due to dependency problems.
+	 * @return The recompile plan.
+	 * @throws IllegalStateException If one or more of the projects has its binary directory set to something other
+	 * than its current bin generation.
+	 * @throws IllegalArgumentException When {@link project#getProjectManager()} != this or when project is not known
+	 * in this project manager.
+	 */
+	public RecompileAllPlan prepareRecompileWithDependents(JavaProject project,
+			RecompileFeedbackHandler feedbackHandler) throws IllegalStateException, IllegalArgumentException {
+		return this.prepareRecompileWithDependents(Collections.singleton(project), feedbackHandler);
+	}
+	
+	/**
+	 * Prepares a recompile of the given projects and all projects that directly or indirectly depend on them, in the
+	 * same way as {@link #prepareRecompileWithDependents(JavaProject, RecompileFeedbackHandler)}.
+	 * @param projects - The projects to recompile.
+	 * @param feedbackHandler - The project feedback handler which will receive exceptions about projects that cannot
+	 * be compiled due to dependency problems.
+	 * @return The recompile plan.
+	 * @throws IllegalStateException If one or more of the projects has its binary directory set to something other
+	 * than its current bin generation.
+	 * @throws IllegalArgumentException When {@link project#getProjectManager()} != this or when a project is not known
+	 * in this project manager.
+	 */
+	public RecompileAllPlan prepareRecompileWithDependents(Collection<JavaProject> projects,
+			RecompileFeedbackHandler feedbackHandler) throws IllegalStateException, IllegalArgumentException {
+		boolean inMemory = this.inMemoryCompilation;
+		boolean changeAware = this.changeAwareRecompile;
+		
+		// Validate that the projects are part of this project manager.
+		for(JavaProject project : projects) {
+			if(project.getProjectManager() != this) {
+				throw new IllegalArgumentException("The given project has a different project manager.");
+			} else if(!this.projects.containsValue(project)) {
+				throw new IllegalArgumentException("The given project has not been added to this project manager.");
+			}
+		}
+		
+		// Get the projects and all enabled projects that directly or indirectly depend on them.
+		Set<JavaProject> enabledProjects = new HashSet<JavaProject>();
+		for(JavaProject p : this.projects.values()) {
+			if(!p.isDisabled()) {
+				enabledProjects.add(p);
+			}
+		}
+		enabledProjects.addAll(projects);
+		Graph<JavaProject> enabledGraph = this.generateDependencyGraph(enabledProjects, true).graph;
+		Set<JavaProject> recompileProjects = new HashSet<JavaProject>(projects);
+		for(JavaProject project : projects) {
+			recompileProjects.addAll(enabledGraph.getAncestors(project));
+		}
+		
+		// Validate that all binary directories are set to the current bin generation as the apply phase uses this
+		// assumption.
+		for(JavaProject p : recompileProjects) {
+			if(!usesCurrentBinGeneration(p)) {
+				throw new IllegalStateException("All projects are expected to have their binary directory set to their"
+						+ " current bin generation. But project \"" + p.getName() + "\" had binary directory:"
+						+ " \"" + p.getBinDir().getAbsolutePath() + "\".");
+			}
+		}
+		
+		// Generate a graph, representing the projects and how they depend on eachother (dependencies as children).
+		GraphGenerationResult result = this.generateDependencyGraph(recompileProjects, true);
+		Set<JavaProject> errorProjects = this.getCompileErrorProjects(result, feedbackHandler);
+		return new RecompileAllPlan(recompileProjects, new HashSet<JavaProject>(),
+				result.graph, errorProjects, inMemory, changeAware, true);
+	}
+	
+	/**
+	 * Gets the projects that cannot be compiled due to dependency problems in the given dependency graph generation
+	 * result, being the projects that caused an exception while generating the graph, the projects that are part of
+	 * a circular dependency and the projects that depend on a circular dependency.
+	 * @param result - The graph generation result, generated using source dependencies.
+	 * @param feedbackHandler - The project feedback handler which will receive an exception for every problem.
+	 * @return The error projects.
+	 */
+	private Set<JavaProject> getCompileErrorProjects(
+			GraphGenerationResult result, RecompileFeedbackHandler feedbackHandler) {
 		Graph<JavaProject> graph = result.graph;
 		Set<JavaProject> errorProjects = new HashSet<JavaProject>();
 		for(JavaProjectException ex : result.exceptions) {
@@ -655,101 +1416,464 @@ public class ProjectManager {
 				
 			}
 		}
+		return errorProjects;
+	}
+	
+	/**
+	 * Compiles all projects of the given recompile plan. Projects of which all dependencies have been compiled are
+	 * compiled concurrently. This does not change the loaded state of any project, so it can be called from any
+	 * thread as long as the projects are not loaded, unloaded or compiled by another thread in the meantime.
+	 * @param plan - The recompile plan, as returned by
+	 * {@link #prepareRecompileAllProjects(RecompileFeedbackHandler, ProjectStateListener)}.
+	 * @param feedbackHandler - The project feedback handler which will receive all compile exceptions and compiler
+	 * feedback. It is only called from the calling thread.
+	 * @throws IllegalStateException If the plan has already been compiled.
+	 */
+	public void compile(RecompileAllPlan plan,
+			RecompileFeedbackHandler feedbackHandler) throws IllegalStateException {
+		if(plan.compiledProjects != null) {
+			throw new IllegalStateException("The recompile plan has already been compiled.");
+		}
+		plan.compiledProjects = this.compileProjects(plan.graph, plan.errorProjects, feedbackHandler, plan.inMemory);
+	}
+	
+	/**
+	 * Unloads all projects, removes deleted projects, replaces the binaries of all successfully compiled projects with
+	 * their newly compiled binaries and loads all projects. For partial recompiles, only the projects in the plan and
+	 * the projects that depend on them are unloaded and loaded, and no projects are removed.
+	 * For change-aware recompiles, loaded projects of which the newly compiled binaries are the same as the loaded
+	 * binaries and of which no dependency is unloaded are left loaded instead, keeping their current binaries.
+	 * @param plan - The recompile plan, compiled using {@link #compile(RecompileAllPlan, RecompileFeedbackHandler)}.
+	 * @param feedbackHandler - The project feedback handler which will receive all thrown exceptions.
+	 * @return A RecompileAllResult as described in
+	 * {@link #recompileAllProjects(RecompileFeedbackHandler, ProjectStateListener)}.
+	 * @throws IllegalStateException If the plan has not been compiled or has already been applied or discarded.
+	 */
+	public RecompileAllResult applyRecompile(RecompileAllPlan plan,
+			RecompileFeedbackHandler feedbackHandler) throws IllegalStateException {
+		if(plan.compiledProjects == null || plan.finished) {
+			throw new IllegalStateException("The recompile plan has not been compiled or has already been applied.");
+		}
+		plan.finished = true;
+		Set<JavaProject> projects = plan.projects;
+		Set<JavaProject> errorProjects = plan.errorProjects;
+		boolean inMemory = plan.inMemory;
 		
-		// Iterate over the graph, compiling all projects.
-		Set<JavaProject> compiledProjects = new HashSet<JavaProject>();
-		for(ChildBeforeParentGraphIterator<JavaProject> it = graph.childBeforeParentIterator(); it.hasNext(); ) {
-			JavaProject project = it.next();
-			
-			// Attempt to compile the project if it is not an error project.
-			boolean isErrorProject = errorProjects.contains(project);
-			if(!isErrorProject) {
-				project.setBinDirName("bin_new");
-				try {
-					project.compile(feedbackHandler);
-					compiledProjects.add(project);
-				} catch (CompileException e) {
-					
-					// Remove the newly created binary directory and set the project back to the default bin directory.
-					Utils.removeFile(project.getBinDir());
-					project.setBinDirName("bin");
-					
-					feedbackHandler.handleCompileException(e);
-					isErrorProject = true;
-					errorProjects.add(project);
-				}
-			}
-			
-			// Remove the project and all projects that depend on it if the project could not be compiled.
-			if(isErrorProject) {
-				List<JavaProject> removedProjects = it.removeAncestors();
-				assert(removedProjects != null && removedProjects.get(0) == project);
-				
-				// The project should already have an exception for its failure, add one for its dependents.
-				for(int i = 1; i < removedProjects.size(); i++) {
-					feedbackHandler.handleCompileException(new CompileException(project,
-							"Indirect or direct dependency project was not successfully compiled: "
-							+ removedProjects.get(i).getName()));
-					errorProjects.add(removedProjects.get(i));
+		// Unload all projects, or only the (changed) projects in the plan and the projects that depend on them.
+		Set<JavaProject> unloadedProjects;
+		Set<JavaProject> unchangedProjects = (plan.changeAware
+				? this.getUnchangedProjects(plan) : new HashSet<JavaProject>());
+		if(plan.changeAware || plan.partial) {
+			unloadedProjects = new HashSet<JavaProject>();
+			for(JavaProject project : (plan.partial ? plan.projects : this.getProjects())) {
+				if(project.isLoaded() && !unchangedProjects.contains(project)) {
+					try {
+						unloadedProjects.addAll(project.unload(UnloadMethod.UNLOAD_DEPENDENTS, feedbackHandler));
+					} catch (UnloadException e) {
+						// Never happens due to using the UNLOAD_DEPENDENTS method.
+						assert(false);
+						feedbackHandler.handleUnloadException(e);
+					}
 				}
 			}
+			unchangedProjects.removeAll(unloadedProjects);
+		} else {
+			unloadedProjects = this.unloadAllProjects(feedbackHandler);
 		}
 		
-		// Unload all projects.
-		Set<JavaProject> unloadedProjects = this.unloadAllProjects(feedbackHandler);
-		
-		// Remove deleted projects.
-		Set<JavaProject> removedProjects = this.removeUnloadedProjectsIfDeleted();
+		// Remove deleted projects. Partial recompiles only affect the projects in the plan and their dependents.
+		Set<JavaProject> removedProjects = (plan.partial
+				? new HashSet<JavaProject>() : this.removeUnloadedProjectsIfDeleted());
 		
 		// Replace all binary directories with the new ones for non-error projects.
 		for(JavaProject project : projects) {
-			if(!errorProjects.contains(project)) {
+			if(unchangedProjects.contains(project)) {
+				
+				// Keep the loaded binaries, discarding the identical new ones.
+				this.discardUnchangedBinaries(project, inMemory);
+				
+			} else if(!errorProjects.contains(project) && inMemory) {
+				
+				// Apply the new in-memory binaries.
+				project.applyPendingBinaries();
 				
-				// Validate that a project is either in ErrorProjects or has its binary directory renamed.
+			} else if(errorProjects.contains(project)) {
+				
+				// Discard in-memory binaries of projects that compiled, but depend on a project that did not.
+				project.discardPendingBinaries();
+				
+			} else {
+				
+				// Validate that a project is either in ErrorProjects or has its binaries in a new bin generation.
 				// Fail the hard way if this is not the case, so that we can be sure to never mess up file removal.
-				if(!project.getBinDir().getName().equals("bin_new")) {
-					throw new Error("A non-error project did not have its binary directory renamed."
+				if(usesCurrentBinGeneration(project)) {
+					throw new Error("A non-error project did not have its binaries in a new bin generation."
 							+ " This should be impossible.");
 				}
 				
-				// Replace the current binary directory with the new one and remove the new one.
+				// Make the new bin generation the current one. The old bin generation is left in place for rollbacks.
 				File newBinDir = project.getBinDir();
-				project.setBinDirName("bin");
-				if(project.getBinDir().exists() && !Utils.removeFile(project.getBinDir())) {
-					feedbackHandler.handleCompileException(new CompileException(project,
-							"Failed to replace the old binary directory with the new binary directory because the old"
-							+ " binary directory could not be removed for project \"" + project.getName() + "\"."
-							+ " This can be fixed manually or by attempting another recompile. The project has already"
-							+ " been disabled and some files of the current binary directory might be removed."));
-				}
-				if(!newBinDir.renameTo(project.getBinDir())) {
+				project.setBinDir(null);
+				try {
+					project.switchBinGeneration(newBinDir);
+					this.collectBinGarbage(project);
+				} catch (IOException e) {
+					Utils.removeFile(newBinDir);
 					feedbackHandler.handleCompileException(new CompileException(project,
-							"Failed to rename the new binary directory to the default binary directory for project \""
-							+ project.getName() + "\". This can be fixed manually or by attempting another recompile."
-							+ " The project has already been disabled and the current binary directory has been"
-							+ " removed."));
+							"Failed to switch to the new bin generation for project \"" + project.getName() + "\"."
+							+ " The project will be loaded using its current binaries.", e));
 				}
 			}
 		}
 		
-		// Validate that all binary directories are set back to "bin" here.
+		// Validate that all binary directories are set back to the current bin generation here.
 		// Note that we can only know this due to the earlier validation check in this method.
 		for(JavaProject project : projects) {
-			if(!project.getBinDir().getName().equals("bin")) {
-				throw new Error("All projects are known to have their binary directory name set to"
-						+ " \"bin\" at this point. Yet, project \"" + project.getName() + "\" has a binary directory"
-						+ " named: \"" + project.getBinDir().getName() + "\".");
+			if(!usesCurrentBinGeneration(project)) {
+				throw new Error("All projects are known to have their binary directory set to their current bin"
+						+ " generation at this point. Yet, project \"" + project.getName() + "\" has binary directory:"
+						+ " \"" + project.getBinDir().getAbsolutePath() + "\".");
 			}
 		}
 		
-		// Load all projects. Projects that have caused errors might fail, but might also work using their old binaries.
-		LoadAllResult loadAllResult = this.loadAllProjects(feedbackHandler);
+		// Load all projects, or only the projects in the plan and the unloaded projects for partial recompiles.
+		// Projects that have caused errors might fail, but might also work using their old binaries.
+		LoadAllResult loadAllResult;
+		if(plan.partial) {
+			Set<JavaProject> loadProjects = new HashSet<JavaProject>(projects);
+			loadProjects.addAll(unloadedProjects);
+			loadAllResult = this.loadProjects(loadProjects, feedbackHandler);
+		} else {
+			loadAllResult = this.loadAllProjects(feedbackHandler);
+		}
 		Set<JavaProject> loadedProjects = loadAllResult.loadedProjects;
 		errorProjects.addAll(loadAllResult.errorProjects);
 		
 		// Return the result.
-		return new RecompileAllResult(addedProjects, removedProjects,
-				compiledProjects, unloadedProjects, loadedProjects, errorProjects);
+		return new RecompileAllResult(plan.addedProjects, removedProjects, plan.compiledProjects,
+				unloadedProjects, unchangedProjects, loadedProjects, errorProjects);
+	}
+	
+	/**
+	 * Gets the loaded projects in the given compiled recompile plan of which the binaries did not change. These are the
+	 * successfully compiled projects of which the new binaries are compiled from the same input and with the same
+	 * dependencies file as their loaded binaries, and the error projects, since their loaded binaries are not replaced.
+	 * Projects that depend on a changed project are included, as these are only known once the changed projects have
+	 * been unloaded.
+	 * @param plan - The compiled recompile plan.
+	 * @return The unchanged loaded projects.
+	 */
+	private Set<JavaProject> getUnchangedProjects(RecompileAllPlan plan) {
+		Set<JavaProject> unchangedProjects = new HashSet<JavaProject>();
+		for(JavaProject project : plan.projects) {
+			if(project.isLoaded() && project.getProjectDir().exists() && (plan.errorProjects.contains(project)
+					|| (plan.compiledProjects.contains(project) && hasUnchangedBinaries(project, plan.inMemory)))) {
+				unchangedProjects.add(project);
+			}
+		}
+		return unchangedProjects;
+	}
+	
+	/**
+	 * Checks whether the newly compiled binaries of the given loaded project are the same as its loaded binaries.
+	 * Binaries are considered the same when they are compiled from the same sources, compiler options and classpath
+	 * (see {@link SourceManifest#getContentFingerprint()}) and have the same dependencies file.
+	 * @param project - The loaded project, having new binaries in a new bin generation or pending in memory.
+	 * @param inMemory - Whether the new binaries are pending in memory.
+	 * @return {@code true} if the binaries are the same, {@code false} if they differ or could not be compared.
+	 */
+	private static boolean hasUnchangedBinaries(JavaProject project, boolean inMemory) {
+		try {
+			
+			// Get the manifest and dependencies file of the loaded binaries.
+			SourceManifest loadedManifest;
+			byte[] loadedDependenciesFile;
+			InMemoryBinaries loadedBinaries = project.getInMemoryBinaries();
+			if(loadedBinaries != null) {
+				loadedManifest = loadedBinaries.getManifest();
+				loadedDependenciesFile = loadedBinaries.getDependenciesFile();
+			} else {
+				File binDir = project.getBinGenerations().getCurrent();
+				loadedManifest = SourceManifest.read(binDir);
+				loadedDependenciesFile = readDependenciesFile(binDir);
+			}
+			
+			// Get the manifest and dependencies file of the new binaries.
+			SourceManifest newManifest;
+			byte[] newDependenciesFile;
+			if(inMemory) {
+				InMemoryBinaries newBinaries = project.getPendingBinaries();
+				if(newBinaries == null) {
+					return false;
+				}
+				newManifest = newBinaries.getManifest();
+				newDependenciesFile = newBinaries.getDependenciesFile();
+			} else {
+				newManifest = SourceManifest.read(project.getBinDir());
+				newDependenciesFile = readDependenciesFile(project.getBinDir());
+			}
+			
+			// Compare the binaries.
+			return loadedManifest != null && newManifest != null
+					&& loadedManifest.getContentFingerprint().equals(newManifest.getContentFingerprint())
+					&& Arrays.equals(loadedDependenciesFile, newDependenciesFile);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	private static byte[] readDependenciesFile(File binDir) throws IOException {
+		File dependenciesFile = new File(binDir, "dependencies.txt");
+		return (dependenciesFile.exists() ? Files.readAllBytes(dependenciesFile.toPath()) : null);
+	}
+	
+	/**
+	 * Discards the newly compiled binaries of the given project that is left loaded because its binaries did not
+	 * change. For projects that are loaded from their bin directory, the new source manifest is written to that
+	 * directory, so that the next incremental compile does not have to hash unchanged source files again.
+	 * @param project - The project.
+	 * @param inMemory - Whether the new binaries are pending in memory.
+	 */
+	private void discardUnchangedBinaries(JavaProject project, boolean inMemory) {
+		if(inMemory) {
+			project.discardPendingBinaries();
+		} else if(!usesCurrentBinGeneration(project)) {
+			File newBinDir = project.getBinDir();
+			project.setBinDir(null);
+			if(project.getInMemoryBinaries() == null) {
+				try {
+					SourceManifest manifest = SourceManifest.read(newBinDir);
+					if(manifest != null) {
+						manifest.write(project.getBinDir());
+					}
+				} catch (IOException e) {
+					// Ignore. The manifest only serves to speed up the next compile.
+				}
+			}
+			Utils.removeFile(newBinDir);
+		}
+	}
+	
+	/**
+	 * Discards the newly compiled binaries of all projects in the given recompile plan, leaving all projects in their
+	 * current state. This does nothing if the plan has not been compiled or has already been applied or discarded.
+	 * @param plan - The recompile plan.
+	 */
+	public void discardRecompile(RecompileAllPlan plan) {
+		if(plan.compiledProjects == null || plan.finished) {
+			return;
+		}
+		plan.finished = true;
+		for(JavaProject project : plan.compiledProjects) {
+			if(plan.inMemory) {
+				project.discardPendingBinaries();
+			} else if(!usesCurrentBinGeneration(project)) {
+				Utils.removeFile(project.getBinDir());
+				project.setBinDir(null);
+			}
+		}
+	}
+	
+	/**
+	 * Represents a recompile of all projects that has been prepared using
+	 * {@link #prepareRecompileAllProjects(RecompileFeedbackHandler, ProjectStateListener)}, or a partial recompile of
+	 * a project and its dependents that has been prepared using
+	 * {@link #prepareRecompileWithDependents(JavaProject, RecompileFeedbackHandler)}.
+	 */
+	public static class RecompileAllPlan {
+		private final Set<JavaProject> projects;
+		private final Set<JavaProject> addedProjects;
+		private final Graph<JavaProject> graph;
+		private final Set<JavaProject> errorProjects;
+		private final boolean inMemory;
+		private final boolean changeAware;
+		private final boolean partial;
+		private volatile Set<JavaProject> compiledProjects = null;
+		private volatile boolean finished = false;
+		
+		private RecompileAllPlan(Set<JavaProject> projects, Set<JavaProject> addedProjects, Graph<JavaProject> graph,
+				Set<JavaProject> errorProjects, boolean inMemory, boolean changeAware, boolean partial) {
+			this.projects = projects;
+			this.addedProjects = addedProjects;
+			this.graph = graph;
+			this.errorProjects = errorProjects;
+			this.inMemory = inMemory;
+			this.changeAware = changeAware;
+			this.partial = partial;
+		}
+		
+		/**
+		 * Gets the projects that will be recompiled.
+		 * @return The projects.
+		 */
+		public Set<JavaProject> getProjects() {
+			return Collections.unmodifiableSet(this.projects);
+		}
+	}
+	
+	/**
+	 * Compiles all projects in the given dependency graph on a bounded thread pool. A project is compiled as soon as all
+	 * its dependencies have been compiled, so projects that do not depend on eachother are compiled concurrently.
+	 * If a project is an error project or fails to compile, it and all projects that depend on it are removed from the
+	 * graph and added to the error projects. Successfully compiled projects have their binaries in a new bin
+	 * generation, or pending in memory for in-memory compiles.
+	 * @param graph - The dependency graph, having dependencies as children.
+	 * @param errorProjects - The error projects. Projects that fail to compile are added to this set.
+	 * @param feedbackHandler - The handler that receives all exceptions and compiler feedback.
+	 * It is only called from the calling thread.
+	 * @param inMemory - Whether the projects should be compiled in memory.
+	 * @return The successfully compiled projects.
+	 */
+	private Set<JavaProject> compileProjects(Graph<JavaProject> graph, Set<JavaProject> errorProjects,
+			RecompileFeedbackHandler feedbackHandler, boolean inMemory) {
+		Set<JavaProject> compiledProjects = new HashSet<JavaProject>();
+		ChildBeforeParentGraphScheduler<JavaProject> scheduler = graph.childBeforeParentScheduler();
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.max(1, Math.min(this.maxCompileThreads, graph.size())), (Runnable runnable) -> {
+					Thread thread = new Thread(runnable, "JavaLoader compiler");
+					thread.setDaemon(true);
+					return thread;
+				});
+		CompletionService<ProjectCompileResult> completionService =
+				new ExecutorCompletionService<ProjectCompileResult>(executor);
+		int diagnosticLimit = (feedbackHandler != null ? feedbackHandler.getDiagnosticLimit() : Integer.MAX_VALUE);
+		boolean interrupted = false;
+		try {
+			while(!scheduler.isDone()) {
+				
+				// Start compiling all projects of which all dependencies have been compiled.
+				JavaProject project;
+				while((project = scheduler.poll()) != null) {
+					if(errorProjects.contains(project)) {
+						this.removeFailedProject(scheduler, project, errorProjects, feedbackHandler);
+					} else {
+						final JavaProject toCompile = project;
+						completionService.submit(() -> this.compileProject(toCompile, inMemory, diagnosticLimit));
+					}
+				}
+				if(!scheduler.hasInProgress()) {
+					continue;
+				}
+				
+				// Wait for a project to finish compiling. Interrupts are delayed to not leave compiles running.
+				Future<ProjectCompileResult> future = null;
+				while(future == null) {
+					try {
+						future = completionService.take();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				ProjectCompileResult result;
+				try {
+					result = future.get();
+				} catch (InterruptedException e) {
+					throw new Error(e); // Never happens since the future is done.
+				} catch (ExecutionException e) {
+					if(e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw new RuntimeException(e.getCause());
+				}
+				
+				// Pass the compiler feedback and mark the project as compiled or failed.
+				for(String feedback : result.feedback) {
+					feedbackHandler.compilerFeedback(feedback);
+				}
+				if(result.exception == null) {
+					compiledProjects.add(result.project);
+					scheduler.complete(result.project);
+				} else {
+					feedbackHandler.handleCompileException(result.exception);
+					errorProjects.add(result.project);
+					this.removeFailedProject(scheduler, result.project, errorProjects, feedbackHandler);
+				}
+			}
+		} finally {
+			executor.shutdown();
+			if(interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return compiledProjects;
+	}
+	
+	/**
+	 * Removes the given failed project and all projects that depend on it from the scheduler's graph,
+	 * adding the dependents to the error projects.
+	 * @param scheduler - The scheduler that handed out the project.
+	 * @param project - The failed project.
+	 * @param errorProjects - The error projects.
+	 * @param feedbackHandler - The handler to pass the exceptions for the dependents to.
+	 */
+	private void removeFailedProject(ChildBeforeParentGraphScheduler<JavaProject> scheduler, JavaProject project,
+			Set<JavaProject> errorProjects, RecompileFeedbackHandler feedbackHandler) {
+		List<JavaProject> removedProjects = scheduler.removeAncestors(project);
+		assert(removedProjects.get(0) == project);
+		
+		// The project should already have an exception for its failure, add one for its dependents.
+		for(int i = 1; i < removedProjects.size(); i++) {
+			feedbackHandler.handleCompileException(new CompileException(project,
+					"Indirect or direct dependency project was not successfully compiled: "
+					+ removedProjects.get(i).getName()));
+			errorProjects.add(removedProjects.get(i));
+		}
+	}
+	
+	/**
+	 * Compiles the given project into a new bin generation, or in memory.
+	 * This method is thread-safe as long as it is not called for the same project concurrently.
+	 * @param project - The project to compile.
+	 * @param inMemory - Whether the project should be compiled in memory.
+	 * @param diagnosticLimit - The maximum amount of compiler diagnostics to collect.
+	 * @return The compile result, containing the compiler feedback and the exception if the compile failed.
+	 */
+	private ProjectCompileResult compileProject(JavaProject project, boolean inMemory, final int diagnosticLimit) {
+		final List<String> feedback = new ArrayList<String>();
+		CompilerFeedbackHandler feedbackHandler = new CompilerFeedbackHandler() {
+			@Override
+			public void compilerFeedback(String message) {
+				feedback.add(message);
+			}
+			@Override
+			public int getDiagnosticLimit() {
+				return diagnosticLimit;
+			}
+		};
+		try {
+			if(inMemory) {
+				project.compileInMemory(feedbackHandler);
+			} else {
+				setNewBinGeneration(project);
+				try {
+					project.compile(feedbackHandler);
+				} catch (CompileException e) {
+					
+					// Remove the newly created binary directory and set the project back to the current bin directory.
+					Utils.removeFile(project.getBinDir());
+					project.setBinDir(null);
+					throw e;
+				}
+			}
+			return new ProjectCompileResult(project, feedback, null);
+		} catch (CompileException e) {
+			return new ProjectCompileResult(project, feedback, e);
+		}
+	}
+	
+	/**
+	 * Represents the result of compiling a single project during a recompile-all operation.
+	 */
+	private static class ProjectCompileResult {
+		private final JavaProject project;
+		private final List<String> feedback;
+		private final CompileException exception;
+		
+		private ProjectCompileResult(JavaProject project, List<String> feedback, CompileException exception) {
+			this.project = project;
+			this.feedback = feedback;
+			this.exception = exception;
+		}
 	}
 	
 	/**
@@ -761,15 +1885,23 @@ public class ProjectManager {
 		public final Set<JavaProject> removedProjects;
 		public final Set<JavaProject> compiledProjects;
 		public final Set<JavaProject> unloadedProjects;
+		public final Set<JavaProject> unchangedProjects;
 		public final Set<JavaProject> loadedProjects;
 		public final Set<JavaProject> errorProjects;
 		
 		public RecompileAllResult(Set<JavaProject> added, Set<JavaProject> removed,
 				Set<JavaProject> compiled, Set<JavaProject> unloaded, Set<JavaProject> loaded, Set<JavaProject> error) {
+			this(added, removed, compiled, unloaded, new HashSet<JavaProject>(), loaded, error);
+		}
+		
+		public RecompileAllResult(Set<JavaProject> added, Set<JavaProject> removed, Set<JavaProject> compiled,
+				Set<JavaProject> unloaded, Set<JavaProject> unchanged,
+				Set<JavaProject> loaded, Set<JavaProject> error) {
 			this.addedProjects = added;
 			this.removedProjects = removed;
 			this.compiledProjects = compiled;
 			this.unloadedProjects = unloaded;
+			this.unchangedProjects = unchanged;
 			this.loadedProjects = loaded;
 			this.errorProjects = error;
 		}
@@ -842,13 +1974,14 @@ public class ProjectManager {
 	
 	/**
 	 * Determines whether a project folder should be ignored,
-	 * by checking if its project folder name ends with ".disabled",
+	 * by checking if its project folder name ends with ".disabled" or is the build cache directory,
 	 * or a file ".jlignored" exists inside the project folder.
 	 * @param projectDir - The project folder.
 	 * @return True if the provided project folder should be ignored, false otherwise.
 	 */
 	private boolean shouldIgnoreProjectFolder(File projectDir) {
-		if(projectDir.getName().toLowerCase().endsWith(".disabled")) {
+		if(projectDir.getName().toLowerCase().endsWith(".disabled")
+				|| projectDir.getName().equals(BuildCache.DIR_NAME)) {
 			return true;
 		}
 		File[] projectFiles = projectDir.listFiles();
@@ -874,6 +2007,7 @@ public class ProjectManager {
 			JavaProject project = it.next();
 			if(!project.isLoaded() && !project.getProjectDir().exists()) {
 				it.remove();
+				this.updateDependencyIndex(project, null);
 				removedProjects.add(project);
 			}
 		}
@@ -890,6 +2024,7 @@ public class ProjectManager {
 		JavaProject project = this.projects.get(projectName);
 		if(project != null && !project.isLoaded() && !project.getProjectDir().exists()) {
 			this.projects.remove(projectName);
+			this.updateDependencyIndex(project, null);
 			return project;
 		}
 		return null;
@@ -929,6 +2064,7 @@ public class ProjectManager {
 			
 			// Remove the project from the project manager.
 			this.projects.remove(projectName);
+			this.updateDependencyIndex(project, null);
 			
 			// Return the unloaded projects.
 			return unloadedProjects;
@@ -939,12 +2075,18 @@ public class ProjectManager {
 	}
 	
 	/**
-	 * Unloads all projects and removes them from the projects list.
+	 * Unloads all projects and removes them from the projects list. This also releases the warm compiler state of the
+	 * compiler service.
 	 * @param exHandler - An exception handler for unload exceptions that occur during unloading.
 	 */
 	public void clear(UnloadExceptionHandler exHandler) {
 		this.unloadAllProjects(exHandler);
 		this.projects.clear();
+		synchronized(this.projectDependents) {
+			this.projectDependencyNames.clear();
+			this.projectDependents.clear();
+		}
+		this.compilerService.close();
 	}
 	
 	/**
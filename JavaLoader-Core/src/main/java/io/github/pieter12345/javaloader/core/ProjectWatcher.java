@@ -0,0 +1,307 @@
+package io.github.pieter12345.javaloader.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.github.pieter12345.javaloader.core.compiler.BinGenerations;
+import io.github.pieter12345.javaloader.core.compiler.BuildCache;
+
+/**
+ * Watches a projects directory for changes to project sources, dependencies files and jar files using a
+ * {@link WatchService}, and passes the names of the changed projects to a {@link ChangeHandler}.
+ * Changes are coalesced until no new changes have occurred for the debounce time, so that saving multiple files at
+ * once results in a single notification. Projects that are added to or removed from the projects directory are
+ * reported as changed as well. Bin directories are not watched, so compiling a project does not cause it to be
+ * reported as changed.
+ * This class is thread-safe.
+ */
+public class ProjectWatcher {
+	
+	private final Path projectsDir;
+	private final long debounceMillis;
+	private final ChangeHandler changeHandler;
+	
+	private WatchService watchService = null;
+	private ScheduledExecutorService debounceExecutor = null;
+	private ScheduledFuture<?> pendingNotification = null;
+	private final Set<String> changedProjects = new HashSet<String>();
+	
+	/**
+	 * Creates a new {@link ProjectWatcher}. The watcher has to be started using {@link #start()}.
+	 * @param projectsDir - The projects directory to watch.
+	 * @param debounceMillis - The time in milliseconds without new changes after which changes are passed to the
+	 * change handler.
+	 * @param changeHandler - The change handler. It is called from a background thread.
+	 * @throws IllegalArgumentException If debounceMillis is negative.
+	 */
+	public ProjectWatcher(File projectsDir, long debounceMillis, ChangeHandler changeHandler)
+			throws IllegalArgumentException {
+		if(debounceMillis < 0) {
+			throw new IllegalArgumentException("The debounce time cannot be negative.");
+		}
+		this.projectsDir = projectsDir.getAbsoluteFile().toPath();
+		this.debounceMillis = debounceMillis;
+		this.changeHandler = changeHandler;
+	}
+	
+	/**
+	 * Gets the projects directory that is watched.
+	 * @return The projects directory.
+	 */
+	public File getProjectsDir() {
+		return this.projectsDir.toFile();
+	}
+	
+	/**
+	 * Starts watching the projects directory on a new background thread.
+	 * @throws IOException If the watch service could not be created.
+	 * @throws IllegalStateException If this watcher is already running.
+	 */
+	public synchronized void start() throws IOException, IllegalStateException {
+		if(this.watchService != null) {
+			throw new IllegalStateException("The project watcher is already running.");
+		}
+		final WatchService watchService = this.projectsDir.getFileSystem().newWatchService();
+		this.watchService = watchService;
+		this.debounceExecutor = Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> {
+			Thread thread = new Thread(runnable, "JavaLoader watcher debounce");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Thread thread = new Thread(() -> this.watch(watchService), "JavaLoader watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Stops watching the projects directory. Changes that have not yet been passed to the change handler are dropped.
+	 * This does nothing if the watcher is not running.
+	 */
+	public synchronized void stop() {
+		if(this.watchService == null) {
+			return;
+		}
+		try {
+			this.watchService.close();
+		} catch (IOException e) {
+			// Ignore. The watch thread stops either way.
+		}
+		this.debounceExecutor.shutdownNow();
+		this.watchService = null;
+		this.debounceExecutor = null;
+		this.pendingNotification = null;
+		this.changedProjects.clear();
+	}
+	
+	/**
+	 * Checks whether this watcher is running.
+	 * @return {@code true} if the watcher is running, {@code false} otherwise.
+	 */
+	public synchronized boolean isRunning() {
+		return this.watchService != null;
+	}
+	
+	/**
+	 * Marks the given projects as changed, passing them to the change handler after the debounce time together with
+	 * any other changes (Example: To retry handling changes that could not be handled yet).
+	 * This does nothing if the watcher is not running.
+	 * @param projectNames - The names of the changed projects.
+	 */
+	public synchronized void markChanged(Collection<String> projectNames) {
+		if(this.watchService == null || projectNames.isEmpty()) {
+			return;
+		}
+		this.changedProjects.addAll(projectNames);
+		if(this.pendingNotification != null) {
+			this.pendingNotification.cancel(false);
+		}
+		this.pendingNotification = this.debounceExecutor.schedule(
+				this::notifyChanges, this.debounceMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Passes the changed projects to the change handler.
+	 */
+	private void notifyChanges() {
+		Set<String> projectNames;
+		synchronized(this) {
+			if(this.changedProjects.isEmpty()) {
+				return;
+			}
+			projectNames = new HashSet<String>(this.changedProjects);
+			this.changedProjects.clear();
+			this.pendingNotification = null;
+		}
+		this.changeHandler.onProjectsChanged(projectNames);
+	}
+	
+	/**
+	 * Registers all watched directories and handles watch events until the given watch service is closed.
+	 * @param watchService - The watch service.
+	 */
+	private void watch(WatchService watchService) {
+		Map<WatchKey, Path> watchedDirs = new HashMap<WatchKey, Path>();
+		this.register(watchService, watchedDirs, this.projectsDir);
+		try {
+			while(true) {
+				WatchKey key = watchService.take();
+				Path dir = watchedDirs.get(key);
+				Set<String> projectNames = new HashSet<String>();
+				for(WatchEvent<?> event : key.pollEvents()) {
+					
+					// Register all directories again and mark all projects as changed when events have been lost.
+					if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						this.register(watchService, watchedDirs, this.projectsDir);
+						File[] projectDirs = this.projectsDir.toFile().listFiles();
+						if(projectDirs != null) {
+							for(File projectDir : projectDirs) {
+								if(projectDir.isDirectory() && this.isWatched(projectDir.toPath())) {
+									projectNames.add(projectDir.getName());
+								}
+							}
+						}
+						continue;
+					}
+					if(dir == null) {
+						continue;
+					}
+					
+					// Watch new directories and check whether the change is relevant for the project.
+					Path path = dir.resolve((Path) event.context());
+					if(event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+							&& Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+						this.register(watchService, watchedDirs, path);
+					}
+					if(this.isRelevant(path, event.kind())) {
+						projectNames.add(this.projectsDir.relativize(path).getName(0).toString());
+					}
+				}
+				
+				// Stop tracking directories that no longer exist.
+				if(!key.reset()) {
+					watchedDirs.remove(key);
+				}
+				this.markChanged(projectNames);
+			}
+		} catch (ClosedWatchServiceException | InterruptedException e) {
+			// The watcher has been stopped.
+		}
+	}
+	
+	/**
+	 * Registers the given directory and all its watched subdirectories with the given watch service.
+	 * Directories that cannot be registered (Example: Because they have been removed in the meantime) are ignored.
+	 * @param watchService - The watch service.
+	 * @param watchedDirs - A map from watch key to directory, to which the registered directories are added.
+	 * @param dir - The directory.
+	 */
+	private void register(final WatchService watchService, final Map<WatchKey, Path> watchedDirs, Path dir) {
+		try {
+			Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					if(!ProjectWatcher.this.isWatched(dir)) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					try {
+						watchedDirs.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+								StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+					} catch (IOException e) {
+						// Ignore. The directory has been removed in the meantime.
+					}
+					return FileVisitResult.CONTINUE;
+				}
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			// Ignore. The directory has been removed in the meantime.
+		}
+	}
+	
+	/**
+	 * Checks whether the given directory should be watched. Ignored project directories (ending with ".disabled"),
+	 * the build cache directory, bin directories and hidden directories within projects (Example: ".git") are not
+	 * watched.
+	 * @param dir - The directory.
+	 * @return {@code true} if the directory should be watched, {@code false} otherwise.
+	 */
+	private boolean isWatched(Path dir) {
+		Path relPath = this.projectsDir.relativize(dir);
+		if(relPath.toString().isEmpty()) {
+			return true;
+		}
+		String name = dir.getFileName().toString();
+		if(relPath.getNameCount() == 1) {
+			return !name.toLowerCase().endsWith(".disabled") && !name.equals(BuildCache.DIR_NAME);
+		}
+		return !name.startsWith(".") && (relPath.getNameCount() > 2
+				|| (!name.equals(BinGenerations.DIR_NAME) && !name.equals(BinGenerations.LEGACY_DIR_NAME)));
+	}
+	
+	/**
+	 * Checks whether a change to the given path affects the project that it is in. This is the case for the project
+	 * directory itself being added or removed, files and directories in the "src" directory, the dependencies file
+	 * and jar files outside of bin directories.
+	 * Modifications of a project directory are not relevant, since some watch services report these when its direct
+	 * children change, which JavaLoader does itself when creating or removing bin directories.
+	 * @param path - The changed path.
+	 * @param kind - The kind of change.
+	 * @return {@code true} if the change is relevant, {@code false} otherwise.
+	 */
+	private boolean isRelevant(Path path, WatchEvent.Kind<?> kind) {
+		Path relPath = this.projectsDir.relativize(path);
+		int nameCount = relPath.getNameCount();
+		if(relPath.toString().isEmpty() || !this.isWatched(this.projectsDir.resolve(relPath.getName(0)))) {
+			return false;
+		}
+		if(nameCount == 1) {
+			return (kind == StandardWatchEventKinds.ENTRY_CREATE
+					|| kind == StandardWatchEventKinds.ENTRY_DELETE); // A project directory has been added or removed.
+		}
+		String subDirName = relPath.getName(1).toString();
+		if(subDirName.equals("src")) {
+			return true;
+		}
+		if(nameCount == 2 && subDirName.equals("dependencies.txt")) {
+			return true;
+		}
+		return path.getFileName().toString().toLowerCase().endsWith(".jar")
+				&& !subDirName.equals(BinGenerations.DIR_NAME) && !subDirName.equals(BinGenerations.LEGACY_DIR_NAME);
+	}
+	
+	/**
+	 * Handles changes to watched projects.
+	 */
+	public static interface ChangeHandler {
+		
+		/**
+		 * Called when one or more projects have changed. The project names might include projects that have been
+		 * removed, or directories that are not (valid) projects.
+		 * @param projectNames - The names of the changed projects.
+		 */
+		void onProjectsChanged(Set<String> projectNames);
+	}
+}
@@ -0,0 +1,211 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import io.github.pieter12345.javaloader.core.utils.Utils;
+
+/**
+ * Manages the generation-numbered bin directories of a project. Every compile to disk writes its binaries to a new
+ * generation directory ("bins/gen-N") and a pointer file ("bins/current") refers to the generation that is in use.
+ * Switching to another generation only replaces the pointer file, which happens atomically, so that a failing swap
+ * never leaves a project without binaries and a previous generation can be switched back to without recompiling.
+ * Projects that do not have a pointer file yet use their legacy "bin" directory, which is treated as generation 0.
+ * This class is thread-safe.
+ */
+public class BinGenerations {
+	
+	/**
+	 * The name of the directory containing the generation directories in the project directory.
+	 */
+	public static final String DIR_NAME = "bins";
+	
+	/**
+	 * The name of the bin directory of projects that have not been compiled into a generation directory yet.
+	 */
+	public static final String LEGACY_DIR_NAME = "bin";
+	
+	private static final String GENERATION_PREFIX = "gen-";
+	private static final String POINTER_FILE_NAME = "current";
+	
+	private final File projectDir;
+	private final File binsDir;
+	private File current = null;
+	
+	/**
+	 * Creates a new {@link BinGenerations}.
+	 * @param projectDir - The project directory.
+	 */
+	public BinGenerations(File projectDir) {
+		this.projectDir = projectDir.getAbsoluteFile();
+		this.binsDir = new File(this.projectDir, DIR_NAME);
+	}
+	
+	/**
+	 * Gets the directory containing the generation directories.
+	 * @return The "bins" directory. This directory might not exist.
+	 */
+	public File getBinsDir() {
+		return this.binsDir;
+	}
+	
+	/**
+	 * Gets the bin directory of the current generation, as referred to by the pointer file.
+	 * @return The current bin directory, or the legacy "bin" directory if there is no valid pointer file.
+	 * This directory might not exist.
+	 */
+	public synchronized File getCurrent() {
+		if(this.current == null) {
+			File pointerFile = new File(this.binsDir, POINTER_FILE_NAME);
+			String genName = null;
+			try {
+				genName = Utils.readFile(pointerFile, StandardCharsets.UTF_8);
+			} catch (IOException e) {
+				// Ignore. Fall back to the legacy bin directory.
+			}
+			genName = (genName == null ? null : genName.trim());
+			this.current = (genName != null && getGeneration(genName) > 0
+					? new File(this.binsDir, genName) : new File(this.projectDir, LEGACY_DIR_NAME));
+		}
+		return this.current;
+	}
+	
+	/**
+	 * Gets the bin directory of the generation that preceded the current generation.
+	 * @return The previous bin directory, or {@code null} if no previous generation exists.
+	 */
+	public synchronized File getPrevious() {
+		TreeMap<Long, File> generations = this.getGenerations();
+		Entry<Long, File> previous = generations.lowerEntry(this.getGeneration(this.getCurrent()));
+		return (previous == null ? null : previous.getValue());
+	}
+	
+	/**
+	 * Gets the bin directory for a new generation, numbered after the current generation. Generations that are newer
+	 * than the current generation are left over from failed or discarded compiles or from a rollback, and are removed.
+	 * The returned directory is not created, but its parent directory is.
+	 * @return The bin directory for the new generation.
+	 */
+	public synchronized File createNext() {
+		long currentGeneration = this.getGeneration(this.getCurrent());
+		for(File genDir : this.getGenerations().tailMap(currentGeneration, false).values()) {
+			Utils.removeFile(genDir);
+		}
+		this.binsDir.mkdirs();
+		return new File(this.binsDir, GENERATION_PREFIX + (currentGeneration + 1));
+	}
+	
+	/**
+	 * Makes the given generation the current generation by atomically replacing the pointer file.
+	 * @param genDir - The bin directory of the generation, as returned by {@link #createNext()} or
+	 * {@link #getPrevious()}.
+	 * @throws IOException If the pointer file could not be written.
+	 * @throws IllegalArgumentException If the given directory is not a generation of this project.
+	 */
+	public synchronized void switchTo(File genDir) throws IOException, IllegalArgumentException {
+		genDir = genDir.getAbsoluteFile();
+		long generation = this.getGeneration(genDir);
+		if(generation < 0) {
+			throw new IllegalArgumentException("Not a bin generation directory: " + genDir.getAbsolutePath());
+		}
+		
+		// Write the pointer to a temporary file and move it over the pointer file.
+		this.binsDir.mkdirs();
+		File pointerFile = new File(this.binsDir, POINTER_FILE_NAME);
+		File tempFile = new File(this.binsDir, POINTER_FILE_NAME + ".tmp");
+		Files.write(tempFile.toPath(), genDir.getName().getBytes(StandardCharsets.UTF_8));
+		try {
+			Files.move(tempFile.toPath(), pointerFile.toPath(),
+					StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), pointerFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		this.current = genDir;
+	}
+	
+	/**
+	 * Removes all generations that are older than the current generation, except for the given amount of most recent
+	 * ones. Generations that cannot be removed (Example: Because their files are still in use) are left for the next
+	 * call. The legacy "bin" directory is removed once it is no longer retained.
+	 * @param retainedGenerations - The amount of previous generations to keep for rollbacks.
+	 * @return The removed bin directories.
+	 */
+	public synchronized List<File> collectGarbage(int retainedGenerations) {
+		List<File> removedDirs = new ArrayList<File>();
+		List<File> oldDirs = new ArrayList<File>(
+				this.getGenerations().headMap(this.getGeneration(this.getCurrent()), false).descendingMap().values());
+		for(int i = retainedGenerations; i < oldDirs.size(); i++) {
+			if(Utils.removeFile(oldDirs.get(i))) {
+				removedDirs.add(oldDirs.get(i));
+			}
+		}
+		return removedDirs;
+	}
+	
+	/**
+	 * Removes all generations, the pointer file and the legacy "bin" directory.
+	 * @return {@code true} if everything was removed, {@code false} otherwise.
+	 */
+	public synchronized boolean clear() {
+		this.current = null;
+		File legacyDir = new File(this.projectDir, LEGACY_DIR_NAME);
+		boolean binsRemoved = (!this.binsDir.exists() || Utils.removeFile(this.binsDir));
+		return (!legacyDir.exists() || Utils.removeFile(legacyDir)) && binsRemoved;
+	}
+	
+	/**
+	 * Gets all existing generations, including the legacy "bin" directory as generation 0.
+	 * @return A map from generation number to bin directory.
+	 */
+	private TreeMap<Long, File> getGenerations() {
+		TreeMap<Long, File> generations = new TreeMap<Long, File>();
+		File legacyDir = new File(this.projectDir, LEGACY_DIR_NAME);
+		if(legacyDir.isDirectory()) {
+			generations.put(0L, legacyDir);
+		}
+		File[] genDirs = this.binsDir.listFiles();
+		if(genDirs != null) {
+			for(File genDir : genDirs) {
+				long generation = getGeneration(genDir.getName());
+				if(generation > 0 && genDir.isDirectory()) {
+					generations.put(generation, genDir);
+				}
+			}
+		}
+		return generations;
+	}
+	
+	/**
+	 * Gets the generation number of the given bin directory of this project.
+	 * @param binDir - The bin directory.
+	 * @return The generation number, being 0 for the legacy "bin" directory, or -1 if the directory is not a
+	 * generation of this project.
+	 */
+	private long getGeneration(File binDir) {
+		binDir = binDir.getAbsoluteFile();
+		if(binDir.equals(new File(this.projectDir, LEGACY_DIR_NAME))) {
+			return 0;
+		}
+		return (this.binsDir.equals(binDir.getParentFile()) ? getGeneration(binDir.getName()) : -1);
+	}
+	
+	private static long getGeneration(String genName) {
+		if(!genName.startsWith(GENERATION_PREFIX)) {
+			return -1;
+		}
+		try {
+			long generation = Long.parseLong(genName.substring(GENERATION_PREFIX.length()));
+			return (generation > 0 ? generation : -1);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,275 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+import io.github.pieter12345.javaloader.core.compiler.SourceManifest.SourceEntry;
+import io.github.pieter12345.javaloader.core.utils.Utils;
+
+/**
+ * A content-addressed cache of compiled project binaries. Binaries are stored under a key that is computed from the
+ * content of all source files, the compiler options and the classpath fingerprint, so that compiling the exact same
+ * sources against the exact same dependencies again (Example: After switching back to a previous branch or after
+ * removing the bin directory) can restore the class files instead of running the java compiler.
+ * Every cache entry is a directory containing the class files and the source manifest in the layout of a regular bin
+ * directory. When the total size of the cache exceeds its maximum size, the least recently used entries are removed.
+ * This class is thread-safe.
+ */
+public class BuildCache {
+	
+	/**
+	 * The name of the build cache directory in the projects directory.
+	 */
+	public static final String DIR_NAME = ".buildcache";
+	
+	private static final String KEY_VERSION = "1";
+	private static final String TEMP_DIR_PREFIX = ".tmp-";
+	
+	private final File cacheDir;
+	private volatile long maxSize = 256L * 1024L * 1024L;
+	private Map<String, Long> entrySizes = null;
+	
+	/**
+	 * Creates a new {@link BuildCache}.
+	 * @param cacheDir - The directory to store the cache entries in. It is created when the first entry is stored.
+	 */
+	public BuildCache(File cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+	
+	/**
+	 * Gets the directory in which the cache entries are stored.
+	 * @return The cache directory.
+	 */
+	public File getCacheDir() {
+		return this.cacheDir;
+	}
+	
+	/**
+	 * Gets the maximum total size of all cache entries.
+	 * @return The maximum size in bytes.
+	 */
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+	
+	/**
+	 * Sets the maximum total size of all cache entries. The least recently used entries are removed when a new entry
+	 * causes this size to be exceeded. This defaults to 256 MiB.
+	 * @param maxSize - The maximum size in bytes.
+	 * @throws IllegalArgumentException If maxSize is negative.
+	 */
+	public void setMaxSize(long maxSize) throws IllegalArgumentException {
+		if(maxSize < 0) {
+			throw new IllegalArgumentException("The maximum build cache size cannot be negative.");
+		}
+		this.maxSize = maxSize;
+	}
+	
+	/**
+	 * Computes the cache key for a compile of the given source files with the fingerprints of the given manifest.
+	 * @param manifest - The manifest of the compile, having its options and classpath fingerprints set.
+	 * @param sourceHashes - A map from source path to content hash for all source files of the project.
+	 * @return The cache key.
+	 */
+	public static String computeKey(SourceManifest manifest, Map<String, String> sourceHashes) {
+		List<String> paths = new ArrayList<String>(sourceHashes.keySet());
+		Collections.sort(paths);
+		List<String> parts = new ArrayList<String>(paths.size() + 3);
+		parts.add(KEY_VERSION);
+		parts.add(manifest.getOptionsFingerprint());
+		parts.add(manifest.getClasspathFingerprint());
+		for(String path : paths) {
+			parts.add(path + "\t" + sourceHashes.get(path));
+		}
+		return SourceManifest.hashStrings(parts);
+	}
+	
+	/**
+	 * Gets the binaries stored under the given key and marks them as recently used.
+	 * @param key - The cache key.
+	 * @return The cached binaries, or {@code null} if no (complete) entry exists for the given key.
+	 */
+	public CachedBinaries get(String key) {
+		File entryDir = new File(this.cacheDir, key);
+		try {
+			SourceManifest manifest = SourceManifest.read(entryDir);
+			if(manifest == null) {
+				return null;
+			}
+			Map<String, byte[]> classes = new HashMap<String, byte[]>();
+			for(SourceEntry entry : manifest.getSources()) {
+				for(String className : entry.getClasses()) {
+					File classFile = new File(entryDir, className.replace('.', '/') + ".class");
+					if(!classFile.isFile()) {
+						return null; // The entry is incomplete, possibly because it is being evicted.
+					}
+					classes.put(className, Files.readAllBytes(classFile.toPath()));
+				}
+			}
+			entryDir.setLastModified(System.currentTimeMillis());
+			return new CachedBinaries(classes, manifest);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Stores the given binaries under the given key and removes the least recently used entries if the cache has
+	 * grown beyond its maximum size. Nothing is stored if an entry with the given key already exists.
+	 * Failing to store the binaries is not considered an error, since the cache only serves to speed up compiles.
+	 * @param key - The cache key.
+	 * @param classes - A map from binary class name to class file bytes.
+	 * @param manifest - The source manifest describing the classes.
+	 * @return {@code true} if the binaries were stored, {@code false} otherwise.
+	 */
+	public synchronized boolean put(String key, Map<String, byte[]> classes, SourceManifest manifest) {
+		File entryDir = new File(this.cacheDir, key);
+		if(entryDir.exists()) {
+			return false;
+		}
+		
+		// Write the entry to a temporary directory, so that it only becomes visible once it is complete.
+		File tempDir = new File(this.cacheDir, TEMP_DIR_PREFIX + UUID.randomUUID());
+		long size = 0;
+		try {
+			if(!tempDir.mkdirs()) {
+				return false;
+			}
+			for(Entry<String, byte[]> entry : classes.entrySet()) {
+				File classFile = new File(tempDir, entry.getKey().replace('.', '/') + ".class");
+				classFile.getParentFile().mkdirs();
+				Files.write(classFile.toPath(), entry.getValue());
+				size += entry.getValue().length;
+			}
+			manifest.write(tempDir);
+			size += new File(tempDir, SourceManifest.FILE_NAME).length();
+			if(!tempDir.renameTo(entryDir)) {
+				Utils.removeFile(tempDir);
+				return false;
+			}
+		} catch (IOException e) {
+			Utils.removeFile(tempDir);
+			return false;
+		}
+		
+		// Track the new entry and evict the least recently used entries.
+		this.getEntrySizes().put(key, size);
+		this.evict();
+		return true;
+	}
+	
+	/**
+	 * Removes the least recently used entries until the total size of the cache no longer exceeds its maximum size.
+	 */
+	public synchronized void evict() {
+		Map<String, Long> entrySizes = this.getEntrySizes();
+		long totalSize = 0;
+		for(long size : entrySizes.values()) {
+			totalSize += size;
+		}
+		if(totalSize <= this.maxSize) {
+			return;
+		}
+		
+		// Sort the entries from least to most recently used and remove them until the cache is small enough.
+		final Map<String, Long> lastUsed = new HashMap<String, Long>();
+		for(String key : entrySizes.keySet()) {
+			lastUsed.put(key, new File(this.cacheDir, key).lastModified());
+		}
+		List<String> keys = new ArrayList<String>(entrySizes.keySet());
+		keys.sort(Comparator.comparingLong((String key) -> lastUsed.get(key)));
+		for(String key : keys) {
+			if(totalSize <= this.maxSize) {
+				break;
+			}
+			if(Utils.removeFile(new File(this.cacheDir, key))) {
+				totalSize -= entrySizes.remove(key);
+			}
+		}
+	}
+	
+	/**
+	 * Removes all entries from the cache.
+	 * @return {@code true} if all entries were removed, {@code false} otherwise.
+	 */
+	public synchronized boolean clear() {
+		this.entrySizes = null;
+		return Utils.removeFile(this.cacheDir);
+	}
+	
+	/**
+	 * Gets the sizes of all cache entries, reading them from the cache directory if this is the first time that they
+	 * are requested. Leftover temporary directories from interrupted writes are removed in this process.
+	 * @return A map from cache key to entry size in bytes.
+	 */
+	private Map<String, Long> getEntrySizes() {
+		if(this.entrySizes == null) {
+			this.entrySizes = new HashMap<String, Long>();
+			File[] entryDirs = this.cacheDir.listFiles();
+			if(entryDirs != null) {
+				for(File entryDir : entryDirs) {
+					if(entryDir.getName().startsWith(TEMP_DIR_PREFIX)) {
+						Utils.removeFile(entryDir);
+					} else if(entryDir.isDirectory()) {
+						this.entrySizes.put(entryDir.getName(), getSize(entryDir));
+					}
+				}
+			}
+		}
+		return this.entrySizes;
+	}
+	
+	private static long getSize(File file) {
+		if(!file.isDirectory()) {
+			return file.length();
+		}
+		long size = 0;
+		File[] files = file.listFiles();
+		if(files != null) {
+			for(File child : files) {
+				size += getSize(child);
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * Represents the binaries of a build cache entry.
+	 */
+	public static class CachedBinaries {
+		private final Map<String, byte[]> classes;
+		private final SourceManifest manifest;
+		
+		private CachedBinaries(Map<String, byte[]> classes, SourceManifest manifest) {
+			this.classes = classes;
+			this.manifest = manifest;
+		}
+		
+		/**
+		 * Gets the cached classes.
+		 * @return A mutable map from binary class name to class file bytes.
+		 */
+		public Map<String, byte[]> getClasses() {
+			return this.classes;
+		}
+		
+		/**
+		 * Gets the source manifest that was stored with the classes. The source entries in this manifest contain the
+		 * modification times and sizes of the source files that were originally compiled.
+		 * @return The source manifest.
+		 */
+		public SourceManifest getManifest() {
+			return this.manifest;
+		}
+	}
+}
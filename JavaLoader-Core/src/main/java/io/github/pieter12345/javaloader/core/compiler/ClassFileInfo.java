@@ -0,0 +1,510 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents the parts of a .class file that JavaLoader needs without defining the class. This reads the constant pool,
+ * the class hierarchy, the field and method declarations and the attributes that define the API of the class (generic
+ * signatures, checked exceptions, constant values and nesting), and ignores everything else (code, annotations, etc).
+ */
+public class ClassFileInfo {
+	
+	// Access flags.
+	public static final int ACC_PUBLIC = 0x0001;
+	public static final int ACC_PRIVATE = 0x0002;
+	public static final int ACC_PROTECTED = 0x0004;
+	public static final int ACC_STATIC = 0x0008;
+	public static final int ACC_FINAL = 0x0010;
+	public static final int ACC_SYNCHRONIZED = 0x0020;
+	public static final int ACC_NATIVE = 0x0100;
+	public static final int ACC_INTERFACE = 0x0200;
+	public static final int ACC_ABSTRACT = 0x0400;
+	public static final int ACC_STRICT = 0x0800;
+	public static final int ACC_SYNTHETIC = 0x1000;
+	public static final int ACC_ANNOTATION = 0x2000;
+	public static final int ACC_ENUM = 0x4000;
+	
+	// Constant pool tags.
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+	
+	private final String name;
+	private final String superName;
+	private final List<String> interfaces;
+	private final int accessFlags;
+	private final List<Member> fields;
+	private final List<Member> methods;
+	private final Set<String> referencedClasses;
+	private final String signature;
+	private final int innerAccessFlags;
+	private final boolean localOrAnonymous;
+	private final List<String> permittedSubclasses;
+	
+	private ClassFileInfo(String name, String superName, List<String> interfaces, int accessFlags,
+			List<Member> fields, List<Member> methods, Set<String> referencedClasses, String signature,
+			int innerAccessFlags, boolean localOrAnonymous, List<String> permittedSubclasses) {
+		this.name = name;
+		this.superName = superName;
+		this.interfaces = interfaces;
+		this.accessFlags = accessFlags;
+		this.fields = fields;
+		this.methods = methods;
+		this.referencedClasses = referencedClasses;
+		this.signature = signature;
+		this.innerAccessFlags = innerAccessFlags;
+		this.localOrAnonymous = localOrAnonymous;
+		this.permittedSubclasses = permittedSubclasses;
+	}
+	
+	/**
+	 * Parses the given .class file bytes.
+	 * @param bytes - The .class file bytes.
+	 * @return The parsed {@link ClassFileInfo}.
+	 * @throws IOException If the bytes do not represent a valid .class file.
+	 */
+	public static ClassFileInfo read(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		if(in.readInt() != 0xCAFEBABE) {
+			throw new IOException("Not a class file (invalid magic number).");
+		}
+		in.readUnsignedShort(); // Minor version.
+		in.readUnsignedShort(); // Major version.
+		
+		// Read the constant pool. Only UTF8 values, literals and the indices referenced by class and descriptor entries
+		// are kept.
+		int poolSize = in.readUnsignedShort();
+		String[] utf8 = new String[poolSize];
+		Object[] literals = new Object[poolSize];
+		int[] stringIndices = new int[poolSize];
+		int[] classNameIndices = new int[poolSize];
+		List<Integer> descriptorIndices = new ArrayList<Integer>();
+		for(int i = 1; i < poolSize; i++) {
+			int tag = in.readUnsignedByte();
+			switch(tag) {
+				case CONSTANT_UTF8:
+					utf8[i] = in.readUTF();
+					break;
+				case CONSTANT_CLASS:
+					classNameIndices[i] = in.readUnsignedShort();
+					break;
+				case CONSTANT_METHOD_TYPE:
+					descriptorIndices.add(in.readUnsignedShort());
+					break;
+				case CONSTANT_NAME_AND_TYPE:
+					in.readUnsignedShort(); // Name index.
+					descriptorIndices.add(in.readUnsignedShort());
+					break;
+				case CONSTANT_STRING:
+					stringIndices[i] = in.readUnsignedShort();
+					break;
+				case CONSTANT_MODULE:
+				case CONSTANT_PACKAGE:
+					in.readUnsignedShort();
+					break;
+				case CONSTANT_METHOD_HANDLE:
+					in.readUnsignedByte();
+					in.readUnsignedShort();
+					break;
+				case CONSTANT_INTEGER:
+					literals[i] = in.readInt();
+					break;
+				case CONSTANT_FLOAT:
+					literals[i] = "F" + Integer.toHexString(in.readInt());
+					break;
+				case CONSTANT_FIELDREF:
+				case CONSTANT_METHODREF:
+				case CONSTANT_INTERFACE_METHODREF:
+				case CONSTANT_DYNAMIC:
+				case CONSTANT_INVOKE_DYNAMIC:
+					in.readInt();
+					break;
+				case CONSTANT_LONG:
+					literals[i] = in.readLong();
+					i++; // These take up two constant pool entries.
+					break;
+				case CONSTANT_DOUBLE:
+					literals[i] = "D" + Long.toHexString(in.readLong());
+					i++; // These take up two constant pool entries.
+					break;
+				default:
+					throw new IOException("Unknown constant pool tag: " + tag);
+			}
+		}
+		
+		// Read the class hierarchy.
+		int accessFlags = in.readUnsignedShort();
+		String name = toBinaryName(utf8[classNameIndices[in.readUnsignedShort()]]);
+		int superIndex = in.readUnsignedShort();
+		String superName = (superIndex == 0 ? null : toBinaryName(utf8[classNameIndices[superIndex]]));
+		int interfaceCount = in.readUnsignedShort();
+		List<String> interfaces = new ArrayList<String>(interfaceCount);
+		for(int i = 0; i < interfaceCount; i++) {
+			interfaces.add(toBinaryName(utf8[classNameIndices[in.readUnsignedShort()]]));
+		}
+		
+		for(int i = 1; i < poolSize; i++) {
+			if(stringIndices[i] != 0) {
+				literals[i] = "\"" + utf8[stringIndices[i]];
+			}
+		}
+		
+		// Read the fields and methods.
+		List<Member> fields = readMembers(in, utf8, literals, classNameIndices);
+		List<Member> methods = readMembers(in, utf8, literals, classNameIndices);
+		
+		// Read the class attributes.
+		String signature = null;
+		int innerAccessFlags = -1;
+		boolean localOrAnonymous = false;
+		List<String> permittedSubclasses = new ArrayList<String>();
+		int attributeCount = in.readUnsignedShort();
+		for(int i = 0; i < attributeCount; i++) {
+			String attributeName = utf8[in.readUnsignedShort()];
+			int length = in.readInt();
+			switch(attributeName) {
+				case "Signature":
+					signature = utf8[in.readUnsignedShort()];
+					break;
+				case "InnerClasses": {
+					
+					// Get the nesting of this class itself. Local and anonymous classes have no outer class or name.
+					int classCount = in.readUnsignedShort();
+					for(int j = 0; j < classCount; j++) {
+						int innerIndex = in.readUnsignedShort();
+						int outerIndex = in.readUnsignedShort();
+						int innerNameIndex = in.readUnsignedShort();
+						int innerAccess = in.readUnsignedShort();
+						if(classNameIndices[innerIndex] != 0
+								&& toBinaryName(utf8[classNameIndices[innerIndex]]).equals(name)) {
+							innerAccessFlags = innerAccess;
+							localOrAnonymous = (outerIndex == 0 || innerNameIndex == 0);
+						}
+					}
+					break;
+				}
+				case "PermittedSubclasses": {
+					int classCount = in.readUnsignedShort();
+					for(int j = 0; j < classCount; j++) {
+						permittedSubclasses.add(toBinaryName(utf8[classNameIndices[in.readUnsignedShort()]]));
+					}
+					break;
+				}
+				default:
+					in.skipNBytes(length);
+					break;
+			}
+		}
+		
+		// Collect all referenced classes from class constants and from field, method and method type descriptors.
+		Set<String> referencedClasses = new HashSet<String>();
+		for(int i = 1; i < poolSize; i++) {
+			if(classNameIndices[i] != 0) {
+				String className = utf8[classNameIndices[i]];
+				if(className.startsWith("[")) {
+					addDescriptorClasses(className, referencedClasses);
+				} else {
+					referencedClasses.add(toBinaryName(className));
+				}
+			}
+		}
+		for(int descriptorIndex : descriptorIndices) {
+			addDescriptorClasses(utf8[descriptorIndex], referencedClasses);
+		}
+		for(Member member : fields) {
+			addDescriptorClasses(member.getDescriptor(), referencedClasses);
+		}
+		for(Member member : methods) {
+			addDescriptorClasses(member.getDescriptor(), referencedClasses);
+		}
+		referencedClasses.remove(name);
+		
+		return new ClassFileInfo(name, superName, Collections.unmodifiableList(interfaces), accessFlags,
+				Collections.unmodifiableList(fields), Collections.unmodifiableList(methods),
+				Collections.unmodifiableSet(referencedClasses), signature, innerAccessFlags, localOrAnonymous,
+				Collections.unmodifiableList(permittedSubclasses));
+	}
+	
+	private static List<Member> readMembers(DataInputStream in,
+			String[] utf8, Object[] literals, int[] classNameIndices) throws IOException {
+		int count = in.readUnsignedShort();
+		List<Member> members = new ArrayList<Member>(count);
+		for(int i = 0; i < count; i++) {
+			int access = in.readUnsignedShort();
+			String name = utf8[in.readUnsignedShort()];
+			String descriptor = utf8[in.readUnsignedShort()];
+			Object constantValue = null;
+			String signature = null;
+			List<String> exceptions = new ArrayList<String>();
+			int attributeCount = in.readUnsignedShort();
+			for(int j = 0; j < attributeCount; j++) {
+				String attributeName = utf8[in.readUnsignedShort()];
+				int length = in.readInt();
+				switch(attributeName) {
+					case "ConstantValue":
+						constantValue = literals[in.readUnsignedShort()];
+						break;
+					case "Signature":
+						signature = utf8[in.readUnsignedShort()];
+						break;
+					case "Exceptions": {
+						int exceptionCount = in.readUnsignedShort();
+						for(int k = 0; k < exceptionCount; k++) {
+							exceptions.add(toBinaryName(utf8[classNameIndices[in.readUnsignedShort()]]));
+						}
+						break;
+					}
+					default:
+						in.skipNBytes(length);
+						break;
+				}
+			}
+			members.add(new Member(access, name, descriptor, constantValue, signature,
+					Collections.unmodifiableList(exceptions)));
+		}
+		return members;
+	}
+	
+	/**
+	 * Adds all class names that occur in the given field or method descriptor ("Lpkg/Name;" parts) to the given set.
+	 * @param descriptor - The descriptor.
+	 * @param classes - The set to add the binary class names to.
+	 */
+	private static void addDescriptorClasses(String descriptor, Set<String> classes) {
+		if(descriptor == null) {
+			return;
+		}
+		int ind = 0;
+		while((ind = descriptor.indexOf('L', ind)) != -1) {
+			int end = descriptor.indexOf(';', ind);
+			if(end == -1) {
+				return;
+			}
+			classes.add(toBinaryName(descriptor.substring(ind + 1, end)));
+			ind = end + 1;
+		}
+	}
+	
+	private static String toBinaryName(String internalName) {
+		return internalName.replace('/', '.');
+	}
+	
+	/**
+	 * Gets the binary name of this class.
+	 * @return The binary name (Example: "my.package.MyClass$Inner").
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Gets the binary name of the superclass of this class.
+	 * @return The binary name of the superclass or {@code null} for {@link Object}.
+	 */
+	public String getSuperName() {
+		return this.superName;
+	}
+	
+	/**
+	 * Gets the binary names of the interfaces directly implemented by this class.
+	 * @return The interface names.
+	 */
+	public List<String> getInterfaces() {
+		return this.interfaces;
+	}
+	
+	/**
+	 * Gets the class access flags.
+	 * @return The access flags.
+	 */
+	public int getAccessFlags() {
+		return this.accessFlags;
+	}
+	
+	/**
+	 * Gets the fields declared in this class.
+	 * @return The fields.
+	 */
+	public List<Member> getFields() {
+		return this.fields;
+	}
+	
+	/**
+	 * Gets the methods (including constructors and static initializers) declared in this class.
+	 * @return The methods.
+	 */
+	public List<Member> getMethods() {
+		return this.methods;
+	}
+	
+	/**
+	 * Gets the binary names of all classes referenced from this class, excluding this class itself.
+	 * @return The referenced class names.
+	 */
+	public Set<String> getReferencedClasses() {
+		return this.referencedClasses;
+	}
+	
+	/**
+	 * Gets the generic signature of this class.
+	 * @return The signature or {@code null} if this class has no generic signature.
+	 */
+	public String getSignature() {
+		return this.signature;
+	}
+	
+	/**
+	 * Checks whether this class is a local or anonymous class, which cannot be referenced from other classes.
+	 * @return {@code true} if this class is a local or anonymous class, {@code false} otherwise.
+	 */
+	public boolean isLocalOrAnonymous() {
+		return this.localOrAnonymous;
+	}
+	
+	/**
+	 * Computes a description of the API of this class, being everything that other classes can be compiled against.
+	 * This includes the class hierarchy, generic signatures and all non-private and non-synthetic fields and methods
+	 * with their checked exceptions and constant values, but excludes method bodies, private members and annotations.
+	 * Two versions of a class with the same API description can be used interchangeably by compiled dependents.
+	 * @return The API description, or {@code null} if this class cannot be referenced from other classes (being
+	 * a local, anonymous or private nested class).
+	 */
+	public String getApiDescription() {
+		if(this.localOrAnonymous
+				|| (this.innerAccessFlags != -1 && (this.innerAccessFlags & ACC_PRIVATE) != 0)) {
+			return null;
+		}
+		StringBuilder str = new StringBuilder();
+		int classAccessMask = ACC_PUBLIC | ACC_FINAL | ACC_INTERFACE | ACC_ABSTRACT | ACC_ANNOTATION | ACC_ENUM;
+		str.append("class ").append(this.name).append(' ').append(this.accessFlags & classAccessMask)
+				.append(' ').append(this.innerAccessFlags).append(" extends ").append(this.superName)
+				.append(" implements ").append(this.interfaces).append(" signature ").append(this.signature)
+				.append(" permits ").append(this.permittedSubclasses).append('\n');
+		
+		// Add the members in a fixed order, so that reordering members does not change the API description.
+		List<String> members = new ArrayList<String>();
+		for(Member field : this.fields) {
+			if(isApiMember(field)) {
+				members.add("field " + field.describe(~0));
+			}
+		}
+		int methodAccessMask = ~(ACC_SYNCHRONIZED | ACC_NATIVE | ACC_STRICT);
+		for(Member method : this.methods) {
+			if(isApiMember(method) && !method.getName().equals("<clinit>")) {
+				members.add("method " + method.describe(methodAccessMask));
+			}
+		}
+		Collections.sort(members);
+		for(String member : members) {
+			str.append(member).append('\n');
+		}
+		return str.toString();
+	}
+	
+	private static boolean isApiMember(Member member) {
+		return (member.getAccessFlags() & (ACC_PRIVATE | ACC_SYNTHETIC)) == 0;
+	}
+	
+	/**
+	 * Checks whether this class declares a non-private field with a compile-time constant value. The java compiler
+	 * inlines such constants in other classes, leaving no reference to this class behind.
+	 * @return {@code true} if this class declares an inlinable constant, {@code false} otherwise.
+	 */
+	public boolean hasInlinableConstants() {
+		for(Member field : this.fields) {
+			if(field.hasConstantValue() && (field.getAccessFlags() & ACC_PRIVATE) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Represents a field or method declaration.
+	 */
+	public static class Member {
+		private final int accessFlags;
+		private final String name;
+		private final String descriptor;
+		private final Object constantValue;
+		private final String signature;
+		private final List<String> exceptions;
+		
+		public Member(int accessFlags, String name, String descriptor, Object constantValue,
+				String signature, List<String> exceptions) {
+			this.accessFlags = accessFlags;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.constantValue = constantValue;
+			this.signature = signature;
+			this.exceptions = exceptions;
+		}
+		
+		public int getAccessFlags() {
+			return this.accessFlags;
+		}
+		
+		public String getName() {
+			return this.name;
+		}
+		
+		public String getDescriptor() {
+			return this.descriptor;
+		}
+		
+		public boolean hasConstantValue() {
+			return this.constantValue != null;
+		}
+		
+		/**
+		 * Gets the compile-time constant value of this field.
+		 * @return The constant value, or {@code null} if this member has no constant value.
+		 * Floating point values are represented by their bits and strings are prefixed with a '"' character.
+		 */
+		public Object getConstantValue() {
+			return this.constantValue;
+		}
+		
+		/**
+		 * Gets the generic signature of this member.
+		 * @return The signature or {@code null} if this member has no generic signature.
+		 */
+		public String getSignature() {
+			return this.signature;
+		}
+		
+		/**
+		 * Gets the binary names of the checked exceptions declared by this method.
+		 * @return The exception names.
+		 */
+		public List<String> getExceptions() {
+			return this.exceptions;
+		}
+		
+		private String describe(int accessMask) {
+			return (this.accessFlags & accessMask) + " " + this.name + " " + this.descriptor + " " + this.signature
+					+ " " + this.exceptions + " " + this.constantValue;
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+/**
+ * Records the timing breakdown of a compile, resulting in a {@link CompileReport}. The steps that JavaLoader performs
+ * around the java compiler are timed using {@link #beginStep(String)}. The phases of the java compiler are timed per
+ * source file by listening to the events of the compilation task, to which this profiler has to be attached using
+ * {@link #attach(CompilationTask)}.
+ * This class is not thread-safe.
+ */
+public class CompileProfiler implements TaskListener {
+	
+	private final String sourceDirPrefix;
+	private final long startTime = System.currentTimeMillis();
+	private final long startNanos = System.nanoTime();
+	private String currentStep = null;
+	private long currentStepStartNanos;
+	private final Map<String, Long> steps = new LinkedHashMap<String, Long>();
+	private final Map<String, Long> compilerPhases = new LinkedHashMap<String, Long>();
+	private final Map<TaskEvent.Kind, Integer> activeEventCounts = new HashMap<TaskEvent.Kind, Integer>();
+	private final Map<TaskEvent.Kind, Long> phaseStartNanos = new HashMap<TaskEvent.Kind, Long>();
+	private final Map<List<Object>, Long> eventStartNanos = new HashMap<List<Object>, Long>();
+	private final Map<JavaFileObject, long[]> sourceTimings = new LinkedHashMap<JavaFileObject, long[]>();
+	
+	/**
+	 * Creates a new {@link CompileProfiler}. The total duration of the compile is measured from this moment.
+	 * @param sourceDir - The source directory of the project, used to shorten the paths of the source files.
+	 */
+	public CompileProfiler(File sourceDir) {
+		this.sourceDirPrefix = sourceDir.getAbsolutePath() + File.separator;
+	}
+	
+	/**
+	 * Ends the current step and begins a new step with the given name. The duration of steps that are performed
+	 * multiple times is summed.
+	 * @param name - The name of the step (Example: "dependencies").
+	 */
+	public void beginStep(String name) {
+		long now = System.nanoTime();
+		this.endStep(now);
+		this.currentStep = name;
+		this.currentStepStartNanos = now;
+	}
+	
+	private void endStep(long now) {
+		if(this.currentStep != null) {
+			this.steps.merge(this.currentStep, now - this.currentStepStartNanos, Long::sum);
+			this.currentStep = null;
+		}
+	}
+	
+	/**
+	 * Attaches this profiler to the given compilation task, so that the phases of the java compiler are timed.
+	 * This does nothing if the task is not a javac task.
+	 * @param compileTask - The compilation task.
+	 */
+	public void attach(CompilationTask compileTask) {
+		if(compileTask instanceof JavacTask) {
+			((JavacTask) compileTask).addTaskListener(this);
+		}
+	}
+	
+	@Override
+	public void started(TaskEvent event) {
+		long now = System.nanoTime();
+		TaskEvent.Kind kind = event.getKind();
+		if(kind == TaskEvent.Kind.COMPILATION) {
+			return; // The whole compilation is timed as a step.
+		}
+		
+		// Start the phase if no other event of its kind is in progress. Phases such as "enter" start all their events
+		// before finishing them, so only the time during which any event of the kind is in progress is counted.
+		if(this.activeEventCounts.merge(kind, 1, Integer::sum) == 1) {
+			this.phaseStartNanos.put(kind, now);
+		}
+		this.eventStartNanos.put(getEventKey(event), now);
+	}
+	
+	@Override
+	public void finished(TaskEvent event) {
+		long now = System.nanoTime();
+		
+		// End the phase if this was the last event of its kind in progress.
+		TaskEvent.Kind kind = event.getKind();
+		Integer activeCount = this.activeEventCounts.get(kind);
+		if(activeCount == null) {
+			return; // The event started before this profiler was attached.
+		}
+		if(activeCount == 1) {
+			this.activeEventCounts.remove(kind);
+			this.compilerPhases.merge(getPhaseName(kind), now - this.phaseStartNanos.remove(kind), Long::sum);
+		} else {
+			this.activeEventCounts.put(kind, activeCount - 1);
+		}
+		
+		// Add the duration of the event to its source file. Events of the enter phase overlap, so they are not added.
+		Long eventStart = this.eventStartNanos.remove(getEventKey(event));
+		int index;
+		switch(kind) {
+			case PARSE: {
+				index = 0;
+				break;
+			}
+			case ANALYZE: {
+				index = 1;
+				break;
+			}
+			case GENERATE: {
+				index = 2;
+				break;
+			}
+			default: {
+				return;
+			}
+		}
+		if(eventStart != null && event.getSourceFile() != null) {
+			this.sourceTimings.computeIfAbsent(event.getSourceFile(), (JavaFileObject file) -> new long[3])[index] +=
+					now - eventStart;
+		}
+	}
+	
+	/**
+	 * Ends the current step and creates the report.
+	 * @param projectName - The name of the compiled project.
+	 * @param inMemory - Whether the project was compiled in memory.
+	 * @param success - Whether the compile succeeded.
+	 * @param sourceCount - The amount of source files of the project.
+	 * @param compiledSourceCount - The amount of source files that were passed to the java compiler.
+	 * @return The report.
+	 */
+	public CompileReport createReport(String projectName,
+			boolean inMemory, boolean success, int sourceCount, int compiledSourceCount) {
+		long now = System.nanoTime();
+		this.endStep(now);
+		List<CompileReport.SourceTiming> timings = new ArrayList<CompileReport.SourceTiming>();
+		for(Map.Entry<JavaFileObject, long[]> entry : this.sourceTimings.entrySet()) {
+			String file = entry.getKey().getName();
+			if(file.startsWith(this.sourceDirPrefix)) {
+				file = file.substring(this.sourceDirPrefix.length());
+			}
+			long[] nanos = entry.getValue();
+			timings.add(new CompileReport.SourceTiming(file, nanos[0], nanos[1], nanos[2]));
+		}
+		timings.sort((CompileReport.SourceTiming t1, CompileReport.SourceTiming t2) ->
+				Long.compare(t2.getTotalNanos(), t1.getTotalNanos()));
+		return new CompileReport(projectName, this.startTime, now - this.startNanos, inMemory, success, sourceCount,
+				compiledSourceCount, new LinkedHashMap<String, Long>(this.steps),
+				new LinkedHashMap<String, Long>(this.compilerPhases), timings);
+	}
+	
+	/**
+	 * Gets a key that identifies the given event, being equal for its started and finished notifications.
+	 * @param event - The event.
+	 * @return The key.
+	 */
+	private static List<Object> getEventKey(TaskEvent event) {
+		return Arrays.asList(event.getKind(), event.getSourceFile(), event.getTypeElement());
+	}
+	
+	/**
+	 * Gets the phase name of the given event kind.
+	 * @param kind - The event kind.
+	 * @return The phase name (Example: "annotation processing" for {@link TaskEvent.Kind#ANNOTATION_PROCESSING}).
+	 */
+	private static String getPhaseName(TaskEvent.Kind kind) {
+		return kind.name().toLowerCase(Locale.ROOT).replace('_', ' ');
+	}
+}
@@ -0,0 +1,202 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the timing breakdown of a single compile of a project, as recorded by a {@link CompileProfiler}.
+ * This contains the time spent in the steps that JavaLoader performs around the java compiler (Example: Checking
+ * dependencies or preparing the bin directory), the time spent in each phase of the java compiler and the time that
+ * the java compiler spent on each compiled source file.
+ * All times are in nanoseconds.
+ */
+public class CompileReport {
+	
+	private final String projectName;
+	private final long startTime;
+	private final long totalNanos;
+	private final boolean inMemory;
+	private final boolean success;
+	private final int sourceCount;
+	private final int compiledSourceCount;
+	private final Map<String, Long> steps;
+	private final Map<String, Long> compilerPhases;
+	private final List<SourceTiming> sourceTimings;
+	
+	/**
+	 * Creates a new {@link CompileReport}.
+	 * @param projectName - The name of the compiled project.
+	 * @param startTime - The time at which the compile started, in milliseconds since the epoch.
+	 * @param totalNanos - The total duration of the compile.
+	 * @param inMemory - Whether the project was compiled in memory.
+	 * @param success - Whether the compile succeeded.
+	 * @param sourceCount - The amount of source files of the project.
+	 * @param compiledSourceCount - The amount of source files that were passed to the java compiler.
+	 * @param steps - The duration per JavaLoader step, in the order in which the steps were performed.
+	 * @param compilerPhases - The duration per java compiler phase, in the order in which the phases started.
+	 * @param sourceTimings - The java compiler timings per source file, sorted from slowest to fastest.
+	 */
+	public CompileReport(String projectName, long startTime, long totalNanos, boolean inMemory, boolean success,
+			int sourceCount, int compiledSourceCount, Map<String, Long> steps,
+			Map<String, Long> compilerPhases, List<SourceTiming> sourceTimings) {
+		this.projectName = projectName;
+		this.startTime = startTime;
+		this.totalNanos = totalNanos;
+		this.inMemory = inMemory;
+		this.success = success;
+		this.sourceCount = sourceCount;
+		this.compiledSourceCount = compiledSourceCount;
+		this.steps = Collections.unmodifiableMap(steps);
+		this.compilerPhases = Collections.unmodifiableMap(compilerPhases);
+		this.sourceTimings = Collections.unmodifiableList(sourceTimings);
+	}
+	
+	/**
+	 * Gets the name of the compiled project.
+	 * @return The project name.
+	 */
+	public String getProjectName() {
+		return this.projectName;
+	}
+	
+	/**
+	 * Gets the time at which the compile started.
+	 * @return The start time in milliseconds since the epoch.
+	 */
+	public long getStartTime() {
+		return this.startTime;
+	}
+	
+	/**
+	 * Gets the total duration of the compile.
+	 * @return The total duration in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return this.totalNanos;
+	}
+	
+	/**
+	 * Checks whether the project was compiled in memory.
+	 * @return {@code true} if the project was compiled in memory, {@code false} if it was compiled to disk.
+	 */
+	public boolean isInMemory() {
+		return this.inMemory;
+	}
+	
+	/**
+	 * Checks whether the compile succeeded.
+	 * @return {@code true} if the compile succeeded, {@code false} otherwise.
+	 */
+	public boolean isSuccess() {
+		return this.success;
+	}
+	
+	/**
+	 * Gets the amount of source files of the project.
+	 * @return The source file count, or 0 if the compile failed before the source files were listed.
+	 */
+	public int getSourceCount() {
+		return this.sourceCount;
+	}
+	
+	/**
+	 * Gets the amount of source files that were passed to the java compiler. For incremental compiles or compiles
+	 * that were served from the build cache, this is less than the total amount of source files.
+	 * @return The compiled source file count.
+	 */
+	public int getCompiledSourceCount() {
+		return this.compiledSourceCount;
+	}
+	
+	/**
+	 * Gets the duration of the JavaLoader steps of the compile. The java compiler itself is included as a step.
+	 * @return An unmodifiable map from step name to duration in nanoseconds, in the order in which the steps were
+	 * performed.
+	 */
+	public Map<String, Long> getSteps() {
+		return this.steps;
+	}
+	
+	/**
+	 * Gets the duration of the java compiler phases (Example: "parse", "analyze" or "generate"). Phases can be
+	 * interleaved, since the java compiler analyzes and generates classes one by one.
+	 * @return An unmodifiable map from phase name to duration in nanoseconds, in the order in which the phases started.
+	 */
+	public Map<String, Long> getCompilerPhases() {
+		return this.compilerPhases;
+	}
+	
+	/**
+	 * Gets the java compiler timings of the compiled source files.
+	 * @return An unmodifiable list containing the timings, sorted from slowest to fastest.
+	 */
+	public List<SourceTiming> getSourceTimings() {
+		return this.sourceTimings;
+	}
+	
+	/**
+	 * Represents the time that the java compiler spent on a single source file.
+	 */
+	public static class SourceTiming {
+		
+		private final String file;
+		private final long parseNanos;
+		private final long analyzeNanos;
+		private final long generateNanos;
+		
+		/**
+		 * Creates a new {@link SourceTiming}.
+		 * @param file - The path of the source file, relative to the source directory of the project if possible.
+		 * @param parseNanos - The time spent parsing the source file.
+		 * @param analyzeNanos - The time spent attributing and flow analyzing the classes in the source file.
+		 * @param generateNanos - The time spent generating the class files of the classes in the source file.
+		 */
+		public SourceTiming(String file, long parseNanos, long analyzeNanos, long generateNanos) {
+			this.file = file;
+			this.parseNanos = parseNanos;
+			this.analyzeNanos = analyzeNanos;
+			this.generateNanos = generateNanos;
+		}
+		
+		/**
+		 * Gets the path of the source file.
+		 * @return The path, relative to the source directory of the project if possible.
+		 */
+		public String getFile() {
+			return this.file;
+		}
+		
+		/**
+		 * Gets the time spent parsing the source file.
+		 * @return The duration in nanoseconds.
+		 */
+		public long getParseNanos() {
+			return this.parseNanos;
+		}
+		
+		/**
+		 * Gets the time spent attributing and flow analyzing the classes in the source file.
+		 * @return The duration in nanoseconds.
+		 */
+		public long getAnalyzeNanos() {
+			return this.analyzeNanos;
+		}
+		
+		/**
+		 * Gets the time spent generating the class files of the classes in the source file.
+		 * @return The duration in nanoseconds.
+		 */
+		public long getGenerateNanos() {
+			return this.generateNanos;
+		}
+		
+		/**
+		 * Gets the total time that the java compiler spent on the source file.
+		 * @return The sum of the parse, analyze and generate durations in nanoseconds.
+		 */
+		public long getTotalNanos() {
+			return this.parseNanos + this.analyzeNanos + this.generateNanos;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Represents a single diagnostic (error, warning or note) reported by the java compiler.
+ */
+public class CompilerDiagnostic {
+	
+	private static final int TAB_SIZE = 8;
+	
+	private final Kind kind;
+	private final String file;
+	private final long line;
+	private final long column;
+	private final String code;
+	private final String message;
+	private final String sourceLine;
+	
+	/**
+	 * Creates a new {@link CompilerDiagnostic}.
+	 * @param kind - The kind of the diagnostic.
+	 * @param file - The path of the source file that the diagnostic refers to, or {@code null} if it does not refer
+	 * to a source file.
+	 * @param line - The line number (starting at 1), or {@link Diagnostic#NOPOS} if unknown.
+	 * @param column - The column number (starting at 1, with tabs expanded to 8 columns),
+	 * or {@link Diagnostic#NOPOS} if unknown.
+	 * @param code - The diagnostic code (Example: "compiler.err.cant.resolve.location"), or {@code null} if unknown.
+	 * @param message - The message.
+	 * @param sourceLine - The source code line that the diagnostic refers to, or {@code null} if unknown.
+	 */
+	public CompilerDiagnostic(Kind kind, String file,
+			long line, long column, String code, String message, String sourceLine) {
+		this.kind = kind;
+		this.file = file;
+		this.line = line;
+		this.column = column;
+		this.code = code;
+		this.message = message;
+		this.sourceLine = sourceLine;
+	}
+	
+	/**
+	 * Creates a new {@link CompilerDiagnostic} from the given java compiler diagnostic.
+	 * @param diagnostic - The java compiler diagnostic.
+	 * @return The created {@link CompilerDiagnostic}.
+	 */
+	public static CompilerDiagnostic of(Diagnostic<? extends JavaFileObject> diagnostic) {
+		JavaFileObject source = diagnostic.getSource();
+		return new CompilerDiagnostic(diagnostic.getKind(), (source == null ? null : source.getName()),
+				diagnostic.getLineNumber(), diagnostic.getColumnNumber(), diagnostic.getCode(),
+				diagnostic.getMessage(Locale.getDefault()), getSourceLine(diagnostic));
+	}
+	
+	/**
+	 * Gets the source code line of the position of the given diagnostic. The java compiler caches the contents of
+	 * the source files that it compiles, so this does not read the source file again.
+	 * @param diagnostic - The diagnostic.
+	 * @return The source code line, or {@code null} if the diagnostic has no position or source.
+	 */
+	private static String getSourceLine(Diagnostic<? extends JavaFileObject> diagnostic) {
+		long position = diagnostic.getPosition();
+		if(diagnostic.getSource() == null || position == Diagnostic.NOPOS) {
+			return null;
+		}
+		CharSequence content;
+		try {
+			content = diagnostic.getSource().getCharContent(true);
+		} catch (IOException e) {
+			return null;
+		}
+		if(content == null || position > content.length()) {
+			return null;
+		}
+		int start = (int) position;
+		while(start > 0 && content.charAt(start - 1) != '\n' && content.charAt(start - 1) != '\r') {
+			start--;
+		}
+		int end = (int) position;
+		while(end < content.length() && content.charAt(end) != '\n' && content.charAt(end) != '\r') {
+			end++;
+		}
+		return content.subSequence(start, end).toString();
+	}
+	
+	/**
+	 * Gets the kind of this diagnostic.
+	 * @return The kind.
+	 */
+	public Kind getKind() {
+		return this.kind;
+	}
+	
+	/**
+	 * Gets the path of the source file that this diagnostic refers to.
+	 * @return The source file path, or {@code null} if this diagnostic does not refer to a source file.
+	 */
+	public String getFile() {
+		return this.file;
+	}
+	
+	/**
+	 * Gets the line number that this diagnostic refers to.
+	 * @return The line number (starting at 1), or {@link Diagnostic#NOPOS} if unknown.
+	 */
+	public long getLine() {
+		return this.line;
+	}
+	
+	/**
+	 * Gets the column number that this diagnostic refers to.
+	 * @return The column number (starting at 1, with tabs expanded to 8 columns),
+	 * or {@link Diagnostic#NOPOS} if unknown.
+	 */
+	public long getColumn() {
+		return this.column;
+	}
+	
+	/**
+	 * Gets the diagnostic code.
+	 * @return The code (Example: "compiler.err.cant.resolve.location"), or {@code null} if unknown.
+	 */
+	public String getCode() {
+		return this.code;
+	}
+	
+	/**
+	 * Gets the message of this diagnostic.
+	 * @return The message.
+	 */
+	public String getMessage() {
+		return this.message;
+	}
+	
+	/**
+	 * Gets the source code line that this diagnostic refers to.
+	 * @return The source code line, or {@code null} if unknown.
+	 */
+	public String getSourceLine() {
+		return this.sourceLine;
+	}
+	
+	/**
+	 * Formats this diagnostic in the same way as the java compiler does, being the file and line when known, the kind
+	 * and the message, followed by the source code line and a caret pointing at the column when these are known.
+	 * @return The formatted diagnostic.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder(128);
+		
+		// Add the file, line and kind.
+		if(this.file != null && this.line != Diagnostic.NOPOS) {
+			str.append(this.file).append(':').append(this.line).append(": ");
+		}
+		switch(this.kind) {
+			case ERROR: {
+				str.append("error: ");
+				break;
+			}
+			case WARNING:
+			case MANDATORY_WARNING: {
+				str.append("warning: ");
+				break;
+			}
+			case NOTE: {
+				str.append("Note: ");
+				break;
+			}
+			default: {
+				break;
+			}
+		}
+		
+		// Add the first line of the message, followed by the source code line and the rest of the message.
+		int firstLineEnd = this.message.indexOf('\n');
+		str.append(this.message, 0, (firstLineEnd == -1 ? this.message.length() : firstLineEnd));
+		if(this.sourceLine != null) {
+			str.append('\n').append(this.sourceLine);
+			if(this.column != Diagnostic.NOPOS) {
+				
+				// Point at the column, in which the java compiler expands tabs to 8 columns.
+				// Tabs are kept so that the caret lines up with the source code line regardless of the tab size.
+				str.append('\n');
+				long col = 1;
+				for(int i = 0; i < this.sourceLine.length() && col < this.column; i++) {
+					if(this.sourceLine.charAt(i) == '\t') {
+						str.append('\t');
+						col = ((col - 1) / TAB_SIZE + 1) * TAB_SIZE + 1;
+					} else {
+						str.append(' ');
+						col++;
+					}
+				}
+				str.append('^');
+			}
+		}
+		if(firstLineEnd != -1) {
+			str.append(this.message, firstLineEnd, this.message.length());
+		}
+		return str.toString();
+	}
+}
@@ -0,0 +1,143 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaFileObject;
+
+/**
+ * Collects the diagnostics of a java compiler task as {@link CompilerDiagnostic} records. Only the first diagnostics
+ * up to the limit are converted and retained in a bounded buffer. Diagnostics beyond the limit are only counted, and
+ * the first error beyond the limit stops the compilation, since the compilation has failed at that point and
+ * reporting more errors would only waste time (Example: After a refactoring that causes thousands of errors).
+ * A compilation task that has been stopped throws a {@link RuntimeException}, after which {@link #isStopped()}
+ * returns {@code true}.
+ */
+public class CompilerDiagnostics implements DiagnosticListener<JavaFileObject> {
+	
+	private final int limit;
+	private final Consumer<CompilerDiagnostic> consumer;
+	private final List<CompilerDiagnostic> diagnostics;
+	private int errorCount = 0;
+	private int warningCount = 0;
+	private int omittedCount = 0;
+	private volatile boolean stopped = false;
+	
+	/**
+	 * Creates a new {@link CompilerDiagnostics}.
+	 * @param limit - The maximum amount of diagnostics to retain. Use {@link Integer#MAX_VALUE} to retain all
+	 * diagnostics and never stop the compilation.
+	 * @param consumer - The consumer that is passed all retained diagnostics as they are reported by the compiler,
+	 * or {@code null} to only retain them.
+	 */
+	public CompilerDiagnostics(int limit, Consumer<CompilerDiagnostic> consumer) {
+		this.limit = Math.max(limit, 0);
+		this.consumer = consumer;
+		this.diagnostics = new ArrayList<CompilerDiagnostic>(Math.min(this.limit, 64));
+	}
+	
+	@Override
+	public void report(Diagnostic<? extends JavaFileObject> diagnostic) {
+		
+		// Count the diagnostic.
+		boolean isError = (diagnostic.getKind() == Diagnostic.Kind.ERROR);
+		if(isError) {
+			this.errorCount++;
+		} else if(diagnostic.getKind() == Diagnostic.Kind.WARNING
+				|| diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) {
+			this.warningCount++;
+		}
+		
+		// Retain the diagnostic if the limit has not been reached. Stop compiling on errors beyond the limit.
+		if(this.diagnostics.size() < this.limit) {
+			CompilerDiagnostic compilerDiagnostic = CompilerDiagnostic.of(diagnostic);
+			this.diagnostics.add(compilerDiagnostic);
+			if(this.consumer != null) {
+				this.consumer.accept(compilerDiagnostic);
+			}
+		} else {
+			this.omittedCount++;
+			if(isError && this.limit != Integer.MAX_VALUE) {
+				this.stopped = true;
+				throw new CompileStoppedException();
+			}
+		}
+	}
+	
+	/**
+	 * Gets the retained diagnostics.
+	 * @return An unmodifiable list containing the retained diagnostics in the order in which they were reported.
+	 */
+	public List<CompilerDiagnostic> getDiagnostics() {
+		return Collections.unmodifiableList(this.diagnostics);
+	}
+	
+	/**
+	 * Gets the amount of reported errors, including omitted errors.
+	 * @return The error count.
+	 */
+	public int getErrorCount() {
+		return this.errorCount;
+	}
+	
+	/**
+	 * Gets the amount of reported warnings, including omitted warnings.
+	 * @return The warning count.
+	 */
+	public int getWarningCount() {
+		return this.warningCount;
+	}
+	
+	/**
+	 * Gets the amount of diagnostics that were not retained because the limit had been reached.
+	 * @return The omitted diagnostic count.
+	 */
+	public int getOmittedCount() {
+		return this.omittedCount;
+	}
+	
+	/**
+	 * Checks whether the compilation has been stopped because an error was reported after the limit was reached.
+	 * @return {@code true} if the compilation has been stopped, {@code false} otherwise.
+	 */
+	public boolean isStopped() {
+		return this.stopped;
+	}
+	
+	/**
+	 * Gets a summary of the reported diagnostics, similar to the summary that the java compiler prints.
+	 * @return The summary (Example: "3 errors\n1 warning"), or {@code null} if no errors or warnings were reported.
+	 */
+	public String getSummary() {
+		if(this.errorCount == 0 && this.warningCount == 0) {
+			return null;
+		}
+		StringBuilder str = new StringBuilder();
+		if(this.errorCount > 0) {
+			str.append(this.errorCount).append(this.errorCount == 1 ? " error" : " errors");
+			if(this.stopped) {
+				str.append(" (compilation stopped after the feedback limit was reached)");
+			}
+		}
+		if(this.warningCount > 0) {
+			str.append(str.length() == 0 ? "" : "\n")
+					.append(this.warningCount).append(this.warningCount == 1 ? " warning" : " warnings");
+		}
+		return str.toString();
+	}
+	
+	/**
+	 * Thrown from the diagnostic listener to stop the compilation.
+	 */
+	private static class CompileStoppedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		private CompileStoppedException() {
+			super("Compilation stopped after the diagnostic limit was reached.", null, false, false);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import io.github.pieter12345.javaloader.core.JavaLoaderProject;
+
+/**
+ * A long-lived compiler service that keeps the java compiler and its file managers warm between compiles.
+ * File managers cache the archives (.jar files) that they have opened, so reusing them allows a next compile to skip
+ * opening and indexing the server classpath again. All file managers are discarded when a .jar file that was on the
+ * classpath of a previous compile changes, since their cached archive contents would be outdated.
+ * This class is thread-safe. Every concurrent compile uses its own file manager.
+ */
+public class CompilerService {
+	
+	private JavaCompiler compiler = null;
+	private List<String> platformClasspath = null;
+	private final Deque<StandardJavaFileManager> idleFileManagers = new ArrayDeque<StandardJavaFileManager>();
+	private final Map<StandardJavaFileManager, Integer> fileManagerGenerations =
+			new HashMap<StandardJavaFileManager, Integer>();
+	private final Map<String, String> archiveStats = new HashMap<String, String>();
+	private int generation = 0;
+	
+	/**
+	 * Gets the system java compiler.
+	 * @return The java compiler or {@code null} if no java compiler is available (when not running on a JDK).
+	 */
+	public synchronized JavaCompiler getCompiler() {
+		if(this.compiler == null) {
+			this.compiler = ToolProvider.getSystemJavaCompiler();
+		}
+		return this.compiler;
+	}
+	
+	/**
+	 * Gets the classpath entries that every project is compiled against. These are the entries of the
+	 * "java.class.path" system property and the .jar file containing JavaLoader.
+	 * @return The unmodifiable list of classpath entries, or {@code null} if the location of the .jar file containing
+	 * JavaLoader could not be determined.
+	 */
+	public synchronized List<String> getPlatformClasspath() {
+		if(this.platformClasspath == null) {
+			
+			// Get the name of the .jar file of this plugin
+			// (Using the JavaLoaderProject class because that one is required for all projects).
+			CodeSource codeSource = JavaLoaderProject.class.getProtectionDomain().getCodeSource();
+			if(codeSource == null || codeSource.getLocation().getFile().isEmpty()) {
+				return null;
+			}
+			String pluginJarFilePath;
+			try {
+				pluginJarFilePath = new File(codeSource.getLocation().toURI()).getAbsolutePath();
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				return null;
+			}
+			
+			// Get the complete classpath (including passed classpath entries such as jar file paths).
+			List<String> classpathEntries = new ArrayList<String>();
+			for(String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+				classpathEntries.add(entry);
+			}
+			classpathEntries.add(pluginJarFilePath);
+			this.platformClasspath = Collections.unmodifiableList(classpathEntries);
+		}
+		return this.platformClasspath;
+	}
+	
+	/**
+	 * Acquires a warm file manager for a compile using the given classpath. If a .jar file on the given classpath has
+	 * changed since it was last used, all file managers are discarded first.
+	 * The file manager has to be released using {@link #releaseFileManager(StandardJavaFileManager)} after the compile
+	 * and must not be closed by the caller.
+	 * @param classpathEntries - The classpath entries of the compile.
+	 * @return The file manager.
+	 * @throws IllegalStateException If no java compiler is available.
+	 */
+	public synchronized StandardJavaFileManager acquireFileManager(
+			List<String> classpathEntries) throws IllegalStateException {
+		
+		// Invalidate all file managers when a previously used archive has changed.
+		for(String entry : classpathEntries) {
+			File file = new File(entry);
+			if(file.isFile()) {
+				String stat = file.length() + "|" + file.lastModified();
+				String oldStat = this.archiveStats.put(file.getAbsolutePath(), stat);
+				if(oldStat != null && !oldStat.equals(stat)) {
+					this.invalidate();
+				}
+			}
+		}
+		
+		// Get an idle file manager or create a new one.
+		StandardJavaFileManager fileManager = this.idleFileManagers.pollLast();
+		if(fileManager == null) {
+			JavaCompiler compiler = this.getCompiler();
+			if(compiler == null) {
+				throw new IllegalStateException("No java compiler available.");
+			}
+			fileManager = compiler.getStandardFileManager(null, Locale.US, StandardCharsets.UTF_8);
+			this.fileManagerGenerations.put(fileManager, this.generation);
+		}
+		
+		// Reset the output directory, which is not necessarily set again by the next compile.
+		try {
+			fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null);
+		} catch (IOException e) {
+			// Never happens since no directory is set.
+			throw new Error(e);
+		}
+		return fileManager;
+	}
+	
+	/**
+	 * Releases a file manager that was acquired using {@link #acquireFileManager(List)}, making it available for the
+	 * next compile. The file manager is closed instead if it has been invalidated in the meantime.
+	 * @param fileManager - The file manager.
+	 */
+	public synchronized void releaseFileManager(StandardJavaFileManager fileManager) {
+		Integer generation = this.fileManagerGenerations.get(fileManager);
+		if(generation != null && generation == this.generation) {
+			this.idleFileManagers.addLast(fileManager);
+		} else {
+			this.fileManagerGenerations.remove(fileManager);
+			closeQuietly(fileManager);
+		}
+	}
+	
+	/**
+	 * Discards all file managers, including their cached archives. File managers that are in use are closed when they
+	 * are released. The platform classpath is determined again on the next compile.
+	 */
+	public synchronized void invalidate() {
+		this.generation++;
+		for(StandardJavaFileManager fileManager : this.idleFileManagers) {
+			this.fileManagerGenerations.remove(fileManager);
+			closeQuietly(fileManager);
+		}
+		this.idleFileManagers.clear();
+		this.platformClasspath = null;
+	}
+	
+	/**
+	 * Closes all file managers and releases the compiler. The service can still be used afterwards.
+	 */
+	public synchronized void close() {
+		this.invalidate();
+		this.archiveStats.clear();
+		this.compiler = null;
+	}
+	
+	private static void closeQuietly(StandardJavaFileManager fileManager) {
+		try {
+			fileManager.close();
+		} catch (IOException e) {
+			// Ignore. The file manager is discarded anyways.
+		}
+	}
+}
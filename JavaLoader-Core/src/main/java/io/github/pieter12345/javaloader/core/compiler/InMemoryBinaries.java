@@ -0,0 +1,95 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.github.pieter12345.javaloader.core.dependency.Dependency;
+import io.github.pieter12345.javaloader.core.utils.Utils;
+
+/**
+ * Represents the binaries of a compiled project that are kept in memory rather than in a bin directory.
+ * These binaries can be written to a bin directory at any later time to make them available after a restart.
+ */
+public class InMemoryBinaries {
+	
+	private final Map<String, byte[]> classes;
+	private final SourceManifest manifest;
+	private final byte[] dependenciesFile;
+	private final List<Dependency> dependencies;
+	
+	/**
+	 * Creates new {@link InMemoryBinaries}.
+	 * @param classes - A map from binary class name to class file bytes.
+	 * @param manifest - The source manifest describing the classes.
+	 * @param dependenciesFile - The contents of the dependencies file the project was compiled with,
+	 * or {@code null} if the project did not have a dependencies file.
+	 * @param dependencies - The dependencies the project was compiled with.
+	 */
+	public InMemoryBinaries(Map<String, byte[]> classes,
+			SourceManifest manifest, byte[] dependenciesFile, List<Dependency> dependencies) {
+		this.classes = Collections.unmodifiableMap(classes);
+		this.manifest = manifest;
+		this.dependenciesFile = dependenciesFile;
+		this.dependencies = dependencies;
+	}
+	
+	/**
+	 * Gets the compiled classes.
+	 * @return An unmodifiable map from binary class name to class file bytes.
+	 */
+	public Map<String, byte[]> getClasses() {
+		return this.classes;
+	}
+	
+	/**
+	 * Gets the source manifest describing the compiled classes.
+	 * @return The source manifest.
+	 */
+	public SourceManifest getManifest() {
+		return this.manifest;
+	}
+	
+	/**
+	 * Gets the contents of the dependencies file the project was compiled with.
+	 * @return The dependencies file contents, or {@code null} if the project did not have a dependencies file.
+	 */
+	public byte[] getDependenciesFile() {
+		return this.dependenciesFile;
+	}
+	
+	/**
+	 * Gets the dependencies the project was compiled with.
+	 * @return The dependencies.
+	 */
+	public List<Dependency> getDependencies() {
+		return this.dependencies;
+	}
+	
+	/**
+	 * Writes these binaries to the given directory in the same layout as a regular bin directory.
+	 * The directory is removed first if it already exists.
+	 * @param binDir - The directory to write the binaries to.
+	 * @throws IOException If an I/O error occurs while writing the binaries.
+	 */
+	public void writeTo(File binDir) throws IOException {
+		if(binDir.exists() && !Utils.removeFile(binDir)) {
+			throw new IOException("Unable to remove directory at: " + binDir.getAbsolutePath());
+		}
+		if(!binDir.mkdirs()) {
+			throw new IOException("Unable to create directory at: " + binDir.getAbsolutePath());
+		}
+		for(Map.Entry<String, byte[]> entry : this.classes.entrySet()) {
+			File classFile = new File(binDir, entry.getKey().replace('.', '/') + ".class");
+			classFile.getParentFile().mkdirs();
+			Files.write(classFile.toPath(), entry.getValue());
+		}
+		if(this.dependenciesFile != null) {
+			Files.write(new File(binDir, "dependencies.txt").toPath(), this.dependenciesFile);
+		}
+		this.manifest.write(binDir);
+	}
+}
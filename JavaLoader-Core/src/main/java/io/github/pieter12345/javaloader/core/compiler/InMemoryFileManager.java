@@ -0,0 +1,155 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+/**
+ * A file manager that captures all generated class files as byte arrays instead of writing them to disk.
+ * Class files from the given in-memory class maps are made available on the classpath, taking precedence over
+ * the regular classpath entries.
+ */
+public class InMemoryFileManager extends OutputTrackingFileManager {
+	
+	private final Map<String, List<JavaFileObject>> classpathPackages = new HashMap<String, List<JavaFileObject>>();
+	private final Map<String, byte[]> outputClasses = new ConcurrentHashMap<String, byte[]>();
+	
+	/**
+	 * Creates a new {@link InMemoryFileManager}.
+	 * @param fileManager - The file manager to forward to.
+	 * @param classpathClasses - Maps from binary class name to class file bytes which should be available on the
+	 * classpath, in order of precedence. These maps are indexed by package on construction, so they should not be
+	 * modified afterwards.
+	 */
+	public InMemoryFileManager(StandardJavaFileManager fileManager, List<Map<String, byte[]>> classpathClasses) {
+		super(fileManager);
+		
+		// Index the classpath classes by package, so that listing a package does not have to check all classes.
+		for(Map<String, byte[]> classes : classpathClasses) {
+			for(Map.Entry<String, byte[]> entry : classes.entrySet()) {
+				String className = entry.getKey();
+				int packageEndIndex = className.lastIndexOf('.');
+				String packageName = (packageEndIndex == -1 ? "" : className.substring(0, packageEndIndex));
+				this.classpathPackages.computeIfAbsent(packageName,
+						(String name) -> new ArrayList<JavaFileObject>()).add(
+								new ClassBytesFileObject(className, entry.getValue()));
+			}
+		}
+	}
+	
+	@Override
+	public JavaFileObject getJavaFileForOutput(Location location,
+			String className, Kind kind, FileObject sibling) throws IOException {
+		if(location == StandardLocation.CLASS_OUTPUT && kind == Kind.CLASS) {
+			this.trackOutput(className, kind, sibling);
+			return new ClassBytesFileObject(className, null);
+		}
+		return super.getJavaFileForOutput(location, className, kind, sibling);
+	}
+	
+	@Override
+	public Iterable<JavaFileObject> list(Location location,
+			String packageName, Set<Kind> kinds, boolean recurse) throws IOException {
+		Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+		if(location != StandardLocation.CLASS_PATH || !kinds.contains(Kind.CLASS)) {
+			return files;
+		}
+		
+		// Get the in-memory classes in the package, and in its subpackages when recursing.
+		List<JavaFileObject> result = new ArrayList<JavaFileObject>();
+		List<JavaFileObject> packageFiles = this.classpathPackages.get(packageName);
+		if(packageFiles != null) {
+			result.addAll(packageFiles);
+		}
+		if(recurse) {
+			String prefix = (packageName.isEmpty() ? "" : packageName + ".");
+			for(Map.Entry<String, List<JavaFileObject>> entry : this.classpathPackages.entrySet()) {
+				if(!entry.getKey().equals(packageName) && entry.getKey().startsWith(prefix)) {
+					result.addAll(entry.getValue());
+				}
+			}
+		}
+		if(result.isEmpty()) {
+			return files;
+		}
+		
+		// Add the in-memory classes in front of the regular classpath entries.
+		for(JavaFileObject file : files) {
+			result.add(file);
+		}
+		return result;
+	}
+	
+	@Override
+	public String inferBinaryName(Location location, JavaFileObject file) {
+		if(file instanceof ClassBytesFileObject) {
+			return ((ClassBytesFileObject) file).binaryName;
+		}
+		return super.inferBinaryName(location, file);
+	}
+	
+	@Override
+	public boolean isSameFile(FileObject a, FileObject b) {
+		if(a instanceof ClassBytesFileObject || b instanceof ClassBytesFileObject) {
+			return a.toUri().equals(b.toUri());
+		}
+		return super.isSameFile(a, b);
+	}
+	
+	/**
+	 * Gets the class files generated by the compiler.
+	 * @return A map from binary class name to class file bytes.
+	 */
+	public Map<String, byte[]> getOutputClasses() {
+		return this.outputClasses;
+	}
+	
+	/**
+	 * Represents a class file that is stored in memory.
+	 */
+	private class ClassBytesFileObject extends SimpleJavaFileObject {
+		private final String binaryName;
+		private final byte[] bytes;
+		
+		private ClassBytesFileObject(String binaryName, byte[] bytes) {
+			super(URI.create("mem:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+			this.binaryName = binaryName;
+			this.bytes = bytes;
+		}
+		
+		@Override
+		public InputStream openInputStream() throws IOException {
+			if(this.bytes == null) {
+				throw new IOException("Class file has not been generated yet: " + this.binaryName);
+			}
+			return new ByteArrayInputStream(this.bytes);
+		}
+		
+		@Override
+		public OutputStream openOutputStream() {
+			return new ByteArrayOutputStream() {
+				@Override
+				public void close() throws IOException {
+					super.close();
+					InMemoryFileManager.this.outputClasses.put(ClassBytesFileObject.this.binaryName, this.toByteArray());
+				}
+			};
+		}
+	}
+}
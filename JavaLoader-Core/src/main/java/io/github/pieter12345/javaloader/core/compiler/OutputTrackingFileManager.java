@@ -0,0 +1,70 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * A file manager that forwards everything to a {@link StandardJavaFileManager}, while recording which source file
+ * every generated class file originates from.
+ */
+public class OutputTrackingFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+	
+	private final Map<File, List<String>> generatedClasses = new HashMap<File, List<String>>();
+	
+	/**
+	 * Creates a new {@link OutputTrackingFileManager}.
+	 * @param fileManager - The file manager to forward to.
+	 */
+	public OutputTrackingFileManager(StandardJavaFileManager fileManager) {
+		super(fileManager);
+	}
+	
+	@Override
+	public JavaFileObject getJavaFileForOutput(Location location,
+			String className, Kind kind, FileObject sibling) throws IOException {
+		this.trackOutput(className, kind, sibling);
+		return super.getJavaFileForOutput(location, className, kind, sibling);
+	}
+	
+	/**
+	 * Records that the given class is generated from the given sibling source file.
+	 * @param className - The binary name of the generated class.
+	 * @param kind - The kind of the generated file. Only {@link Kind#CLASS} files are recorded.
+	 * @param sibling - The source file the class is generated from, or {@code null} if unknown.
+	 */
+	protected void trackOutput(String className, Kind kind, FileObject sibling) {
+		if(kind == Kind.CLASS && sibling != null && sibling.toUri().getScheme().equals("file")) {
+			File sourceFile = new File(sibling.toUri()).getAbsoluteFile();
+			this.generatedClasses.computeIfAbsent(sourceFile, (File key) -> new ArrayList<String>()).add(className);
+		}
+	}
+	
+	/**
+	 * Gets the file objects representing the given source files.
+	 * @param files - The source files.
+	 * @return The file objects.
+	 */
+	public Iterable<? extends JavaFileObject> getJavaFileObjects(Iterable<? extends File> files) {
+		return this.fileManager.getJavaFileObjectsFromFiles(files);
+	}
+	
+	/**
+	 * Gets the binary names of the classes generated from the given source file.
+	 * @param sourceFile - The source file.
+	 * @return The generated class names. This list is empty if no classes were generated from the given source file.
+	 */
+	public List<String> getGeneratedClasses(File sourceFile) {
+		List<String> classes = this.generatedClasses.get(sourceFile.getAbsoluteFile());
+		return (classes == null ? new ArrayList<String>() : classes);
+	}
+}
@@ -0,0 +1,515 @@
+package io.github.pieter12345.javaloader.core.compiler;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the source manifest that is stored in a project's binary directory after a successful compile.
+ * It describes which source files the binaries were compiled from (by size, modification time and content hash),
+ * which classes every source file produced and which project classes every source file references.
+ * This allows a next compile to only recompile changed source files and the source files that depend on them.
+ * The manifest also names the main class of the project, so that it can be loaded without scanning all classes, and
+ * contains a hash of the API of every source file, so that dependent projects only have to be recompiled when the API
+ * of the project changes.
+ */
+public class SourceManifest {
+	
+	/**
+	 * The name of the manifest file in the binary directory.
+	 */
+	public static final String FILE_NAME = ".sourcemanifest";
+	
+	private static final String VERSION = "1";
+	
+	private String optionsFingerprint = "";
+	private String classpathFingerprint = "";
+	private String mainClass = null;
+	private final Map<String, SourceEntry> sources = new LinkedHashMap<String, SourceEntry>();
+	
+	/**
+	 * Creates a new empty {@link SourceManifest}.
+	 */
+	public SourceManifest() {
+	}
+	
+	/**
+	 * Reads the source manifest from the given binary directory.
+	 * @param binDir - The binary directory.
+	 * @return The source manifest, or {@code null} if it does not exist or is in an unsupported format.
+	 * @throws IOException If an I/O error occurs while reading the manifest.
+	 */
+	public static SourceManifest read(File binDir) throws IOException {
+		File file = new File(binDir, FILE_NAME);
+		if(!file.isFile()) {
+			return null;
+		}
+		SourceManifest manifest = new SourceManifest();
+		try(BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			if(line == null || !line.equals("version\t" + VERSION)) {
+				return null;
+			}
+			SourceEntry entry = null;
+			while((line = reader.readLine()) != null) {
+				String[] parts = line.split("\t");
+				switch(parts[0]) {
+					case "options":
+						manifest.optionsFingerprint = (parts.length > 1 ? parts[1] : "");
+						break;
+					case "classpath":
+						manifest.classpathFingerprint = (parts.length > 1 ? parts[1] : "");
+						break;
+					case "main":
+						manifest.mainClass = (parts.length > 1 ? parts[1] : null);
+						break;
+					case "source":
+						if(parts.length != 6) {
+							return null;
+						}
+						entry = new SourceEntry(parts[1], Long.parseLong(parts[2]),
+								Long.parseLong(parts[3]), parts[4], parts[5].equals("C"));
+						manifest.sources.put(entry.path, entry);
+						break;
+					case "class":
+						if(entry == null || parts.length < 2 || parts.length > 3) {
+							return null;
+						}
+						entry.classes.add(parts[1]);
+						if(parts.length == 3) {
+							entry.superNames.put(parts[1], parts[2]);
+						}
+						break;
+					case "api":
+						if(entry == null || parts.length != 2) {
+							return null;
+						}
+						entry.apiHash = parts[1];
+						break;
+					case "ref":
+						if(entry == null || parts.length != 2) {
+							return null;
+						}
+						entry.references.add(parts[1]);
+						break;
+					default:
+						return null;
+				}
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		return manifest;
+	}
+	
+	/**
+	 * Writes this source manifest to the given binary directory.
+	 * @param binDir - The binary directory.
+	 * @throws IOException If an I/O error occurs while writing the manifest.
+	 */
+	public void write(File binDir) throws IOException {
+		File file = new File(binDir, FILE_NAME);
+		try(BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			writer.write(this.serialize());
+		}
+	}
+	
+	/**
+	 * Serializes this source manifest to the format that is used by {@link #write(File)}.
+	 * @return The serialized manifest.
+	 */
+	public String serialize() {
+		return this.serialize(true);
+	}
+	
+	private String serialize(boolean includeStats) {
+		StringBuilder str = new StringBuilder();
+		str.append("version\t").append(VERSION).append('\n');
+		str.append("options\t").append(this.optionsFingerprint).append('\n');
+		str.append("classpath\t").append(this.classpathFingerprint).append('\n');
+		if(this.mainClass != null) {
+			str.append("main\t").append(this.mainClass).append('\n');
+		}
+		for(SourceEntry entry : this.sources.values()) {
+			str.append("source\t").append(entry.path).append('\t').append(includeStats ? entry.lastModified : 0)
+					.append('\t').append(includeStats ? entry.size : 0).append('\t').append(entry.hash).append('\t')
+					.append(entry.hasInlinableConstants ? "C" : "-").append('\n');
+			if(entry.apiHash != null) {
+				str.append("api\t").append(entry.apiHash).append('\n');
+			}
+			for(String className : entry.classes) {
+				String superName = entry.superNames.get(className);
+				str.append("class\t").append(className);
+				if(superName != null) {
+					str.append('\t').append(superName);
+				}
+				str.append('\n');
+			}
+			for(String reference : entry.references) {
+				str.append("ref\t").append(reference).append('\n');
+			}
+		}
+		return str.toString();
+	}
+	
+	/**
+	 * Computes the fingerprint of this source manifest. Source file modification times and sizes are left out, so the
+	 * fingerprint only depends on the content of the sources and the binaries compiled from them. This keeps the
+	 * fingerprint stable when the sources of a project are touched without being changed.
+	 * @return The fingerprint as a hexadecimal string.
+	 */
+	public String getFingerprint() {
+		return toHex(newDigest().digest(this.serialize(false).getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	/**
+	 * Computes the API fingerprint of the binaries described by this manifest, combining the API hashes of all source
+	 * files with the compiler options and classpath fingerprints. Dependent projects only have to be recompiled when
+	 * this fingerprint changes, since changes that do not affect the API (Example: Changed method bodies) do not
+	 * affect how dependents are compiled.
+	 * @return The API fingerprint as a hexadecimal string, or the regular fingerprint (see {@link #getFingerprint()})
+	 * if a source file has no API hash (Example: In a manifest written by an older version).
+	 */
+	public String getApiFingerprint() {
+		List<String> apiHashes = new ArrayList<String>(this.sources.size());
+		for(SourceEntry entry : this.sources.values()) {
+			if(entry.apiHash == null) {
+				return this.getFingerprint();
+			}
+			apiHashes.add(entry.apiHash);
+		}
+		Collections.sort(apiHashes);
+		List<String> parts = new ArrayList<String>(apiHashes.size() + 3);
+		parts.add("api");
+		parts.add(this.optionsFingerprint);
+		parts.add(this.classpathFingerprint);
+		parts.addAll(apiHashes);
+		return hashStrings(parts);
+	}
+	
+	/**
+	 * Computes the content fingerprint of the binaries described by this manifest, combining the content hashes of all
+	 * source files with the compiler options and classpath fingerprints and the main class. Unlike
+	 * {@link #getFingerprint()}, this does not depend on the order in which source files were added to the manifest,
+	 * so two manifests with the same content fingerprint describe binaries compiled from the exact same input.
+	 * @return The content fingerprint as a hexadecimal string.
+	 */
+	public String getContentFingerprint() {
+		List<String> sourceHashes = new ArrayList<String>(this.sources.size());
+		for(SourceEntry entry : this.sources.values()) {
+			sourceHashes.add(entry.path + "\t" + entry.hash);
+		}
+		Collections.sort(sourceHashes);
+		List<String> parts = new ArrayList<String>(sourceHashes.size() + 4);
+		parts.add("content");
+		parts.add(this.optionsFingerprint);
+		parts.add(this.classpathFingerprint);
+		parts.add(this.mainClass == null ? "" : this.mainClass);
+		parts.addAll(sourceHashes);
+		return hashStrings(parts);
+	}
+	
+	/**
+	 * Removes the source manifest from the given binary directory if it exists.
+	 * @param binDir - The binary directory.
+	 * @return {@code true} if the manifest was removed or did not exist, {@code false} otherwise.
+	 */
+	public static boolean remove(File binDir) {
+		File file = new File(binDir, FILE_NAME);
+		return !file.exists() || file.delete();
+	}
+	
+	public String getOptionsFingerprint() {
+		return this.optionsFingerprint;
+	}
+	
+	public void setOptionsFingerprint(String optionsFingerprint) {
+		this.optionsFingerprint = optionsFingerprint;
+	}
+	
+	public String getClasspathFingerprint() {
+		return this.classpathFingerprint;
+	}
+	
+	public void setClasspathFingerprint(String classpathFingerprint) {
+		this.classpathFingerprint = classpathFingerprint;
+	}
+	
+	/**
+	 * Gets the main class of the project, being the single class that extends from JavaLoaderProject.
+	 * @return The binary name of the main class, or {@code null} if it could not be determined during compilation.
+	 */
+	public String getMainClass() {
+		return this.mainClass;
+	}
+	
+	/**
+	 * Sets the main class of the project.
+	 * @param mainClass - The binary name of the main class, or {@code null} if it is unknown.
+	 */
+	public void setMainClass(String mainClass) {
+		this.mainClass = mainClass;
+	}
+	
+	/**
+	 * Computes a mapping from class name to the name of its superclass, for all classes of which the superclass is
+	 * known.
+	 * @return The mapping.
+	 */
+	public Map<String, String> getSuperNames() {
+		Map<String, String> superNames = new HashMap<String, String>();
+		for(SourceEntry entry : this.sources.values()) {
+			superNames.putAll(entry.superNames);
+		}
+		return superNames;
+	}
+	
+	/**
+	 * Gets the source entry for the given relative source path.
+	 * @param path - The source path, relative to the source directory and using '/' as separator.
+	 * @return The source entry or {@code null} if no such entry exists.
+	 */
+	public SourceEntry getSource(String path) {
+		return this.sources.get(path);
+	}
+	
+	/**
+	 * Gets all source entries in this manifest.
+	 * @return The source entries.
+	 */
+	public Collection<SourceEntry> getSources() {
+		return this.sources.values();
+	}
+	
+	/**
+	 * Adds the given source entry, replacing any existing entry with the same path.
+	 * @param entry - The source entry.
+	 */
+	public void putSource(SourceEntry entry) {
+		this.sources.put(entry.path, entry);
+	}
+	
+	/**
+	 * Removes the source entry with the given path if it exists.
+	 * @param path - The source path, relative to the source directory and using '/' as separator.
+	 */
+	public void removeSource(String path) {
+		this.sources.remove(path);
+	}
+	
+	/**
+	 * Computes a mapping from class name to the path of the source that produced it.
+	 * @return The mapping.
+	 */
+	public Map<String, String> getClassOwners() {
+		Map<String, String> owners = new HashMap<String, String>();
+		for(SourceEntry entry : this.sources.values()) {
+			for(String className : entry.classes) {
+				owners.put(className, entry.path);
+			}
+		}
+		return owners;
+	}
+	
+	/**
+	 * Computes the given source paths and all source paths that directly or indirectly reference classes produced by
+	 * them.
+	 * @param paths - The source paths.
+	 * @return The given source paths and their (transitive) dependents within this manifest.
+	 */
+	public Set<String> getDependentClosure(Collection<String> paths) {
+		
+		// Build a reverse reference map from source path to the sources that reference it.
+		Map<String, String> owners = this.getClassOwners();
+		Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+		for(SourceEntry entry : this.sources.values()) {
+			for(String reference : entry.references) {
+				String owner = owners.get(reference);
+				if(owner != null && !owner.equals(entry.path)) {
+					dependents.computeIfAbsent(owner, (String key) -> new HashSet<String>()).add(entry.path);
+				}
+			}
+		}
+		
+		// Collect the closure.
+		Set<String> closure = new HashSet<String>(paths);
+		List<String> stack = new ArrayList<String>(paths);
+		while(!stack.isEmpty()) {
+			Set<String> sourceDependents = dependents.get(stack.remove(stack.size() - 1));
+			if(sourceDependents != null) {
+				for(String dependent : sourceDependents) {
+					if(closure.add(dependent)) {
+						stack.add(dependent);
+					}
+				}
+			}
+		}
+		return closure;
+	}
+	
+	/**
+	 * Computes the SHA-256 hash of the given file.
+	 * @param file - The file.
+	 * @return The hash as a hexadecimal string.
+	 * @throws IOException If an I/O error occurs while reading the file.
+	 */
+	public static String hashFile(File file) throws IOException {
+		MessageDigest digest = newDigest();
+		try(InputStream in = new FileInputStream(file)) {
+			byte[] buffer = new byte[8192];
+			int amount;
+			while((amount = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, amount);
+			}
+		}
+		return toHex(digest.digest());
+	}
+	
+	/**
+	 * Computes the SHA-256 hash of the given strings.
+	 * @param strings - The strings.
+	 * @return The hash as a hexadecimal string.
+	 */
+	public static String hashStrings(Iterable<String> strings) {
+		MessageDigest digest = newDigest();
+		for(String str : strings) {
+			digest.update(str.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		return toHex(digest.digest());
+	}
+	
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new Error(e); // Every Java implementation is required to support SHA-256.
+		}
+	}
+	
+	private static String toHex(byte[] bytes) {
+		StringBuilder str = new StringBuilder(bytes.length * 2);
+		for(byte b : bytes) {
+			str.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return str.toString();
+	}
+	
+	/**
+	 * Represents a single source file in a {@link SourceManifest}.
+	 */
+	public static class SourceEntry {
+		private final String path;
+		private final long lastModified;
+		private final long size;
+		private final String hash;
+		private final boolean hasInlinableConstants;
+		private String apiHash = null;
+		private final List<String> classes = new ArrayList<String>();
+		private final Map<String, String> superNames = new HashMap<String, String>();
+		private final Set<String> references = new HashSet<String>();
+		
+		/**
+		 * Creates a new {@link SourceEntry}.
+		 * @param path - The source path, relative to the source directory and using '/' as separator.
+		 * @param lastModified - The last modified time of the source file.
+		 * @param size - The size of the source file in bytes.
+		 * @param hash - The content hash of the source file.
+		 * @param hasInlinableConstants - Whether a class produced by this source declares an inlinable constant.
+		 */
+		public SourceEntry(String path, long lastModified, long size, String hash, boolean hasInlinableConstants) {
+			this.path = path;
+			this.lastModified = lastModified;
+			this.size = size;
+			this.hash = hash;
+			this.hasInlinableConstants = hasInlinableConstants;
+		}
+		
+		public String getPath() {
+			return this.path;
+		}
+		
+		public long getLastModified() {
+			return this.lastModified;
+		}
+		
+		public long getSize() {
+			return this.size;
+		}
+		
+		public String getHash() {
+			return this.hash;
+		}
+		
+		public boolean hasInlinableConstants() {
+			return this.hasInlinableConstants;
+		}
+		
+		/**
+		 * Gets the hash of the API of the classes produced by this source
+		 * (see {@link ClassFileInfo#getApiDescription()}).
+		 * @return The API hash, or {@code null} if it is unknown (Example: From a manifest of an older version).
+		 */
+		public String getApiHash() {
+			return this.apiHash;
+		}
+		
+		/**
+		 * Sets the hash of the API of the classes produced by this source.
+		 * @param apiHash - The API hash, or {@code null} if it is unknown.
+		 */
+		public void setApiHash(String apiHash) {
+			this.apiHash = apiHash;
+		}
+		
+		/**
+		 * Gets the binary names of the classes produced by this source.
+		 * @return The mutable list of class names.
+		 */
+		public List<String> getClasses() {
+			return this.classes;
+		}
+		
+		/**
+		 * Gets the binary names of the superclasses of the classes produced by this source. Classes without a known
+		 * superclass (Example: From a manifest written by an older version) are absent.
+		 * @return The mutable map from binary class name to binary superclass name.
+		 */
+		public Map<String, String> getSuperNames() {
+			return this.superNames;
+		}
+		
+		/**
+		 * Gets the binary names of the project classes referenced by the classes produced by this source.
+		 * @return The mutable set of class names.
+		 */
+		public Set<String> getReferences() {
+			return this.references;
+		}
+		
+		/**
+		 * Checks whether the given file still matches this entry by size and modification time.
+		 * @param file - The source file.
+		 * @return {@code true} if the file size and modification time match, {@code false} otherwise.
+		 */
+		public boolean matchesStat(File file) {
+			return file.length() == this.size && file.lastModified() == this.lastModified;
+		}
+	}
+}
@@ -1,10 +1,17 @@
 package io.github.pieter12345.javaloader.core.dependency;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import io.github.pieter12345.javaloader.core.JavaProject;
 import io.github.pieter12345.javaloader.core.exceptions.DependencyException;
@@ -15,6 +22,17 @@ import io.github.pieter12345.javaloader.core.exceptions.DependencyException;
  */
 public class ProjectDependencyParser {
 	
+	private static final int PARSE_CACHE_SIZE = 256;
+	private static final Map<String, CachedDependencies> PARSE_CACHE =
+			new LinkedHashMap<String, CachedDependencies>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedDependencies> eldest) {
+			return this.size() > PARSE_CACHE_SIZE;
+		}
+	};
+	
 	/**
 	 * Creates a new {@link ProjectDependencyParser}.
 	 */
@@ -30,37 +48,134 @@ public class ProjectDependencyParser {
 	 * @throws DependencyException If a dependency description is in an invalid format.
 	 */
 	public List<Dependency> parseDependencies(JavaProject project, String dependencyStr) throws DependencyException {
+		return this.parseDependencyEntries(project, tokenize(dependencyStr));
+	}
+	
+	/**
+	 * Reads and parses the given dependencies file and returns the {@link Dependency} objects that represent these
+	 * dependencies. The dependency entries of the file are cached by file path, modification time and size, so that
+	 * reading an unchanged dependencies file again does not read or tokenize the file. The entries are parsed on every
+	 * call, since parsing them can depend on state outside of the file (Example: Which plugins are loaded).
+	 * @param project - The {@link JavaProject} which's dependencies are parsed.
+	 * @param dependencyFile - The dependencies file to read.
+	 * @return A list containing the parsed dependencies. This list is empty if the dependencies file does not exist.
+	 * @throws IOException If an I/O error occurs while reading the dependencies file.
+	 * @throws DependencyException If a dependency description is in an invalid format.
+	 */
+	public List<Dependency> parseDependencies(JavaProject project, File dependencyFile)
+			throws IOException, DependencyException {
 		
-		// Replace cariage returns and tabs with whitespaces.
-		dependencyStr = dependencyStr.replaceAll("[\r\t]", " ");
-		
-		// Remove leading and trailing whitespaces.
-		dependencyStr = dependencyStr.replaceAll("(?<=(^|\n))[ ]+(?! )", "");
-		dependencyStr = dependencyStr.replaceAll("(?<! )[ ]+(?=(\n|$))", "");
-		
-		// Remove comments starting with "//" or "#".
-		dependencyStr = dependencyStr.replaceAll("(\\/\\/|\\#)[^$\n]*(?=(\n|$))", "");
-		
-		// Remove empty lines.
-		dependencyStr = dependencyStr.replaceAll("(?<=(^|\n))[\n]+(?!$)", "");
+		// Get the file attributes that are used to detect changes.
+		String path = dependencyFile.getAbsolutePath();
+		BasicFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(dependencyFile.toPath(), BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			synchronized(PARSE_CACHE) {
+				PARSE_CACHE.remove(path);
+			}
+			return Collections.emptyList(); // No dependencies available.
+		}
+		if(!attrs.isRegularFile()) {
+			return Collections.emptyList(); // No dependencies available.
+		}
+		long lastModified = attrs.lastModifiedTime().toMillis();
+		long size = attrs.size();
 		
-		// Replace backslash file seperators (since these are not guarenteed to work outside of Windows).
-		dependencyStr = dependencyStr.replace('\\', '/');
+		// Get the cached dependency entries if the file has not changed.
+		CachedDependencies cached;
+		synchronized(PARSE_CACHE) {
+			cached = PARSE_CACHE.get(path);
+		}
+		if(cached == null || cached.lastModified != lastModified || cached.size != size) {
+			
+			// Read and tokenize the file.
+			byte[] bytes = Files.readAllBytes(dependencyFile.toPath());
+			cached = new CachedDependencies(lastModified, size,
+					tokenize(new String(bytes, StandardCharsets.UTF_8)));
+			synchronized(PARSE_CACHE) {
+				PARSE_CACHE.put(path, cached);
+			}
+		}
 		
-		// Split and parse the dependencies.
-		if(dependencyStr.isEmpty()) {
+		// Parse the dependencies.
+		return this.parseDependencyEntries(project, cached.entries);
+	}
+	
+	/**
+	 * Parses the given dependency entries using {@link #parseDependency(JavaProject, String)}.
+	 * @param project - The {@link JavaProject} which's dependencies are parsed.
+	 * @param dependencyStrs - The dependency entries.
+	 * @return A list containing the parsed dependencies.
+	 * @throws DependencyException If a dependency entry is in an invalid format.
+	 */
+	private List<Dependency> parseDependencyEntries(
+			JavaProject project, List<String> dependencyStrs) throws DependencyException {
+		if(dependencyStrs.isEmpty()) {
 			return Collections.emptyList();
 		}
-		String[] dependencyStrs = dependencyStr.split("\n");
 		List<Dependency> dependencies = new ArrayList<>();
-		for(int i = 0; i < dependencyStrs.length; i++) {
-			dependencies.addAll(this.parseDependency(project, dependencyStrs[i]));
+		for(String dependencyStr : dependencyStrs) {
+			dependencies.addAll(this.parseDependency(project, dependencyStr));
 		}
-		
-		// Return the dependencies.
 		return dependencies;
 	}
 	
+	/**
+	 * Splits the given dependencies string into its dependency entries in a single pass. Carriage returns and tabs
+	 * are treated as whitespaces, comments starting with "//" or "#" are removed, leading and trailing whitespaces
+	 * are removed, empty lines are skipped and backslash file separators are replaced with forward slashes
+	 * (since these are not guaranteed to work outside of Windows).
+	 * @param dependencyStr - The dependencies string.
+	 * @return The dependency entries.
+	 */
+	private static List<String> tokenize(String dependencyStr) {
+		List<String> entries = new ArrayList<String>();
+		int length = dependencyStr.length();
+		int lineStart = 0;
+		while(lineStart < length) {
+			
+			// Find the end of the line and the end of its content (excluding comments).
+			int lineEnd = dependencyStr.indexOf('\n', lineStart);
+			if(lineEnd == -1) {
+				lineEnd = length;
+			}
+			int contentEnd = lineEnd;
+			for(int i = lineStart; i < lineEnd; i++) {
+				char c = dependencyStr.charAt(i);
+				if(c == '#' || (c == '/' && i + 1 < lineEnd && dependencyStr.charAt(i + 1) == '/')) {
+					contentEnd = i;
+					break;
+				}
+			}
+			
+			// Trim whitespaces.
+			int start = lineStart;
+			while(start < contentEnd && isWhitespace(dependencyStr.charAt(start))) {
+				start++;
+			}
+			int end = contentEnd;
+			while(end > start && isWhitespace(dependencyStr.charAt(end - 1))) {
+				end--;
+			}
+			
+			// Add the entry, normalizing tabs and file separators only when they occur.
+			if(start < end) {
+				String entry = dependencyStr.substring(start, end);
+				if(entry.indexOf('\t') != -1 || entry.indexOf('\r') != -1) {
+					entry = entry.replace('\t', ' ').replace('\r', ' ');
+				}
+				entries.add(entry.replace('\\', '/'));
+			}
+			lineStart = lineEnd + 1;
+		}
+		return entries;
+	}
+	
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\r';
+	}
+	
 	/**
 	 * Parses the given dependency entry and returns the {@link Dependency} objects that it represents.
 	 * @param project - The {@link JavaProject} for which this dependency entry is being parsed.
@@ -126,4 +241,19 @@ public class ProjectDependencyParser {
 		// Dependency format not recognised.
 		throw new DependencyException("Dependency format invalid: " + dependencyStr);
 	}
+	
+	/**
+	 * Represents the cached dependency entries of a dependencies file.
+	 */
+	private static class CachedDependencies {
+		private final long lastModified;
+		private final long size;
+		private final List<String> entries;
+		
+		private CachedDependencies(long lastModified, long size, List<String> entries) {
+			this.lastModified = lastModified;
+			this.size = size;
+			this.entries = entries;
+		}
+	}
 }
@@ -0,0 +1,148 @@
+package io.github.pieter12345.javaloader.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations that supports recording without locking, using log-linear buckets in the same way as an
+ * HDR histogram. Durations are stored with microsecond resolution, where every power of two is split into 32 linear
+ * buckets, so that percentiles are accurate to within about 3% of their value. Durations of more than 2^36
+ * microseconds (about 19 hours) are counted in the last bucket.
+ * Reading from the histogram while durations are being recorded gives results that might not include all of the
+ * concurrently recorded durations.
+ * This class is thread-safe.
+ */
+public class LatencyHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_MAGNITUDE = 35;
+	private static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+	
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	
+	/**
+	 * Records the given duration.
+	 * @param nanos - The duration in nanoseconds. Negative durations are recorded as 0.
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(nanos, 0);
+		this.buckets.incrementAndGet(getBucketIndex(nanos / 1000));
+		this.count.increment();
+		this.totalNanos.add(nanos);
+		this.maxNanos.accumulate(nanos);
+	}
+	
+	/**
+	 * Gets the amount of recorded durations.
+	 * @return The count.
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+	
+	/**
+	 * Gets the sum of all recorded durations.
+	 * @return The total duration in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return this.totalNanos.sum();
+	}
+	
+	/**
+	 * Gets the mean of the recorded durations.
+	 * @return The mean duration in nanoseconds, or 0 if no durations have been recorded.
+	 */
+	public long getMeanNanos() {
+		long count = this.count.sum();
+		return (count == 0 ? 0 : this.totalNanos.sum() / count);
+	}
+	
+	/**
+	 * Gets the longest recorded duration.
+	 * @return The maximum duration in nanoseconds, or 0 if no durations have been recorded.
+	 */
+	public long getMaxNanos() {
+		return this.maxNanos.get();
+	}
+	
+	/**
+	 * Gets the duration at the given percentile. This is the highest duration that falls in the same bucket as the
+	 * duration at the given percentile, limited to the maximum recorded duration.
+	 * @param percentile - The percentile, between 0 and 100 (Example: 99 for the 99th percentile).
+	 * @return The duration in nanoseconds, or 0 if no durations have been recorded.
+	 */
+	public long getPercentileNanos(double percentile) {
+		
+		// Count the durations in the buckets, since the count might include concurrently recorded durations.
+		long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = this.buckets.get(i);
+			total += counts[i];
+		}
+		if(total == 0) {
+			return 0;
+		}
+		
+		// Find the bucket containing the duration at the percentile.
+		long rank = Math.max((long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100d * total), 1);
+		long seen = 0;
+		int index = 0;
+		for(; index < BUCKET_COUNT - 1; index++) {
+			seen += counts[index];
+			if(seen >= rank) {
+				break;
+			}
+		}
+		return Math.min((getHighestValue(index) + 1) * 1000 - 1, this.maxNanos.get());
+	}
+	
+	/**
+	 * Clears all recorded durations.
+	 */
+	public void reset() {
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			this.buckets.set(i, 0);
+		}
+		this.count.reset();
+		this.totalNanos.reset();
+		this.maxNanos.reset();
+	}
+	
+	/**
+	 * Gets the index of the bucket that the given value belongs in. Values below the sub bucket count have their own
+	 * bucket. Higher values are divided over the sub buckets of the power of two that they are in.
+	 * @param value - The value.
+	 * @return The bucket index.
+	 */
+	private static int getBucketIndex(long value) {
+		if(value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		if(magnitude > MAX_MAGNITUDE) {
+			return BUCKET_COUNT - 1;
+		}
+		return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT
+				+ (int) ((value >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT);
+	}
+	
+	/**
+	 * Gets the highest value that belongs in the bucket with the given index.
+	 * @param index - The bucket index.
+	 * @return The highest value.
+	 */
+	private static long getHighestValue(int index) {
+		if(index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_COUNT - 1;
+		long lowestValue = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+		return lowestValue + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,42 @@
+package io.github.pieter12345.javaloader.core.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link ProjectMetrics} of the projects of a project manager, by project name. The metrics of a project
+ * are kept when the project is removed, so that they continue when a project with the same name is added again.
+ * This class is thread-safe.
+ */
+public class MetricsRegistry {
+	
+	private final Map<String, ProjectMetrics> projectMetrics = new ConcurrentHashMap<String, ProjectMetrics>();
+	
+	/**
+	 * Gets the metrics of the project with the given name, creating them if they do not exist yet.
+	 * @param projectName - The project name.
+	 * @return The project metrics.
+	 */
+	public ProjectMetrics getProjectMetrics(String projectName) {
+		return this.projectMetrics.computeIfAbsent(projectName, (String name) -> new ProjectMetrics());
+	}
+	
+	/**
+	 * Gets the metrics of all projects.
+	 * @return An unmodifiable map from project name to project metrics, sorted by project name.
+	 */
+	public Map<String, ProjectMetrics> getAllProjectMetrics() {
+		return Collections.unmodifiableMap(new TreeMap<String, ProjectMetrics>(this.projectMetrics));
+	}
+	
+	/**
+	 * Clears the recorded durations and counters of all projects.
+	 */
+	public void reset() {
+		for(ProjectMetrics metrics : this.projectMetrics.values()) {
+			metrics.reset();
+		}
+	}
+}
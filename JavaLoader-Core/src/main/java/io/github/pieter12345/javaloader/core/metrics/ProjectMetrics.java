@@ -0,0 +1,173 @@
+package io.github.pieter12345.javaloader.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the lifecycle timings and resource counters of a single project. Recording does not lock, so this can be
+ * used on the main thread without affecting it noticeably.
+ * This class is thread-safe.
+ */
+public class ProjectMetrics {
+	
+	private final LatencyHistogram[] timers = new LatencyHistogram[Timer.values().length];
+	private final LongAdder[] counters = new LongAdder[Counter.values().length];
+	
+	/**
+	 * Creates a new {@link ProjectMetrics} without any recorded values.
+	 */
+	public ProjectMetrics() {
+		for(int i = 0; i < this.timers.length; i++) {
+			this.timers[i] = new LatencyHistogram();
+		}
+		for(int i = 0; i < this.counters.length; i++) {
+			this.counters[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * Records the duration of the given lifecycle step.
+	 * @param timer - The lifecycle step.
+	 * @param nanos - The duration in nanoseconds.
+	 */
+	public void record(Timer timer, long nanos) {
+		this.timers[timer.ordinal()].record(nanos);
+	}
+	
+	/**
+	 * Gets the histogram of the recorded durations of the given lifecycle step.
+	 * @param timer - The lifecycle step.
+	 * @return The histogram.
+	 */
+	public LatencyHistogram getTimer(Timer timer) {
+		return this.timers[timer.ordinal()];
+	}
+	
+	/**
+	 * Adds the given amount to the given counter.
+	 * @param counter - The counter.
+	 * @param amount - The amount to add.
+	 */
+	public void increment(Counter counter, long amount) {
+		this.counters[counter.ordinal()].add(amount);
+	}
+	
+	/**
+	 * Gets the value of the given counter.
+	 * @param counter - The counter.
+	 * @return The value.
+	 */
+	public long getCount(Counter counter) {
+		return this.counters[counter.ordinal()].sum();
+	}
+	
+	/**
+	 * Clears all recorded durations and counters.
+	 */
+	public void reset() {
+		for(LatencyHistogram timer : this.timers) {
+			timer.reset();
+		}
+		for(LongAdder counter : this.counters) {
+			counter.reset();
+		}
+	}
+	
+	/**
+	 * Represents a timed lifecycle step of a project.
+	 */
+	public static enum Timer {
+		
+		/**
+		 * Compiling the project, including the steps that JavaLoader performs around the java compiler.
+		 */
+		COMPILE("compile"),
+		
+		/**
+		 * Loading the project, from creating its classloader until its onLoad method has returned.
+		 * For staged reloads, the time between staging and starting the project is not included.
+		 */
+		LOAD("load"),
+		
+		/**
+		 * Calling the getVersion method of the project.
+		 */
+		GET_VERSION("getVersion"),
+		
+		/**
+		 * Calling the onLoad method of the project.
+		 */
+		ON_LOAD("onLoad"),
+		
+		/**
+		 * Unloading the project, from notifying the state listener until its classloader has been closed.
+		 * The time spent unloading its dependents is not included.
+		 */
+		UNLOAD("unload"),
+		
+		/**
+		 * Calling the onUnload method of the project.
+		 */
+		ON_UNLOAD("onUnload");
+		
+		private final String displayName;
+		
+		private Timer(String displayName) {
+			this.displayName = displayName;
+		}
+		
+		/**
+		 * Gets the name of this lifecycle step as shown to users.
+		 * @return The display name.
+		 */
+		public String getDisplayName() {
+			return this.displayName;
+		}
+	}
+	
+	/**
+	 * Represents a counter of a project.
+	 */
+	public static enum Counter {
+		
+		/**
+		 * The amount of compiles that failed.
+		 */
+		COMPILE_FAILURES("compile failures"),
+		
+		/**
+		 * The amount of loads that failed.
+		 */
+		LOAD_FAILURES("load failures"),
+		
+		/**
+		 * The amount of project classes that the classloaders of the project defined. Classes from file dependencies
+		 * are not included.
+		 */
+		CLASSES_DEFINED("classes defined"),
+		
+		/**
+		 * The total size of the project classes that the classloaders of the project defined, in bytes.
+		 */
+		CLASS_BYTES_DEFINED("class bytes defined"),
+		
+		/**
+		 * The total size of the class files that the classloaders of the project read from the bin directory,
+		 * in bytes. Classes that are defined from in-memory binaries are not read.
+		 */
+		CLASS_BYTES_READ("class bytes read");
+		
+		private final String displayName;
+		
+		private Counter(String displayName) {
+			this.displayName = displayName;
+		}
+		
+		/**
+		 * Gets the name of this counter as shown to users.
+		 * @return The display name.
+		 */
+		public String getDisplayName() {
+			return this.displayName;
+		}
+	}
+}
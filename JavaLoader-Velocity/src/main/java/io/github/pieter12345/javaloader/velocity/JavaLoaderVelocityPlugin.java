@@ -61,6 +61,7 @@ public class JavaLoaderVelocityPlugin {
 	private final File projectsDir = new File(
 			"plugins" + File.separator + "EccsJavaLoader" + File.separator + "JavaProjects").getAbsoluteFile();
 	private ProjectStateListener projectStateListener;
+	private CommandExecutor commandExecutor;
 	
 	@Inject
 	public JavaLoaderVelocityPlugin(ProxyServer proxy, Logger logger) {
@@ -135,16 +136,19 @@ public class JavaLoaderVelocityPlugin {
 		};
 		
 		// Register "/javaloaderproxy" command.
-		CommandExecutor commandExecutor = new CommandExecutor(
+		// Velocity has no main thread, so projects are compiled and loaded on a scheduler thread.
+		this.commandExecutor = new CommandExecutor(
 			this.projectManager, this.projectStateListener,
 			null,
 			"/javaloaderproxyecc",
 			Arrays.asList("Pieter12345/Woesh0007", "Ecconia"),
 			VERSION,
 			(String str) -> str.replace('&', '§'), // & is still a rather common character, use § to reduce potential collision.
-			COMPILER_FEEDBACK_LIMIT);
+			COMPILER_FEEDBACK_LIMIT,
+			(Runnable task) -> this.proxy.getScheduler().buildTask(this, task).schedule(),
+			Runnable::run);
 		this.proxy.getCommandManager().register("javaloaderproxyecc",
-				new JavaLoaderProxyCommand(PREFIX_INFO, PREFIX_ERROR, commandExecutor, this.projectManager));
+				new JavaLoaderProxyCommand(PREFIX_INFO, PREFIX_ERROR, this.commandExecutor, this.projectManager));
 		
 		// Loop over all project directories and add them as a JavaProject.
 		this.projectManager.addProjectsFromProjectDirectory(this.projectStateListener);
@@ -175,6 +179,11 @@ public class JavaLoaderVelocityPlugin {
 		// Unregister "/javaloaderproxyecc" command.
 		this.proxy.getCommandManager().unregister("javaloaderproxyecc");
 		
+		// Stop watching for project changes.
+		if(this.commandExecutor != null) {
+			this.commandExecutor.stopWatching();
+		}
+		
 		// Unload all loaded projects and remove them from the project manager.
 		if(this.projectManager != null) {
 			this.projectManager.clear((UnloadException ex) -> {
@@ -185,6 +194,7 @@ public class JavaLoaderVelocityPlugin {
 		}
 		this.projectManager = null;
 		this.projectStateListener = null;
+		this.commandExecutor = null;
 		
 		// Set enabled state.
 		this.enabled = false;
@@ -80,7 +80,8 @@ public class JavaLoaderProxyCommand implements SimpleCommand {
 		// TAB-complete "/javaloaderproxy <arg>".
 		if(args.length <= 1) {
 			List<String> ret = new ArrayList<String>();
-			for(String comp : new String[] {"help", "list", "load", "unload", "recompile", "scan"}) {
+			for(String comp : new String[] {
+					"help", "list", "load", "unload", "recompile", "rollback", "report", "stats", "watch", "scan"}) {
 				if(comp.startsWith(search)) {
 					ret.add(comp);
 				}
@@ -88,7 +89,7 @@ public class JavaLoaderProxyCommand implements SimpleCommand {
 			return ret;
 		}
 		
-		// TAB-complete "/javaloaderproxy <load, unload, recompile> <arg>".
+		// TAB-complete "/javaloaderproxy <load, unload, recompile, rollback> <arg>".
 		if(args.length == 2) {
 			// TAB-complete "/javaloaderproxy load <arg>".
 			if(args[0].equalsIgnoreCase("load")) {
@@ -104,8 +105,9 @@ public class JavaLoaderProxyCommand implements SimpleCommand {
 					.collect(Collectors.toList());
 			}
 			
-			// TAB-complete "/javaloaderproxy recompile <arg>".
-			if(args[0].equalsIgnoreCase("recompile")) {
+			// TAB-complete "/javaloaderproxy <recompile, rollback, report, stats> <arg>".
+			if(args[0].equalsIgnoreCase("recompile") || args[0].equalsIgnoreCase("rollback")
+					|| args[0].equalsIgnoreCase("report") || args[0].equalsIgnoreCase("stats")) {
 				return this.projectManager.getProjectNames().stream()
 					.filter(e -> e.toLowerCase().startsWith(search))
 					.collect(Collectors.toList());
@@ -114,7 +116,8 @@ public class JavaLoaderProxyCommand implements SimpleCommand {
 			// TAB-complete "/javaloader help <arg>".
 			if(args[0].equalsIgnoreCase("help")) {
 				List<String> ret = new ArrayList<String>();
-				for(String comp : new String[]{"help", "list", "recompile", "load", "unload", "scan"})
+				for(String comp : new String[]{
+						"help", "list", "recompile", "rollback", "report", "stats", "watch", "load", "unload", "scan"})
 				{
 					if(comp.toLowerCase().startsWith(search)) {
 						ret.add(comp);
@@ -122,6 +125,18 @@ public class JavaLoaderProxyCommand implements SimpleCommand {
 				}
 				return ret;
 			}
+			
+			// TAB-complete "/javaloaderproxy watch <arg>".
+			if(args[0].equalsIgnoreCase("watch")) {
+				return Arrays.asList("on", "off").stream()
+					.filter(e -> e.startsWith(search))
+					.collect(Collectors.toList());
+			}
+		}
+		
+		// TAB-complete "/javaloaderproxy recompile <project> <arg>".
+		if(args.length == 3 && args[0].equalsIgnoreCase("recompile") && !args[1].equals("*")) {
+			return ("-d".startsWith(search) ? Collections.singletonList("-d") : Collections.<String>emptyList());
 		}
 		
 		// Subcommand without tabcompleter.